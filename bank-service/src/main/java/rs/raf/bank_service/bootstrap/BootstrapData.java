@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.enums.*;
 import rs.raf.bank_service.repository.*;
+import rs.raf.bank_service.service.AmortizationService;
 import rs.raf.bank_service.service.ExchangeRateService;
 
 import java.math.BigDecimal;
@@ -26,6 +27,7 @@ public class BootstrapData implements CommandLineRunner {
     private final LoanRepository loanRepository;
     private final LoanRequestRepository loanRequestRepository;
     private final InstallmentRepository installmentRepository;
+    private final AmortizationService amortizationService;
 
     @Override
     public void run(String... args) {
@@ -410,6 +412,7 @@ public class BootstrapData implements CommandLineRunner {
 
         exchangeRateRepository.saveAll(exchangeRates);
         exchangeRateRepository.saveAll(exchangeRates2);
+        exchangeRateService.refreshRates();
         // Test kursna lista da ne trosimo API pozive
 
 
@@ -457,7 +460,6 @@ public class BootstrapData implements CommandLineRunner {
                 .effectiveInterestRate(new BigDecimal("6.0"))
                 .startDate(LocalDate.now())
                 .dueDate(LocalDate.now().plusMonths(24))
-                .nextInstallmentAmount(new BigDecimal("220"))
                 .nextInstallmentDate(LocalDate.now().plusMonths(1))
                 .remainingDebt(new BigDecimal("500000"))
                 .currency(currencyRSD)
@@ -466,16 +468,10 @@ public class BootstrapData implements CommandLineRunner {
                 .account(currentAccount1)
                 .build();
 
-        loanRepository.save(loan);
-
-        Installment installment = Installment.builder()
-                .amount(new BigDecimal("220"))
-                .installmentStatus(InstallmentStatus.UNPAID)
-                .loan(loan)
-                .expectedDueDate(LocalDate.now().plusMonths(1))
-                .interestRate(new BigDecimal("6.0"))
-                .build();
+        List<Installment> installments = amortizationService.createInstallments(loan, loan.getNextInstallmentDate());
+        loan.setNextInstallmentAmount(installments.get(0).getAmount());
 
-        installmentRepository.save(installment);
+        loanRepository.save(loan);
+        installmentRepository.saveAll(installments);
     }
 }
@@ -0,0 +1,164 @@
+package rs.raf.bank_service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// Near-cache ispred UserClient-a za klijente, firme i ovlascena lica.
+/// Unosi isticu posle TTL-a, a user-service salje user-events pri svakoj izmeni pa se kljuc odmah izbacuje.
+/// Istovremeni promasaji za isti kljuc cekaju jedan poziv ka user-service (Caffeine get sa loader-om).
+@Slf4j
+@Primary
+@Component
+public class CachedUserClient implements UserClient {
+
+    private final UserClient delegate;
+
+    private final Cache<Long, ClientDto> clients;
+    private final Cache<Long, CompanyDto> companies;
+    private final Cache<Long, AuthorizedPersonelDto> authorizedPersonnel;
+
+    // broj izbacivanja klijenata; batch upis u kes se preskace ako se promenio tokom poziva ka user-service
+    private final Object clientInvalidationLock = new Object();
+    private long clientInvalidations;
+
+    public CachedUserClient(@Qualifier("userFeignClient") UserClient delegate,
+                            MeterRegistry meterRegistry,
+                            @Value("${user-client.cache.max-size:10000}") long maxSize,
+                            @Value("${user-client.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.clients = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maxSize, ttlSeconds), "user-client.clients");
+        this.companies = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maxSize, ttlSeconds), "user-client.companies");
+        this.authorizedPersonnel = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maxSize, ttlSeconds), "user-client.authorized-personnel");
+    }
+
+    private static <V> Cache<Long, V> newCache(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // null (404 iz fallback-a) se ne kesira
+    @Override
+    public ClientDto getClientById(Long id) {
+        return clients.get(id, delegate::getClientById);
+    }
+
+    @Override
+    public CompanyDto getCompanyById(Long id) {
+        return companies.get(id, delegate::getCompanyById);
+    }
+
+    @Override
+    public AuthorizedPersonelDto getAuthorizedPersonnelById(Long id) {
+        return authorizedPersonnel.get(id, delegate::getAuthorizedPersonnelById);
+    }
+
+    // klijenti koji su vec u kesu se ne traze ponovo, a ucitani se dodaju u kes.
+    // Poziv ide bez zakljucavanja, pa odgovor moze biti stariji od izmene koja je u medjuvremenu izbacila kljuc -
+    // tada se ucitani klijenti samo vracaju, bez upisa u kes.
+    @Override
+    public UserBatchDto getUsersByIds(UserBatchRequestDto request) {
+        Map<Long, ClientDto> cached = clients.getAllPresent(request.getIds());
+        Set<Long> missing = new HashSet<>(request.getIds());
+        missing.removeAll(cached.keySet());
+
+        long invalidationsBefore;
+        synchronized (clientInvalidationLock) {
+            invalidationsBefore = clientInvalidations;
+        }
+        UserBatchDto result = missing.isEmpty() ? new UserBatchDto() : delegate.getUsersByIds(new UserBatchRequestDto(missing));
+        List<ClientDto> loaded = result.getClients() != null ? result.getClients() : new ArrayList<>();
+        synchronized (clientInvalidationLock) {
+            if (clientInvalidations == invalidationsBefore)
+                loaded.forEach(client -> clients.put(client.getId(), client));
+        }
+        loaded.addAll(cached.values());
+        result.setClients(loaded);
+        return result;
+    }
+
+    // svaka instanca bank-service ima svoj anonimni red vezan za fanout exchange
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(value = RabbitMQConfig.USER_EVENTS_EXCHANGE, type = "fanout")))
+    public void onUserChanged(UserChangedEventDto event) {
+        if (event == null || event.getType() == null || event.getId() == null)
+            return;
+
+        switch (event.getType()) {
+            case CLIENT -> {
+                synchronized (clientInvalidationLock) {
+                    clientInvalidations++;
+                    clients.invalidate(event.getId());
+                }
+            }
+            case COMPANY -> companies.invalidate(event.getId());
+            case AUTHORIZED_PERSONNEL -> authorizedPersonnel.invalidate(event.getId());
+        }
+        log.debug("Evicted {} {} from user-client cache", event.getType(), event.getId());
+    }
+
+    @Override
+    public void checkToken(CheckTokenDto checkTokenDto) {
+        delegate.checkToken(checkTokenDto);
+    }
+
+    @Override
+    public List<AuthorizedPersonelDto> getAuthorizedPersonnelByCompany(Long companyId) {
+        return delegate.getAuthorizedPersonnelByCompany(companyId);
+    }
+
+    @Override
+    public void createVerificationRequest(CreateVerificationRequestDto request) {
+        delegate.createVerificationRequest(request);
+    }
+
+    @Override
+    public LoginResponseDto employeeLogin(LoginRequestDto request) {
+        return delegate.employeeLogin(request);
+    }
+
+    @Override
+    public ClientDto addClient(CreateClientDto createClientDto) {
+        return delegate.addClient(createClientDto);
+    }
+
+    @Override
+    public void activateUser(ActivationRequestDto activationRequestDto) {
+        delegate.activateUser(activationRequestDto);
+    }
+
+    @Override
+    public ResponseEntity<Page<ClientDto>> getAllClients(String firstName, String lastName, String email, int page, int size) {
+        return delegate.getAllClients(firstName, lastName, email, page, size);
+    }
+
+    @Override
+    public LoginResponseDto clientLogin(LoginRequestDto request) {
+        return delegate.clientLogin(request);
+    }
+}
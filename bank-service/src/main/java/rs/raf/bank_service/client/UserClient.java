@@ -7,11 +7,11 @@ import org.springframework.web.bind.annotation.*;
 import rs.raf.bank_service.domain.dto.*;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.*;
 
 
 /// Klasa koja sluzi za slanje HTTP poziva na userService
-@FeignClient(name = "user-service", url = "${spring.cloud.openfeign.client.config.user-service.url}", fallbackFactory = UserClientFallbackFactory.class, decode404 = true)
+@FeignClient(name = "user-service", qualifiers = "userFeignClient", primary = false, url = "${spring.cloud.openfeign.client.config.user-service.url}", fallbackFactory = UserClientFallbackFactory.class, decode404 = true)
 public interface UserClient {
 
     @GetMapping("/api/admin/clients/{id}")
@@ -52,6 +52,28 @@ public interface UserClient {
     @GetMapping("/api/authorized-personnel/{id}")
     AuthorizedPersonelDto getAuthorizedPersonnelById(@PathVariable("id") Long id);
 
+    @PostMapping("/api/admin/users/batch")
+    UserBatchDto getUsersByIds(@RequestBody UserBatchRequestDto request);
+
+    /// Najvise id-jeva po jednom batch pozivu; mora da odgovara @Size na UserBatchRequestDto u user-service
+    int MAX_BATCH_IDS = 1000;
+
+    /// Klijenti za sve id-jeve, u pozivima od najvise MAX_BATCH_IDS (za liste racuna i kartica). Nepostojeci id-jevi nisu u mapi.
+    default Map<Long, ClientDto> getClientsByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty())
+            return Collections.emptyMap();
+
+        Map<Long, ClientDto> clients = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_BATCH_IDS) {
+            Set<Long> chunk = new HashSet<>(distinctIds.subList(from, Math.min(from + MAX_BATCH_IDS, distinctIds.size())));
+            UserBatchDto batch = getUsersByIds(new UserBatchRequestDto(chunk));
+            if (batch != null && batch.getClients() != null)
+                batch.getClients().forEach(client -> clients.putIfAbsent(client.getId(), client));
+        }
+        return clients;
+    }
+
 }
 
 
@@ -72,6 +72,12 @@ public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
                 return null;
             }
 
+            @Override
+            public UserBatchDto getUsersByIds(UserBatchRequestDto request) {
+                // user-service nedostupan: prazan rezultat, liste se prikazuju bez podataka o vlasnicima umesto da padnu
+                return new UserBatchDto();
+            }
+
 
         };
     }
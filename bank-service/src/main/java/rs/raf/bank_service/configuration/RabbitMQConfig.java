@@ -1,5 +1,8 @@
 package rs.raf.bank_service.configuration;
 
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -7,14 +10,50 @@ import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import rs.raf.bank_service.service.TransactionPartitioner;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMQConfig {
     public static final String TRANSACTION_QUEUE = "transaction-queue";
+    // fanout exchange na koji user-service objavljuje izmene klijenata, firmi i ovlascenih lica
+    public static final String USER_EVENTS_EXCHANGE = "user-events";
+    // trajni red bank-service za user-events koji azurira account_owners (jedan za sve instance)
+    public static final String ACCOUNT_OWNER_EVENTS_QUEUE = "bank-service.account-owners";
+    // fanout exchange preko kog instance bank-service javljaju jedna drugoj da su kursevi izmenjeni
+    public static final String EXCHANGE_RATE_EVENTS_EXCHANGE = "exchange-rate-events";
+    // fanout exchange preko kog instance bank-service javljaju jedna drugoj da je kartica kreirana ili joj je promenjen status
+    public static final String CARD_EVENTS_EXCHANGE = "card-events";
+    // zahtevi za verifikaciju koje user-service cita u batch-evima (umesto blokirajuceg poziva UserClient-a)
+    public static final String VERIFICATION_REQUEST_QUEUE = "verification-requests";
+
+    // transaction-queue.0 ... transaction-queue.N-1, svaka particija ima svog consumer-a
+    @Bean
+    public Declarables transactionQueues(TransactionPartitioner transactionPartitioner) {
+        List<Declarable> queues = new ArrayList<>();
+        for (int i = 0; i < transactionPartitioner.getPartitions(); i++) {
+            queues.add(new Queue(transactionPartitioner.queueName(i), true));
+        }
+        return new Declarables(queues);
+    }
+
+    // deklarise se i ovde da poruke ne bi bile odbacene ako bank-service krene pre user-service
+    @Bean
+    public Queue verificationRequestQueue() {
+        return new Queue(VERIFICATION_REQUEST_QUEUE, true);
+    }
+
+    // deklarise se unapred da outbox relay ne bi slao na nepostojeci exchange pre prvog listener-a
+    @Bean
+    public FanoutExchange exchangeRateEventsExchange() {
+        return new FanoutExchange(EXCHANGE_RATE_EVENTS_EXCHANGE, true, false);
+    }
 
     @Bean
-    public Queue transactionQueue() {
-        return new Queue(TRANSACTION_QUEUE, true);
+    public FanoutExchange cardEventsExchange() {
+        return new FanoutExchange(CARD_EVENTS_EXCHANGE, true, false);
     }
 
     @Bean
@@ -22,6 +61,7 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter();
     }
 
+    // prefetch 1 i jedan consumer po kontejneru cuvaju redosled unutar particije
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
@@ -32,4 +72,4 @@ public class RabbitMQConfig {
         factory.setMaxConcurrentConsumers(1);
         return factory;
     }
-}
\ No newline at end of file
+}
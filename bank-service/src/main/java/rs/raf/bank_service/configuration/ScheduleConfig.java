@@ -1,8 +1,10 @@
 package rs.raf.bank_service.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -12,4 +14,10 @@ public class ScheduleConfig {
     public ScheduledExecutorService scheduledExecutorService() {
         return Executors.newSingleThreadScheduledExecutor();
     }
+
+    // radnici za paralelni obracun novih kamatnih stopa (LoanRepricingService)
+    @Bean
+    public ExecutorService loanRepricingExecutor(@Value("${loan.repricing.workers:4}") int workers) {
+        return Executors.newFixedThreadPool(workers);
+    }
 }
@@ -43,10 +43,13 @@ public class SpringSecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/swagger-ui.html").permitAll()
                 .antMatchers("/swagger-ui/**").permitAll()
                 .antMatchers("/api-docs/**").permitAll()
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .antMatchers("/api/account/**").hasAnyRole("EMPLOYEE", "CLIENT")
                 .antMatchers("/api/account/*/cards/**").hasAnyRole("EMPLOYEE", "CLIENT")
                 .antMatchers("/api/payees/**").hasAnyRole("EMPLOYEE", "CLIENT")
                 .antMatchers("/api/payment/**").hasAnyRole("EMPLOYEE", "CLIENT")
+                .antMatchers("/api/standing-orders/**").hasRole("CLIENT")
                 .antMatchers("/api/exchange-rates/**").authenticated()
                 .antMatchers("/api/installments/**").authenticated()
                 .antMatchers("/api/loans/**").hasAnyRole("ADMIN", "CLIENT")
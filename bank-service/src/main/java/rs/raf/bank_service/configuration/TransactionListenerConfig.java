@@ -0,0 +1,43 @@
+package rs.raf.bank_service.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.service.TransactionPartitioner;
+import rs.raf.bank_service.service.TransactionProcessor;
+
+/// Registruje po jedan listener kontejner za svaku particiju transaction-queue
+@Configuration
+@RequiredArgsConstructor
+public class TransactionListenerConfig implements RabbitListenerConfigurer {
+
+    private final TransactionPartitioner transactionPartitioner;
+    private final SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory;
+    private final MessageConverter jsonMessageConverter;
+    // TransactionProcessor zavisi od servisa koji koriste RabbitTemplate, pa ga uzimamo tek pri obradi poruke
+    private final ObjectProvider<TransactionProcessor> transactionProcessor;
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int i = 0; i < transactionPartitioner.getPartitions(); i++) {
+            int partition = i;
+
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(transactionPartitioner.queueName(partition));
+            endpoint.setQueueNames(transactionPartitioner.queueName(partition));
+            endpoint.setMessageListener(message -> {
+                TransactionMessageDto dto = (TransactionMessageDto) jsonMessageConverter.fromMessage(message);
+                transactionProcessor.getObject().processTransaction(dto);
+                transactionPartitioner.recordProcessed(partition, dto.getTimestamp());
+            });
+
+            registrar.registerEndpoint(endpoint, rabbitListenerContainerFactory);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package rs.raf.bank_service.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.bank_service.domain.dto.BulkPaymentLineDto;
+import rs.raf.bank_service.domain.dto.BulkPaymentOrderDto;
+import rs.raf.bank_service.domain.dto.CreateBulkPaymentDto;
+import rs.raf.bank_service.domain.enums.BulkPaymentLineStatus;
+import rs.raf.bank_service.exceptions.InsufficientFundsException;
+import rs.raf.bank_service.exceptions.RejectNonPendingRequestException;
+import rs.raf.bank_service.exceptions.SenderAccountNotFoundException;
+import rs.raf.bank_service.service.BulkPaymentService;
+import rs.raf.bank_service.utils.JwtTokenUtil;
+
+import javax.validation.Valid;
+
+@Tag(name = "Bulk payment controller", description = "API for submitting and tracking batch payment orders from company accounts")
+@RestController
+@RequestMapping("/api/payment/bulk")
+@AllArgsConstructor
+public class BulkPaymentController {
+
+    private final BulkPaymentService bulkPaymentService;
+    private final JwtTokenUtil jwtTokenUtil;
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @PostMapping
+    @Operation(summary = "Submit bulk payment", description = "Validates all lines of a batch payment file and creates one order " +
+            "waiting for a single verification.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Bulk payment created, waiting for confirmation"),
+            @ApiResponse(responseCode = "400", description = "Invalid lines, insufficient funds or spending limit exceeded"),
+            @ApiResponse(responseCode = "404", description = "Sender account not found")
+    })
+    public ResponseEntity<?> createBulkPayment(@Valid @RequestBody CreateBulkPaymentDto dto,
+                                               @RequestHeader("Authorization") String token) throws JsonProcessingException {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(bulkPaymentService.createBulkPayment(dto, clientId));
+        } catch (SenderAccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InsufficientFundsException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping
+    @Operation(summary = "Get bulk payments", description = "Returns the client's bulk payment orders, newest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bulk payments returned successfully")
+    })
+    public ResponseEntity<Page<BulkPaymentOrderDto>> getBulkPayments(@RequestHeader("Authorization") String token,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "10") int size) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(bulkPaymentService.getBulkPayments(clientId,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"))));
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping("/{id}")
+    @Operation(summary = "Get bulk payment", description = "Returns the status and progress of a bulk payment order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bulk payment returned successfully"),
+            @ApiResponse(responseCode = "404", description = "Bulk payment not found")
+    })
+    public ResponseEntity<BulkPaymentOrderDto> getBulkPayment(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(bulkPaymentService.getBulkPayment(id, clientId));
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping("/{id}/lines")
+    @Operation(summary = "Get bulk payment lines", description = "Returns per-line results of a bulk payment, optionally filtered by status.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lines returned successfully"),
+            @ApiResponse(responseCode = "404", description = "Bulk payment not found")
+    })
+    public ResponseEntity<Page<BulkPaymentLineDto>> getBulkPaymentLines(@RequestHeader("Authorization") String token,
+                                                                        @PathVariable Long id,
+                                                                        @RequestParam(required = false) BulkPaymentLineStatus status,
+                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "50") int size) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(bulkPaymentService.getBulkPaymentLines(id, clientId, status,
+                PageRequest.of(page, size, Sort.by("lineNumber"))));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/confirm/{id}")
+    @Operation(summary = "Confirm bulk payment", description = "Starts execution of a verified bulk payment.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bulk payment execution started"),
+            @ApiResponse(responseCode = "400", description = "Bulk payment is not pending confirmation"),
+            @ApiResponse(responseCode = "404", description = "Bulk payment not found")
+    })
+    public ResponseEntity<String> confirmBulkPayment(@PathVariable Long id) {
+        if (bulkPaymentService.confirmBulkPayment(id))
+            return ResponseEntity.ok("Bulk payment execution started.");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Bulk payment is not pending confirmation.");
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reject/{id}")
+    @Operation(summary = "Reject bulk payment", description = "Cancels a bulk payment waiting for verification.")
+    public ResponseEntity<String> rejectBulkPayment(@PathVariable Long id) {
+        try {
+            bulkPaymentService.rejectBulkPayment(id);
+            return ResponseEntity.ok("Bulk payment rejected successfully.");
+        } catch (RejectNonPendingRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
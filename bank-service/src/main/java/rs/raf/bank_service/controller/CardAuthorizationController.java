@@ -0,0 +1,57 @@
+package rs.raf.bank_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.bank_service.domain.dto.CardAuthorizationDto;
+import rs.raf.bank_service.domain.dto.CardAuthorizationRequestDto;
+import rs.raf.bank_service.service.CardAuthorizationService;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/card-authorizations")
+@AllArgsConstructor
+public class CardAuthorizationController {
+
+    private final CardAuthorizationService cardAuthorizationService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    @Operation(summary = "Authorize card spend", description = "Checks card status, expiry, card limit and available balance and places a hold. Declines are returned with status DECLINED and a reason.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Authorization approved (HELD) or declined"),
+            @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<CardAuthorizationDto> authorize(@Valid @RequestBody CardAuthorizationRequestDto request) {
+        return ResponseEntity.ok(cardAuthorizationService.authorize(request));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/capture")
+    @Operation(summary = "Capture card authorization", description = "Books the held amount as a card payment.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Authorization captured"),
+            @ApiResponse(responseCode = "404", description = "Authorization not found"),
+            @ApiResponse(responseCode = "409", description = "Authorization is not held")
+    })
+    public ResponseEntity<CardAuthorizationDto> capture(@PathVariable Long id) {
+        return ResponseEntity.ok(cardAuthorizationService.capture(id));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/release")
+    @Operation(summary = "Release card authorization", description = "Releases the hold without booking a payment.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Authorization released"),
+            @ApiResponse(responseCode = "404", description = "Authorization not found"),
+            @ApiResponse(responseCode = "409", description = "Authorization is not held")
+    })
+    public ResponseEntity<CardAuthorizationDto> release(@PathVariable Long id) {
+        return ResponseEntity.ok(cardAuthorizationService.release(id));
+    }
+}
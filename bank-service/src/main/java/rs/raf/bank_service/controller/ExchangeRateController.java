@@ -8,22 +8,32 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import rs.raf.bank_service.domain.dto.ConvertDto;
 import rs.raf.bank_service.domain.dto.ExchangeRateDto;
+import rs.raf.bank_service.domain.dto.SetExchangeRateDto;
 import rs.raf.bank_service.exceptions.CurrencyNotFoundException;
 import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
 import rs.raf.bank_service.exceptions.UserNotAClientException;
 import rs.raf.bank_service.service.ExchangeRateService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Tag(name = "Exchange rate controller", description = "API for retrieving exchange rates")
+@Validated
 @RestController
 @RequestMapping("/api/exchange-rates")
 @AllArgsConstructor
 public class ExchangeRateController {
 
+    // gornja granica za jedan batch zahtev, da jedan poziv ne bi zauzeo nit proizvoljno dugo;
+    // stock-service BankClient.MAX_CONVERT_BATCH_SIZE deli zahteve po ovoj granici
+    private static final int MAX_BATCH_SIZE = 100;
+
     private ExchangeRateService exchangeRateService;
 
     @PreAuthorize("isAuthenticated()")
@@ -60,6 +70,27 @@ public class ExchangeRateController {
     }
 
 
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/convert/batch")
+    @Operation(summary = "Convert amounts in batch", description = "Converts a list of amounts in one request, results are returned in request order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully converted"),
+            @ApiResponse(responseCode = "400", description = "Empty batch or more than 100 conversions"),
+            @ApiResponse(responseCode = "404", description = "Currency or exchange rate not found"),
+            @ApiResponse(responseCode = "500", description = "Conversion failed")
+    })
+    public ResponseEntity<?> convertBatch(
+            @RequestBody @NotEmpty(message = "Batch cannot be empty")
+            @Size(max = MAX_BATCH_SIZE, message = "Batch cannot contain more than " + MAX_BATCH_SIZE + " conversions")
+            List<@Valid ConvertDto> convertDtos) {
+        try {
+            return ResponseEntity.ok(exchangeRateService.convertBatch(convertDtos));
+        } catch (ExchangeRateNotFoundException | CurrencyNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+    }
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Get exchange rate", description = "Returns the exchange rate between two currencies")
     @ApiResponses(value = {
@@ -81,6 +112,20 @@ public class ExchangeRateController {
         }
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Set exchange rate", description = "Manually sets the exchange rate between two currencies")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exchange rate updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Currency not found")
+    })
+    @PutMapping("/{fromCurrency}/{toCurrency}")
+    public ResponseEntity<?> setExchangeRate(
+            @PathVariable String fromCurrency,
+            @PathVariable String toCurrency,
+            @RequestBody @Valid SetExchangeRateDto setExchangeRateDto) {
+        return ResponseEntity.ok(exchangeRateService.setExchangeRate(fromCurrency, toCurrency, setExchangeRateDto));
+    }
+
 
     /// ExceptionHandlers
     @ExceptionHandler(ExchangeRateNotFoundException.class)
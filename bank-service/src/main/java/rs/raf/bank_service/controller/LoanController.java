@@ -8,18 +8,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import rs.raf.bank_service.domain.dto.InstallmentDto;
-import rs.raf.bank_service.domain.dto.LoanDto;
-import rs.raf.bank_service.domain.dto.LoanShortDto;
+import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.enums.LoanStatus;
 import rs.raf.bank_service.domain.enums.LoanType;
 import rs.raf.bank_service.exceptions.*;
+import rs.raf.bank_service.service.LoanRepricingService;
 import rs.raf.bank_service.service.LoanService;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,9 +29,11 @@ import java.util.Optional;
 @RequestMapping("/api/loans")
 public class LoanController {
     private final LoanService loanService;
+    private final LoanRepricingService loanRepricingService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanRepricingService loanRepricingService) {
         this.loanService = loanService;
+        this.loanRepricingService = loanRepricingService;
     }
 
     @PreAuthorize("hasRole('CLIENT')")
@@ -73,6 +76,29 @@ public class LoanController {
         }
     }
 
+    @PreAuthorize("hasRole('CLIENT') or hasRole('EMPLOYEE')")
+    @Operation(summary = "Get loan amortization schedule", description = "Full repayment plan with interest and principal split per installment.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Schedule retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Loan not found")
+    })
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<LoanScheduleDto> getLoanSchedule(@PathVariable Long id) {
+        return ResponseEntity.ok(loanService.getLoanSchedule(id));
+    }
+
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    @Operation(summary = "Project expected installment inflows", description = "Open installments grouped by month and currency.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Projection retrieved successfully")
+    })
+    @GetMapping("/projection")
+    public ResponseEntity<List<LoanBookProjectionDto>> getLoanBookProjection(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(loanService.getLoanBookProjection(from, to));
+    }
+
     // nema provere autorizacije sry mozda nekad fixati
     @PreAuthorize("hasRole('CLIENT') or hasRole('EMPLOYEE')")
     @Operation(summary = "Get loan by ID")
@@ -108,6 +134,16 @@ public class LoanController {
         }
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get variable rate repricing status", description = "Progress and throughput of the current or last repricing run.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Repricing status retrieved successfully")
+    })
+    @GetMapping("/repricing")
+    public ResponseEntity<LoanRepricingStatusDto> getRepricingStatus() {
+        return ResponseEntity.ok(loanRepricingService.getStatus());
+    }
+
     @PreAuthorize("hasRole('EMPLOYEE')")
     @Operation(summary = "Get all loans")
     @ApiResponses({
@@ -64,8 +64,12 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Receiver account not found: " + e.getMessage());
         } catch (InsufficientFundsException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Insufficient funds: " + e.getMessage());
+        } catch (SpendingLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (NotSameCurrencyForTransferException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Currency mismatch: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + e.getMessage());
         }
@@ -120,7 +124,7 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.OK).body( paymentService.createPaymentBeforeConfirmation(dto, clientId));
         } catch (PaymentCodeNotProvidedException | PurposeOfPaymentNotProvidedException |
                  SenderAccountNotFoundException | ReceiverAccountNotFoundException | InsufficientFundsException |
-                 JsonProcessingException e) {
+                 SpendingLimitExceededException | JsonProcessingException | IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
@@ -196,6 +200,29 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping("/cursor")
+    @Operation(summary = "Get payments by cursor", description = "Keyset paginated payment history, newest first. Pass nextCursor from the previous response to get the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payments returned successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+    })
+    public ResponseEntity<PaymentCursorPageDto> getPaymentsByCursor(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) PaymentStatus paymentStatus,
+            @RequestParam(required = false) String accountNumber,
+            @RequestParam(required = false) String cardNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(paymentService.getPaymentsByCursor(token, startDate, endDate, minAmount, maxAmount,
+                paymentStatus, accountNumber, cardNumber, cursor, size));
+    }
+
     @PreAuthorize("hasRole('CLIENT')")
     @GetMapping("/{id}")
     @Operation(summary = "Get payment details", description = "Get payment details.")
@@ -223,6 +250,11 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
     }
 
+    @ExceptionHandler(InvalidPaymentCursorException.class)
+    public ResponseEntity<String> handleInvalidPaymentCursorException(InvalidPaymentCursorException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error occurred.");
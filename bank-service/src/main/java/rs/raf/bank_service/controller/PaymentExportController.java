@@ -0,0 +1,50 @@
+package rs.raf.bank_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rs.raf.bank_service.domain.enums.StatementFormat;
+import rs.raf.bank_service.service.PaymentExportService;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/payment/export")
+@AllArgsConstructor
+public class PaymentExportController {
+
+    private final PaymentExportService paymentExportService;
+
+    @PreAuthorize("hasAnyRole('CLIENT', 'EMPLOYEE')")
+    @GetMapping
+    @Operation(summary = "Export payment history", description = "Streams all payments of an account, oldest first, as CSV or JSON Lines. " +
+            "Clients can export only their own accounts.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "404", description = "Account not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestHeader("Authorization") String token,
+            @RequestParam String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") StatementFormat format
+    ) {
+        paymentExportService.checkAccess(token, accountNumber);
+
+        StreamingResponseBody body = out -> paymentExportService.export(accountNumber, startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payments-" + accountNumber + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,45 @@
+package rs.raf.bank_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.bank_service.domain.dto.CacheRegionStatsDto;
+import rs.raf.bank_service.service.ReferenceDataCache;
+
+import java.util.List;
+
+@Tag(name = "Reference data cache controller", description = "API for second-level cache statistics and eviction")
+@RestController
+@RequestMapping("/api/cache")
+@AllArgsConstructor
+public class ReferenceDataCacheController {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    @Operation(summary = "Get cache statistics", description = "Returns hits, misses, puts and hit ratio for each reference data cache region")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    })
+    public ResponseEntity<List<CacheRegionStatsDto>> getStatistics() {
+        return ResponseEntity.ok(referenceDataCache.getStatistics());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{group}")
+    @Operation(summary = "Evict cache", description = "Evicts currencies, exchange-rates or all after changes made outside the application")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Cache evicted"),
+            @ApiResponse(responseCode = "404", description = "Unknown cache group")
+    })
+    public ResponseEntity<Void> evict(@PathVariable String group) {
+        referenceDataCache.evict(group);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,89 @@
+package rs.raf.bank_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.bank_service.domain.dto.CreateStandingOrderDto;
+import rs.raf.bank_service.domain.dto.StandingOrderDto;
+import rs.raf.bank_service.exceptions.ReceiverAccountNotFoundException;
+import rs.raf.bank_service.exceptions.SenderAccountNotFoundException;
+import rs.raf.bank_service.service.StandingOrderService;
+import rs.raf.bank_service.utils.JwtTokenUtil;
+
+import javax.validation.Valid;
+
+@Tag(name = "Standing order controller", description = "API for recurring and future-dated payments")
+@RestController
+@RequestMapping("/api/standing-orders")
+@AllArgsConstructor
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+    private final JwtTokenUtil jwtTokenUtil;
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @PostMapping
+    @Operation(summary = "Create standing order", description = "Creates a recurring or future-dated payment executed on its schedule.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Standing order created"),
+            @ApiResponse(responseCode = "400", description = "Invalid schedule or amount"),
+            @ApiResponse(responseCode = "404", description = "Sender or receiver account not found")
+    })
+    public ResponseEntity<?> createStandingOrder(@Valid @RequestBody CreateStandingOrderDto dto,
+                                                 @RequestHeader("Authorization") String token) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(standingOrderService.createStandingOrder(dto, clientId));
+        } catch (SenderAccountNotFoundException | ReceiverAccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping
+    @Operation(summary = "Get standing orders", description = "Returns the client's standing orders, newest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Standing orders returned successfully")
+    })
+    public ResponseEntity<Page<StandingOrderDto>> getStandingOrders(@RequestHeader("Authorization") String token,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "10") int size) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(standingOrderService.getStandingOrders(clientId,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"))));
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @GetMapping("/{id}")
+    @Operation(summary = "Get standing order", description = "Returns the schedule and the result of the last execution.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Standing order returned successfully"),
+            @ApiResponse(responseCode = "404", description = "Standing order not found")
+    })
+    public ResponseEntity<StandingOrderDto> getStandingOrder(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(standingOrderService.getStandingOrder(id, clientId));
+    }
+
+    @PreAuthorize("hasRole('CLIENT')")
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel standing order", description = "Stops all future executions of a standing order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Standing order canceled"),
+            @ApiResponse(responseCode = "400", description = "Standing order is not active"),
+            @ApiResponse(responseCode = "404", description = "Standing order not found")
+    })
+    public ResponseEntity<StandingOrderDto> cancelStandingOrder(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        return ResponseEntity.ok(standingOrderService.cancelStandingOrder(id, clientId));
+    }
+}
@@ -0,0 +1,33 @@
+package rs.raf.bank_service.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.domain.dto.TransactionPartitionStatsDto;
+import rs.raf.bank_service.domain.dto.TransactionPipelineStatsDto;
+import rs.raf.bank_service.service.TransactionMetrics;
+import rs.raf.bank_service.service.TransactionPartitioner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// GET /actuator/transactions - pregled obrade transaction-queue po tipu i po particiji (samo ADMIN, SpringSecurityConfig).
+/// Pojedinacne metrike (transaction.queue.lag, transaction.processing, ...) su i na /actuator/metrics.
+@Component
+@Endpoint(id = "transactions")
+@AllArgsConstructor
+public class TransactionMetricsEndpoint {
+
+    private final TransactionMetrics transactionMetrics;
+    private final TransactionPartitioner transactionPartitioner;
+
+    @ReadOperation
+    public TransactionPipelineStatsDto transactions() {
+        List<TransactionPartitionStatsDto> partitions = new ArrayList<>();
+        for (int i = 0; i < transactionPartitioner.getPartitions(); i++)
+            partitions.add(new TransactionPartitionStatsDto(transactionPartitioner.queueName(i),
+                    transactionPartitioner.getProcessed(i), transactionPartitioner.getLastLagMs(i)));
+        return new TransactionPipelineStatsDto(transactionMetrics.getStatistics(), partitions);
+    }
+}
@@ -0,0 +1,35 @@
+package rs.raf.bank_service.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import rs.raf.bank_service.domain.dto.TransactionPartitionDto;
+import rs.raf.bank_service.service.TransactionQueueService;
+
+import java.util.List;
+
+@Tag(name = "Transaction queue controller", description = "API for monitoring transaction queue partitions")
+@RestController
+@RequestMapping("/api/transaction-queue")
+@AllArgsConstructor
+public class TransactionQueueController {
+
+    private final TransactionQueueService transactionQueueService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/partitions")
+    @Operation(summary = "Get partition lag", description = "Returns pending messages and processing lag for each transaction queue partition")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Partitions retrieved successfully")
+    })
+    public ResponseEntity<List<TransactionPartitionDto>> getPartitions() {
+        return ResponseEntity.ok(transactionQueueService.getPartitions());
+    }
+}
@@ -0,0 +1,17 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/// Opseg stavki grupnog placanja (redni brojevi, ukljucivo) koji particija izvrsava jednim knjizenjem
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentChunkDto {
+    private Long orderId;
+    private int firstLine;
+    private int lastLine;
+}
@@ -0,0 +1,25 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.bank_service.domain.enums.BulkPaymentLineStatus;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentLineDto {
+    private int lineNumber;
+    private String receiverAccountNumber;
+    private String receiverName;
+    private BigDecimal amount;
+    private BigDecimal outAmount;
+    private String paymentCode;
+    private String purposeOfPayment;
+    private String referenceNumber;
+    private BulkPaymentLineStatus status;
+    private String failureReason;
+    private Long paymentId;
+}
@@ -0,0 +1,19 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentLineRequestDto {
+    private String receiverAccountNumber;
+    private String receiverName;
+    private BigDecimal amount;
+    private String paymentCode;
+    private String purposeOfPayment;
+    private String referenceNumber;
+}
@@ -0,0 +1,26 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.bank_service.domain.enums.BulkPaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentOrderDto {
+    private Long id;
+    private String senderAccountNumber;
+    private String currencyCode;
+    private BulkPaymentStatus status;
+    private int lineCount;
+    private BigDecimal totalAmount;
+    private int linesCompleted;
+    private int linesFailed;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private LocalDateTime finishedAt;
+}
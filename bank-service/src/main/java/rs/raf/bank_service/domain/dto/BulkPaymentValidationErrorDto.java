@@ -0,0 +1,15 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentValidationErrorDto {
+    private String error;
+    private List<BulkPaymentLineErrorDto> lines;
+}
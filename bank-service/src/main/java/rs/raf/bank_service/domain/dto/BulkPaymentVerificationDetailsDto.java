@@ -0,0 +1,15 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class BulkPaymentVerificationDetailsDto {
+    String fromAccountNumber;
+    int lineCount;
+    BigDecimal totalAmount;
+    String currencyCode;
+}
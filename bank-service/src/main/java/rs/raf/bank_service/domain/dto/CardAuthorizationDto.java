@@ -0,0 +1,24 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import rs.raf.bank_service.domain.enums.CardAuthorizationStatus;
+import rs.raf.bank_service.domain.enums.CardDeclineReason;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAuthorizationDto {
+    private Long id;
+    private String cardNumber;
+    private BigDecimal amount;
+    private String currencyCode;
+    private CardAuthorizationStatus status;
+    /// Samo za DECLINED
+    private CardDeclineReason declineReason;
+}
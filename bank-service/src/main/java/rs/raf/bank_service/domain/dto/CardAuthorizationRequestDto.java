@@ -0,0 +1,30 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAuthorizationRequestDto {
+    @NotBlank(message = "Card number is required.")
+    private String cardNumber;
+
+    @NotBlank(message = "CVV is required.")
+    private String cvv;
+
+    /// Iznos u valuti racuna kartice
+    @NotNull(message = "Amount is required.")
+    @Positive(message = "Amount must be positive.")
+    private BigDecimal amount;
+
+    private String merchant;
+}
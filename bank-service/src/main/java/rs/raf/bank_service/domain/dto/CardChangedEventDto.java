@@ -0,0 +1,15 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/// Poruka sa card-events exchange-a: kartica je kreirana ili joj je promenjen status, instance je ponovo citaju iz baze
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardChangedEventDto {
+    private String cardNumber;
+}
@@ -15,6 +15,8 @@ public class ClientDto {
     private String firstName;
     private String lastName;
     private String email;
+    // verzija klijenta u user-service u trenutku citanja
+    private Long version;
 
     public ClientDto(long id, String firstName, String lastName) {
         this.id = id;
@@ -0,0 +1,17 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/// Stavke se ne validiraju anotacijama - BulkPaymentService proverava ceo fajl i vraca greske svih stavki odjednom
+@Data
+public class CreateBulkPaymentDto {
+    @NotBlank(message = "Sender account number is required.")
+    private String senderAccountNumber;
+
+    @NotEmpty(message = "At least one payment line is required.")
+    private List<BulkPaymentLineRequestDto> lines;
+}
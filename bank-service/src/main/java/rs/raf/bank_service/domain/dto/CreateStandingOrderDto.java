@@ -0,0 +1,43 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.Data;
+import rs.raf.bank_service.domain.enums.StandingOrderFrequency;
+
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class CreateStandingOrderDto {
+    @NotBlank(message = "Sender account number is required.")
+    private String senderAccountNumber;
+
+    @NotBlank(message = "Receiver account number is required.")
+    private String receiverAccountNumber;
+
+    private String receiverName;
+
+    @NotNull(message = "Amount is required.")
+    @Positive(message = "Amount must be positive.")
+    private BigDecimal amount;
+
+    @NotBlank(message = "Payment code cannot be empty.")
+    private String paymentCode;
+
+    @NotBlank(message = "Purpose of payment cannot be empty.")
+    private String purposeOfPayment;
+
+    private String referenceNumber;
+
+    @NotNull(message = "Frequency is required.")
+    private StandingOrderFrequency frequency;
+
+    @NotNull(message = "Start date is required.")
+    @FutureOrPresent(message = "Start date cannot be in the past.")
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+}
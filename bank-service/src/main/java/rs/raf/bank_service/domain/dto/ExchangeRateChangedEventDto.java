@@ -0,0 +1,17 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/// Poruka sa exchange-rate-events exchange-a: kursevi su izmenjeni, svaka instanca ponovo pravi svoju matricu
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateChangedEventDto {
+    // null kod dnevnog osvezavanja cele liste
+    private String fromCurrencyCode;
+    private String toCurrencyCode;
+}
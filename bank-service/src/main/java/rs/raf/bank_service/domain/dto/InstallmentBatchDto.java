@@ -0,0 +1,18 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/// Krediti jednog chunk-a cije racune obradjuje ista particija transaction-queue
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstallmentBatchDto {
+    private Long runId;
+    private List<Long> loanIds;
+}
@@ -15,8 +15,12 @@ import java.time.LocalDate;
 @Builder
 public class InstallmentDto {
 
+    private Integer installmentNumber;
     private BigDecimal amount;
     private BigDecimal interestRate;
+    private BigDecimal interestAmount;
+    private BigDecimal principalAmount;
+    private BigDecimal remainingPrincipal;
     private LocalDate expectedDueDate;
     private LocalDate actualDueDate;
     private InstallmentStatus installmentStatus;
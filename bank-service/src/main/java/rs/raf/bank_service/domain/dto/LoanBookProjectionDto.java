@@ -0,0 +1,22 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanBookProjectionDto {
+    private YearMonth month;
+    private String currencyCode;
+    private long installments;
+    private BigDecimal amount;
+    private BigDecimal interest;
+    private BigDecimal principal;
+}
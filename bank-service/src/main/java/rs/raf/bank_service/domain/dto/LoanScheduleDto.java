@@ -0,0 +1,21 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanScheduleDto {
+    private Long loanId;
+    private BigDecimal installmentAmount;
+    private BigDecimal totalInterest;
+    private BigDecimal totalPayment;
+    private List<InstallmentDto> installments;
+}
@@ -0,0 +1,19 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/// Strana istorije placanja za keyset paginaciju. nextCursor se salje kao cursor za sledecu stranu, null znaci da je ovo poslednja.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCursorPageDto {
+    private List<PaymentOverviewDto> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,25 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetExchangeRateDto {
+
+    @NotNull(message = "Exchange rate cannot be null")
+    @Positive(message = "Exchange rate must be positive")
+    private BigDecimal exchangeRate;
+
+    @NotNull(message = "Sell rate cannot be null")
+    @Positive(message = "Sell rate must be positive")
+    private BigDecimal sellRate;
+}
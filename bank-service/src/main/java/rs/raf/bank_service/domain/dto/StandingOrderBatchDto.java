@@ -0,0 +1,17 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/// Izvrsenja trajnih naloga jednog chunk-a cije racune platioca obradjuje ista particija transaction-queue
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderBatchDto {
+    private List<StandingOrderExecutionDto> executions;
+}
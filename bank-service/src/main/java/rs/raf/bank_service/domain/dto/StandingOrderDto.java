@@ -0,0 +1,36 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rs.raf.bank_service.domain.enums.StandingOrderFrequency;
+import rs.raf.bank_service.domain.enums.StandingOrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderDto {
+    private Long id;
+    private String senderAccountNumber;
+    private String receiverAccountNumber;
+    private String receiverName;
+    private BigDecimal amount;
+    private String paymentCode;
+    private String purposeOfPayment;
+    private String referenceNumber;
+    private StandingOrderFrequency frequency;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextExecutionDate;
+    private StandingOrderStatus status;
+    private int executionsCompleted;
+    private int executionsFailed;
+    private LocalDate lastExecutionDate;
+    private String lastFailureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime canceledAt;
+}
@@ -0,0 +1,18 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/// Jedno preuzeto izvrsenje trajnog naloga; isti nalog moze imati vise izvrsenja u chunk-u (nadoknada propustenih datuma)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingOrderExecutionDto {
+    private Long orderId;
+    private LocalDate executionDate;
+}
@@ -0,0 +1,18 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPartitionDto {
+    private int partition;
+    private String queueName;
+    // poruke koje cekaju u redu
+    private long pendingMessages;
+    private long processedMessages;
+    // vreme od slanja do kraja obrade poslednje poruke
+    private long lastLagMs;
+}
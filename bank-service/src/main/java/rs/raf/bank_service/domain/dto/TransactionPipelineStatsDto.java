@@ -0,0 +1,17 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPipelineStatsDto {
+    private List<TransactionTypeStatsDto> types;
+    private List<TransactionPartitionStatsDto> partitions;
+}
@@ -0,0 +1,32 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionTypeStatsDto {
+    private String type;
+    private long succeeded;
+    private long failed;
+    // transakcija je rollback-ovana bez izuzetka u obradi (npr. pad pri commit-u)
+    private long rolledBack;
+    private int inFlight;
+    // koliko dugo traje najstarija obrada u toku, 0 ako nema nijedne
+    private double oldestInFlightSeconds;
+    // od upisa u outbox (TransactionMessageDto.timestamp) do pocetka obrade
+    private double lagP50Ms;
+    private double lagP99Ms;
+    private double lagMaxMs;
+    // obrada zajedno sa commit-om
+    private double processingP50Ms;
+    private double processingP99Ms;
+    private double processingMaxMs;
+    private Map<String, Long> failuresByException;
+}
@@ -0,0 +1,18 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchDto {
+    private List<ClientDto> clients = new ArrayList<>();
+    private List<UserDto> employees = new ArrayList<>();
+}
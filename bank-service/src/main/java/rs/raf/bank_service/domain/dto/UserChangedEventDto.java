@@ -0,0 +1,23 @@
+package rs.raf.bank_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import rs.raf.bank_service.domain.enums.UserEntityType;
+
+/// Poruka sa user-events exchange-a: entitet u user-service je izmenjen ili obrisan
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangedEventDto {
+    private UserEntityType type;
+    private Long id;
+    // ime i prezime posle izmene (prazno kod brisanja), koristi ih bank-service za account_owners
+    private String firstName;
+    private String lastName;
+    private boolean deleted;
+    // verzija klijenta u user-service posle izmene (null kod brisanja)
+    private Long version;
+}
@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.DynamicUpdate;
 import rs.raf.bank_service.domain.enums.AccountOwnerType;
 import rs.raf.bank_service.domain.enums.AccountStatus;
 import rs.raf.bank_service.domain.enums.AccountType;
@@ -16,8 +17,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity(name = "accounts")
+@Table(indexes = @Index(name = "idx_accounts_client_id", columnList = "clientId"))
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "account_type", discriminatorType = DiscriminatorType.STRING)
+@DynamicUpdate
 @Getter
 @Setter
 @SuperBuilder
@@ -57,6 +60,12 @@ public abstract class Account {
     private BigDecimal monthlyLimit;
     private BigDecimal dailySpending;
     private BigDecimal monthlySpending;
+    // dan na koji se odnose dailySpending/monthlySpending - starije vrednosti se tumace kao 0; potrosnja ukljucuje
+    // i nepotrosene lease-ove instanci (SpendingLimitService)
+    private LocalDate spendingDate;
+
+    // balance/availableBalance sadrze sve stavke knjizenja iz transakcija sa txId manjim od ovoga, ostatak se cita iz ledger_entries
+    private Long snapshotTxId;
 
 
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
@@ -101,6 +110,7 @@ public abstract class Account {
                 ", monthlyLimit=" + monthlyLimit +
                 ", dailySpending=" + dailySpending +
                 ", monthlySpending=" + monthlySpending +
+                ", snapshotTxId=" + snapshotTxId +
                 ", cards=" + cards +
                 '}';
     }
@@ -0,0 +1,36 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/// Lokalna kopija imena vlasnika racuna iz user-service, da bi se pretraga racuna po imenu radila jednim upitom u bazi.
+/// Azurira se iz user-events poruka, a klijenti koji nedostaju i dugo neosvezeni redovi se uskladjuju periodicno.
+@Entity
+@Table(name = "account_owners", indexes = {
+        @Index(name = "idx_account_owners_last_name", columnList = "lastName, firstName"),
+        @Index(name = "idx_account_owners_synced_at", columnList = "syncedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountOwner {
+
+    @Id
+    private Long clientId;
+
+    private String firstName;
+
+    private String lastName;
+
+    // verzija klijenta iz user-service od koje su ime i prezime; starije izmene se ne upisuju preko novijih
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime syncedAt;
+}
@@ -0,0 +1,60 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import rs.raf.bank_service.domain.enums.BulkPaymentLineStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+/// Jedna stavka grupnog placanja. Posle izvrsenja nosi rezultat: id kreiranog placanja ili razlog neuspeha.
+@Entity
+@DynamicUpdate
+@Table(name = "bulk_payment_lines",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bulk_payment_lines_order_line", columnNames = {"order_id", "lineNumber"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkPaymentLine {
+
+    // SEQUENCE umesto IDENTITY da bi Hibernate mogao da batchuje insert-e
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bulk_payment_line_seq")
+    @SequenceGenerator(name = "bulk_payment_line_seq", sequenceName = "bulk_payment_line_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private BulkPaymentOrder order;
+
+    /// Redni broj u fajlu (od 1), chunk-ovi se salju kao opseg rednih brojeva
+    @Column(nullable = false)
+    private int lineNumber;
+
+    @Column(nullable = false)
+    private String receiverAccountNumber;
+
+    private String receiverName;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /// Iznos u valuti primaoca - procena pri zadavanju, stvarni iznos posle izvrsenja
+    private BigDecimal outAmount;
+
+    private String paymentCode;
+
+    private String purposeOfPayment;
+
+    private String referenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BulkPaymentLineStatus status;
+
+    private String failureReason;
+
+    private Long paymentId;
+}
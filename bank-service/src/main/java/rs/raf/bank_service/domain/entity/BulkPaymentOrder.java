@@ -0,0 +1,60 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import rs.raf.bank_service.domain.enums.BulkPaymentStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/// Nalog za grupno placanje (npr. isplata zarada) sa racuna firme. Ceo nalog se verifikuje jednom,
+/// a stavke (BulkPaymentLine) se izvrsavaju u chunk-ovima u particiji transaction-queue racuna platioca.
+/// DynamicUpdate - particija uvecava linesCompleted/linesFailed upitom, izmena statusa ih ne sme pregaziti.
+@Entity
+@DynamicUpdate
+@Table(name = "bulk_payment_orders", indexes = @Index(name = "idx_bulk_payment_orders_client_created", columnList = "clientId, createdAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkPaymentOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long clientId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "senderAccountNumber", referencedColumnName = "accountNumber", nullable = false)
+    private Account senderAccount;
+
+    private String senderName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BulkPaymentStatus status;
+
+    private int lineCount;
+
+    /// Zbir stavki u valuti racuna platioca (rezervisan u dnevnom/mesecnom limitu)
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    private int linesCompleted;
+
+    private int linesFailed;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime confirmedAt;
+
+    private LocalDateTime finishedAt;
+
+    // potvrda i odbijanje istog naloga u isto vreme - jedno dobija OptimisticLockException
+    @Version
+    private Long version;
+}
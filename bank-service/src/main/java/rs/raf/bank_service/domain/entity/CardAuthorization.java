@@ -0,0 +1,54 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.*;
+import rs.raf.bank_service.domain.enums.CardAuthorizationStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/// Rezervacija sredstava za placanje karticom - HELD dok se ne naplati (CAPTURED) ili oslobodi (RELEASED)
+@Entity
+@Table(name = "card_authorizations", indexes = {
+        @Index(name = "idx_card_authorizations_status_created_at", columnList = "status, createdAt"),
+        @Index(name = "idx_card_authorizations_card_created_at", columnList = "cardNumber, createdAt")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAuthorization {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false, length = 16)
+    private String cardNumber;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String currencyCode;
+
+    private String merchant;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CardAuthorizationStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime settledAt;
+
+    /// Placanje nastalo naplatom rezervacije
+    private Long paymentId;
+}
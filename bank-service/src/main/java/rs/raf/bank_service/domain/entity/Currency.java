@@ -5,12 +5,19 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import rs.raf.bank_service.service.ReferenceDataCache;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 
+// valute se skoro nikad ne menjaju, a ucitavaju se uz svaki racun - drze se u second-level cache-u
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.CURRENCIES)
 @RequiredArgsConstructor
 @SuperBuilder
 @AllArgsConstructor
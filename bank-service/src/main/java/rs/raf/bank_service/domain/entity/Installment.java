@@ -8,23 +8,35 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "installments")
+@Table(name = "installments", indexes = {
+        @Index(name = "idx_installment_loan_number", columnList = "loan_id, installmentNumber"),
+        @Index(name = "idx_installment_expected_due_date", columnList = "expectedDueDate")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Installment {
+    // SEQUENCE umesto IDENTITY da bi se nove rate iz batch naplate upisivale batch insert-om
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installment_seq")
+    @SequenceGenerator(name = "installment_seq", sequenceName = "installment_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "loan_id", nullable = false)
     private Loan loan;
 
+    // redni broj rate u planu otplate (1..repaymentPeriod)
+    private Integer installmentNumber;
+
     private BigDecimal amount;
     private BigDecimal interestRate;
+    // podela rate na kamatu i glavnicu i preostala glavnica posle ove rate
+    private BigDecimal interestAmount;
+    private BigDecimal principalAmount;
+    private BigDecimal remainingPrincipal;
     private LocalDate expectedDueDate;
     private LocalDate actualDueDate;
 
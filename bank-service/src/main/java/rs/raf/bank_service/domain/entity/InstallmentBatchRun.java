@@ -0,0 +1,60 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import rs.raf.bank_service.domain.enums.InstallmentBatchStatus;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/// Jedno dnevno pokretanje naplate rata. lastLoanId je kursor do kog su krediti vec preuzeti u chunk-ove,
+/// pa restart nastavlja od njega umesto da ponovo salje iste kredite.
+/// DynamicUpdate - preuzimanje chunk-a ne sme da pregazi loansPaid/loansFailed koje particije uvecavaju u medjuvremenu.
+@Entity
+@DynamicUpdate
+@Table(name = "installment_batch_runs", uniqueConstraints = @UniqueConstraint(name = "uk_installment_batch_runs_run_date", columnNames = "runDate"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class InstallmentBatchRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InstallmentBatchStatus status;
+
+    @Column(nullable = false)
+    private Long lastLoanId;
+
+    private int chunksQueued;
+
+    private long loansQueued;
+
+    private long loansPaid;
+
+    private long loansFailed;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    // dve instance koje istovremeno preuzimaju isti chunk - jedna dobija OptimisticLockException
+    @Version
+    private Long version;
+
+    public InstallmentBatchRun(LocalDate runDate) {
+        this.runDate = runDate;
+        this.status = InstallmentBatchStatus.RUNNING;
+        this.lastLoanId = 0L;
+        this.startedAt = LocalDateTime.now();
+    }
+}
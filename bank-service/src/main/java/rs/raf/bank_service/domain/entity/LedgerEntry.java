@@ -0,0 +1,103 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
+import rs.raf.bank_service.domain.enums.PostingType;
+import rs.raf.bank_service.domain.money.Money;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/// Jedna strana knjizenja (duguje/potrazuje). Stavke se samo dodaju, nikad se ne menjaju.
+@Entity
+@Immutable
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_account_tx", columnList = "accountNumber, txId"),
+        @Index(name = "idx_ledger_entries_posted_at", columnList = "postedAt")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class LedgerEntry {
+
+    // SEQUENCE umesto IDENTITY da bi Hibernate mogao da batchuje insert-e
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false, length = 36)
+    private String postingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private PostingType postingType;
+
+    @Column(updatable = false)
+    private Long referenceId;
+
+    @Column(nullable = false, updatable = false)
+    private String accountNumber;
+
+    @Column(nullable = false, updatable = false)
+    private String currencyCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerEntryDirection direction;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime postedAt;
+
+    /// Id baze transakcije koja je upisala stavku (default kolone, ne salje se iz aplikacije).
+    /// Snapshot prenosi stavke po ovome, a ne po postedAt - vreme aplikacije ne prati redosled commit-a.
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default txid_current()")
+    private Long txId;
+
+    public static LedgerEntry debit(Account account, BigDecimal amount) {
+        return debit(account, Money.ofRounded(amount, account.getCurrency().getCode()));
+    }
+
+    public static LedgerEntry credit(Account account, BigDecimal amount) {
+        return credit(account, Money.ofRounded(amount, account.getCurrency().getCode()));
+    }
+
+    public static LedgerEntry debit(Account account, Money amount) {
+        return leg(account, LedgerEntryDirection.DEBIT, amount);
+    }
+
+    public static LedgerEntry credit(Account account, Money amount) {
+        return leg(account, LedgerEntryDirection.CREDIT, amount);
+    }
+
+    // iznos se uvek upisuje sa brojem decimala valute racuna
+    private static LedgerEntry leg(Account account, LedgerEntryDirection direction, Money amount) {
+        if (!amount.getCurrencyCode().equals(account.getCurrency().getCode()))
+            throw new IllegalArgumentException("Ledger entry currency " + amount.getCurrencyCode()
+                    + " does not match account currency " + account.getCurrency().getCode());
+        return LedgerEntry.builder()
+                .accountNumber(account.getAccountNumber())
+                .currencyCode(amount.getCurrencyCode())
+                .direction(direction)
+                .amount(amount.toBigDecimal())
+                .build();
+    }
+
+    public Money money() {
+        return Money.ofRounded(amount, currencyCode);
+    }
+
+    /// Iznos sa znakom iz ugla racuna: potrazuje povecava stanje, duguje ga smanjuje
+    public BigDecimal signedAmount() {
+        return direction == LedgerEntryDirection.CREDIT ? amount : amount.negate();
+    }
+}
@@ -0,0 +1,48 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/// Poruka za RabbitMQ upisana u istoj transakciji kao i izmena koja je proizvela.
+/// OutboxRelay je salje posle commit-a i postavlja sentAt - poruka za rollback-ovanu transakciju nikad ne postoji,
+/// a poruka za commit-ovanu se ne gubi ako broker trenutno nije dostupan.
+@Entity
+@Table(name = "outbox_messages", indexes = @Index(name = "idx_outbox_messages_sent_at_id", columnList = "sentAt, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /// Prazan string je default exchange (routingKey je tada ime reda)
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    /// __TypeId__ header koji Jackson2JsonMessageConverter koristi pri citanju poruke
+    private String payloadType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public OutboxMessage(String exchange, String routingKey, String payloadType, String payload, LocalDateTime createdAt) {
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
@@ -18,6 +18,14 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 @AllArgsConstructor
 @Entity(name = "payments")
+// (klijent, date, id) za keyset paginaciju istorije, posebno za poslata i primljena placanja
+// (racun, date, id) za izvoz izvoda po racunu
+@Table(indexes = {
+        @Index(name = "idx_payments_client_date_id", columnList = "clientId, date, id"),
+        @Index(name = "idx_payments_receiver_client_date_id", columnList = "receiverClientId, date, id"),
+        @Index(name = "idx_payments_sender_account_date_id", columnList = "senderAccountNumber, date, id"),
+        @Index(name = "idx_payments_receiver_account_date_id", columnList = "accountNumberReceiver, date, id")
+})
 ///  TRANSAKCIJA
 public class Payment {
 
@@ -0,0 +1,111 @@
+package rs.raf.bank_service.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import rs.raf.bank_service.domain.enums.StandingOrderFrequency;
+import rs.raf.bank_service.domain.enums.StandingOrderStatus;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/// Trajni nalog - ponavljajuce (kirija, stednja) ili jednokratno placanje sa buducim datumom.
+/// Indeks (status, nextExecutionDate, id) je indeks dospeca: scheduler cita samo dospele naloge, strana po strana,
+/// i u istoj transakciji ih oznacava kao preuzete (queuedAt), pa nema cron-a po nalogu ni citanja cele tabele.
+/// nextExecutionDate pomera tek izvrsenje, posle uspeha ili zabelezenog neuspeha.
+/// Racuni su samo brojevi (bez veze ka Account) da preuzimanje dospelih ne bi ucitavalo racune.
+@Entity
+@DynamicUpdate
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_due", columnList = "status, nextExecutionDate, id"),
+        @Index(name = "idx_standing_orders_client_created", columnList = "clientId, createdAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long clientId;
+
+    @Column(nullable = false)
+    private String senderAccountNumber;
+
+    private String senderName;
+
+    @Column(nullable = false)
+    private String receiverAccountNumber;
+
+    private String receiverName;
+
+    /// Iznos u valuti racuna platioca
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    private String paymentCode;
+
+    private String purposeOfPayment;
+
+    private String referenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderFrequency frequency;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    /// Poslednji dan kada nalog moze da se izvrsi (null - do otkazivanja)
+    private LocalDate endDate;
+
+    /// Sledeci datum izvrsenja koji jos nije izvrsen; null kada vise nema izvrsenja
+    private LocalDate nextExecutionDate;
+
+    /// Kada je izvrsenje za nextExecutionDate poslato u particiju; null dok nije preuzeto.
+    /// Ako se izvrsenje vrati (rollback), nalog se preuzima ponovo posle standing-order.requeue-after-minutes.
+    private LocalDateTime queuedAt;
+
+    /// Broj obradjenih izvrsenja - redni broj sledeceg izvrsenja za StandingOrderFrequency.occurrence
+    private int occurrences;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderStatus status;
+
+    // rezultate upisuje particija upitom (StandingOrderRepository), bez verzionisanja naloga
+    private int executionsCompleted;
+
+    private int executionsFailed;
+
+    private LocalDate lastExecutionDate;
+
+    private String lastFailureReason;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime canceledAt;
+
+    // preuzimanje istog naloga na dve instance ili otkazivanje u toku preuzimanja/izvrsenja - jedno dobija OptimisticLockException
+    @Version
+    private Long version;
+
+    /// Pomera nalog na sledece izvrsenje posle obrade trenutnog; nalog bez sledeceg izvrsenja je zavrsen
+    public void advance() {
+        occurrences++;
+        queuedAt = null;
+        LocalDate next = frequency.occurrence(startDate, occurrences);
+        if (next == null || (endDate != null && next.isAfter(endDate))) {
+            nextExecutionDate = null;
+            status = StandingOrderStatus.COMPLETED;
+        } else {
+            nextExecutionDate = next;
+        }
+    }
+}
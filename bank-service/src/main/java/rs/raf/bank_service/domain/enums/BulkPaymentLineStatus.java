@@ -0,0 +1,5 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum BulkPaymentLineStatus {
+    PENDING, COMPLETED, FAILED, CANCELED
+}
@@ -0,0 +1,6 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum CardAuthorizationStatus {
+    // DECLINED se samo vraca u odgovoru, odbijene autorizacije se ne cuvaju
+    HELD, CAPTURED, RELEASED, DECLINED
+}
@@ -0,0 +1,5 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum CardDeclineReason {
+    CARD_NOT_ACTIVE, INVALID_CVV, CARD_EXPIRED, CARD_LIMIT_EXCEEDED, INSUFFICIENT_FUNDS, SPENDING_LIMIT_EXCEEDED, INVALID_AMOUNT, ACCOUNT_NOT_ACTIVE
+}
@@ -0,0 +1,5 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum PostingType {
+    PAYMENT, TRANSFER, LOAN_DISBURSEMENT, INSTALLMENT, CARD_PAYMENT, BULK_PAYMENT, STANDING_ORDER, SECURITIES_ORDER
+}
@@ -0,0 +1,21 @@
+package rs.raf.bank_service.domain.enums;
+
+import java.time.LocalDate;
+
+/// Ucestalost trajnog naloga. Datum n-tog izvrsenja se racuna od pocetnog datuma (a ne od prethodnog izvrsenja),
+/// da mesecni nalog od 31. ne bi posle februara presao na 28.
+public enum StandingOrderFrequency {
+    ONCE, DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY;
+
+    /// Datum izvrsenja sa rednim brojem occurrence (0 = pocetni datum); null ako ga nema (jednokratni nalog)
+    public LocalDate occurrence(LocalDate startDate, int occurrence) {
+        return switch (this) {
+            case ONCE -> occurrence == 0 ? startDate : null;
+            case DAILY -> startDate.plusDays(occurrence);
+            case WEEKLY -> startDate.plusWeeks(occurrence);
+            case MONTHLY -> startDate.plusMonths(occurrence);
+            case QUARTERLY -> startDate.plusMonths(3L * occurrence);
+            case YEARLY -> startDate.plusYears(occurrence);
+        };
+    }
+}
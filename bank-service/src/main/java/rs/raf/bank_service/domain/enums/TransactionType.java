@@ -1,5 +1,5 @@
 package rs.raf.bank_service.domain.enums;
 
 public enum TransactionType {
-    CONFIRM_PAYMENT, CONFIRM_TRANSFER, APPROVE_LOAN, PAY_INSTALLMENT
+    CONFIRM_PAYMENT, CONFIRM_TRANSFER, APPROVE_LOAN, PAY_INSTALLMENT, PAY_INSTALLMENTS, PAY_BULK_PAYMENT, PAY_STANDING_ORDERS
 }
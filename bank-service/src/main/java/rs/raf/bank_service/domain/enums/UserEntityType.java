@@ -0,0 +1,7 @@
+package rs.raf.bank_service.domain.enums;
+
+public enum UserEntityType {
+    CLIENT,
+    COMPANY,
+    AUTHORIZED_PERSONNEL
+}
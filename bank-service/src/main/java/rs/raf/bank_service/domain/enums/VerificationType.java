@@ -6,5 +6,6 @@ public enum VerificationType {
     CHANGE_LIMIT,
     PAYMENT,
     TRANSFER,
-    CARD_REQUEST
+    CARD_REQUEST,
+    BULK_PAYMENT
 }
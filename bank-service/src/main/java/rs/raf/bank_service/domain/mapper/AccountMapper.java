@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
+import rs.raf.bank_service.repository.AccountRepository;
 
 import java.math.BigDecimal;
 
@@ -42,6 +43,30 @@ public class AccountMapper {
         return dto;
     }
 
+    // Mapiranje projekcije liste racuna (bez ucitanog Account entiteta)
+    public static AccountDto toDto(AccountRepository.AccountListRow row, ClientDto client) {
+        AccountDto dto = new AccountDto();
+        dto.setName(row.getName());
+        dto.setAccountNumber(row.getAccountNumber());
+        dto.setClientId(row.getClientId());
+        dto.setCompanyId(row.getCompanyId());
+        dto.setCreatedByEmployeeId(row.getCreatedByEmployeeId());
+        dto.setCreationDate(row.getCreationDate() != null ? row.getCreationDate().toString() : null);
+        dto.setExpirationDate(row.getExpirationDate() != null ? row.getExpirationDate().toString() : null);
+        dto.setCurrencyCode(row.getCurrencyCode());
+        dto.setStatus(row.getStatus());
+        dto.setBalance(row.getBalance());
+        dto.setAvailableBalance(row.getAvailableBalance());
+        dto.setDailyLimit(row.getDailyLimit());
+        dto.setMonthlyLimit(row.getMonthlyLimit());
+        dto.setDailySpending(row.getDailySpending());
+        dto.setMonthlySpending(row.getMonthlySpending());
+        dto.setOwner(client);
+        dto.setOwnershipType(row.getAccountOwnerType());
+        dto.setAccountCategory(row.getType());
+        return dto;
+    }
+
     // ✅ Mapiranje iz Account u AccountDetailsDto (bez naziva vlasnika, to se setuje naknadno)
     public static AccountDetailsDto toDetailsDto(Account account) {
         if (account == null) return null;
@@ -0,0 +1,51 @@
+package rs.raf.bank_service.domain.mapper;
+
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.domain.dto.BulkPaymentLineDto;
+import rs.raf.bank_service.domain.dto.BulkPaymentOrderDto;
+import rs.raf.bank_service.domain.entity.BulkPaymentLine;
+import rs.raf.bank_service.domain.entity.BulkPaymentOrder;
+
+@Component
+public class BulkPaymentMapper {
+
+    public BulkPaymentOrderDto toDto(BulkPaymentOrder order) {
+        if (order == null) {
+            return null;
+        }
+
+        return new BulkPaymentOrderDto(
+                order.getId(),
+                order.getSenderAccount().getAccountNumber(),
+                order.getSenderAccount().getCurrency().getCode(),
+                order.getStatus(),
+                order.getLineCount(),
+                order.getTotalAmount(),
+                order.getLinesCompleted(),
+                order.getLinesFailed(),
+                order.getCreatedAt(),
+                order.getConfirmedAt(),
+                order.getFinishedAt()
+        );
+    }
+
+    public BulkPaymentLineDto toDto(BulkPaymentLine line) {
+        if (line == null) {
+            return null;
+        }
+
+        return new BulkPaymentLineDto(
+                line.getLineNumber(),
+                line.getReceiverAccountNumber(),
+                line.getReceiverName(),
+                line.getAmount(),
+                line.getOutAmount(),
+                line.getPaymentCode(),
+                line.getPurposeOfPayment(),
+                line.getReferenceNumber(),
+                line.getStatus(),
+                line.getFailureReason(),
+                line.getPaymentId()
+        );
+    }
+}
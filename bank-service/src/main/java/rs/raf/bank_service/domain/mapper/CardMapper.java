@@ -4,6 +4,7 @@ import rs.raf.bank_service.domain.dto.CardDto;
 import rs.raf.bank_service.domain.dto.CardDtoNoOwner;
 import rs.raf.bank_service.domain.dto.ClientDto;
 import rs.raf.bank_service.domain.entity.Card;
+import rs.raf.bank_service.repository.CardRepository;
 
 public class CardMapper {
 
@@ -24,6 +25,13 @@ public class CardMapper {
         return dto;
     }
 
+    // Mapiranje projekcije liste kartica (bez ucitanog Account entiteta)
+    public static CardDto toDto(CardRepository.CardListRow row, ClientDto client) {
+        return new CardDto(row.getId(), row.getCardNumber(), row.getCvv(), row.getType(), row.getIssuer(), row.getName(),
+                row.getCreationDate(), row.getExpirationDate(), row.getAccountNumber(), row.getStatus(),
+                row.getCardLimit(), client);
+    }
+
     public static CardDtoNoOwner toCardDtoNoOwner(Card card) {
         if (card == null) return null;
         return new CardDtoNoOwner(
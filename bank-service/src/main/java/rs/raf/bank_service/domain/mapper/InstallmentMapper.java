@@ -12,8 +12,12 @@ import java.util.stream.Collectors;
 public class InstallmentMapper {
     public InstallmentDto toDto(Installment installment) {
         return InstallmentDto.builder()
+                .installmentNumber(installment.getInstallmentNumber())
                 .amount(installment.getAmount())
                 .interestRate(installment.getInterestRate())
+                .interestAmount(installment.getInterestAmount())
+                .principalAmount(installment.getPrincipalAmount())
+                .remainingPrincipal(installment.getRemainingPrincipal())
                 .expectedDueDate(installment.getExpectedDueDate())
                 .actualDueDate(installment.getActualDueDate())
                 .installmentStatus(installment.getInstallmentStatus())
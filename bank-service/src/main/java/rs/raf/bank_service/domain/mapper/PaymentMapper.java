@@ -9,6 +9,7 @@ import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.Payment;
 import rs.raf.bank_service.exceptions.AccountNotFoundException;
 import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.PaymentOverviewRepository;
 
 import java.util.Objects;
 
@@ -17,27 +18,17 @@ import java.util.Objects;
 public class PaymentMapper {
     private final AccountRepository accountRepository;
 
-    public PaymentOverviewDto toOverviewDto(Payment payment) {
+    public PaymentOverviewDto toOverviewDto(PaymentOverviewRepository.OverviewRow row, String receiverCurrencyCode) {
         PaymentOverviewDto dto = new PaymentOverviewDto();
-        dto.setId(payment.getId());
-        dto.setSenderName(payment.getSenderName());
-        dto.setDate(payment.getDate());
-        dto.setStatus(payment.getStatus());
-
-        dto.setAmount(payment.getAmount());
-        dto.setReceivedAmount(payment.getOutAmount());
-        dto.setSenderCurrencyCode(payment.getSenderAccount().getCurrency().getCode());
-
-        Account receiverAccount = accountRepository.findByAccountNumber(payment.getAccountNumberReceiver()).orElse(null);
-        dto.setReceiverCurrencyCode(receiverAccount != null ? receiverAccount.getCurrency().getCode() : null);
-
-        // Dodajte podatke o kartici
-        if (payment.getCard() != null) {
-            dto.setCardNumber(payment.getCard().getCardNumber());
-        } else {
-            dto.setCardNumber(null);
-        }
-
+        dto.setId(row.getId());
+        dto.setSenderName(row.getSenderName());
+        dto.setDate(row.getDate());
+        dto.setStatus(row.getStatus());
+        dto.setAmount(row.getAmount());
+        dto.setReceivedAmount(row.getOutAmount());
+        dto.setSenderCurrencyCode(row.getSenderCurrencyCode());
+        dto.setReceiverCurrencyCode(receiverCurrencyCode);
+        dto.setCardNumber(row.getCardNumber());
         return dto;
     }
 
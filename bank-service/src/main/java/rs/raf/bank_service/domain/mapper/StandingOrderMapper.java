@@ -0,0 +1,37 @@
+package rs.raf.bank_service.domain.mapper;
+
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.domain.dto.StandingOrderDto;
+import rs.raf.bank_service.domain.entity.StandingOrder;
+
+@Component
+public class StandingOrderMapper {
+
+    public StandingOrderDto toDto(StandingOrder order) {
+        if (order == null) {
+            return null;
+        }
+
+        return new StandingOrderDto(
+                order.getId(),
+                order.getSenderAccountNumber(),
+                order.getReceiverAccountNumber(),
+                order.getReceiverName(),
+                order.getAmount(),
+                order.getPaymentCode(),
+                order.getPurposeOfPayment(),
+                order.getReferenceNumber(),
+                order.getFrequency(),
+                order.getStartDate(),
+                order.getEndDate(),
+                order.getNextExecutionDate(),
+                order.getStatus(),
+                order.getExecutionsCompleted(),
+                order.getExecutionsFailed(),
+                order.getLastExecutionDate(),
+                order.getLastFailureReason(),
+                order.getCreatedAt(),
+                order.getCanceledAt()
+        );
+    }
+}
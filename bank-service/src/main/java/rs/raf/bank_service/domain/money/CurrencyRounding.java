@@ -0,0 +1,51 @@
+package rs.raf.bank_service.domain.money;
+
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Pravila zaokruzivanja po valuti: broj decimala (minor jedinica) i nacin zaokruzivanja.
+/// Valute koje nisu eksplicitno navedene koriste ISO 4217 broj decimala i HALF_UP kao ostatak banke.
+public record CurrencyRounding(int fractionDigits, RoundingMode roundingMode) {
+
+    // mora biti pre konstanti ispod jer ga konstruktor koristi
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private static final CurrencyRounding DEFAULT = new CurrencyRounding(2, RoundingMode.HALF_UP);
+
+    private static final Map<String, CurrencyRounding> EXPLICIT = Map.of(
+            "RSD", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "EUR", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "USD", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "CHF", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "GBP", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "CAD", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "AUD", new CurrencyRounding(2, RoundingMode.HALF_UP),
+            "JPY", new CurrencyRounding(0, RoundingMode.HALF_UP)
+    );
+
+    private static final Map<String, CurrencyRounding> RESOLVED = new ConcurrentHashMap<>(EXPLICIT);
+
+    public CurrencyRounding {
+        if (fractionDigits < 0 || fractionDigits >= POWERS_OF_TEN.length)
+            throw new IllegalArgumentException("Unsupported number of fraction digits: " + fractionDigits);
+    }
+
+    public static CurrencyRounding of(String currencyCode) {
+        return RESOLVED.computeIfAbsent(currencyCode, CurrencyRounding::fromIso);
+    }
+
+    /// 10^fractionDigits - broj minor jedinica u jednoj jedinici valute
+    public long unit() {
+        return POWERS_OF_TEN[fractionDigits];
+    }
+
+    private static CurrencyRounding fromIso(String currencyCode) {
+        try {
+            int digits = java.util.Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT : new CurrencyRounding(digits, DEFAULT.roundingMode());
+        } catch (IllegalArgumentException e) {
+            return DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package rs.raf.bank_service.domain.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/// Nepromenljiv novcani iznos u minor jedinicama valute (npr. pare, centi) - sabiranje, oduzimanje i poredjenje
+/// rade nad long-om bez medjurezultata u BigDecimal-u, a zaokruzivanje je uvek po pravilu valute (CurrencyRounding).
+/// BigDecimal se pravi samo na granicama: ulaz iz DTO-a/baze i mnozenje kursom.
+/// of() prima samo iznose koji vec imaju najvise decimala valute (unos korisnika), ofRounded() zaokruzuje
+/// izracunate iznose (kursevi, kamate, sume iz baze).
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money> {
+
+    private final long minorUnits;
+    private final String currencyCode;
+
+    private Money(long minorUnits, String currencyCode) {
+        this.minorUnits = minorUnits;
+        this.currencyCode = currencyCode;
+    }
+
+    public static Money ofMinor(long minorUnits, String currencyCode) {
+        return new Money(minorUnits, Objects.requireNonNull(currencyCode, "currencyCode"));
+    }
+
+    /// Tacan iznos - vise decimala nego sto valuta dozvoljava je greska, ne zaokruzuje se (npr. 10.005 RSD)
+    public static Money of(BigDecimal amount, String currencyCode) {
+        if (!hasValidScale(amount, currencyCode))
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " has more decimals than "
+                    + currencyCode + " allows (" + CurrencyRounding.of(currencyCode).fractionDigits() + ").");
+        return ofRounded(amount, currencyCode);
+    }
+
+    /// Izracunat iznos, zaokruzuje se na broj decimala valute po pravilu valute
+    public static Money ofRounded(BigDecimal amount, String currencyCode) {
+        CurrencyRounding rounding = CurrencyRounding.of(currencyCode);
+        return ofMinor(toMinor(amount, rounding), currencyCode);
+    }
+
+    /// Da li iznos ima najvise onoliko decimala koliko valuta dozvoljava (nule na kraju se ne racunaju)
+    public static boolean hasValidScale(BigDecimal amount, String currencyCode) {
+        return amount.stripTrailingZeros().scale() <= CurrencyRounding.of(currencyCode).fractionDigits();
+    }
+
+    public static Money zero(String currencyCode) {
+        return ofMinor(0, currencyCode);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currencyCode);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currencyCode);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currencyCode);
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    /// Mnozenje koeficijentom (npr. provizija), rezultat u istoj valuti
+    public Money multiply(BigDecimal factor) {
+        return convert(factor, currencyCode);
+    }
+
+    /// Konverzija kursom u drugu valutu, zaokruzeno po pravilu ciljne valute
+    public Money convert(BigDecimal rate, String targetCurrencyCode) {
+        BigDecimal converted = BigDecimal.valueOf(minorUnits, CurrencyRounding.of(currencyCode).fractionDigits()).multiply(rate);
+        return ofMinor(toMinor(converted, CurrencyRounding.of(targetCurrencyCode)), targetCurrencyCode);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /// Iznos sa fiksnim brojem decimala valute (npr. 100 RSD -> 100.00)
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, CurrencyRounding.of(currencyCode).fractionDigits());
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!currencyCode.equals(other.currencyCode))
+            throw new IllegalArgumentException("Currency mismatch: " + currencyCode + " and " + other.currencyCode);
+    }
+
+    private static long toMinor(BigDecimal amount, CurrencyRounding rounding) {
+        return amount.setScale(rounding.fractionDigits(), rounding.roundingMode()).unscaledValue().longValueExact();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money money)) return false;
+        return minorUnits == money.minorUnits && currencyCode.equals(money.currencyCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currencyCode.hashCode();
+    }
+
+    /// Kanonski oblik "RSD 1234.50" (koristi ga i MoneyConverter)
+    @Override
+    public String toString() {
+        return currencyCode + " " + toBigDecimal().toPlainString();
+    }
+
+    public static Money parse(String value) {
+        int separator = value.indexOf(' ');
+        if (separator < 0)
+            throw new IllegalArgumentException("Invalid money value: " + value);
+        return of(new BigDecimal(value.substring(separator + 1)), value.substring(0, separator));
+    }
+}
@@ -0,0 +1,20 @@
+package rs.raf.bank_service.domain.money;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/// Money atribut entiteta u jednoj koloni, u kanonskom obliku "RSD 1234.50".
+/// Za kolone koje se sabiraju u upitima (ledger, stanja) ostaje BigDecimal kolona uz kolonu valute.
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toString();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(String value) {
+        return value == null ? null : Money.parse(value);
+    }
+}
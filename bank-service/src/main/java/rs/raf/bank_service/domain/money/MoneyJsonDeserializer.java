@@ -0,0 +1,31 @@
+package rs.raf.bank_service.domain.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonNode node = parser.getCodec().readTree(parser);
+        JsonNode amount = node.get("amount");
+        JsonNode currency = node.get("currency");
+        if (amount == null || currency == null)
+            return (Money) context.reportInputMismatch(Money.class, "Money requires 'amount' and 'currency'");
+        // asText daje najkraci zapis i za double, pa 100.1 ne postaje 100.0999...
+        BigDecimal value = new BigDecimal(amount.asText());
+        if (!Money.hasValidScale(value, currency.asText()))
+            return (Money) context.reportInputMismatch(Money.class, "Amount %s has more decimals than %s allows",
+                    value.toPlainString(), currency.asText());
+        return Money.of(value, currency.asText());
+    }
+}
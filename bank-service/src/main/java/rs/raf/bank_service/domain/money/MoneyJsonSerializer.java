@@ -0,0 +1,23 @@
+package rs.raf.bank_service.domain.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/// {"amount": 1234.50, "currency": "RSD"} - iznos kao broj sa decimalama valute
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("amount", money.toBigDecimal());
+        generator.writeStringField("currency", money.getCurrencyCode());
+        generator.writeEndObject();
+    }
+}
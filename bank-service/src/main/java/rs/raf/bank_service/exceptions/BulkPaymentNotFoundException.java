@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class BulkPaymentNotFoundException extends RuntimeException {
+    public BulkPaymentNotFoundException(Long id) {
+        super("Bulk payment not found: " + id);
+    }
+}
@@ -0,0 +1,21 @@
+package rs.raf.bank_service.exceptions;
+
+import lombok.Getter;
+import rs.raf.bank_service.domain.dto.BulkPaymentLineErrorDto;
+
+import java.util.List;
+
+@Getter
+public class BulkPaymentValidationException extends RuntimeException {
+
+    private final List<BulkPaymentLineErrorDto> lineErrors;
+
+    public BulkPaymentValidationException(String message) {
+        this(message, List.of());
+    }
+
+    public BulkPaymentValidationException(String message, List<BulkPaymentLineErrorDto> lineErrors) {
+        super(message);
+        this.lineErrors = lineErrors;
+    }
+}
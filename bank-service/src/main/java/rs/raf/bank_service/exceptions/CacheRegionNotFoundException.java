@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class CacheRegionNotFoundException extends RuntimeException {
+    public CacheRegionNotFoundException(String region) {
+        super("Cache region not found: " + region);
+    }
+}
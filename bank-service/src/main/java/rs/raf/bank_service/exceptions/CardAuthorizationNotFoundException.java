@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class CardAuthorizationNotFoundException extends RuntimeException {
+    public CardAuthorizationNotFoundException(Long id) {
+        super("Card authorization not found: " + id);
+    }
+}
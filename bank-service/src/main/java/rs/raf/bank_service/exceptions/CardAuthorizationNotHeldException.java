@@ -0,0 +1,9 @@
+package rs.raf.bank_service.exceptions;
+
+import rs.raf.bank_service.domain.enums.CardAuthorizationStatus;
+
+public class CardAuthorizationNotHeldException extends RuntimeException {
+    public CardAuthorizationNotHeldException(Long id, CardAuthorizationStatus status) {
+        super("Card authorization " + id + " is already " + status);
+    }
+}
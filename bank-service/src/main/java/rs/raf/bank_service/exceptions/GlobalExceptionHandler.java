@@ -10,8 +10,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import rs.raf.bank_service.domain.dto.BulkPaymentValidationErrorDto;
 import rs.raf.bank_service.domain.dto.ErrorMessageDto;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+
 
 @Order(Ordered.HIGHEST_PRECEDENCE)  // ✅ Ovo osigurava da Spring prvo koristi naš handler
 @Slf4j
@@ -27,6 +31,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new ErrorMessageDto(errorMessage));
     }
 
+    // @Validated kontroleri (ogranicenja na parametrima metode, npr. velicina batch liste)
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorMessageDto> handleConstraintViolationException(ConstraintViolationException ex) {
+        String errorMessage = ex.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .findFirst()
+                .orElse(ex.getMessage());
+        logger.error(errorMessage);
+        return ResponseEntity.badRequest().body(new ErrorMessageDto(errorMessage));
+    }
+
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<ErrorMessageDto> handleAccountNotFoundException(AccountNotFoundException e) {
         return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.NOT_FOUND);
@@ -47,6 +62,51 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(InvalidPaymentCursorException.class)
+    public ResponseEntity<ErrorMessageDto> handleInvalidPaymentCursorException(InvalidPaymentCursorException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(SpendingLimitExceededException.class)
+    public ResponseEntity<ErrorMessageDto> handleSpendingLimitExceededException(SpendingLimitExceededException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(CardAuthorizationNotFoundException.class)
+    public ResponseEntity<ErrorMessageDto> handleCardAuthorizationNotFoundException(CardAuthorizationNotFoundException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(CardAuthorizationNotHeldException.class)
+    public ResponseEntity<ErrorMessageDto> handleCardAuthorizationNotHeldException(CardAuthorizationNotHeldException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(CacheRegionNotFoundException.class)
+    public ResponseEntity<ErrorMessageDto> handleCacheRegionNotFoundException(CacheRegionNotFoundException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(BulkPaymentValidationException.class)
+    public ResponseEntity<BulkPaymentValidationErrorDto> handleBulkPaymentValidationException(BulkPaymentValidationException e) {
+        return new ResponseEntity<>(new BulkPaymentValidationErrorDto(e.getMessage(), e.getLineErrors()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(BulkPaymentNotFoundException.class)
+    public ResponseEntity<ErrorMessageDto> handleBulkPaymentNotFoundException(BulkPaymentNotFoundException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(StandingOrderNotFoundException.class)
+    public ResponseEntity<ErrorMessageDto> handleStandingOrderNotFoundException(StandingOrderNotFoundException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidStandingOrderException.class)
+    public ResponseEntity<ErrorMessageDto> handleInvalidStandingOrderException(InvalidStandingOrderException e) {
+        return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorMessageDto> handleIllegalArgumentException(IllegalArgumentException e) {
         return new ResponseEntity<>(new ErrorMessageDto(e.getMessage()), HttpStatus.BAD_REQUEST);
@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class InvalidPaymentCursorException extends RuntimeException {
+    public InvalidPaymentCursorException(String cursor) {
+        super("Invalid payment cursor: " + cursor);
+    }
+}
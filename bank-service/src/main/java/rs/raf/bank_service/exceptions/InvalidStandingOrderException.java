@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class InvalidStandingOrderException extends RuntimeException {
+    public InvalidStandingOrderException(String message) {
+        super(message);
+    }
+}
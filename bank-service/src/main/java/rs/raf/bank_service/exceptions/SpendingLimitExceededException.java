@@ -0,0 +1,10 @@
+package rs.raf.bank_service.exceptions;
+
+import java.math.BigDecimal;
+
+public class SpendingLimitExceededException extends RuntimeException {
+    public SpendingLimitExceededException(String accountNumber, String period, BigDecimal limit, BigDecimal spent, BigDecimal amount) {
+        super("Spending limit exceeded: " + period + " limit " + limit + " for account " + accountNumber +
+                " (already spent " + spent + ", requested " + amount + ")");
+    }
+}
@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class StandingOrderNotFoundException extends RuntimeException {
+    public StandingOrderNotFoundException(Long id) {
+        super("Standing order not found: " + id);
+    }
+}
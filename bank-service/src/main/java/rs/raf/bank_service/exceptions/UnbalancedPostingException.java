@@ -0,0 +1,7 @@
+package rs.raf.bank_service.exceptions;
+
+public class UnbalancedPostingException extends RuntimeException {
+    public UnbalancedPostingException(String currencyCode) {
+        super("Posting is not balanced for currency: " + currencyCode);
+    }
+}
@@ -0,0 +1,33 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.AccountOwner;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountOwnerRepository extends JpaRepository<AccountOwner, Long> {
+
+    // Najstarije sinhronizovani vlasnici prvo
+    @Query("SELECT o.clientId FROM AccountOwner o WHERE o.syncedAt < :before ORDER BY o.syncedAt")
+    List<Long> findClientIdsSyncedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /// Upisuje ime samo ako dolazna verzija nije starija od upisane; 0 ako reda nema ili je upisana verzija novija
+    @Modifying
+    @Query("UPDATE AccountOwner o SET o.firstName = :firstName, o.lastName = :lastName, o.version = :version, " +
+            "o.syncedAt = :syncedAt WHERE o.clientId = :clientId AND o.version <= :version")
+    int updateIfNotOlder(@Param("clientId") Long clientId, @Param("firstName") String firstName,
+                         @Param("lastName") String lastName, @Param("version") long version,
+                         @Param("syncedAt") LocalDateTime syncedAt);
+
+    @Modifying
+    @Query("UPDATE AccountOwner o SET o.syncedAt = :syncedAt WHERE o.clientId IN :clientIds")
+    int markSynced(@Param("clientIds") Collection<Long> clientIds, @Param("syncedAt") LocalDateTime syncedAt);
+}
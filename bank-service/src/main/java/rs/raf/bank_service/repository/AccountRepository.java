@@ -1,15 +1,24 @@
 package rs.raf.bank_service.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
 import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.AccountOwnerType;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.AccountType;
 
 import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +33,16 @@ public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpec
 
     List<Account> findByClientId(Long clientId);
 
+    // primaoci chunk-a grupnog placanja jednim upitom
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    /// Racuni klijenta za listu - samo kolone za AccountDto, bez ucitavanja kartica i valute.
+    /// companyId se cita preko join-a na CompanyAccount (ista tabela, po primarnom kljucu).
+    @Query("SELECT " + AccountListRow.COLUMNS + ", ca.companyId AS companyId " +
+            "FROM accounts a JOIN a.currency cur LEFT JOIN CompanyAccount ca ON ca.accountNumber = a.accountNumber " +
+            "WHERE a.clientId = :clientId")
+    List<AccountListRow> findListRowsByClientId(@Param("clientId") Long clientId);
+
     Optional<CompanyAccount> findFirstByCurrencyAndCompanyId(Currency currency, Long companyId);
 
     boolean existsByNameAndClientId(String name, Long clientId);
@@ -32,5 +51,93 @@ public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpec
     @Query("SELECT a FROM accounts a WHERE a.accountNumber = :accountNumber")
     Account findByIdForUpdate(@Param("accountNumber") String accountNumber);
 
+    // Rezervacija (negativno) ili oslobadjanje sredstava - relativna izmena, kao applySnapshot, pa se ne gaze medjusobno
+    @Modifying
+    @Query("UPDATE accounts a SET a.availableBalance = a.availableBalance + :delta WHERE a.accountNumber = :accountNumber")
+    int adjustAvailableBalance(@Param("accountNumber") String accountNumber, @Param("delta") BigDecimal delta);
+
+    // Prenosi zbir novih stavki knjizenja u stanje racuna, samo ako snapshot nije u medjuvremenu pomeren
+    @Modifying
+    @Query("UPDATE accounts a SET a.balance = a.balance + :delta, a.availableBalance = a.availableBalance + :delta, " +
+            "a.snapshotTxId = :snapshotTxId " +
+            "WHERE a.accountNumber = :accountNumber AND COALESCE(a.snapshotTxId, 0) = :previousSnapshotTxId")
+    int applySnapshot(@Param("accountNumber") String accountNumber,
+                      @Param("delta") BigDecimal delta,
+                      @Param("snapshotTxId") long snapshotTxId,
+                      @Param("previousSnapshotTxId") long previousSnapshotTxId);
+
+    // Filtriranje po imenu vlasnika, sortiranje po prezimenu i paginacija u jednom upitu preko account_owners.
+    // Parametri imena su vec lowercase, prazan string znaci bez filtera.
+    @Query(value = "SELECT a FROM accounts a LEFT JOIN AccountOwner o ON o.clientId = a.clientId " +
+            "WHERE a.accountNumber LIKE CONCAT('%', :accountNumber, '%') " +
+            "AND (:firstName = '' OR LOWER(o.firstName) LIKE CONCAT('%', :firstName, '%')) " +
+            "AND (:lastName = '' OR LOWER(o.lastName) LIKE CONCAT('%', :lastName, '%')) " +
+            "ORDER BY o.lastName ASC NULLS FIRST, a.accountNumber ASC",
+            countQuery = "SELECT COUNT(a) FROM accounts a LEFT JOIN AccountOwner o ON o.clientId = a.clientId " +
+                    "WHERE a.accountNumber LIKE CONCAT('%', :accountNumber, '%') " +
+                    "AND (:firstName = '' OR LOWER(o.firstName) LIKE CONCAT('%', :firstName, '%')) " +
+                    "AND (:lastName = '' OR LOWER(o.lastName) LIKE CONCAT('%', :lastName, '%'))")
+    Page<Account> searchByOwnerName(@Param("accountNumber") String accountNumber,
+                                    @Param("firstName") String firstName,
+                                    @Param("lastName") String lastName,
+                                    Pageable pageable);
+
+    // Klijenti koji imaju racun, a jos nisu u account_owners
+    @Query("SELECT DISTINCT a.clientId FROM accounts a WHERE a.clientId IS NOT NULL " +
+            "AND NOT EXISTS (SELECT o FROM AccountOwner o WHERE o.clientId = a.clientId)")
+    List<Long> findClientIdsWithoutOwner(Pageable pageable);
+
+    // Valute racuna primalaca za celu stranu istorije placanja jednim upitom
+    @Query("SELECT a.accountNumber AS accountNumber, a.currency.code AS currencyCode FROM accounts a WHERE a.accountNumber IN :accountNumbers")
+    List<AccountCurrency> findCurrencyCodes(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    interface AccountCurrency {
+        String getAccountNumber();
+
+        String getCurrencyCode();
+    }
+
+    interface AccountListRow {
+        // kolone zajednicke za sve upite liste racuna (alias racuna a, valute cur)
+        String COLUMNS = "a.accountNumber AS accountNumber, a.name AS name, a.clientId AS clientId, " +
+                "a.createdByEmployeeId AS createdByEmployeeId, a.creationDate AS creationDate, " +
+                "a.expirationDate AS expirationDate, cur.code AS currencyCode, a.status AS status, " +
+                "a.balance AS balance, a.availableBalance AS availableBalance, a.dailyLimit AS dailyLimit, " +
+                "a.monthlyLimit AS monthlyLimit, a.dailySpending AS dailySpending, a.monthlySpending AS monthlySpending, " +
+                "a.accountOwnerType AS accountOwnerType, a.type AS type";
+
+        String getAccountNumber();
+
+        String getName();
+
+        Long getClientId();
+
+        Long getCompanyId();
+
+        Long getCreatedByEmployeeId();
+
+        LocalDate getCreationDate();
+
+        LocalDate getExpirationDate();
+
+        String getCurrencyCode();
+
+        AccountStatus getStatus();
+
+        BigDecimal getBalance();
+
+        BigDecimal getAvailableBalance();
+
+        BigDecimal getDailyLimit();
+
+        BigDecimal getMonthlyLimit();
+
+        BigDecimal getDailySpending();
+
+        BigDecimal getMonthlySpending();
+
+        AccountOwnerType getAccountOwnerType();
 
+        AccountType getType();
+    }
 }
@@ -0,0 +1,35 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.BulkPaymentLine;
+import rs.raf.bank_service.domain.enums.BulkPaymentLineStatus;
+
+import java.util.List;
+
+@Repository
+public interface BulkPaymentLineRepository extends JpaRepository<BulkPaymentLine, Long> {
+
+    // stavke jednog chunk-a koje jos nisu izvrsene (ponovljena poruka preskace vec obradjene)
+    @Query("SELECT l FROM BulkPaymentLine l WHERE l.order.id = :orderId AND l.lineNumber BETWEEN :firstLine AND :lastLine " +
+            "AND l.status = :status ORDER BY l.lineNumber")
+    List<BulkPaymentLine> findChunk(@Param("orderId") Long orderId,
+                                    @Param("firstLine") int firstLine,
+                                    @Param("lastLine") int lastLine,
+                                    @Param("status") BulkPaymentLineStatus status);
+
+    Page<BulkPaymentLine> findByOrderId(Long orderId, Pageable pageable);
+
+    Page<BulkPaymentLine> findByOrderIdAndStatus(Long orderId, BulkPaymentLineStatus status, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE BulkPaymentLine l SET l.status = :to WHERE l.order.id = :orderId AND l.status = :from")
+    int updateStatus(@Param("orderId") Long orderId,
+                     @Param("from") BulkPaymentLineStatus from,
+                     @Param("to") BulkPaymentLineStatus to);
+}
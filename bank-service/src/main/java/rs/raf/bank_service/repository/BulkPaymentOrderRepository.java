@@ -0,0 +1,36 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.BulkPaymentOrder;
+import rs.raf.bank_service.domain.enums.BulkPaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BulkPaymentOrderRepository extends JpaRepository<BulkPaymentOrder, Long> {
+
+    Page<BulkPaymentOrder> findByClientId(Long clientId, Pageable pageable);
+
+    Optional<BulkPaymentOrder> findByIdAndClientId(Long id, Long clientId);
+
+    // particija javlja rezultat chunk-a, bez citanja i verzionisanja celog naloga
+    @Modifying
+    @Query("UPDATE BulkPaymentOrder o SET o.linesCompleted = o.linesCompleted + :completed, " +
+            "o.linesFailed = o.linesFailed + :failed WHERE o.id = :id")
+    int recordResults(@Param("id") Long id, @Param("completed") int completed, @Param("failed") int failed);
+
+    @Modifying
+    @Query("UPDATE BulkPaymentOrder o SET o.status = :completed, o.finishedAt = :finishedAt " +
+            "WHERE o.id = :id AND o.status = :processing AND o.linesCompleted + o.linesFailed >= o.lineCount")
+    int completeIfFinished(@Param("id") Long id,
+                           @Param("finishedAt") LocalDateTime finishedAt,
+                           @Param("processing") BulkPaymentStatus processing,
+                           @Param("completed") BulkPaymentStatus completed);
+}
@@ -0,0 +1,29 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rs.raf.bank_service.domain.entity.CardAuthorization;
+import rs.raf.bank_service.domain.enums.CardAuthorizationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CardAuthorizationRepository extends JpaRepository<CardAuthorization, Long> {
+
+    @Query("SELECT a.cardNumber AS cardNumber, a.currencyCode AS currencyCode, SUM(a.amount) AS total " +
+            "FROM CardAuthorization a WHERE a.createdAt >= :since AND a.status <> :released GROUP BY a.cardNumber, a.currencyCode")
+    List<CardTotal> sumByCardSince(@Param("since") LocalDateTime since, @Param("released") CardAuthorizationStatus released);
+
+    @Query("SELECT a.id FROM CardAuthorization a WHERE a.status = :status AND a.createdAt < :before")
+    List<Long> findIdsByStatusAndCreatedAtBefore(@Param("status") CardAuthorizationStatus status, @Param("before") LocalDateTime before);
+
+    interface CardTotal {
+        String getCardNumber();
+
+        String getCurrencyCode();
+
+        BigDecimal getTotal();
+    }
+}
@@ -1,9 +1,16 @@
 package rs.raf.bank_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.Card;
+import rs.raf.bank_service.domain.enums.CardIssuer;
+import rs.raf.bank_service.domain.enums.CardStatus;
+import rs.raf.bank_service.domain.enums.CardType;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +21,69 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     List<Card> findByAccount_AccountNumber(String accountNumber);
 
     Optional<Card> findByCardNumber(String cardNumber);
+
+    String LIST_COLUMNS = "c.id AS id, c.cardNumber AS cardNumber, c.cvv AS cvv, c.type AS type, c.issuer AS issuer, " +
+            "c.name AS name, c.creationDate AS creationDate, c.expirationDate AS expirationDate, " +
+            "a.accountNumber AS accountNumber, c.status AS status, c.cardLimit AS cardLimit";
+
+    /// Kartice svih racuna klijenta za listu, bez ucitavanja Account entiteta
+    @Query("SELECT " + LIST_COLUMNS + " FROM Card c JOIN c.account a WHERE a.clientId = :clientId " +
+            "ORDER BY a.accountNumber, c.id")
+    List<CardListRow> findListRowsByClientId(@Param("clientId") Long clientId);
+
+    /// Kartice jednog racuna za listu, bez ucitavanja Account entiteta
+    @Query("SELECT " + LIST_COLUMNS + " FROM Card c JOIN c.account a WHERE a.accountNumber = :accountNumber ORDER BY c.id")
+    List<CardListRow> findListRowsByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    String ACTIVE_CARD_COLUMNS = "c.id AS id, c.cardNumber AS cardNumber, c.cvv AS cvv, c.expirationDate AS expirationDate, " +
+            "c.cardLimit AS cardLimit, a.accountNumber AS accountNumber, cur.code AS currencyCode";
+
+    /// Podaci za autorizaciju bez ucitavanja Account entiteta (i njegovih kartica)
+    @Query("SELECT " + ACTIVE_CARD_COLUMNS + " FROM Card c JOIN c.account a JOIN a.currency cur WHERE c.status = :status")
+    List<ActiveCardRow> findActiveCards(@Param("status") CardStatus status);
+
+    /// Jedna kartica za osvezavanje ActiveCardIndex-a; prazno ako kartica nije u datom statusu
+    @Query("SELECT " + ACTIVE_CARD_COLUMNS + " FROM Card c JOIN c.account a JOIN a.currency cur " +
+            "WHERE c.cardNumber = :cardNumber AND c.status = :status")
+    Optional<ActiveCardRow> findActiveCard(@Param("cardNumber") String cardNumber, @Param("status") CardStatus status);
+
+    interface ActiveCardRow {
+        Long getId();
+
+        String getCardNumber();
+
+        String getCvv();
+
+        LocalDate getExpirationDate();
+
+        BigDecimal getCardLimit();
+
+        String getAccountNumber();
+
+        String getCurrencyCode();
+    }
+
+    interface CardListRow {
+        Long getId();
+
+        String getCardNumber();
+
+        String getCvv();
+
+        CardType getType();
+
+        CardIssuer getIssuer();
+
+        String getName();
+
+        LocalDate getCreationDate();
+
+        LocalDate getExpirationDate();
+
+        String getAccountNumber();
+
+        CardStatus getStatus();
+
+        BigDecimal getCardLimit();
+    }
 }
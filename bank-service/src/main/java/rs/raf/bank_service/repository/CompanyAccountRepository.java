@@ -3,11 +3,19 @@ package rs.raf.bank_service.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
 
 public interface CompanyAccountRepository extends JpaRepository<CompanyAccount, Long> {
     Page<CompanyAccount> findByCompanyId(Long companyId, Pageable pageable);
 
+    /// Racuni firme za listu - samo kolone za AccountDto, bez ucitavanja kartica i valute
+    @Query(value = "SELECT " + AccountRepository.AccountListRow.COLUMNS + ", a.companyId AS companyId " +
+            "FROM CompanyAccount a JOIN a.currency cur WHERE a.companyId = :companyId",
+            countQuery = "SELECT COUNT(a) FROM CompanyAccount a WHERE a.companyId = :companyId")
+    Page<AccountRepository.AccountListRow> findListRowsByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
+
     CompanyAccount findByCompanyId(Long companyId);
 }
 
@@ -1,10 +1,17 @@
 package rs.raf.bank_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.service.ReferenceDataCache;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 public interface CurrencyRepository extends JpaRepository<Currency, Long> {
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = ReferenceDataCache.CURRENCY_QUERIES)
+    })
     Optional<Currency> findByCode(String code);
 }
@@ -0,0 +1,22 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.InstallmentBatchRun;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface InstallmentBatchRunRepository extends JpaRepository<InstallmentBatchRun, Long> {
+
+    Optional<InstallmentBatchRun> findByRunDate(LocalDate runDate);
+
+    // particije javljaju rezultat svog dela chunk-a, bez citanja i verzionisanja cele stavke
+    @Modifying
+    @Query("UPDATE InstallmentBatchRun r SET r.loansPaid = r.loansPaid + :paid, r.loansFailed = r.loansFailed + :failed WHERE r.id = :id")
+    int recordResults(@Param("id") Long id, @Param("paid") long paid, @Param("failed") long failed);
+}
@@ -1,14 +1,66 @@
 package rs.raf.bank_service.repository;
 
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rs.raf.bank_service.domain.entity.Installment;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface InstallmentRepository extends JpaRepository<Installment, Long> {
     // Pronalazi sve rate vezane za određeni kredit
     List<Installment> findByLoanId(Long loanId);
+
+    List<Installment> findByLoanIdOrderByInstallmentNumber(Long loanId);
+
+    List<Installment> findByLoanIdOrderById(Long loanId);
+
+    // Krediti odobreni pre cuvanja celog plana otplate (rate bez rednog broja)
+    @Query("SELECT DISTINCT i.loan.id FROM Installment i WHERE i.installmentNumber IS NULL")
+    List<Long> findLoanIdsWithoutSchedule(Pageable pageable);
+
+    @Query("SELECT DISTINCT i.loan.id FROM Installment i WHERE i.installmentNumber IS NULL AND i.loan.id IN :loanIds")
+    List<Long> findLoanIdsWithoutSchedule(@Param("loanIds") Collection<Long> loanIds);
+
+    // Tekuca i sledeca neplacena rata za svaki kredit, po kreditu i rednom broju
+    @Query("SELECT i FROM Installment i WHERE i.loan.id IN :loanIds AND i.installmentStatus <> :paid " +
+            "AND i.installmentNumber - 1 <= (SELECT MIN(o.installmentNumber) FROM Installment o " +
+            "WHERE o.loan.id = i.loan.id AND o.installmentStatus <> :paid) " +
+            "ORDER BY i.loan.id, i.installmentNumber")
+    List<Installment> findCurrentAndNextOpen(@Param("loanIds") Collection<Long> loanIds, @Param("paid") InstallmentStatus paid);
+
+    // Ocekivani prilivi po mesecu i valuti iz neplacenih rata (projekcija portfolija)
+    @Query("SELECT YEAR(i.expectedDueDate) AS year, MONTH(i.expectedDueDate) AS month, l.currency.code AS currencyCode, " +
+            "COUNT(i) AS installments, SUM(i.amount) AS amount, SUM(i.interestAmount) AS interest, " +
+            "SUM(i.principalAmount) AS principal " +
+            "FROM Installment i JOIN i.loan l " +
+            "WHERE i.installmentStatus <> :paid AND i.expectedDueDate BETWEEN :from AND :to " +
+            "GROUP BY YEAR(i.expectedDueDate), MONTH(i.expectedDueDate), l.currency.code " +
+            "ORDER BY YEAR(i.expectedDueDate), MONTH(i.expectedDueDate), l.currency.code")
+    List<MonthlyProjection> projectByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                           @Param("paid") InstallmentStatus paid);
+
+    interface MonthlyProjection {
+        Integer getYear();
+
+        Integer getMonth();
+
+        String getCurrencyCode();
+
+        Long getInstallments();
+
+        BigDecimal getAmount();
+
+        BigDecimal getInterest();
+
+        BigDecimal getPrincipal();
+    }
 }
@@ -0,0 +1,71 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.LedgerEntry;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Zbir stavki koje jos nisu ukljucene u stanje racuna
+    @Query("SELECT e.direction AS direction, SUM(e.amount) AS total FROM LedgerEntry e " +
+            "WHERE e.accountNumber = :accountNumber AND e.txId >= :fromTxId " +
+            "GROUP BY e.direction")
+    List<DirectionTotal> sumTail(@Param("accountNumber") String accountNumber, @Param("fromTxId") long fromTxId);
+
+    /// Najstarija transakcija koja je jos u toku - sve transakcije sa manjim id-em su zavrsene,
+    /// pa se stavke ispod ove granice vise ne mogu pojaviti
+    @Query(value = "SELECT txid_snapshot_xmin(txid_current_snapshot())", nativeQuery = true)
+    long findSettledTxHorizon();
+
+    // Zbir stavki ispod granice za sve racune ciji snapshot zaostaje
+    @Query("SELECT e.accountNumber AS accountNumber, a.snapshotTxId AS snapshotTxId, e.direction AS direction, SUM(e.amount) AS total " +
+            "FROM LedgerEntry e, accounts a " +
+            "WHERE a.accountNumber = e.accountNumber " +
+            "AND e.txId >= COALESCE(a.snapshotTxId, 0) AND e.txId < :horizon " +
+            "GROUP BY e.accountNumber, a.snapshotTxId, e.direction")
+    List<AccountDirectionTotal> sumPendingSnapshot(@Param("horizon") long horizon);
+
+    // Stanje vise racuna jednim upitom: snapshot i stavke posle njega se citaju u istom upitu pa su konzistentni
+    @Query("SELECT a.accountNumber AS accountNumber, a.status AS status, a.balance AS balance, a.availableBalance AS availableBalance, " +
+            "SUM(CASE WHEN e.direction = rs.raf.bank_service.domain.enums.LedgerEntryDirection.CREDIT THEN e.amount ELSE 0 END) AS credits, " +
+            "SUM(CASE WHEN e.direction = rs.raf.bank_service.domain.enums.LedgerEntryDirection.DEBIT THEN e.amount ELSE 0 END) AS debits " +
+            "FROM accounts a LEFT JOIN LedgerEntry e ON e.accountNumber = a.accountNumber AND e.txId >= COALESCE(a.snapshotTxId, 0) " +
+            "WHERE a.accountNumber IN :accountNumbers " +
+            "GROUP BY a.accountNumber, a.status, a.balance, a.availableBalance")
+    List<AccountBalance> sumBalances(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    interface DirectionTotal {
+        LedgerEntryDirection getDirection();
+
+        BigDecimal getTotal();
+    }
+
+    interface AccountDirectionTotal extends DirectionTotal {
+        String getAccountNumber();
+
+        Long getSnapshotTxId();
+    }
+
+    interface AccountBalance {
+        String getAccountNumber();
+
+        AccountStatus getStatus();
+
+        BigDecimal getBalance();
+
+        BigDecimal getAvailableBalance();
+
+        BigDecimal getCredits();
+
+        BigDecimal getDebits();
+    }
+}
@@ -4,14 +4,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.Loan;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
+import rs.raf.bank_service.domain.enums.InterestRateType;
 import rs.raf.bank_service.domain.enums.LoanStatus;
+import rs.raf.bank_service.domain.enums.LoanType;
 
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
@@ -23,5 +32,58 @@ public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificat
 
     List<Loan> findByNextInstallmentDateAndStartDateBefore(LocalDate nextInstallmentDate, LocalDate beforeStartDate);
 
+    // Zakljucava kredit dok mu se dopunjuje plan otplate (start i naplata mogu istovremeno)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.id = :id")
+    Loan findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT l.account.accountNumber FROM Loan l WHERE l.id = :id")
+    Optional<String> findAccountNumberById(@Param("id") Long id);
+
+    // Sledeca strana dospelih kredita posle kursora - samo id i racun, bez ucitavanja entiteta
+    @Query("SELECT l.id AS id, l.account.accountNumber AS accountNumber FROM Loan l " +
+            "WHERE l.nextInstallmentDate <= :today AND l.startDate < :today AND l.status IN :statuses AND l.id > :afterId " +
+            "ORDER BY l.id")
+    List<DueLoan> findDueLoans(@Param("today") LocalDate today, @Param("statuses") Collection<LoanStatus> statuses,
+                               @Param("afterId") Long afterId, Pageable pageable);
+
+    // Zakljucava kredite chunk-a redom po id-u: istovremena ponovljena poruka ceka commit i zatim ih vidi kao naplacene
+    @Query(value = "SELECT id FROM loans WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Krediti chunk-a koji su i dalje dospeli - vec naplaceni (ponovljena poruka) se preskacu
+    @Query("SELECT l FROM Loan l JOIN FETCH l.account a JOIN FETCH a.currency " +
+            "WHERE l.id IN :ids AND l.nextInstallmentDate <= :today AND l.status IN :statuses")
+    List<Loan> findDueByIdIn(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today,
+                             @Param("statuses") Collection<LoanStatus> statuses);
+
+    // Sledeca strana kredita sa promenljivom stopom posle kursora, samo kolone potrebne za obracun
+    @Query("SELECT l.id AS id, l.amount AS amount, l.type AS type, l.nominalInterestRate AS nominalInterestRate, " +
+            "l.repaymentPeriod AS repaymentPeriod, " +
+            "(SELECT COUNT(i) FROM Installment i WHERE i.loan = l AND i.installmentStatus = :paid) AS paidInstallments " +
+            "FROM Loan l WHERE l.status = :status AND l.interestRateType = :rateType AND l.id > :afterId ORDER BY l.id")
+    List<RepricingLoan> findRepricingLoans(@Param("status") LoanStatus status, @Param("rateType") InterestRateType rateType,
+                                           @Param("paid") InstallmentStatus paid, @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    interface DueLoan {
+        Long getId();
+
+        String getAccountNumber();
+    }
+
+    interface RepricingLoan {
+        Long getId();
+
+        BigDecimal getAmount();
+
+        LoanType getType();
+
+        BigDecimal getNominalInterestRate();
+
+        Integer getRepaymentPeriod();
+
+        Long getPaidInstallments();
+    }
 
 }
@@ -4,6 +4,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.LoanRequest;
@@ -20,4 +23,12 @@ public interface LoanRequestRepository extends JpaRepository<LoanRequest, Long>,
     Optional<LoanRequest> findByIdAndStatus(Long id, LoanRequestStatus status);
 
     Page<LoanRequest> findByAccountIn(List<Account> accounts, Pageable pageable);
+
+    @Query("SELECT r.account.accountNumber FROM LoanRequest r WHERE r.id = :id")
+    Optional<String> findAccountNumberById(@Param("id") Long id);
+
+    // Uslovni prelaz statusa: 0 ako zahtev vise nije u statusu from (vec odobren/odbijen, ponovljena poruka)
+    @Modifying
+    @Query("UPDATE LoanRequest r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") LoanRequestStatus from, @Param("to") LoanRequestStatus to);
 }
\ No newline at end of file
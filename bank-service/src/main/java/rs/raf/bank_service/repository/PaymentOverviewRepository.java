@@ -0,0 +1,37 @@
+package rs.raf.bank_service.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import rs.raf.bank_service.domain.entity.Payment;
+import rs.raf.bank_service.domain.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/// Keyset citanje istorije placanja kao projekcija, bez ucitavanja Payment -> Account -> cards grafa.
+public interface PaymentOverviewRepository {
+
+    /// Najvise limit redova koji zadovoljavaju spec, strogo posle (afterDate, afterId), sortirano po date DESC, id DESC.
+    List<OverviewRow> findOverviewRows(Specification<Payment> spec, LocalDateTime afterDate, Long afterId, int limit);
+
+    /// Offset strana redova koji zadovoljavaju spec, sortirana po pageable-u (kao findAll(spec, pageable), ali kao projekcija).
+    Page<OverviewRow> findOverviewPage(Specification<Payment> spec, Pageable pageable);
+
+    @Getter
+    @AllArgsConstructor
+    class OverviewRow {
+        private final Long id;
+        private final String senderName;
+        private final BigDecimal amount;
+        private final BigDecimal outAmount;
+        private final LocalDateTime date;
+        private final PaymentStatus status;
+        private final String cardNumber;
+        private final String senderCurrencyCode;
+        private final String accountNumberReceiver;
+    }
+}
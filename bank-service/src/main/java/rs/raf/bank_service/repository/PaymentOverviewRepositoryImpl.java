@@ -0,0 +1,89 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import rs.raf.bank_service.domain.entity.Payment;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Spring Data ga pronalazi po imenu (PaymentOverviewRepository + Impl) i ukljucuje u PaymentRepository
+public class PaymentOverviewRepositoryImpl implements PaymentOverviewRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OverviewRow> findOverviewRows(Specification<Payment> spec, LocalDateTime afterDate, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OverviewRow> query = cb.createQuery(OverviewRow.class);
+        Root<Payment> root = query.from(Payment.class);
+        selectOverviewRow(cb, query, root);
+
+        Path<LocalDateTime> date = root.get("date");
+        Path<Long> id = root.get("id");
+
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (afterDate != null && afterId != null) {
+            where = cb.and(where, cb.or(
+                    cb.lessThan(date, afterDate),
+                    cb.and(cb.equal(date, afterDate), cb.lessThan(id, afterId))));
+        }
+        query.where(where);
+        query.orderBy(cb.desc(date), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<OverviewRow> findOverviewPage(Specification<Payment> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OverviewRow> query = cb.createQuery(OverviewRow.class);
+        Root<Payment> root = query.from(Payment.class);
+        selectOverviewRow(cb, query, root);
+        query.where(spec.toPredicate(root, query, cb));
+        if (pageable.getSort().isSorted())
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<OverviewRow> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        // count se preskace kada je strana prva i nepotpuna (isto kao SimpleJpaRepository)
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Payment> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Payment> root = query.from(Payment.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // kartica je LEFT join, valuta posiljaoca se cita kroz join na racun i valutu, bez ucitavanja entiteta
+    private static void selectOverviewRow(CriteriaBuilder cb, CriteriaQuery<OverviewRow> query, Root<Payment> root) {
+        Join<Object, Object> card = root.join("card", JoinType.LEFT);
+        query.select(cb.construct(OverviewRow.class,
+                root.get("id"),
+                root.get("senderName"),
+                root.get("amount"),
+                root.get("outAmount"),
+                root.get("date"),
+                root.get("status"),
+                card.get("cardNumber"),
+                root.get("senderAccount").get("currency").get("code"),
+                root.get("accountNumberReceiver")));
+    }
+}
@@ -2,10 +2,23 @@ package rs.raf.bank_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import rs.raf.bank_service.domain.entity.Payment;
+import rs.raf.bank_service.domain.enums.PaymentStatus;
 
 import java.util.Optional;
 
-public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment>, PaymentOverviewRepository {
     Optional<Payment> findByIdAndClientId(Long id, Long clientId);
+
+    @Query("SELECT p.senderAccount.accountNumber FROM payments p WHERE p.id = :id")
+    Optional<String> findSenderAccountNumberById(@Param("id") Long id);
+
+    // Uslovni prelaz statusa: 0 ako placanje vise nije u statusu from (vec potvrdjeno/odbijeno, ponovljena poruka).
+    // Red ostaje zakljucan do kraja transakcije, pa istovremeni duplikat ceka i vidi novi status.
+    @Modifying
+    @Query("UPDATE payments p SET p.status = :to WHERE p.id = :id AND p.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to);
 }
\ No newline at end of file
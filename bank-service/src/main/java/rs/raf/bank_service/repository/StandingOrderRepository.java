@@ -0,0 +1,49 @@
+package rs.raf.bank_service.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.raf.bank_service.domain.entity.StandingOrder;
+import rs.raf.bank_service.domain.enums.StandingOrderStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    Page<StandingOrder> findByClientId(Long clientId, Pageable pageable);
+
+    Optional<StandingOrder> findByIdAndClientId(Long id, Long clientId);
+
+    /// Najranije dospeli nalozi - citanje ide redom po indeksu idx_standing_orders_due i staje posle jedne strane.
+    /// Kursor nije potreban jer preuzimanje postavlja queuedAt, pa preuzeti nalozi ispadaju iz upita dok se ne izvrse
+    /// ili dok ne istekne rok za ponovno preuzimanje (queuedAt pre requeueBefore).
+    @Query("SELECT o FROM StandingOrder o WHERE o.status = :status AND o.nextExecutionDate <= :today " +
+            "AND (o.queuedAt IS NULL OR o.queuedAt < :requeueBefore) ORDER BY o.nextExecutionDate, o.id")
+    List<StandingOrder> findDue(@Param("status") StandingOrderStatus status,
+                                @Param("today") LocalDate today,
+                                @Param("requeueBefore") LocalDateTime requeueBefore,
+                                Pageable pageable);
+
+    // rezultati izvrsenja jednim upitom za sve naloge chunk-a sa istim datumom (i razlogom neuspeha);
+    // brojaci se ne diraju kroz entitet, a pomeranje naloga ide verzionisanim update-om pri commit-u
+    @Modifying
+    @Query("UPDATE StandingOrder o SET o.executionsCompleted = o.executionsCompleted + 1, " +
+            "o.lastExecutionDate = :executionDate, o.lastFailureReason = null WHERE o.id IN :ids")
+    int recordCompleted(@Param("ids") Collection<Long> ids, @Param("executionDate") LocalDate executionDate);
+
+    @Modifying
+    @Query("UPDATE StandingOrder o SET o.executionsFailed = o.executionsFailed + 1, " +
+            "o.lastExecutionDate = :executionDate, o.lastFailureReason = :reason WHERE o.id IN :ids")
+    int recordFailed(@Param("ids") Collection<Long> ids,
+                     @Param("executionDate") LocalDate executionDate,
+                     @Param("reason") String reason);
+}
@@ -0,0 +1,51 @@
+package rs.raf.bank_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/// Brojevi racuna: 333 (banka) + 0001 (filijala) + 9 cifara iz sekvence + 2 cifre vrste racuna.
+/// Redni broj iz sekvence je jedinstven; redni brojevi postojecih racuna (pocetni podaci) se preskacu bez obzira na vrstu.
+@Service
+public class AccountNumberAllocator {
+
+    static final String BANK_AND_BRANCH = "3330001";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceBlockAllocator serials;
+
+    public AccountNumberAllocator(JdbcTemplate jdbcTemplate, @Value("${account.number.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.serials = new SequenceBlockAllocator(jdbcTemplate, "account_number_seq", blockSize, 999_999_999L, this::takenSerials);
+    }
+
+    public String next(String accountOwnerType) {
+        return BANK_AND_BRANCH + String.format("%09d", serials.next()) + ownerTypeSuffix(accountOwnerType);
+    }
+
+    // brojevi iste duzine se porede leksikografski kao brojevi, pa je blok jedan opseg po primarnom kljucu
+    private Set<Long> takenSerials(long from, long to) {
+        return jdbcTemplate.queryForList("SELECT account_number FROM accounts WHERE account_number BETWEEN ? AND ?", String.class,
+                        BANK_AND_BRANCH + String.format("%09d", from) + "00", BANK_AND_BRANCH + String.format("%09d", to) + "99")
+                .stream()
+                .filter(number -> number.matches("\\d{18}"))
+                .map(number -> Long.parseLong(number.substring(BANK_AND_BRANCH.length(), BANK_AND_BRANCH.length() + 9)))
+                .collect(Collectors.toSet());
+    }
+
+    private static String ownerTypeSuffix(String accountOwnerType) {
+        return switch (accountOwnerType) {
+            case "PERSONAL" -> "11";
+            case "COMPANY" -> "12";
+            case "SAVINGS" -> "13";
+            case "RETIREMENT" -> "14";
+            case "YOUTH" -> "15";
+            case "STUDENT" -> "16";
+            case "UNEMPLOYED" -> "17";
+            default -> "";
+        };
+    }
+}
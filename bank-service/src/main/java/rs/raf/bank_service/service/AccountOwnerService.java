@@ -0,0 +1,106 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.ClientDto;
+import rs.raf.bank_service.domain.dto.UserChangedEventDto;
+import rs.raf.bank_service.domain.entity.AccountOwner;
+import rs.raf.bank_service.domain.enums.UserEntityType;
+import rs.raf.bank_service.repository.AccountOwnerRepository;
+import rs.raf.bank_service.repository.AccountRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/// Odrzava account_owners (imena vlasnika racuna) uskladjenim sa user-service.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountOwnerService {
+
+    private final AccountOwnerRepository accountOwnerRepository;
+    private final AccountRepository accountRepository;
+    private final UserClient userClient;
+
+    @Value("${account-owner.backfill.batch-size:500}")
+    private int backfillBatchSize = 500;
+
+    @Value("${account-owner.backfill.refresh-after-hours:24}")
+    private long refreshAfterHours = 24;
+
+    @Transactional
+    public void sync(ClientDto client) {
+        if (client == null || client.getId() == null)
+            return;
+        upsert(client.getId(), client.getFirstName(), client.getLastName(), client.getVersion());
+    }
+
+    // trajni red deljen izmedju instanci: izmena se upisuje jednom i ne gubi se dok je bank-service ugasen
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(value = RabbitMQConfig.ACCOUNT_OWNER_EVENTS_QUEUE, durable = "true"),
+            exchange = @Exchange(value = RabbitMQConfig.USER_EVENTS_EXCHANGE, type = "fanout")))
+    @Transactional
+    public void onUserChanged(UserChangedEventDto event) {
+        if (event == null || event.getType() != UserEntityType.CLIENT || event.getId() == null)
+            return;
+
+        if (event.isDeleted()) {
+            if (accountOwnerRepository.existsById(event.getId()))
+                accountOwnerRepository.deleteById(event.getId());
+            return;
+        }
+        upsert(event.getId(), event.getFirstName(), event.getLastName(), event.getVersion());
+    }
+
+    // poruke i batch odgovori stizu bez garancije redosleda, pa se red menja samo verzijom koja nije starija od upisane.
+    // Verzija koja nedostaje se racuna kao najstarija (0) i ne pregazi novije ime.
+    private void upsert(Long clientId, String firstName, String lastName, Long version) {
+        long incoming = version != null ? version : 0L;
+        LocalDateTime now = LocalDateTime.now();
+        if (accountOwnerRepository.updateIfNotOlder(clientId, firstName, lastName, incoming, now) == 0
+                && !accountOwnerRepository.existsById(clientId))
+            accountOwnerRepository.save(new AccountOwner(clientId, firstName, lastName, incoming, now));
+    }
+
+    /// Dopunjuje vlasnike koji nedostaju (racuni otvoreni pre uvodjenja tabele) i osvezava one koji dugo nisu sinhronizovani
+    /// (propustene ili zakasnele poruke), po jedan batch poziv user-service za svaku grupu.
+    @Scheduled(initialDelayString = "${account-owner.backfill.initial-delay-ms:10000}",
+            fixedDelayString = "${account-owner.backfill.interval-ms:60000}")
+    @Transactional
+    public void backfillOwners() {
+        List<Long> missing = accountRepository.findClientIdsWithoutOwner(PageRequest.of(0, backfillBatchSize));
+        if (!missing.isEmpty())
+            log.info("Backfilled {} of {} missing account owners", syncFromUserService(missing), missing.size());
+
+        List<Long> stale = accountOwnerRepository.findClientIdsSyncedBefore(
+                LocalDateTime.now().minusHours(refreshAfterHours), PageRequest.of(0, backfillBatchSize));
+        if (!stale.isEmpty())
+            log.info("Refreshed {} of {} stale account owners", syncFromUserService(stale), stale.size());
+    }
+
+    private int syncFromUserService(List<Long> clientIds) {
+        Map<Long, ClientDto> clients = userClient.getClientsByIds(clientIds);
+        // prazan odgovor je verovatno fallback (user-service nedostupan) - ne diramo postojece redove
+        if (clients.isEmpty())
+            return 0;
+
+        clients.values().forEach(this::sync);
+        // klijenti koje user-service nije vratio ostaju sa starim imenom, ali ne blokiraju red za osvezavanje
+        List<Long> notFound = clientIds.stream().filter(id -> !clients.containsKey(id)).toList();
+        if (!notFound.isEmpty())
+            accountOwnerRepository.markSynced(notFound, LocalDateTime.now());
+        return clients.size();
+    }
+}
@@ -7,15 +7,18 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.enums.*;
 import rs.raf.bank_service.domain.mapper.AccountMapper;
+import rs.raf.bank_service.domain.money.Money;
 import rs.raf.bank_service.exceptions.*;
 import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.ChangeLimitRequestRepository;
@@ -30,13 +33,16 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class AccountService {
+
+    private static final int BALANCE_LOOKUP_SIZE = 1000;
+
     private final CurrencyRepository currencyRepository;
     private final CompanyAccountRepository companyAccountRepository;
     private final AccountRepository accountRepository;
@@ -46,49 +52,52 @@ public class AccountService {
     @Autowired
     private final UserClient userClient;
     private final ObjectMapper objectMapper;
+    private final LedgerService ledgerService;
+    private final AccountOwnerService accountOwnerService;
+    private final SpendingLimitService spendingLimitService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final OutboxService outboxService;
 
     public Page<AccountDto> getBankAccounts(Pageable pageable) {
-        return companyAccountRepository.findByCompanyId(1L, pageable).map((account) -> AccountMapper.toDto(account, null));
+        return withLedgerBalances(companyAccountRepository.findListRowsByCompanyId(1L, pageable).map(row -> AccountMapper.toDto(row, null)));
     }
 
     public Page<AccountDto> getAccounts(String accountNumber, String firstName, String lastName, Pageable pageable) {
+        // filter po imenu, sortiranje po prezimenu i paginacija se rade u bazi preko account_owners
+        Page<Account> accounts = accountRepository.searchByOwnerName(
+                normalizeFilter(accountNumber), normalizeFilter(firstName).toLowerCase(), normalizeFilter(lastName).toLowerCase(),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+
+        // user-service se zove samo za racune sa trenutne strane
+        Map<Long, ClientDto> owners = userClient.getClientsByIds(accounts.getContent().stream().map(Account::getClientId).toList());
+        return withLedgerBalances(accounts.map(account -> AccountMapper.toDto(account, owners.get(account.getClientId()))));
+    }
 
-        Specification<Account> spec = Specification
-                .where(AccountSearchSpecification.accountNumberContains(accountNumber));
-        List<Account> accounts = accountRepository.findAll(spec);
-
-        List<AccountDto> accountDtos = accounts.stream().map(account -> {
-            ClientDto client = userClient.getClientById(account.getClientId());
-            return AccountMapper.toDto(account, client);
-        }).collect(Collectors.toList());
-
-        if (firstName != null && !firstName.isEmpty()) {
-            accountDtos = accountDtos.stream()
-                    .filter(dto -> dto.getOwner() != null &&
-                            dto.getOwner().getFirstName() != null &&
-                            dto.getOwner().getFirstName().toLowerCase()
-                                    .contains(firstName.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        if (lastName != null && !lastName.isEmpty()) {
-            accountDtos = accountDtos.stream()
-                    .filter(dto -> dto.getOwner() != null &&
-                            dto.getOwner().getLastName() != null &&
-                            dto.getOwner().getLastName().toLowerCase()
-                                    .contains(lastName.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
+    private static String normalizeFilter(String value) {
+        return value == null ? "" : value.trim();
+    }
 
-        accountDtos.sort(Comparator
-                .comparing(dto -> dto.getOwner() != null && dto.getOwner().getLastName() != null
-                        ? dto.getOwner().getLastName()
-                        : ""));
+    private Page<AccountDto> withLedgerBalances(Page<AccountDto> accounts) {
+        withLedgerBalances(accounts.getContent());
+        return accounts;
+    }
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), accountDtos.size());
-        List<AccountDto> pageContent = accountDtos.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, accountDtos.size());
+    // maper vraca snapshot kolone racuna; rep knjizenja posle snapshot-a se dodaje jednim upitom po delu od
+    // najvise BALANCE_LOOKUP_SIZE racuna (strana ima jedan deo, getAllClientAndBankAccounts vise)
+    private List<AccountDto> withLedgerBalances(List<AccountDto> accounts) {
+        for (int from = 0; from < accounts.size(); from += BALANCE_LOOKUP_SIZE) {
+            List<AccountDto> chunk = accounts.subList(from, Math.min(from + BALANCE_LOOKUP_SIZE, accounts.size()));
+            Map<String, LedgerService.AccountBalances> balances =
+                    ledgerService.getAccountBalances(chunk.stream().map(AccountDto::getAccountNumber).toList());
+            for (AccountDto dto : chunk) {
+                LedgerService.AccountBalances balance = balances.get(dto.getAccountNumber());
+                if (balance != null) {
+                    dto.setBalance(balance.balance());
+                    dto.setAvailableBalance(balance.availableBalance());
+                }
+            }
+        }
+        return accounts;
     }
 
     public Page<AccountDto> getAccountsForClient(String accountNumber, Long clientId, Pageable pageable) {
@@ -99,7 +108,7 @@ public class AccountService {
                         .and(AccountSearchSpecification.clientIs(clientId)));
         Page<Account> accounts = accountRepository.findAll(spec, pageable);
 
-        return accounts.map(account -> AccountMapper.toDto(account, client));
+        return withLedgerBalances(accounts.map(account -> AccountMapper.toDto(account, client)));
     }
 
     public AccountDto createNewBankAccount(NewBankAccountDto newBankAccountDto, String authorizationHeader) {
@@ -108,6 +117,7 @@ public class AccountService {
         ClientDto clientDto = userClient.getClientById(userId);
         if (clientDto == null)
             throw new ClientNotFoundException(userId);
+        accountOwnerService.sync(clientDto);
         Account newAccount;
         if (newBankAccountDto.getAccountType().equals(AccountOwnerType.COMPANY.toString())) {
             newAccount = new CompanyAccount();
@@ -133,19 +143,7 @@ public class AccountService {
         newAccount.setDailySpending(newBankAccountDto.getDailySpending());
         newAccount.setMonthlySpending(newBankAccountDto.getMonthlySpending());
 
-        String random = String.format("%09d", ThreadLocalRandom.current().nextInt(0, 1_000_000_000));
-        String accountOwnerTypeNumber = "";
-        switch (newBankAccountDto.getAccountOwnerType()) {
-            case "PERSONAL" -> accountOwnerTypeNumber = "11";
-            case "COMPANY" -> accountOwnerTypeNumber = "12";
-            case "SAVINGS" -> accountOwnerTypeNumber = "13";
-            case "RETIREMENT" -> accountOwnerTypeNumber = "14";
-            case "YOUTH" -> accountOwnerTypeNumber = "15";
-            case "STUDENT" -> accountOwnerTypeNumber = "16";
-            case "UNEMPLOYED" -> accountOwnerTypeNumber = "17";
-        }
-
-        String accountNumber = "3330001" + random + accountOwnerTypeNumber;
+        String accountNumber = accountNumberAllocator.next(newBankAccountDto.getAccountOwnerType());
         newAccount.setAccountNumber(accountNumber);
 
         return AccountMapper.toDto(accountRepository.save(newAccount), clientDto);
@@ -155,8 +153,9 @@ public class AccountService {
         try {
             ClientDto clientDto = userClient.getClientById(clientId);
 
-            return accountRepository.findAllByClientId(clientId).stream().map(account ->
-                    AccountMapper.toDto(account, clientDto)).sorted(Comparator.comparing(AccountDto::getAvailableBalance,
+            List<AccountDto> accounts = accountRepository.findListRowsByClientId(clientId).stream()
+                    .map(row -> AccountMapper.toDto(row, clientDto)).collect(Collectors.toList());
+            return withLedgerBalances(accounts).stream().sorted(Comparator.comparing(AccountDto::getAvailableBalance,
                     Comparator.nullsLast(Comparator.naturalOrder())).reversed()).collect(Collectors.toList());
         } catch (FeignException.NotFound e) {
             throw new UserNotAClientException();
@@ -208,6 +207,12 @@ public class AccountService {
                 accountDetailsDto = companyAccountDetailsDto;
             }
 
+            LedgerService.AccountBalances balances = ledgerService.getAccountBalances(List.of(accountNumber)).get(accountNumber);
+            if (balances != null) {
+                accountDetailsDto.setBalance(balances.balance());
+                accountDetailsDto.setAvailableBalance(balances.availableBalance());
+            }
+
             return accountDetailsDto;
         } catch (FeignException e) {
             e.printStackTrace();
@@ -240,6 +245,7 @@ public class AccountService {
         System.out.println(">>> SUCCESS: Account name changed to '" + newName + "'");
     }
 
+    @Transactional
     public void requestAccountLimitChange(String accountNumber, BigDecimal newLimit, String authHeader) throws JsonProcessingException {
         if (newLimit.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Limit must be greater than zero");
@@ -274,7 +280,8 @@ public class AccountService {
                 .details(objectMapper.writeValueAsString(changeAccountLimitDetailsDto))
                 .build();
 
-        userClient.createVerificationRequest(verificationRequest);
+        // zahtev za verifikaciju ide preko outbox-a u istoj transakciji, user-service ga upisuje asinhrono
+        outboxService.enqueue(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, verificationRequest);
 
         log.info("Verification request created for client {}. Please approve to proceed.", clientId);
     }
@@ -293,6 +300,7 @@ public class AccountService {
 
         account.setDailyLimit(request.getNewLimit());
         accountRepository.save(account);
+        spendingLimitService.updateLimits(account);
 
 
         request.setStatus(VerificationStatus.APPROVED);
@@ -350,7 +358,8 @@ public class AccountService {
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccNotFoundException("Account not found"));
 
-        return account.getBalance(); //vidi da li treba balance ili availabe balance
+        // snapshot sa racuna + knjizenja koja jos nisu prenesena u snapshot
+        return ledgerService.getBalance(account);
     }
 
     public List<AccountDto> getAllClientAndBankAccounts() {
@@ -359,11 +368,9 @@ public class AccountService {
                 .filter(account -> account.getClientId() != null)
                 .toList();
 
+        Map<Long, ClientDto> owners = userClient.getClientsByIds(clientAccounts.stream().map(Account::getClientId).toList());
         List<AccountDto> clientAccountDtos = clientAccounts.stream()
-                .map(account -> {
-                    ClientDto client = userClient.getClientById(account.getClientId());
-                    return AccountMapper.toDto(account, client);
-                })
+                .map(account -> AccountMapper.toDto(account, owners.get(account.getClientId())))
                 .toList();
 
         List<CompanyAccount> bankAccounts = companyAccountRepository
@@ -378,37 +385,63 @@ public class AccountService {
 
         allAccounts.sort(Comparator.comparing(AccountDto::getAccountNumber));
 
-        return allAccounts;
+        return withLedgerBalances(allAccounts);
     }
 
 
+    /// Rezervacija sredstava za nalog iz stock-service (negativan iznos oslobadja visak rezervacije).
+    /// Novac se ne knjizi - umanjuje se samo raspolozivo stanje, relativnim update-om.
+    @Transactional
     public void updateAvailableBalance(String accountNumber, BigDecimal amount){
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(AccountNotFoundException::new);
-
-        if(!account.getCurrency().getCode().equals("USD")){
-            ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate("USD", account.getCurrency().getCode());
-            amount = amount.multiply(exchangeRateDto.getExchangeRate());
-        }
+        Account account = lockAccount(accountNumber);
 
-        if (account.getAvailableBalance().compareTo(amount) < 0)
-            throw new InsufficientFundsException(account.getAvailableBalance(), amount);
+        Money debit = toAccountCurrency(account, amount);
+        BigDecimal available = ledgerService.getAvailableBalance(account);
+        if (debit.signum() > 0 && Money.ofRounded(available, debit.getCurrencyCode()).isLessThan(debit))
+            throw new InsufficientFundsException(available, debit.toBigDecimal());
 
-        account.setAvailableBalance(account.getAvailableBalance().subtract(amount));
-        accountRepository.save(account);
+        accountRepository.adjustAvailableBalance(accountNumber, debit.negate().toBigDecimal());
     }
 
+    /// Izvrsenje (dela) naloga iz stock-service: knjizi se sa racuna na racun banke u istoj valuti, a rezervacija
+    /// se umanjuje za isti iznos da snapshot ne bi skinuo raspolozivo stanje drugi put.
+    @Transactional
     public void updateBalance(String accountNumber, BigDecimal amount){
-        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(AccountNotFoundException::new);
+        Account account = lockAccount(accountNumber);
+
+        Money debit = toAccountCurrency(account, amount);
+        if (debit.signum() == 0)
+            return;
+        BigDecimal balance = ledgerService.getBalance(account);
+        if (debit.signum() > 0 && Money.ofRounded(balance, debit.getCurrencyCode()).isLessThan(debit))
+            throw new InsufficientFundsException(balance, debit.toBigDecimal());
+
+        CompanyAccount bankAccount = accountRepository.findFirstByCurrencyAndCompanyId(account.getCurrency(), 1L)
+                .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + debit.getCurrencyCode()));
+        Money value = debit.signum() > 0 ? debit : debit.negate();
+        List<LedgerEntry> legs = debit.signum() > 0
+                ? List.of(LedgerEntry.debit(account, value), LedgerEntry.credit(bankAccount, value))
+                : List.of(LedgerEntry.debit(bankAccount, value), LedgerEntry.credit(account, value));
+        ledgerService.post(PostingType.SECURITIES_ORDER, legs);
+        accountRepository.adjustAvailableBalance(accountNumber, debit.toBigDecimal());
+    }
 
-        if(!account.getCurrency().getCode().equals("USD")){
-            ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate("USD", account.getCurrency().getCode());
-            amount = amount.multiply(exchangeRateDto.getExchangeRate());
-        }
+    // zakljucava red racuna da se dve provere stanja istog racuna ne bi preklopile
+    private Account lockAccount(String accountNumber) {
+        Account account = accountRepository.findByIdForUpdate(accountNumber);
+        if (account == null)
+            throw new AccountNotFoundException();
+        return account;
+    }
 
-        if (account.getBalance().compareTo(amount) < 0)
-            throw new InsufficientFundsException(account.getBalance(), amount);
+    // iznosi iz stock-service stizu u USD
+    private Money toAccountCurrency(Account account, BigDecimal usdAmount) {
+        Money amount = Money.ofRounded(usdAmount, "USD");
+        String currencyCode = account.getCurrency().getCode();
+        if (currencyCode.equals("USD"))
+            return amount;
 
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate("USD", currencyCode);
+        return amount.convert(exchangeRateDto.getExchangeRate(), currencyCode);
     }
 }
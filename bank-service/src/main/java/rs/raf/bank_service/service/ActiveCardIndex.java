@@ -0,0 +1,98 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.CardChangedEventDto;
+import rs.raf.bank_service.domain.entity.Card;
+import rs.raf.bank_service.domain.enums.CardStatus;
+import rs.raf.bank_service.repository.CardRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Aktivne kartice po broju kartice, za autorizaciju bez citanja iz baze.
+/// Ucitava se pri startu, a CardService ga azurira pri kreiranju kartice i svakoj promeni statusa: lokalno posle commit-a,
+/// a ostale instance preko card-events exchange-a (outbox) ponovo citaju karticu iz baze.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActiveCardIndex {
+
+    private final CardRepository cardRepository;
+    private final OutboxService outboxService;
+    private final Map<String, ActiveCard> cards = new ConcurrentHashMap<>();
+
+    public void load() {
+        int loaded = 0;
+        for (CardRepository.ActiveCardRow row : cardRepository.findActiveCards(CardStatus.ACTIVE)) {
+            cards.put(row.getCardNumber(), toActiveCard(row));
+            loaded++;
+        }
+        log.info("Active card index loaded with {} cards", loaded);
+    }
+
+    /// null ako kartica ne postoji ili nije aktivna
+    public ActiveCard get(String cardNumber) {
+        return cards.get(cardNumber);
+    }
+
+    /// Poziva se u transakciji koja menja karticu - indeks se menja tek kada je promena commit-ovana
+    public void update(Card card) {
+        String cardNumber = card.getCardNumber();
+        ActiveCard active = card.getStatus() != CardStatus.ACTIVE ? null : new ActiveCard(card.getId(), cardNumber, card.getCvv(),
+                card.getAccount().getAccountNumber(), card.getAccount().getCurrency().getCode(),
+                card.getExpirationDate(), card.getCardLimit());
+        outboxService.enqueue(RabbitMQConfig.CARD_EVENTS_EXCHANGE, "", new CardChangedEventDto(cardNumber));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(cardNumber, active);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(cardNumber, active);
+            }
+        });
+    }
+
+    /// Svaka instanca ima svoj anonimni red; kartica se cita iz baze, pa redosled poruka nije bitan
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(value = RabbitMQConfig.CARD_EVENTS_EXCHANGE, type = "fanout")))
+    public void onCardChanged(CardChangedEventDto event) {
+        apply(event.getCardNumber(), cardRepository.findActiveCard(event.getCardNumber(), CardStatus.ACTIVE)
+                .map(ActiveCardIndex::toActiveCard)
+                .orElse(null));
+    }
+
+    private void apply(String cardNumber, ActiveCard active) {
+        if (active != null)
+            cards.put(cardNumber, active);
+        else
+            cards.remove(cardNumber);
+    }
+
+    private static ActiveCard toActiveCard(CardRepository.ActiveCardRow row) {
+        return new ActiveCard(row.getId(), row.getCardNumber(), row.getCvv(), row.getAccountNumber(),
+                row.getCurrencyCode(), row.getExpirationDate(), row.getCardLimit());
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    public record ActiveCard(Long cardId, String cardNumber, String cvv, String accountNumber, String currencyCode,
+                             LocalDate expirationDate, BigDecimal cardLimit) {
+    }
+}
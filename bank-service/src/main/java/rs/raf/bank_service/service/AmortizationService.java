@@ -0,0 +1,149 @@
+package rs.raf.bank_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import rs.raf.bank_service.domain.entity.Installment;
+import rs.raf.bank_service.domain.entity.Loan;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
+import rs.raf.bank_service.domain.enums.LoanStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Plan otplate kredita (anuiteti). Ceo plan se racuna i cuva pri odobravanju i promeni kamate,
+/// pa naplata rate samo cita sledecu ratu iz plana.
+/// Anuitetni faktori se kesiraju po (mesecna stopa, broj rata) jer se isti parovi ponavljaju kroz ceo portfolio.
+@Service
+public class AmortizationService {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal MONTHS_IN_YEAR = new BigDecimal("12");
+
+    private final Cache<AnnuityKey, AnnuityFactor> annuityFactors;
+
+    public AmortizationService(MeterRegistry meterRegistry,
+                               @Value("${amortization.annuity-cache.max-size:10000}") long maxSize) {
+        this.annuityFactors = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxSize).recordStats().build(), "amortization.annuity-factors");
+    }
+
+    /// Iznos rate - isti rezultat kao LoanRateCalculator.calculateMonthlyRate, ali bez BigDecimal.pow za svaki poziv
+    public BigDecimal installmentAmount(BigDecimal principal, BigDecimal annualRate, int months) {
+        AnnuityFactor factor = annuityFactor(annualRate, months);
+        if (factor.denominator().signum() == 0)
+            return principal.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+        return principal.multiply(factor.numerator()).divide(factor.denominator(), 2, RoundingMode.HALF_UP);
+    }
+
+    /// Ceo plan otplate: kamata na preostalu glavnicu, ostatak rate ide na glavnicu, poslednja rata zatvara ostatak
+    public List<ScheduleRow> schedule(BigDecimal principal, BigDecimal annualRate, int months) {
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        BigDecimal payment = installmentAmount(principal, annualRate, months);
+
+        List<ScheduleRow> rows = new ArrayList<>(months);
+        BigDecimal remaining = principal;
+        for (int number = 1; number <= months; number++) {
+            BigDecimal interest = remaining.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal principalPart = number == months ? remaining : payment.subtract(interest).min(remaining);
+            remaining = remaining.subtract(principalPart);
+            rows.add(new ScheduleRow(number, principalPart.add(interest), interest, principalPart, remaining));
+        }
+        return rows;
+    }
+
+    /// Rate za novi kredit, prva dospeva firstDueDate, svaka sledeca mesec dana kasnije
+    public List<Installment> createInstallments(Loan loan, LocalDate firstDueDate) {
+        List<Installment> installments = new ArrayList<>(loan.getRepaymentPeriod());
+        for (ScheduleRow row : schedule(loan.getAmount(), loan.getEffectiveInterestRate(), loan.getRepaymentPeriod())) {
+            installments.add(newInstallment(loan, row, firstDueDate.plusMonths(row.number() - 1L)));
+        }
+        return installments;
+    }
+
+    /// Plan za kredit odobren pre cuvanja celog plana: postojece rate (placene, pa tekuca, po redosledu nastanka)
+    /// dobijaju redne brojeve i podelu iz plana, a vracaju se rate koje nedostaju do kraja otplate.
+    public List<Installment> completeLegacySchedule(Loan loan, List<Installment> existing) {
+        List<ScheduleRow> rows = schedule(loan.getAmount(), loan.getEffectiveInterestRate(), loan.getRepaymentPeriod());
+        for (int i = 0; i < existing.size(); i++) {
+            Installment installment = existing.get(i);
+            installment.setInstallmentNumber(i + 1);
+            if (i < rows.size())
+                applySplit(installment, rows.get(i));
+        }
+
+        List<Installment> missing = new ArrayList<>();
+        if (existing.isEmpty() || loan.getStatus() == LoanStatus.PAID_OFF)
+            return missing;
+
+        // iznos i rok postojece tekuce rate se ne menjaju, sledece rate idu mesecno posle nje
+        LocalDate lastDueDate = existing.get(existing.size() - 1).getExpectedDueDate();
+        for (int number = existing.size() + 1; number <= rows.size(); number++) {
+            missing.add(newInstallment(loan, rows.get(number - 1), lastDueDate.plusMonths(number - existing.size())));
+        }
+        return missing;
+    }
+
+    private static Installment newInstallment(Loan loan, ScheduleRow row, LocalDate expectedDueDate) {
+        Installment installment = new Installment(loan, row.amount(), loan.getEffectiveInterestRate(),
+                expectedDueDate, InstallmentStatus.UNPAID);
+        installment.setInstallmentNumber(row.number());
+        applySplit(installment, row);
+        return installment;
+    }
+
+    private static void applySplit(Installment installment, ScheduleRow row) {
+        installment.setInterestAmount(row.interest());
+        installment.setPrincipalAmount(row.principal());
+        installment.setRemainingPrincipal(row.remainingPrincipal());
+    }
+
+    /// Zatvara tekucu ratu i pomera kredit na sledecu iz plana (openInstallments: neplacene rate po redu, bar tekuca i sledeca)
+    public void applyPayment(Loan loan, List<Installment> openInstallments, BigDecimal paidAmount, LocalDate paidOn) {
+        loan.setRemainingDebt(loan.getRemainingDebt().subtract(paidAmount).max(BigDecimal.ZERO));
+
+        if (!openInstallments.isEmpty()) {
+            Installment current = openInstallments.get(0);
+            current.setInstallmentStatus(InstallmentStatus.PAID);
+            current.setActualDueDate(paidOn);
+        }
+
+        if (openInstallments.size() > 1) {
+            Installment next = openInstallments.get(1);
+            loan.setNextInstallmentDate(next.getExpectedDueDate());
+            loan.setNextInstallmentAmount(next.getAmount());
+        } else {
+            loan.setStatus(LoanStatus.PAID_OFF);
+        }
+    }
+
+    private AnnuityFactor annuityFactor(BigDecimal annualRate, int months) {
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        return annuityFactors.get(new AnnuityKey(monthlyRate.stripTrailingZeros(), months), key -> {
+            BigDecimal onePlusRPowerN = monthlyRate.add(BigDecimal.ONE).pow(months);
+            return new AnnuityFactor(monthlyRate.multiply(onePlusRPowerN), onePlusRPowerN.subtract(BigDecimal.ONE));
+        });
+    }
+
+    // ista zaokruzivanja kao u LoanRateCalculator
+    private static BigDecimal monthlyRate(BigDecimal annualRate) {
+        return annualRate.divide(HUNDRED, 6, RoundingMode.HALF_UP).divide(MONTHS_IN_YEAR, 6, RoundingMode.HALF_UP);
+    }
+
+    public record ScheduleRow(int number, BigDecimal amount, BigDecimal interest, BigDecimal principal,
+                              BigDecimal remainingPrincipal) {
+    }
+
+    private record AnnuityKey(BigDecimal monthlyRate, int months) {
+    }
+
+    // rata = glavnica * numerator / denominator
+    private record AnnuityFactor(BigDecimal numerator, BigDecimal denominator) {
+    }
+}
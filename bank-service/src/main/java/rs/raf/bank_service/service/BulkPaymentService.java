@@ -0,0 +1,359 @@
+package rs.raf.bank_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.*;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.mapper.BulkPaymentMapper;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.*;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.BulkPaymentLineRepository;
+import rs.raf.bank_service.repository.BulkPaymentOrderRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/// Grupna placanja sa racuna firme (npr. isplata zarada).
+/// Ceo fajl se proverava odjednom (jedan upit za sve primaoce, jedna provera stanja i limita za zbir),
+/// pa se za nalog salje jedan zahtev za verifikaciju umesto po jedan za svako placanje.
+/// Posle potvrde nalog se deli na chunk-ove koji svi idu u particiju transaction-queue racuna platioca - izvrsavaju se
+/// redom sa ostalim transakcijama tog racuna, a svaki chunk je jedno knjizenje u ledger-u.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkPaymentService {
+
+    private static final Long BANK_COMPANY_ID = 1L;
+
+    private final AccountRepository accountRepository;
+    private final BulkPaymentOrderRepository bulkPaymentOrderRepository;
+    private final BulkPaymentLineRepository bulkPaymentLineRepository;
+    private final PaymentRepository paymentRepository;
+    private final LedgerService ledgerService;
+    private final SpendingLimitService spendingLimitService;
+    private final ExchangeRateService exchangeRateService;
+    private final TransactionQueueService transactionQueueService;
+    private final OutboxService outboxService;
+    private final UserClient userClient;
+    private final BulkPaymentMapper bulkPaymentMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${bulk-payment.max-lines:10000}")
+    private int maxLines = 10000;
+
+    @Value("${bulk-payment.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Transactional
+    public BulkPaymentOrderDto createBulkPayment(CreateBulkPaymentDto dto, Long clientId) throws JsonProcessingException {
+        Account sender = accountRepository.findByAccountNumberAndClientId(dto.getSenderAccountNumber(), clientId)
+                .orElseThrow(() -> new SenderAccountNotFoundException(dto.getSenderAccountNumber()));
+        if (!(sender instanceof CompanyAccount companyAccount))
+            throw new BulkPaymentValidationException("Bulk payments are available only for company accounts.");
+        if (dto.getLines().size() > maxLines)
+            throw new BulkPaymentValidationException("Bulk payment cannot have more than " + maxLines + " lines.");
+
+        String senderCurrency = sender.getCurrency().getCode();
+        Map<String, String> receiverCurrencies = accountRepository.findCurrencyCodes(dto.getLines().stream()
+                        .map(BulkPaymentLineRequestDto::getReceiverAccountNumber)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(AccountRepository.AccountCurrency::getAccountNumber,
+                        AccountRepository.AccountCurrency::getCurrencyCode, (a, b) -> a));
+
+        List<BulkPaymentLineErrorDto> errors = new ArrayList<>();
+        for (int i = 0; i < dto.getLines().size(); i++) {
+            String error = validateLine(dto.getLines().get(i), sender, receiverCurrencies);
+            if (error != null)
+                errors.add(new BulkPaymentLineErrorDto(i + 1, error));
+        }
+        if (!errors.isEmpty())
+            throw new BulkPaymentValidationException("Bulk payment has " + errors.size() + " invalid lines.", errors);
+
+        Money total = dto.getLines().stream()
+                .map(line -> Money.of(line.getAmount(), senderCurrency))
+                .reduce(Money.zero(senderCurrency), Money::plus);
+        BigDecimal senderBalance = ledgerService.getAvailableBalance(sender);
+        if (Money.ofRounded(senderBalance, senderCurrency).isLessThan(total))
+            throw new InsufficientFundsException(senderBalance, total.toBigDecimal());
+        // ceo iznos se rezervise u limitu odmah, neuspele stavke, odbijen nalog i rollback ga vracaju
+        spendingLimitService.reserve(sender, total);
+
+        BulkPaymentOrder order = new BulkPaymentOrder();
+        order.setClientId(clientId);
+        order.setSenderAccount(sender);
+        order.setSenderName(senderName(companyAccount, clientId));
+        order.setStatus(BulkPaymentStatus.PENDING_CONFIRMATION);
+        order.setLineCount(dto.getLines().size());
+        order.setTotalAmount(total.toBigDecimal());
+        order.setCreatedAt(LocalDateTime.now());
+        bulkPaymentOrderRepository.save(order);
+
+        // procena iznosa u valuti primaoca po prodajnom kursu, kao kod pojedinacnog placanja
+        Map<String, BigDecimal> sellRates = new HashMap<>();
+        List<BulkPaymentLine> lines = new ArrayList<>(dto.getLines().size());
+        for (int i = 0; i < dto.getLines().size(); i++) {
+            BulkPaymentLineRequestDto request = dto.getLines().get(i);
+            Money amount = Money.of(request.getAmount(), senderCurrency);
+            String receiverCurrency = receiverCurrencies.get(request.getReceiverAccountNumber());
+            Money outAmount = receiverCurrency.equals(senderCurrency) ? amount : amount.convert(sellRates.computeIfAbsent(receiverCurrency,
+                    code -> exchangeRateService.getExchangeRate(senderCurrency, code).getSellRate()), receiverCurrency);
+
+            BulkPaymentLine line = new BulkPaymentLine();
+            line.setOrder(order);
+            line.setLineNumber(i + 1);
+            line.setReceiverAccountNumber(request.getReceiverAccountNumber());
+            line.setReceiverName(request.getReceiverName());
+            line.setAmount(amount.toBigDecimal());
+            line.setOutAmount(outAmount.toBigDecimal());
+            line.setPaymentCode(request.getPaymentCode());
+            line.setPurposeOfPayment(request.getPurposeOfPayment());
+            line.setReferenceNumber(request.getReferenceNumber());
+            line.setStatus(BulkPaymentLineStatus.PENDING);
+            lines.add(line);
+        }
+        bulkPaymentLineRepository.saveAll(lines);
+
+        BulkPaymentVerificationDetailsDto details = BulkPaymentVerificationDetailsDto.builder()
+                .fromAccountNumber(sender.getAccountNumber())
+                .lineCount(order.getLineCount())
+                .totalAmount(order.getTotalAmount())
+                .currencyCode(senderCurrency)
+                .build();
+        outboxService.enqueue(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, new CreateVerificationRequestDto(
+                clientId, order.getId(), VerificationType.BULK_PAYMENT, objectMapper.writeValueAsString(details)));
+
+        return bulkPaymentMapper.toDto(order);
+    }
+
+    // null ako je stavka ispravna
+    private static String validateLine(BulkPaymentLineRequestDto line, Account sender, Map<String, String> receiverCurrencies) {
+        if (line.getReceiverAccountNumber() == null || line.getReceiverAccountNumber().isBlank())
+            return "Receiver account number is required.";
+        if (line.getAmount() == null || line.getAmount().signum() <= 0)
+            return "Amount must be positive.";
+        if (!Money.hasValidScale(line.getAmount(), sender.getCurrency().getCode()))
+            return "Amount has more decimals than the account currency allows.";
+        if (line.getPaymentCode() == null || line.getPaymentCode().isBlank())
+            return "Payment code is required.";
+        if (line.getPurposeOfPayment() == null || line.getPurposeOfPayment().isBlank())
+            return "Purpose of payment is required.";
+        if (line.getReceiverAccountNumber().equals(sender.getAccountNumber()))
+            return "Receiver account must differ from the sender account.";
+        if (!receiverCurrencies.containsKey(line.getReceiverAccountNumber()))
+            return "Receiver account not found: " + line.getReceiverAccountNumber();
+        return null;
+    }
+
+    private String senderName(CompanyAccount sender, Long clientId) {
+        if (BANK_COMPANY_ID.equals(sender.getCompanyId()))
+            return "Banka 2";
+        ClientDto clientDto = userClient.getClientById(clientId);
+        return clientDto.getFirstName() + " " + clientDto.getLastName();
+    }
+
+    /// Posle verifikacije u user-service: svi chunk-ovi se upisuju u outbox u istoj transakciji sa promenom statusa.
+    /// false ako nalog nije na cekanju potvrde (vec potvrdjen ili odbijen).
+    @Transactional
+    public boolean confirmBulkPayment(Long orderId) {
+        BulkPaymentOrder order = bulkPaymentOrderRepository.findById(orderId)
+                .orElseThrow(() -> new BulkPaymentNotFoundException(orderId));
+        if (order.getStatus() != BulkPaymentStatus.PENDING_CONFIRMATION)
+            return false;
+
+        order.setStatus(BulkPaymentStatus.PROCESSING);
+        order.setConfirmedAt(LocalDateTime.now());
+        bulkPaymentOrderRepository.save(order);
+
+        String senderAccountNumber = order.getSenderAccount().getAccountNumber();
+        for (int firstLine = 1; firstLine <= order.getLineCount(); firstLine += chunkSize) {
+            int lastLine = Math.min(order.getLineCount(), firstLine + chunkSize - 1);
+            transactionQueueService.queueTransaction(TransactionType.PAY_BULK_PAYMENT,
+                    new BulkPaymentChunkDto(orderId, firstLine, lastLine), null, senderAccountNumber);
+        }
+        return true;
+    }
+
+    @Transactional
+    public void rejectBulkPayment(Long orderId) {
+        BulkPaymentOrder order = bulkPaymentOrderRepository.findById(orderId)
+                .orElseThrow(() -> new BulkPaymentNotFoundException(orderId));
+        if (order.getStatus() != BulkPaymentStatus.PENDING_CONFIRMATION)
+            throw new RejectNonPendingRequestException();
+
+        order.setStatus(BulkPaymentStatus.CANCELED);
+        order.setFinishedAt(LocalDateTime.now());
+        bulkPaymentOrderRepository.save(order);
+        bulkPaymentLineRepository.updateStatus(orderId, BulkPaymentLineStatus.PENDING, BulkPaymentLineStatus.CANCELED);
+
+        Account sender = order.getSenderAccount();
+        spendingLimitService.release(sender, Money.ofRounded(order.getTotalAmount(), sender.getCurrency().getCode()),
+                order.getCreatedAt().toLocalDate());
+    }
+
+    /// Izvrsava jedan chunk (poziva se iz particije transaction-queue).
+    /// Stavke za koje nema sredstava, kursa ili racuna (primaoca ili banke) se oznacavaju kao neuspele sa razlogom,
+    /// ostale se knjize zajedno - po stavka za platioca i primaoca, racuni banke dobijaju zbir po valuti.
+    @Transactional
+    public void executeChunk(BulkPaymentChunkDto chunk) {
+        BulkPaymentOrder order = bulkPaymentOrderRepository.findById(chunk.getOrderId())
+                .orElseThrow(() -> new BulkPaymentNotFoundException(chunk.getOrderId()));
+        if (order.getStatus() != BulkPaymentStatus.PROCESSING)
+            return;
+
+        List<BulkPaymentLine> lines = bulkPaymentLineRepository.findChunk(order.getId(), chunk.getFirstLine(),
+                chunk.getLastLine(), BulkPaymentLineStatus.PENDING);
+        if (lines.isEmpty())
+            return;
+
+        Account sender = order.getSenderAccount();
+        String senderCurrency = sender.getCurrency().getCode();
+        Money available = Money.ofRounded(ledgerService.getAvailableBalance(sender), senderCurrency);
+        Map<String, Account> receivers = accountRepository.findByAccountNumberIn(lines.stream()
+                        .map(BulkPaymentLine::getReceiverAccountNumber)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        Map<String, CompanyAccount> bankAccounts = new HashMap<>();
+        Map<BulkPaymentLine, Payment> payments = new LinkedHashMap<>();
+        Money failedTotal = Money.zero(senderCurrency);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (BulkPaymentLine line : lines) {
+            Money amount = Money.ofRounded(line.getAmount(), senderCurrency);
+            Account receiver = receivers.get(line.getReceiverAccountNumber());
+            String failure = receiver == null ? "Receiver account not found."
+                    : available.isLessThan(amount) ? "Insufficient funds." : null;
+
+            // kurs i racuni banke se razresavaju po stavci, da neuspeh jedne stavke ne vrati ceo chunk u red
+            Money outAmount = amount;
+            if (failure == null && !receiver.getCurrency().getCode().equals(senderCurrency)) {
+                String receiverCurrency = receiver.getCurrency().getCode();
+                try {
+                    outAmount = amount.convert(rates.computeIfAbsent(receiverCurrency,
+                            code -> exchangeRateService.getExchangeRate(senderCurrency, code).getExchangeRate()), receiverCurrency);
+                } catch (CurrencyNotFoundException | ExchangeRateNotFoundException e) {
+                    failure = "Exchange rate not available.";
+                }
+                if (failure == null && (bankAccount(bankAccounts, sender.getCurrency()) == null
+                        || bankAccount(bankAccounts, receiver.getCurrency()) == null))
+                    failure = "Bank account not found.";
+            }
+            if (failure != null) {
+                line.setStatus(BulkPaymentLineStatus.FAILED);
+                line.setFailureReason(failure);
+                failedTotal = failedTotal.plus(amount);
+                continue;
+            }
+            available = available.minus(amount);
+
+            Payment payment = new Payment();
+            payment.setSenderName(order.getSenderName());
+            payment.setClientId(order.getClientId());
+            payment.setSenderAccount(sender);
+            payment.setAccountNumberReceiver(receiver.getAccountNumber());
+            payment.setReceiverClientId(receiver.getClientId());
+            payment.setAmount(amount.toBigDecimal());
+            payment.setOutAmount(outAmount.toBigDecimal());
+            payment.setPaymentCode(line.getPaymentCode());
+            payment.setPurposeOfPayment(line.getPurposeOfPayment());
+            payment.setReferenceNumber(line.getReferenceNumber());
+            payment.setDate(now);
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payments.put(line, payment);
+
+            line.setStatus(BulkPaymentLineStatus.COMPLETED);
+            line.setOutAmount(outAmount.toBigDecimal());
+        }
+
+        if (!payments.isEmpty()) {
+            paymentRepository.saveAll(payments.values());
+            ledgerService.post(PostingType.BULK_PAYMENT, legs(sender, payments.values(), receivers, bankAccounts));
+            payments.forEach((line, payment) -> line.setPaymentId(payment.getId()));
+        }
+        // izmene stavki idu batch update-om pri flush-u
+
+        if (failedTotal.signum() > 0)
+            spendingLimitService.release(sender, failedTotal, order.getCreatedAt().toLocalDate());
+
+        int failed = lines.size() - payments.size();
+        bulkPaymentOrderRepository.recordResults(order.getId(), payments.size(), failed);
+        bulkPaymentOrderRepository.completeIfFinished(order.getId(), now, BulkPaymentStatus.PROCESSING, BulkPaymentStatus.COMPLETED);
+        if (failed > 0)
+            log.warn("{} of {} lines failed in bulk payment {} (lines {}-{})", failed, lines.size(), order.getId(),
+                    chunk.getFirstLine(), chunk.getLastLine());
+    }
+
+    // placanja u drugoj valuti idu preko racuna banke: platilac -> banka (valuta platioca), banka -> primalac
+    private List<LedgerEntry> legs(Account sender, Collection<Payment> payments, Map<String, Account> receivers,
+                                   Map<String, CompanyAccount> bankAccounts) {
+        String senderCurrency = sender.getCurrency().getCode();
+        List<LedgerEntry> legs = new ArrayList<>();
+        Map<String, Money> bankCredits = new LinkedHashMap<>();
+        Map<String, Money> bankDebits = new LinkedHashMap<>();
+
+        for (Payment payment : payments) {
+            Account receiver = receivers.get(payment.getAccountNumberReceiver());
+            String receiverCurrency = receiver.getCurrency().getCode();
+            Money amount = Money.ofRounded(payment.getAmount(), senderCurrency);
+            Money outAmount = Money.ofRounded(payment.getOutAmount(), receiverCurrency);
+
+            legs.add(LedgerEntry.debit(sender, amount).toBuilder().referenceId(payment.getId()).build());
+            legs.add(LedgerEntry.credit(receiver, outAmount).toBuilder().referenceId(payment.getId()).build());
+            if (!receiverCurrency.equals(senderCurrency)) {
+                bankCredits.merge(senderCurrency, amount, Money::plus);
+                bankDebits.merge(receiverCurrency, outAmount, Money::plus);
+            }
+        }
+
+        // racuni banke su vec nadjeni u executeChunk za svaku stavku u drugoj valuti
+        bankCredits.forEach((currencyCode, total) -> legs.add(LedgerEntry.credit(bankAccounts.get(currencyCode), total)));
+        bankDebits.forEach((currencyCode, total) -> legs.add(LedgerEntry.debit(bankAccounts.get(currencyCode), total)));
+        return legs;
+    }
+
+    // null ako banka nema racun u valuti; nadjeni racuni se pamte za ceo chunk
+    private CompanyAccount bankAccount(Map<String, CompanyAccount> bankAccounts, Currency currency) {
+        return bankAccounts.computeIfAbsent(currency.getCode(),
+                code -> accountRepository.findFirstByCurrencyAndCompanyId(currency, BANK_COMPANY_ID).orElse(null));
+    }
+
+    @Transactional
+    public Page<BulkPaymentOrderDto> getBulkPayments(Long clientId, Pageable pageable) {
+        return bulkPaymentOrderRepository.findByClientId(clientId, pageable).map(bulkPaymentMapper::toDto);
+    }
+
+    @Transactional
+    public BulkPaymentOrderDto getBulkPayment(Long orderId, Long clientId) {
+        return bulkPaymentOrderRepository.findByIdAndClientId(orderId, clientId)
+                .map(bulkPaymentMapper::toDto)
+                .orElseThrow(() -> new BulkPaymentNotFoundException(orderId));
+    }
+
+    /// Rezultati stavki naloga, opciono samo stavke u datom statusu (npr. FAILED)
+    public Page<BulkPaymentLineDto> getBulkPaymentLines(Long orderId, Long clientId, BulkPaymentLineStatus status, Pageable pageable) {
+        if (bulkPaymentOrderRepository.findByIdAndClientId(orderId, clientId).isEmpty())
+            throw new BulkPaymentNotFoundException(orderId);
+        Page<BulkPaymentLine> lines = status == null
+                ? bulkPaymentLineRepository.findByOrderId(orderId, pageable)
+                : bulkPaymentLineRepository.findByOrderIdAndStatus(orderId, status, pageable);
+        return lines.map(bulkPaymentMapper::toDto);
+    }
+}
@@ -0,0 +1,288 @@
+package rs.raf.bank_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.dto.CardAuthorizationDto;
+import rs.raf.bank_service.domain.dto.CardAuthorizationRequestDto;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.CardAuthorizationStatus;
+import rs.raf.bank_service.domain.enums.CardDeclineReason;
+import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.domain.enums.PostingType;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.*;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.CardAuthorizationRepository;
+import rs.raf.bank_service.repository.CardRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/// Autorizacija placanja karticom: status, istek, limit kartice i raspolozivo stanje, pa rezervacija (hold).
+/// Hold umanjuje availableBalance racuna u bazi (kao rezervacije naloga iz stock-service), pa ga vide sve provere
+/// sredstava na svim instancama; naplata i oslobadjanje ga vracaju u istoj transakciji.
+/// Kartice se citaju iz ActiveCardIndex, a dnevna potrosnja kartice se vodi u memoriji pod lock-om stripe-a racuna.
+@Slf4j
+@Service
+public class CardAuthorizationService {
+
+    private final ActiveCardIndex activeCardIndex;
+    private final CardAuthorizationRepository cardAuthorizationRepository;
+    private final CardRepository cardRepository;
+    private final AccountRepository accountRepository;
+    private final PaymentRepository paymentRepository;
+    private final LedgerService ledgerService;
+    private final SpendingLimitService spendingLimitService;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final Timer approvedTimer;
+    private final Map<CardDeclineReason, Timer> declinedTimers = new EnumMap<>(CardDeclineReason.class);
+    private final long holdTtlHours;
+
+    private final Object[] stripes;
+    // minor jedinice u valuti kartice
+    private final Map<String, CardSpend> spendByCard = new ConcurrentHashMap<>();
+
+    public CardAuthorizationService(ActiveCardIndex activeCardIndex, CardAuthorizationRepository cardAuthorizationRepository,
+                                    CardRepository cardRepository, AccountRepository accountRepository,
+                                    PaymentRepository paymentRepository, LedgerService ledgerService,
+                                    SpendingLimitService spendingLimitService, PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${card.authorization.hold-ttl-hours:168}") long holdTtlHours,
+                                    @Value("${card.authorization.stripes:64}") int stripeCount) {
+        this.activeCardIndex = activeCardIndex;
+        this.cardAuthorizationRepository = cardAuthorizationRepository;
+        this.cardRepository = cardRepository;
+        this.accountRepository = accountRepository;
+        this.paymentRepository = paymentRepository;
+        this.ledgerService = ledgerService;
+        this.spendingLimitService = spendingLimitService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.approvedTimer = Timer.builder("card.authorization").tag("outcome", "approved").register(meterRegistry);
+        for (CardDeclineReason reason : CardDeclineReason.values())
+            declinedTimers.put(reason, Timer.builder("card.authorization").tag("outcome", reason.name().toLowerCase()).register(meterRegistry));
+        this.holdTtlHours = holdTtlHours;
+        this.stripes = new Object[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Object();
+    }
+
+    /// Indeks kartica i brojaci se pune posle BootstrapData, iz baze
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        activeCardIndex.load();
+
+        LocalDate today = LocalDate.now();
+        for (CardAuthorizationRepository.CardTotal total : cardAuthorizationRepository.sumByCardSince(today.atStartOfDay(), CardAuthorizationStatus.RELEASED))
+            spendByCard.put(total.getCardNumber(), new CardSpend(today, Money.ofRounded(total.getTotal(), total.getCurrencyCode()).getMinorUnits()));
+    }
+
+    public CardAuthorizationDto authorize(CardAuthorizationRequestDto request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CardAuthorizationDto result = doAuthorize(request);
+        sample.stop(result.getDeclineReason() == null ? approvedTimer : declinedTimers.get(result.getDeclineReason()));
+        return result;
+    }
+
+    /// Naplata rezervacije: knjizi se sa racuna kartice na racun banke u istoj valuti i cuva kao placanje karticom.
+    /// Sredstva su vec skinuta sa raspolozivog stanja hold-om, pa se hold vraca u istoj transakciji sa knjizenjem.
+    public CardAuthorizationDto capture(Long authorizationId) {
+        CardAuthorization hold = transaction.execute(status -> {
+            CardAuthorization authorization = findHeld(authorizationId);
+
+            Account account = accountRepository.findByAccountNumber(authorization.getAccountNumber())
+                    .orElseThrow(AccountNotFoundException::new);
+            CompanyAccount bankAccount = accountRepository.findFirstByCurrencyAndCompanyId(account.getCurrency(), 1L)
+                    .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + account.getCurrency().getCode()));
+            Money amount = Money.ofRounded(authorization.getAmount(), authorization.getCurrencyCode());
+
+            Payment payment = new Payment();
+            payment.setClientId(account.getClientId());
+            payment.setSenderAccount(account);
+            payment.setCard(cardRepository.getReferenceById(authorization.getCardId()));
+            payment.setAmount(amount.toBigDecimal());
+            payment.setOutAmount(amount.toBigDecimal());
+            payment.setAccountNumberReceiver(bankAccount.getAccountNumber());
+            payment.setPurposeOfPayment(authorization.getMerchant());
+            payment.setDate(LocalDateTime.now());
+            payment.setStatus(PaymentStatus.COMPLETED);
+            paymentRepository.save(payment);
+
+            ledgerService.post(PostingType.CARD_PAYMENT, payment.getId(),
+                    List.of(LedgerEntry.debit(account, amount), LedgerEntry.credit(bankAccount, amount)));
+            accountRepository.adjustAvailableBalance(account.getAccountNumber(), amount.toBigDecimal());
+
+            authorization.setStatus(CardAuthorizationStatus.CAPTURED);
+            authorization.setSettledAt(LocalDateTime.now());
+            authorization.setPaymentId(payment.getId());
+            return cardAuthorizationRepository.save(authorization);
+        });
+        return toDto(hold);
+    }
+
+    /// Oslobadja rezervaciju (storno trgovca ili istek) - vraca iznos u raspolozivo stanje, limit kartice i limit racuna
+    public CardAuthorizationDto release(Long authorizationId) {
+        CardAuthorization hold = transaction.execute(status -> {
+            CardAuthorization authorization = findHeld(authorizationId);
+            authorization.setStatus(CardAuthorizationStatus.RELEASED);
+            authorization.setSettledAt(LocalDateTime.now());
+            accountRepository.adjustAvailableBalance(authorization.getAccountNumber(), money(authorization).toBigDecimal());
+            return cardAuthorizationRepository.save(authorization);
+        });
+
+        Money amount = money(hold);
+        LocalDate spentOn = hold.getCreatedAt().toLocalDate();
+        synchronized (stripeFor(hold.getAccountNumber())) {
+            CardSpend spend = spendByCard.get(hold.getCardNumber());
+            if (spend != null && spend.day().equals(spentOn))
+                spendByCard.put(hold.getCardNumber(), new CardSpend(spentOn, Math.max(0, spend.minorUnits() - amount.getMinorUnits())));
+        }
+        spendingLimitService.release(hold.getAccountNumber(), amount, spentOn, accountLoader(hold.getAccountNumber()));
+        return toDto(hold);
+    }
+
+    /// Rezervacije koje trgovac nije naplatio ni stornirao u roku se oslobadjaju
+    @Scheduled(fixedDelayString = "${card.authorization.expiry-interval-ms:600000}")
+    public void releaseExpiredHolds() {
+        List<Long> expired = cardAuthorizationRepository.findIdsByStatusAndCreatedAtBefore(CardAuthorizationStatus.HELD,
+                LocalDateTime.now().minusHours(holdTtlHours));
+        for (Long id : expired) {
+            try {
+                release(id);
+            } catch (CardAuthorizationNotHeldException e) {
+                // u medjuvremenu naplacena ili oslobodjena
+            }
+        }
+        if (!expired.isEmpty())
+            log.info("Released {} expired card authorizations", expired.size());
+    }
+
+    private CardAuthorizationDto doAuthorize(CardAuthorizationRequestDto request) {
+        ActiveCardIndex.ActiveCard card = activeCardIndex.get(request.getCardNumber());
+        if (card == null)
+            return declined(request, null, CardDeclineReason.CARD_NOT_ACTIVE);
+        if (!card.cvv().equals(request.getCvv()))
+            return declined(request, card.currencyCode(), CardDeclineReason.INVALID_CVV);
+
+        LocalDate today = LocalDate.now();
+        if (card.expirationDate() != null && card.expirationDate().isBefore(today))
+            return declined(request, card.currencyCode(), CardDeclineReason.CARD_EXPIRED);
+
+        if (!Money.hasValidScale(request.getAmount(), card.currencyCode()))
+            return declined(request, card.currencyCode(), CardDeclineReason.INVALID_AMOUNT);
+
+        String accountNumber = card.accountNumber();
+        Money amount = Money.of(request.getAmount(), card.currencyCode());
+
+        synchronized (stripeFor(accountNumber)) {
+            long cardSpent = cardSpentOn(card.cardNumber(), today) + amount.getMinorUnits();
+            if (card.cardLimit() != null && cardSpent > Money.ofRounded(card.cardLimit(), card.currencyCode()).getMinorUnits())
+                return declined(request, card.currencyCode(), CardDeclineReason.CARD_LIMIT_EXCEEDED);
+
+            // indeks prati samo status kartice - racun je mozda deaktiviran u medjuvremenu
+            BigDecimal balance = ledgerService.getActiveAvailableBalance(accountNumber);
+            if (balance == null)
+                return declined(request, card.currencyCode(), CardDeclineReason.ACCOUNT_NOT_ACTIVE);
+            if (Money.ofRounded(balance, card.currencyCode()).isLessThan(amount))
+                return declined(request, card.currencyCode(), CardDeclineReason.INSUFFICIENT_FUNDS);
+
+            // limit racuna se rezervise pre zakljucavanja racuna - rezervacija limita i sama menja red racuna
+            try {
+                spendingLimitService.reserve(accountNumber, amount, accountLoader(accountNumber));
+            } catch (SpendingLimitExceededException e) {
+                return declined(request, card.currencyCode(), CardDeclineReason.SPENDING_LIMIT_EXCEEDED);
+            }
+
+            CardAuthorization hold;
+            try {
+                hold = transaction.execute(status -> hold(card, accountNumber, amount, request.getMerchant()));
+            } catch (RuntimeException e) {
+                spendingLimitService.release(accountNumber, amount, today, accountLoader(accountNumber));
+                throw e;
+            }
+            if (hold == null) {
+                spendingLimitService.release(accountNumber, amount, today, accountLoader(accountNumber));
+                return declined(request, card.currencyCode(), CardDeclineReason.INSUFFICIENT_FUNDS);
+            }
+
+            spendByCard.put(card.cardNumber(), new CardSpend(today, cardSpent));
+            return toDto(hold);
+        }
+    }
+
+    private CardAuthorization findHeld(Long authorizationId) {
+        CardAuthorization authorization = cardAuthorizationRepository.findById(authorizationId)
+                .orElseThrow(() -> new CardAuthorizationNotFoundException(authorizationId));
+        if (authorization.getStatus() != CardAuthorizationStatus.HELD)
+            throw new CardAuthorizationNotHeldException(authorizationId, authorization.getStatus());
+        return authorization;
+    }
+
+    // racun se zakljucava i stanje ponovo proverava, kao kod rezervacije naloga iz stock-service -
+    // druga instanca ili placanje su mozda potrosili sredstva posle provere; null ako vise nema dovoljno
+    private CardAuthorization hold(ActiveCardIndex.ActiveCard card, String accountNumber, Money amount, String merchant) {
+        Account account = accountRepository.findByIdForUpdate(accountNumber);
+        if (account == null || account.getStatus() != AccountStatus.ACTIVE
+                || Money.ofRounded(ledgerService.getAvailableBalance(account), amount.getCurrencyCode()).isLessThan(amount))
+            return null;
+
+        accountRepository.adjustAvailableBalance(accountNumber, amount.negate().toBigDecimal());
+        return cardAuthorizationRepository.save(CardAuthorization.builder()
+                .cardId(card.cardId())
+                .cardNumber(card.cardNumber())
+                .accountNumber(accountNumber)
+                .amount(amount.toBigDecimal())
+                .currencyCode(amount.getCurrencyCode())
+                .merchant(merchant)
+                .status(CardAuthorizationStatus.HELD)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private long cardSpentOn(String cardNumber, LocalDate day) {
+        CardSpend spend = spendByCard.get(cardNumber);
+        return spend != null && spend.day().equals(day) ? spend.minorUnits() : 0;
+    }
+
+    private Supplier<Account> accountLoader(String accountNumber) {
+        return () -> accountRepository.findByAccountNumber(accountNumber).orElseThrow(AccountNotFoundException::new);
+    }
+
+    private Object stripeFor(String accountNumber) {
+        return stripes[(accountNumber.hashCode() ^ (accountNumber.hashCode() >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static Money money(CardAuthorization authorization) {
+        return Money.ofRounded(authorization.getAmount(), authorization.getCurrencyCode());
+    }
+
+    private static CardAuthorizationDto toDto(CardAuthorization authorization) {
+        return new CardAuthorizationDto(authorization.getId(), authorization.getCardNumber(), authorization.getAmount(),
+                authorization.getCurrencyCode(), authorization.getStatus(), null);
+    }
+
+    private static CardAuthorizationDto declined(CardAuthorizationRequestDto request, String currencyCode, CardDeclineReason reason) {
+        return new CardAuthorizationDto(null, request.getCardNumber(), request.getAmount(), currencyCode,
+                CardAuthorizationStatus.DECLINED, reason);
+    }
+
+    private record CardSpend(LocalDate day, long minorUnits) {
+    }
+}
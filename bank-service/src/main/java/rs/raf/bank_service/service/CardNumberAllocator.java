@@ -0,0 +1,100 @@
+package rs.raf.bank_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import rs.raf.bank_service.domain.enums.CardIssuer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/// Brojevi kartica: MII + IIN izdavaoca (6 cifara) + 9 cifara iz sekvence + Luhn kontrolna cifra.
+/// Redni broj se ne ponavlja ni izmedju izdavalaca, pa je broj kartice jedinstven bez obzira na prefiks.
+/// Redni brojevi postojecih kartica (pocetni podaci) se preskacu bez obzira na izdavaoca; citaju se jednom po instanci.
+@Service
+public class CardNumberAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceBlockAllocator serials;
+    // sortirani redni brojevi kartica zatecenih pri prvom bloku; pristupa im se samo iz serials.next (synchronized)
+    private long[] existingSerials;
+
+    public CardNumberAllocator(JdbcTemplate jdbcTemplate, @Value("${card.number.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.serials = new SequenceBlockAllocator(jdbcTemplate, "card_number_seq", blockSize, 999_999_999L, this::takenSerials);
+    }
+
+    public String next(CardIssuer issuer) {
+        String firstFifteen = issuerPrefix(issuer) + String.format("%09d", serials.next());
+        return firstFifteen + luhnDigit(firstFifteen);
+    }
+
+    // prefiks izdavaoca varira, pa nijedan indeks ne pokriva deo sa rednim brojem; zato se redni brojevi postojecih kartica
+    // citaju jednim upitom pri prvom bloku (posle pocetnih podataka), a blokovi se proveravaju u memoriji.
+    // Kasnije kartice dobijaju brojeve iz sekvence, pa ne mogu da se poklope sa buducim blokovima.
+    private Set<Long> takenSerials(long from, long to) {
+        if (existingSerials == null)
+            existingSerials = jdbcTemplate.queryForList("SELECT card_number FROM card", String.class)
+                    .stream()
+                    .filter(number -> number.matches("\\d{16}"))
+                    .mapToLong(number -> Long.parseLong(number.substring(6, 15)))
+                    .sorted()
+                    .distinct()
+                    .toArray();
+
+        int index = Arrays.binarySearch(existingSerials, from);
+        Set<Long> taken = new HashSet<>();
+        for (int i = index < 0 ? -index - 1 : index; i < existingSerials.length && existingSerials[i] <= to; i++)
+            taken.add(existingSerials[i]);
+        return taken;
+    }
+
+    private static String issuerPrefix(CardIssuer issuer) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch (issuer) {
+            case VISA:
+                return "433333";
+            case MASTERCARD:
+                if (random.nextBoolean()) {
+                    return 51 + random.nextInt(5) + "3333";
+                } else {
+                    return 2221 + random.nextInt(500) + "33";
+                }
+            case DINA:
+                return "989133";
+            case AMERICAN_EXPRESS:
+                if (random.nextBoolean()) {
+                    return "343333";
+                } else {
+                    return "373333";
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported card type");
+        }
+    }
+
+    public static String luhnDigit(String digits) {
+        int sum = 0;
+        boolean shouldDouble = true;
+
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+
+            if (shouldDouble) {
+                digit = digit * 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+
+            sum = sum + digit;
+            shouldDouble = !shouldDouble;
+        }
+
+        int checkDigit = (10 - (sum % 10)) % 10;
+        return String.valueOf(checkDigit);
+    }
+}
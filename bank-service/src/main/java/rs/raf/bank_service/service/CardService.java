@@ -5,9 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.Card;
@@ -26,6 +27,7 @@ import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -35,12 +37,14 @@ import java.util.stream.Collectors;
 public class CardService {
     private final CardRepository cardRepository;
     private final UserClient userClient;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final AccountRepository accountRepository;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtTokenUtil jwtTokenUtil;
     private final CardRequestRepository CardRequestRepository;
     private final CardRequestRepository cardRequestRepository;
+    private final ActiveCardIndex activeCardIndex;
+    private final CardNumberAllocator cardNumberAllocator;
     AccountMapper accountMapper;
     ObjectMapper objectMapper;
 
@@ -54,6 +58,8 @@ public class CardService {
         return accountTypeDto.getSubtype().equals(AccountOwnerType.COMPANY);
     }
 
+    // kartica i obavestenje za ActiveCardIndex ostalih instanci se commit-uju zajedno
+    @Transactional
     public CardDtoNoOwner createCard(CreateCardDto createCardDto) {
         Account account = accountRepository.findByAccountNumber(createCardDto.getAccountNumber())
                 .orElseThrow(() -> new EntityNotFoundException("Account with account number: " + createCardDto.getAccountNumber() + " not found"));
@@ -73,7 +79,7 @@ public class CardService {
         card.setCreationDate(LocalDate.now());
         card.setExpirationDate(LocalDate.now().plusMonths(60));
         card.setIssuer(createCardDto.getIssuer());
-        card.setCardNumber(generateCardNumber(createCardDto.getIssuer()));
+        card.setCardNumber(cardNumberAllocator.next(createCardDto.getIssuer()));
         card.setCvv(generateCVV());
         card.setType(createCardDto.getType());
         card.setName(createCardDto.getName());
@@ -82,80 +88,22 @@ public class CardService {
         card.setCardLimit(createCardDto.getCardLimit());
 
         cardRepository.save(card);
+        activeCardIndex.update(card);
 
         return CardMapper.toCardDtoNoOwner(card);
     }
 
-    private String generateCardNumber(CardIssuer issuer) {
-        String firstFifteen = generateMIIandIIN(issuer) + generateAccountNumber();
-        return firstFifteen + luhnDigit(firstFifteen);
-    }
-
-    private String generateMIIandIIN(CardIssuer issuer) {
-        Random random = new Random();
-
-        switch (issuer) {
-            case VISA:
-                return "433333";
-            case MASTERCARD:
-                if (random.nextBoolean()) {
-                    return 51 + random.nextInt(5) + "3333";
-                } else {
-                    return 2221 + random.nextInt(500) + "33";
-                }
-            case DINA:
-                return "989133";
-            case AMERICAN_EXPRESS:
-                if (random.nextBoolean()) {
-                    return "343333";
-                } else {
-                    return "373333";
-                }
-            default:
-                throw new IllegalArgumentException("Unsupported card type");
-        }
-    }
-
-    private String generateAccountNumber() {
-        Random random = new Random();
-
-        int accountNumber = random.nextInt(1000000000);
-        return String.format("%09d", accountNumber);
-    }
-
-
-    private String luhnDigit(String firstFifteen) {
-        int sum = 0;
-        boolean shouldDouble = true;
-
-        for (int i = firstFifteen.length() - 1; i >= 0; i--) {
-            int digit = Character.getNumericValue(firstFifteen.charAt(i));
-
-            if (shouldDouble) {
-                digit = digit * 2;
-                if (digit > 9) {
-                    digit -= 9;
-                }
-            }
-
-            sum = sum + digit;
-            shouldDouble = !shouldDouble;
-        }
-
-        int checkDigit = (10 - (sum % 10)) % 10;
-        return String.valueOf(checkDigit);
-    }
-
-
     public List<CardDto> getCardsByAccount(
             @Parameter(description = "Account number to search for", example = "222222222222222222") String accountNumber) {
         List<Card> cards = cardRepository.findByAccount_AccountNumber(accountNumber);
-        return cards.stream().map(card -> {
-            ClientDto client = userClient.getClientById(card.getAccount().getClientId());
-            return CardMapper.toDto(card, client);
-        }).collect(Collectors.toList());
+        Map<Long, ClientDto> owners = userClient.getClientsByIds(cards.stream().map(card -> card.getAccount().getClientId()).toList());
+        return cards.stream()
+                .map(card -> CardMapper.toDto(card, owners.get(card.getAccount().getClientId())))
+                .collect(Collectors.toList());
     }
 
+    // promena statusa i obavestenje se commit-uju zajedno
+    @Transactional
     public void changeCardStatus(
             @Parameter(description = "Card number", example = "1234123412341234") String cardNumber,
             @Parameter(description = "New status for the card", example = "BLOCKED") CardStatus newStatus) {
@@ -165,6 +113,7 @@ public class CardService {
 
         card.setStatus(newStatus);
         cardRepository.save(card);
+        activeCardIndex.update(card);
 
         ClientDto owner = userClient.getClientById(card.getAccount().getClientId());
 
@@ -172,18 +121,14 @@ public class CardService {
         emailRequestDto.setCode(newStatus.toString());
         emailRequestDto.setDestination(owner.getEmail());
 
-        rabbitTemplate.convertAndSend("card-status-change", emailRequestDto);
+        outboxService.enqueue("card-status-change", emailRequestDto);
     }
 
     public List<CardDto> getUserCards(String authHeader) {
 
         Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
-        List<Account> userAccounts = accountRepository.findByClientId(clientId);
-
-        List<Card> userCards = userAccounts.stream()
-                .flatMap(account -> account.getCards().stream())
-                .toList();
+        List<CardRepository.CardListRow> userCards = cardRepository.findListRowsByClientId(clientId);
 
         ClientDto owner = userClient.getClientById(clientId);
         return userCards.stream()
@@ -197,7 +142,7 @@ public class CardService {
         // check if account exists and is owned by client
         accountRepository.findByAccountNumberAndClientId(accountNumber, clientId).orElseThrow(AccountNotFoundException::new);
 
-        List<Card> userCards = cardRepository.findByAccount_AccountNumber(accountNumber);
+        List<CardRepository.CardListRow> userCards = cardRepository.findListRowsByAccountNumber(accountNumber);
 
         ClientDto owner = userClient.getClientById(clientId);
         return userCards.stream()
@@ -205,6 +150,7 @@ public class CardService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public void blockCardByUser(String cardNumber, String authHeader) {
 
         Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
@@ -219,14 +165,16 @@ public class CardService {
 
         card.setStatus(CardStatus.BLOCKED);
         cardRepository.save(card);
+        activeCardIndex.update(card);
 
         ClientDto owner = userClient.getClientById(card.getAccount().getClientId());
         EmailRequestDto emailRequestDto = new EmailRequestDto();
         emailRequestDto.setCode("CARD_BLOCKED");
         emailRequestDto.setDestination(owner.getEmail());
-        rabbitTemplate.convertAndSend("card-status-change", emailRequestDto);
+        outboxService.enqueue("card-status-change", emailRequestDto);
     }
 
+    @Transactional
     public void requestNewCard(CreateCardDto dto, String authHeader) throws JsonProcessingException {
         Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
 
@@ -267,12 +215,14 @@ public class CardService {
                 .details(objectMapper.writeValueAsString(cardVerificationDetailsDto))
                 .build();
 
-        userClient.createVerificationRequest(verificationRequest);
+        // zahtev za verifikaciju ide preko outbox-a u istoj transakciji, user-service ga upisuje asinhrono
+        outboxService.enqueue(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, verificationRequest);
 
         log.info("Card request sent for verification for client {}", clientId);
     }
 
 
+    @Transactional
     public void approveCardRequest(Long id) {
         CardRequest cardRequest = cardRequestRepository.findById(id)
                 .orElseThrow(EntityNotFoundException::new);
@@ -301,7 +251,7 @@ public class CardService {
         card.setName(cardRequest.getName());
         card.setIssuer(cardRequest.getCardIssuer());
         card.setType(cardRequest.getCardType());
-        card.setCardNumber(generateCardNumber(cardRequest.getCardIssuer()));
+        card.setCardNumber(cardNumberAllocator.next(cardRequest.getCardIssuer()));
         card.setCvv(generateCVV());
         card.setCreationDate(LocalDate.now());
         card.setExpirationDate(LocalDate.now().plusYears(4));
@@ -309,6 +259,7 @@ public class CardService {
         card.setCardLimit(cardRequest.getCardLimit());
 
         cardRepository.save(card);
+        activeCardIndex.update(card);
 
         log.info("Card created for request {} and client {}", id, cardRequest.getClientId());
     }
@@ -0,0 +1,94 @@
+package rs.raf.bank_service.service;
+
+import rs.raf.bank_service.domain.dto.CurrencyDto;
+import rs.raf.bank_service.domain.dto.ExchangeRateDto;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.ExchangeRate;
+import rs.raf.bank_service.exceptions.CurrencyNotFoundException;
+import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Nepromenljiva N×N kursna lista. Pravi se jednom posle svake izmene kurseva i deli izmedju niti bez zakljucavanja.
+public final class ExchangeRateMatrix {
+
+    private static final String BASE_CURRENCY = "RSD";
+
+    private final Map<String, Integer> indexByCode;
+    private final CurrencyDto[] currencies;
+    private final BigDecimal[][] rates;
+    private final BigDecimal[][] sellRates;
+
+    private ExchangeRateMatrix(Map<String, Integer> indexByCode, CurrencyDto[] currencies, BigDecimal[][] rates, BigDecimal[][] sellRates) {
+        this.indexByCode = indexByCode;
+        this.currencies = currencies;
+        this.rates = rates;
+        this.sellRates = sellRates;
+    }
+
+    public static ExchangeRateMatrix build(List<Currency> currencyList, List<ExchangeRate> exchangeRates) {
+        int n = currencyList.size();
+        Map<String, Integer> indexByCode = new HashMap<>(n * 2);
+        CurrencyDto[] currencies = new CurrencyDto[n];
+        for (int i = 0; i < n; i++) {
+            Currency currency = currencyList.get(i);
+            indexByCode.put(currency.getCode(), i);
+            currencies[i] = new CurrencyDto(currency.getCode(), currency.getName(), currency.getSymbol());
+        }
+
+        BigDecimal[][] rates = new BigDecimal[n][n];
+        BigDecimal[][] sellRates = new BigDecimal[n][n];
+
+        // direktni kursevi
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            Integer from = indexByCode.get(exchangeRate.getFromCurrency().getCode());
+            Integer to = indexByCode.get(exchangeRate.getToCurrency().getCode());
+            if (from == null || to == null)
+                continue;
+            rates[from][to] = exchangeRate.getExchangeRate();
+            sellRates[from][to] = exchangeRate.getSellRate();
+        }
+
+        // ukrsteni kursevi preko RSD za parove bez direktnog kursa
+        Integer base = indexByCode.get(BASE_CURRENCY);
+        if (base != null) {
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    if (rates[from][to] != null || sellRates[from][base] == null || sellRates[base][to] == null)
+                        continue;
+                    BigDecimal intermediateRate = sellRates[from][base].multiply(sellRates[base][to]);
+                    rates[from][to] = intermediateRate;
+                    sellRates[from][to] = intermediateRate;
+                }
+            }
+        }
+
+        return new ExchangeRateMatrix(indexByCode, currencies, rates, sellRates);
+    }
+
+    public ExchangeRateDto get(String fromCurrencyCode, String toCurrencyCode) {
+        Integer from = indexByCode.get(fromCurrencyCode);
+        if (from == null)
+            throw new CurrencyNotFoundException(fromCurrencyCode);
+        Integer to = indexByCode.get(toCurrencyCode);
+        if (to == null)
+            throw new CurrencyNotFoundException(toCurrencyCode);
+
+        if (rates[from][to] == null)
+            throw new ExchangeRateNotFoundException(fromCurrencyCode, toCurrencyCode);
+
+        return new ExchangeRateDto(copy(currencies[from]), copy(currencies[to]), rates[from][to], sellRates[from][to]);
+    }
+
+    // CurrencyDto je promenljiv, pa pozivaocu ne dajemo instancu iz matrice
+    private static CurrencyDto copy(CurrencyDto currency) {
+        return new CurrencyDto(currency.getCode(), currency.getName(), currency.getSymbol());
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+}
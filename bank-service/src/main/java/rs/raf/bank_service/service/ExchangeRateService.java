@@ -1,18 +1,27 @@
 package rs.raf.bank_service.service;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import rs.raf.bank_service.client.ExchangeRateClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.ConvertDto;
-import rs.raf.bank_service.domain.dto.CurrencyDto;
+import rs.raf.bank_service.domain.dto.ExchangeRateChangedEventDto;
 import rs.raf.bank_service.domain.dto.ExchangeRateDto;
+import rs.raf.bank_service.domain.dto.SetExchangeRateDto;
 import rs.raf.bank_service.domain.dto.UpdateExchangeRateDto;
 import rs.raf.bank_service.domain.entity.Currency;
 import rs.raf.bank_service.domain.entity.ExchangeRate;
 import rs.raf.bank_service.domain.mapper.ExchangeRateMapper;
 import rs.raf.bank_service.exceptions.CurrencyNotFoundException;
-import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
 import rs.raf.bank_service.repository.CurrencyRepository;
 import rs.raf.bank_service.repository.ExchangeRateRepository;
 
@@ -20,17 +29,23 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 
+@Slf4j
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class ExchangeRateService {
 
+    private static final BigDecimal SPREAD = new BigDecimal("1.01");
+
     private final ExchangeRateRepository exchangeRateRepository;
     private final CurrencyRepository currencyRepository;
     private final ExchangeRateClient exchangeRateClient;
+    private final OutboxService outboxService;
+    private final ReferenceDataCache referenceDataCache;
+    private final AtomicReference<ExchangeRateMatrix> matrix = new AtomicReference<>();
 
     public void updateExchangeRates() {
         UpdateExchangeRateDto response = null;
@@ -62,32 +77,12 @@ public class ExchangeRateService {
             if (toCurrency == null)
                 continue;
 
-            ExchangeRate exchangeRate = exchangeRateRepository.findByFromCurrencyAndToCurrency(fromCurrency, toCurrency)
-                    .orElse(null);
-
-            if (exchangeRate == null) {
-                exchangeRate = new ExchangeRate();
-                exchangeRate.setFromCurrency(fromCurrency);
-                exchangeRate.setToCurrency(toCurrency);
-            }
-
             BigDecimal rate = conversionRates.get(currencyCode);
-            exchangeRate.setExchangeRate(rate);
-
-            exchangeRate.setSellRate(rate.multiply(new BigDecimal("1.01")));
-            exchangeRateRepository.save(exchangeRate);
-
-            ExchangeRate mirrored = ExchangeRate.builder()
-                    .fromCurrency(exchangeRate.getToCurrency())
-                    .toCurrency(exchangeRate.getFromCurrency())
-                    .exchangeRate(BigDecimal.ONE.divide(exchangeRate.getExchangeRate(), 6, RoundingMode.UP))
-                    .sellRate(BigDecimal.ONE.divide(
-                                    exchangeRate.getExchangeRate(), 6, RoundingMode.UP)
-                            .multiply(new BigDecimal("1.01")))
-                    .build();
-
-            exchangeRateRepository.save(mirrored);
+            saveRate(fromCurrency, toCurrency, rate, rate.multiply(SPREAD));
+            saveMirroredRate(fromCurrency, toCurrency, rate, SPREAD);
         }
+
+        publishRatesChanged(null, null);
     }
 
     @Scheduled(cron = "0 0 8 * * ?")
@@ -116,42 +111,96 @@ public class ExchangeRateService {
 
     }
 
+    /// Konverzija vise iznosa u jednom pozivu, rezultati su u istom redosledu kao zahtevi
+    public List<BigDecimal> convertBatch(List<ConvertDto> convertDtos) {
+        ExchangeRateMatrix rates = getMatrix();
+        return convertDtos.stream()
+                .map(convertDto -> convertDto.getAmount().multiply(
+                        rates.get(convertDto.getFromCurrencyCode(), convertDto.getToCurrencyCode()).getExchangeRate()))
+                .collect(Collectors.toList());
+    }
+
 
     public ExchangeRateDto getExchangeRate(String fromCurrencyCode, String toCurrencyCode) {
+        return getMatrix().get(fromCurrencyCode, toCurrencyCode);
+    }
+
+    /// Rucna izmena kursa (admin). Menja se i obrnuti kurs, a posle commit-a sve instance ponovo prave matricu kurseva.
+    @Transactional
+    public ExchangeRateDto setExchangeRate(String fromCurrencyCode, String toCurrencyCode, SetExchangeRateDto setExchangeRateDto) {
         Currency fromCurrency = currencyRepository.findByCode(fromCurrencyCode)
                 .orElseThrow(() -> new CurrencyNotFoundException(fromCurrencyCode));
         Currency toCurrency = currencyRepository.findByCode(toCurrencyCode)
                 .orElseThrow(() -> new CurrencyNotFoundException(toCurrencyCode));
 
-        Optional<ExchangeRate> directRate = exchangeRateRepository.findByFromCurrencyAndToCurrency(fromCurrency, toCurrency);
-        if (directRate.isPresent()) {
-            ExchangeRate rate = directRate.get();
-            return new ExchangeRateDto(
-                    new CurrencyDto(fromCurrency.getCode(), fromCurrency.getName(), fromCurrency.getSymbol()),
-                    new CurrencyDto(toCurrency.getCode(), toCurrency.getName(), toCurrency.getSymbol()),
-                    rate.getExchangeRate(),
-                    rate.getSellRate()
-            );
-        }
+        BigDecimal rate = setExchangeRateDto.getExchangeRate();
+        ExchangeRate exchangeRate = saveRate(fromCurrency, toCurrency, rate, setExchangeRateDto.getSellRate());
+        // obrnuti kurs zadrzava istu maržu koju je admin zadao
+        saveMirroredRate(fromCurrency, toCurrency, rate,
+                setExchangeRateDto.getSellRate().divide(rate, 6, RoundingMode.HALF_UP));
 
-        // Ako nema direktnog kursa, koristi RSD kao međukorak
-        Currency rsd = currencyRepository.findByCode("RSD")
-                .orElseThrow(() -> new CurrencyNotFoundException("RSD"));
-
-        Optional<ExchangeRate> toRsdRate = exchangeRateRepository.findByFromCurrencyAndToCurrency(fromCurrency, rsd);
-        Optional<ExchangeRate> fromRsdRate = exchangeRateRepository.findByFromCurrencyAndToCurrency(rsd, toCurrency);
-
-        if (toRsdRate.isPresent() && fromRsdRate.isPresent()) {
-            BigDecimal intermediateRate = toRsdRate.get().getSellRate().multiply(fromRsdRate.get().getSellRate());
-            return new ExchangeRateDto(
-                    new CurrencyDto(fromCurrency.getCode(), fromCurrency.getName(), fromCurrency.getSymbol()),
-                    new CurrencyDto(toCurrency.getCode(), toCurrency.getName(), toCurrency.getSymbol()),
-                    intermediateRate,
-                    intermediateRate
-            );
+        publishRatesChanged(fromCurrencyCode, toCurrencyCode);
+        return ExchangeRateMapper.toDto(exchangeRate);
+    }
+
+    /// Svaka instanca ima svoj anonimni red na fanout exchange-u; poruka stize tek posle commit-a (outbox).
+    /// Second-level cache kurseva je lokalan, pa se brise pre nove matrice - inace bi ostao star do isteka.
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(value = RabbitMQConfig.EXCHANGE_RATE_EVENTS_EXCHANGE, type = "fanout")))
+    public void onExchangeRatesChanged(ExchangeRateChangedEventDto event) {
+        referenceDataCache.evictExchangeRates();
+        refreshRates();
+    }
+
+    /// Pravi novu matricu iz baze i objavljuje je atomicno; citaoci vide ili staru ili novu, nikad polu-izgradjenu
+    public void refreshRates() {
+        ExchangeRateMatrix rebuilt = ExchangeRateMatrix.build(currencyRepository.findAll(), exchangeRateRepository.findAll());
+        matrix.set(rebuilt);
+        log.info("Exchange rate matrix rebuilt for {} currencies", rebuilt.size());
+    }
+
+    private ExchangeRate saveRate(Currency fromCurrency, Currency toCurrency, BigDecimal rate, BigDecimal sellRate) {
+        ExchangeRate exchangeRate = exchangeRateRepository.findByFromCurrencyAndToCurrency(fromCurrency, toCurrency)
+                .orElseGet(() -> ExchangeRate.builder().fromCurrency(fromCurrency).toCurrency(toCurrency).build());
+        exchangeRate.setExchangeRate(rate);
+        exchangeRate.setSellRate(sellRate);
+        exchangeRateRepository.save(exchangeRate);
+        return exchangeRate;
+    }
+
+    // kurs to -> from; postojeci red se azurira umesto da se pravi novi
+    private void saveMirroredRate(Currency fromCurrency, Currency toCurrency, BigDecimal rate, BigDecimal spread) {
+        BigDecimal inverse = BigDecimal.ONE.divide(rate, 6, RoundingMode.UP);
+        saveRate(toCurrency, fromCurrency, inverse, inverse.multiply(spread));
+    }
+
+    // lokalna matrica se pravi posle commit-a (da ne vidi kurseve iz transakcije koja se vrati),
+    // ostale instance dobijaju poruku preko outbox-a
+    private void publishRatesChanged(String fromCurrencyCode, String toCurrencyCode) {
+        outboxService.enqueue(RabbitMQConfig.EXCHANGE_RATE_EVENTS_EXCHANGE, "",
+                new ExchangeRateChangedEventDto(fromCurrencyCode, toCurrencyCode));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshRates();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshRates();
+            }
+        });
+    }
 
-        throw new ExchangeRateNotFoundException(fromCurrencyCode, toCurrencyCode);
+    private ExchangeRateMatrix getMatrix() {
+        ExchangeRateMatrix current = matrix.get();
+        if (current == null) {
+            // prvo koriscenje posle starta - ako vise niti istovremeno napravi matricu, sve su ekvivalentne
+            current = ExchangeRateMatrix.build(currencyRepository.findAll(), exchangeRateRepository.findAll());
+            if (!matrix.compareAndSet(null, current))
+                current = matrix.get();
+        }
+        return current;
     }
 }
 
@@ -0,0 +1,179 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.dto.InstallmentBatchDto;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.exceptions.BankAccountNotFoundException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.InstallmentBatchRunRepository;
+import rs.raf.bank_service.repository.InstallmentRepository;
+import rs.raf.bank_service.repository.LoanRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/// Dnevna naplata dospelih rata u chunk-ovima.
+/// Dospeli krediti se preuzimaju po stranama (kursor po id-u cuva se u installment_batch_runs, pa restart nastavlja),
+/// a svaka strana se deli po particijama transaction-queue - jedna poruka po particiji, da bi naplata i dalje
+/// isla redom sa ostalim transakcijama istog racuna. Particija naplacuje svoj deo jednim knjizenjem, a rate se uzimaju iz vec sacuvanog plana otplate.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InstallmentBatchService {
+
+    private static final List<LoanStatus> ACTIVE_STATUSES = List.of(LoanStatus.APPROVED, LoanStatus.DELINQUENT);
+    private static final Long BANK_COMPANY_ID = 1L;
+
+    private final LoanRepository loanRepository;
+    private final InstallmentRepository installmentRepository;
+    private final InstallmentBatchRunRepository installmentBatchRunRepository;
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final TransactionQueueService transactionQueueService;
+    private final TransactionPartitioner transactionPartitioner;
+    private final PlatformTransactionManager transactionManager;
+    private final AmortizationService amortizationService;
+    private final LoanScheduleBackfillService loanScheduleBackfillService;
+
+    @Value("${installment.batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    // proverava cesto zbog testiranja, ali za jedan dan naplata se pokrece samo jednom (ili nastavlja posle restarta)
+    @Scheduled(cron = "${installment.batch.cron:*/15 * * * * *}")
+    public void runDueInstallments() {
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Long runId;
+        try {
+            runId = transaction.execute(status -> startRun(today));
+        } catch (DataIntegrityViolationException e) {
+            // druga instanca je upravo kreirala danasnji run
+            return;
+        }
+        if (runId == null)
+            return;
+
+        int chunks = 0;
+        try {
+            // svaki chunk u svojoj transakciji: preuzimanje i pomeranje kursora se commit-uju zajedno
+            while (Boolean.TRUE.equals(transaction.execute(status -> queueNextChunk(runId, today))))
+                chunks++;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("Installment run {} is being queued by another instance", runId);
+            return;
+        }
+
+        if (chunks > 0)
+            log.info("Queued {} installment chunks for {}", chunks, today);
+    }
+
+    // null ako je naplata za danas vec zavrsena
+    private Long startRun(LocalDate today) {
+        InstallmentBatchRun run = installmentBatchRunRepository.findByRunDate(today)
+                .orElseGet(() -> installmentBatchRunRepository.save(new InstallmentBatchRun(today)));
+        return run.getStatus() == InstallmentBatchStatus.COMPLETED ? null : run.getId();
+    }
+
+    // true ako ima jos kredita posle ovog chunk-a
+    private boolean queueNextChunk(Long runId, LocalDate today) {
+        InstallmentBatchRun run = installmentBatchRunRepository.findById(runId).orElseThrow();
+        List<LoanRepository.DueLoan> due = loanRepository.findDueLoans(today, ACTIVE_STATUSES, run.getLastLoanId(),
+                PageRequest.of(0, chunkSize));
+
+        if (!due.isEmpty()) {
+            Map<Integer, List<LoanRepository.DueLoan>> byPartition = due.stream()
+                    .collect(Collectors.groupingBy(loan -> transactionPartitioner.partitionFor(loan.getAccountNumber())));
+            for (List<LoanRepository.DueLoan> group : byPartition.values()) {
+                List<Long> loanIds = group.stream().map(LoanRepository.DueLoan::getId).collect(Collectors.toList());
+                transactionQueueService.queueTransaction(TransactionType.PAY_INSTALLMENTS,
+                        new InstallmentBatchDto(runId, loanIds), null, group.get(0).getAccountNumber());
+            }
+
+            run.setLastLoanId(due.get(due.size() - 1).getId());
+            run.setChunksQueued(run.getChunksQueued() + 1);
+            run.setLoansQueued(run.getLoansQueued() + due.size());
+        }
+
+        boolean hasMore = due.size() == chunkSize;
+        if (!hasMore) {
+            run.setStatus(InstallmentBatchStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+        }
+        installmentBatchRunRepository.save(run);
+        return hasMore;
+    }
+
+    /// Naplacuje rate jednog dela chunk-a (poziva se iz particije transaction-queue).
+    /// Krediti koji vise nisu dospeli (ponovljena poruka) se preskacu, a oni bez dovoljno sredstava ostaju dospeli za sledeci dan.
+    @Transactional
+    public void payInstallments(InstallmentBatchDto batch) {
+        LocalDate today = LocalDate.now();
+        // poruke iz outbox-a stizu bar jednom - naplaceni krediti vise nisu dospeli, pa ih duplikat preskace
+        loanRepository.lockByIdIn(batch.getLoanIds());
+        List<Loan> loans = loanRepository.findDueByIdIn(batch.getLoanIds(), today, ACTIVE_STATUSES);
+
+        Set<String> accountNumbers = loans.stream().map(loan -> loan.getAccount().getAccountNumber()).collect(Collectors.toSet());
+        Map<String, BigDecimal> balances = new HashMap<>(ledgerService.getAvailableBalances(accountNumbers));
+
+        Map<String, CompanyAccount> bankAccounts = new HashMap<>();
+        Map<String, BigDecimal> bankCredits = new LinkedHashMap<>();
+        Map<Loan, BigDecimal> paid = new LinkedHashMap<>();
+        List<LedgerEntry> legs = new ArrayList<>();
+
+        for (Loan loan : loans) {
+            Account account = loan.getAccount();
+            BigDecimal amount = loan.getNextInstallmentAmount();
+            // vise kredita moze da tereti isti racun, zato se stanje umanjuje u hodu
+            BigDecimal balance = balances.getOrDefault(account.getAccountNumber(), BigDecimal.ZERO);
+            if (balance.compareTo(amount) < 0)
+                continue;
+
+            String currencyCode = account.getCurrency().getCode();
+            bankAccounts.computeIfAbsent(currencyCode, code -> accountRepository
+                    .findFirstByCurrencyAndCompanyId(account.getCurrency(), BANK_COMPANY_ID)
+                    .orElseThrow(() -> new BankAccountNotFoundException("Bank account not found for currency: " + code)));
+
+            balances.put(account.getAccountNumber(), balance.subtract(amount));
+            legs.add(LedgerEntry.debit(account, amount).toBuilder().referenceId(loan.getId()).build());
+            bankCredits.merge(currencyCode, amount, BigDecimal::add);
+            paid.put(loan, amount);
+        }
+
+        int failed = loans.size() - paid.size();
+        if (!paid.isEmpty()) {
+            // racun banke dobija jednu stavku po valuti za ceo chunk
+            bankCredits.forEach((currencyCode, total) -> legs.add(LedgerEntry.credit(bankAccounts.get(currencyCode), total)));
+            ledgerService.post(PostingType.INSTALLMENT, legs);
+
+            // tekuca i sledeca rata svih naplacenih kredita jednim upitom, plan otplate je vec izracunat
+            List<Long> paidIds = paid.keySet().stream().map(Loan::getId).collect(Collectors.toList());
+            loanScheduleBackfillService.completeSchedules(paidIds);
+            Map<Long, List<Installment>> openInstallments = installmentRepository
+                    .findCurrentAndNextOpen(paidIds, InstallmentStatus.PAID).stream()
+                    .collect(Collectors.groupingBy(installment -> installment.getLoan().getId()));
+
+            paid.forEach((loan, amount) -> amortizationService.applyPayment(loan,
+                    openInstallments.getOrDefault(loan.getId(), List.of()), amount, today));
+            // izmene rata i kredita idu batch update-om pri flush-u
+        }
+
+        installmentBatchRunRepository.recordResults(batch.getRunId(), paid.size(), failed);
+        if (failed > 0)
+            log.warn("Insufficient funds for {} of {} due installments in run {}", failed, loans.size(), batch.getRunId());
+    }
+}
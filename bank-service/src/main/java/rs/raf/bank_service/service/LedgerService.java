@@ -0,0 +1,162 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.entity.LedgerEntry;
+import rs.raf.bank_service.domain.enums.AccountStatus;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
+import rs.raf.bank_service.domain.enums.PostingType;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.UnbalancedPostingException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.LedgerEntryRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/// Knjizenja se samo dodaju u ledger_entries. Stanje racuna = poslednji snapshot (balance na racunu) + stavke posle snapshot-a.
+/// Granica snapshot-a je id baze transakcije (LedgerEntry.txId), a ne vreme knjizenja: u snapshot ulaze samo stavke
+/// transakcija starijih od najstarije transakcije u toku, pa stavka koja se commit-uje kasnije ne moze ostati iza granice.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountRepository accountRepository;
+
+    /// Upisuje sve stavke jednog knjizenja u jednom batch insert-u. Za svaku valutu duguje mora biti jednako potrazuje.
+    @Transactional
+    public List<LedgerEntry> post(PostingType type, Long referenceId, List<LedgerEntry> legs) {
+        return post(type, legs.stream().map(leg -> leg.toBuilder().referenceId(referenceId).build()).collect(Collectors.toList()));
+    }
+
+    /// Knjizenje vise referenci odjednom (npr. chunk rata) - svaka stavka nosi svoj referenceId.
+    @Transactional
+    public List<LedgerEntry> post(PostingType type, List<LedgerEntry> legs) {
+        // provera ravnoteze u minor jedinicama, bez BigDecimal medjurezultata
+        Map<String, Money> balanceByCurrency = new HashMap<>();
+        for (LedgerEntry leg : legs) {
+            Money amount = leg.money();
+            if (amount.isNegative())
+                throw new IllegalArgumentException("Ledger entry amount must not be negative");
+            balanceByCurrency.merge(leg.getCurrencyCode(),
+                    leg.getDirection() == LedgerEntryDirection.CREDIT ? amount : amount.negate(), Money::plus);
+        }
+        balanceByCurrency.forEach((currencyCode, sum) -> {
+            if (sum.signum() != 0)
+                throw new UnbalancedPostingException(currencyCode);
+        });
+
+        String postingId = UUID.randomUUID().toString();
+        LocalDateTime postedAt = LocalDateTime.now();
+
+        List<LedgerEntry> entries = legs.stream()
+                .map(leg -> leg.toBuilder()
+                        .postingId(postingId)
+                        .postingType(type)
+                        .postedAt(postedAt)
+                        .build())
+                .collect(Collectors.toList());
+
+        return ledgerEntryRepository.saveAll(entries);
+    }
+
+    public BigDecimal getBalance(Account account) {
+        return account.getBalance().add(getTail(account));
+    }
+
+    /// Raspolozivo stanje: availableBalance racuna (snapshot umanjen za rezervacije) + stavke posle snapshot-a.
+    /// Rezervacije (nalozi iz stock-service, hold-ovi kartica) su u bazi, pa ovo stanje vide sve provere i sve instance.
+    public BigDecimal getAvailableBalance(Account account) {
+        return account.getAvailableBalance().add(getTail(account));
+    }
+
+    /// Stanja vise racuna jednim upitom umesto getBalance po racunu
+    public Map<String, BigDecimal> getBalances(Collection<String> accountNumbers) {
+        if (accountNumbers.isEmpty())
+            return Map.of();
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (LedgerEntryRepository.AccountBalance row : ledgerEntryRepository.sumBalances(accountNumbers))
+            balances.put(row.getAccountNumber(), tail(row).add(row.getBalance()));
+        return balances;
+    }
+
+    /// Raspoloziva stanja vise racuna jednim upitom - za provere sredstava
+    public Map<String, BigDecimal> getAvailableBalances(Collection<String> accountNumbers) {
+        if (accountNumbers.isEmpty())
+            return Map.of();
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (LedgerEntryRepository.AccountBalance row : ledgerEntryRepository.sumBalances(accountNumbers))
+            balances.put(row.getAccountNumber(), tail(row).add(row.getAvailableBalance()));
+        return balances;
+    }
+
+    /// Stanje i raspolozivo stanje vise racuna jednim upitom - za liste i detalje racuna
+    public Map<String, AccountBalances> getAccountBalances(Collection<String> accountNumbers) {
+        if (accountNumbers.isEmpty())
+            return Map.of();
+        Map<String, AccountBalances> balances = new HashMap<>();
+        for (LedgerEntryRepository.AccountBalance row : ledgerEntryRepository.sumBalances(accountNumbers)) {
+            BigDecimal tail = tail(row);
+            balances.put(row.getAccountNumber(), new AccountBalances(row.getBalance().add(tail), row.getAvailableBalance().add(tail)));
+        }
+        return balances;
+    }
+
+    /// Raspolozivo stanje racuna ako je aktivan, inace null - status se cita istim upitom kao i stanje
+    public BigDecimal getActiveAvailableBalance(String accountNumber) {
+        return ledgerEntryRepository.sumBalances(List.of(accountNumber)).stream()
+                .filter(row -> row.getStatus() == AccountStatus.ACTIVE)
+                .map(row -> tail(row).add(row.getAvailableBalance()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    public record AccountBalances(BigDecimal balance, BigDecimal availableBalance) {
+    }
+
+    private static BigDecimal tail(LedgerEntryRepository.AccountBalance row) {
+        BigDecimal credits = Optional.ofNullable(row.getCredits()).orElse(BigDecimal.ZERO);
+        BigDecimal debits = Optional.ofNullable(row.getDebits()).orElse(BigDecimal.ZERO);
+        return credits.subtract(debits);
+    }
+
+    // balance i snapshotTxId su procitani zajedno sa racunom, pa je zbir konzistentan cak i ako se snapshot pomerio u medjuvremenu
+    private BigDecimal getTail(Account account) {
+        long fromTxId = Optional.ofNullable(account.getSnapshotTxId()).orElse(0L);
+        return ledgerEntryRepository.sumTail(account.getAccountNumber(), fromTxId).stream()
+                .map(total -> total.getDirection() == LedgerEntryDirection.CREDIT ? total.getTotal() : total.getTotal().negate())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.snapshot.interval-ms:5000}")
+    @Transactional
+    public void snapshotBalances() {
+        // granica se cita pre zbira: sve transakcije ispod nje su zavrsene, pa ih sledeci upit vidi u celosti
+        long horizon = ledgerEntryRepository.findSettledTxHorizon();
+
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        Map<String, Long> previousSnapshots = new HashMap<>();
+        for (LedgerEntryRepository.AccountDirectionTotal total : ledgerEntryRepository.sumPendingSnapshot(horizon)) {
+            BigDecimal signed = total.getDirection() == LedgerEntryDirection.CREDIT ? total.getTotal() : total.getTotal().negate();
+            deltas.merge(total.getAccountNumber(), signed, BigDecimal::add);
+            previousSnapshots.put(total.getAccountNumber(), Optional.ofNullable(total.getSnapshotTxId()).orElse(0L));
+        }
+
+        int applied = 0;
+        for (Map.Entry<String, BigDecimal> delta : deltas.entrySet()) {
+            applied += accountRepository.applySnapshot(delta.getKey(), delta.getValue(), horizon,
+                    previousSnapshots.get(delta.getKey()));
+        }
+
+        if (applied > 0)
+            log.info("Ledger snapshot up to transaction {} applied to {} accounts", horizon, applied);
+    }
+}
@@ -0,0 +1,199 @@
+package rs.raf.bank_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.dto.LoanRepricingStatusDto;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
+import rs.raf.bank_service.domain.enums.InterestRateType;
+import rs.raf.bank_service.domain.enums.LoanStatus;
+import rs.raf.bank_service.repository.LoanRepository;
+import rs.raf.bank_service.specification.LoanInterestRateCalculator;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Mesecna promena kamatnih stopa za kredite sa promenljivom stopom.
+/// Krediti se citaju po stranama (kursor po id-u, samo potrebne kolone), nove stope i iznos sledece rate se racunaju
+/// paralelno u chunk-ovima radnika, a svaka strana se upisuje batch update-om u svojoj kratkoj transakciji,
+/// tako da naplata rata ne ceka na ceo posao.
+@Slf4j
+@Service
+public class LoanRepricingService {
+
+    private static final String UPDATE_LOAN = "UPDATE loans SET nominal_interest_rate = ?, effective_interest_rate = ?, " +
+            "next_installment_amount = ? WHERE id = ?";
+    private static final String UPDATE_OPEN_INSTALLMENT = "UPDATE installments SET amount = ?, interest_rate = ?, " +
+            "interest_amount = ?, principal_amount = ?, remaining_principal = ? " +
+            "WHERE loan_id = ? AND installment_number = ? AND installment_status <> '" + InstallmentStatus.PAID.name() + "'";
+
+    private final LoanRepository loanRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService executor;
+    private final AmortizationService amortizationService;
+
+    private final Counter repricedCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+
+    @Value("${loan.repricing.page-size:1000}")
+    private int pageSize = 1000;
+
+    @Value("${loan.repricing.worker-chunk-size:250}")
+    private int workerChunkSize = 250;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong repriced = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public LoanRepricingService(LoanRepository loanRepository, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("loanRepricingExecutor") ExecutorService executor,
+                                AmortizationService amortizationService, MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.executor = executor;
+        this.amortizationService = amortizationService;
+        this.repricedCounter = Counter.builder("loan.repricing.loans").tag("outcome", "repriced").register(meterRegistry);
+        this.skippedCounter = Counter.builder("loan.repricing.loans").tag("outcome", "skipped").register(meterRegistry);
+        this.runTimer = Timer.builder("loan.repricing.run").register(meterRegistry);
+        Gauge.builder("loan.repricing.processed", processed, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("loan.repricing.throughput", this, service -> service.getStatus().getLoansPerSecond())
+                .baseUnit("loans/s").register(meterRegistry);
+    }
+
+    /// Vraca false ako je obracun vec u toku.
+    public boolean repriceVariableRateLoans() {
+        if (!running.compareAndSet(false, true))
+            return false;
+
+        processed.set(0);
+        repriced.set(0);
+        skipped.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        try {
+            runTimer.record(this::repriceAllPages);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+
+        log.info("Variable rate repricing finished: {} repriced, {} skipped, {} loans/s",
+                repriced.get(), skipped.get(), String.format("%.1f", getStatus().getLoansPerSecond()));
+        return true;
+    }
+
+    public LoanRepricingStatusDto getStatus() {
+        LocalDateTime start = startedAt;
+        double loansPerSecond = 0;
+        if (start != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(start, end).toMillis());
+            loansPerSecond = processed.get() * 1000.0 / millis;
+        }
+        return new LoanRepricingStatusDto(running.get(), start, finishedAt, processed.get(), repriced.get(), skipped.get(), loansPerSecond);
+    }
+
+    private void repriceAllPages() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+
+        while (true) {
+            List<LoanRepository.RepricingLoan> page = loanRepository.findRepricingLoans(LoanStatus.APPROVED,
+                    InterestRateType.VARIABLE, InstallmentStatus.PAID, afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty())
+                return;
+
+            List<Repricing> updates = computeInParallel(page);
+            transaction.executeWithoutResult(status -> apply(updates));
+
+            processed.addAndGet(page.size());
+            repriced.addAndGet(updates.size());
+            skipped.addAndGet(page.size() - updates.size());
+            repricedCounter.increment(updates.size());
+            skippedCounter.increment(page.size() - updates.size());
+            log.debug("Repricing progress: {} loans processed", processed.get());
+
+            if (page.size() < pageSize)
+                return;
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private List<Repricing> computeInParallel(List<LoanRepository.RepricingLoan> page) {
+        List<CompletableFuture<List<Repricing>>> workers = new ArrayList<>();
+        for (int from = 0; from < page.size(); from += workerChunkSize) {
+            List<LoanRepository.RepricingLoan> chunk = page.subList(from, Math.min(from + workerChunkSize, page.size()));
+            workers.add(CompletableFuture.supplyAsync(() -> compute(chunk), executor));
+        }
+
+        List<Repricing> updates = new ArrayList<>(page.size());
+        for (CompletableFuture<List<Repricing>> worker : workers)
+            updates.addAll(worker.join());
+        return updates;
+    }
+
+    private List<Repricing> compute(List<LoanRepository.RepricingLoan> chunk) {
+        List<Repricing> updates = new ArrayList<>(chunk.size());
+        for (LoanRepository.RepricingLoan loan : chunk) {
+            // krediti sa nepotpunim podacima se preskacu umesto da obore ceo chunk
+            if (loan.getNominalInterestRate() == null || loan.getAmount() == null || loan.getType() == null
+                    || loan.getRepaymentPeriod() == null)
+                continue;
+
+            int paid = loan.getPaidInstallments() == null ? 0 : loan.getPaidInstallments().intValue();
+            if (paid >= loan.getRepaymentPeriod())
+                continue;
+
+            BigDecimal adjustment = BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble() * 3 - 1.5); // -1.50% do +1.50%
+            BigDecimal nominal = loan.getNominalInterestRate().add(adjustment);
+            BigDecimal effective = LoanInterestRateCalculator.calculateEffectiveRate(loan.getAmount(), loan.getType());
+            // placene rate ostaju kakve jesu, menja se samo ostatak plana
+            List<AmortizationService.ScheduleRow> schedule = amortizationService.schedule(loan.getAmount(), effective, loan.getRepaymentPeriod());
+            List<AmortizationService.ScheduleRow> openRows = schedule.subList(paid, schedule.size());
+            updates.add(new Repricing(loan.getId(), nominal, effective, openRows.get(0).amount(), openRows));
+        }
+        return updates;
+    }
+
+    private void apply(List<Repricing> updates) {
+        if (updates.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(UPDATE_LOAN, updates.stream()
+                .map(update -> new Object[]{update.nominalRate(), update.effectiveRate(), update.nextInstallmentAmount(), update.loanId()})
+                .toList());
+        // neplacene rate iz plana se prepisuju novim iznosima, jedan batch za celu stranu
+        jdbcTemplate.batchUpdate(UPDATE_OPEN_INSTALLMENT, updates.stream()
+                .flatMap(update -> update.openRows().stream().map(row -> new Object[]{row.amount(), update.effectiveRate(),
+                        row.interest(), row.principal(), row.remainingPrincipal(), update.loanId(), row.number()}))
+                .toList());
+    }
+
+    private record Repricing(Long loanId, BigDecimal nominalRate, BigDecimal effectiveRate, BigDecimal nextInstallmentAmount,
+                             List<AmortizationService.ScheduleRow> openRows) {
+    }
+}
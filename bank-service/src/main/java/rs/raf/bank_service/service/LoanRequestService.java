@@ -10,10 +10,10 @@ import rs.raf.bank_service.domain.dto.CreateLoanRequestDto;
 import rs.raf.bank_service.domain.dto.LoanDto;
 import rs.raf.bank_service.domain.dto.LoanRequestDto;
 import rs.raf.bank_service.domain.entity.*;
-import rs.raf.bank_service.domain.enums.InstallmentStatus;
 import rs.raf.bank_service.domain.enums.LoanRequestStatus;
 import rs.raf.bank_service.domain.enums.LoanStatus;
 import rs.raf.bank_service.domain.enums.LoanType;
+import rs.raf.bank_service.domain.enums.PostingType;
 import rs.raf.bank_service.domain.mapper.LoanMapper;
 import rs.raf.bank_service.domain.mapper.LoanRequestMapper;
 import rs.raf.bank_service.exceptions.AccountNotFoundException;
@@ -22,12 +22,10 @@ import rs.raf.bank_service.exceptions.CurrencyNotFoundException;
 import rs.raf.bank_service.exceptions.LoanRequestNotFoundException;
 import rs.raf.bank_service.repository.*;
 import rs.raf.bank_service.specification.LoanInterestRateCalculator;
-import rs.raf.bank_service.specification.LoanRateCalculator;
 import rs.raf.bank_service.specification.LoanRequestSpecification;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -42,6 +40,8 @@ public class LoanRequestService {
     private final CurrencyRepository currencyRepository;
     private final InstallmentRepository installmentRepository;
     private final JwtTokenUtil jwtTokenUtil;
+    private final LedgerService ledgerService;
+    private final AmortizationService amortizationService;
 
     public LoanDto returnLoanDto(Long id) {
         LoanRequest loanRequest = loanRequestRepository.findByIdAndStatus(id, LoanRequestStatus.PENDING)
@@ -68,6 +68,9 @@ public class LoanRequestService {
     public LoanDto approveLoan(Long id) {
         LoanRequest loanRequest = loanRequestRepository.findByIdAndStatus(id, LoanRequestStatus.PENDING)
                 .orElseThrow(LoanRequestNotFoundException::new);
+        // odobrenje stize porukom iz outbox-a (bar jednom) - kredit pravi samo poziv koji je prebacio zahtev iz PENDING
+        if (loanRequestRepository.updateStatus(id, LoanRequestStatus.PENDING, LoanRequestStatus.APPROVED) == 0)
+            throw new LoanRequestNotFoundException();
 
         loanRequest.setStatus(LoanRequestStatus.APPROVED);
 
@@ -76,15 +79,7 @@ public class LoanRequestService {
                 .findFirstByCurrencyAndCompanyId(loanRequest.getCurrency(), 1L)
                 .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + loanRequest.getCurrency().getCode()));
 
-
-        bankAccount.setBalance(bankAccount.getBalance().subtract(loanRequest.getAmount()));
-        bankAccount.setAvailableBalance(bankAccount.getAvailableBalance().subtract(loanRequest.getAmount()));
-        accountRepository.save(bankAccount);
-
         Account userAccount = loanRequest.getAccount();
-        userAccount.setBalance(userAccount.getBalance().add(loanRequest.getAmount()));
-        userAccount.setAvailableBalance(userAccount.getAvailableBalance().add(loanRequest.getAmount()));
-        accountRepository.save(userAccount);
 
         Loan loan = Loan.builder()
                 .loanNumber(UUID.randomUUID().toString())
@@ -95,10 +90,6 @@ public class LoanRequestService {
                 .effectiveInterestRate(LoanInterestRateCalculator.calculateEffectiveRate(loanRequest))
                 .startDate(LocalDate.now())
                 .dueDate(LocalDate.now().plusMonths(loanRequest.getRepaymentPeriod()))
-                .nextInstallmentAmount(LoanRateCalculator.calculateMonthlyRate(
-                        loanRequest.getAmount(),
-                        LoanInterestRateCalculator.calculateEffectiveRate(loanRequest),
-                        loanRequest.getRepaymentPeriod()))
                 .nextInstallmentDate(LocalDate.now().plusMonths(1))
                 .remainingDebt(loanRequest.getAmount())
                 .currency(loanRequest.getCurrency())
@@ -107,19 +98,17 @@ public class LoanRequestService {
                 .account(userAccount)
                 .build();
 
-        Installment installment = new Installment(
-                loan,
-                loan.getNextInstallmentAmount(),
-                loan.getEffectiveInterestRate(),
-                loan.getNextInstallmentDate(),
-                InstallmentStatus.UNPAID
-        );
-
-        loan.setInstallments(new ArrayList<>());
-        loan.getInstallments().add(installment);
+        // ceo plan otplate se pravi odmah, naplata posle samo prelazi na sledecu ratu
+        List<Installment> installments = amortizationService.createInstallments(loan, loan.getNextInstallmentDate());
+        loan.setNextInstallmentAmount(installments.get(0).getAmount());
+        loan.setInstallments(installments);
 
         loanRepository.save(loan);
-        installmentRepository.save(installment);
+        installmentRepository.saveAll(installments);
+
+        // isplata kredita: banka duguje, racun klijenta potrazuje
+        ledgerService.post(PostingType.LOAN_DISBURSEMENT, loan.getId(),
+                List.of(LedgerEntry.debit(bankAccount, loanRequest.getAmount()), LedgerEntry.credit(userAccount, loanRequest.getAmount())));
 
         return loanMapper.toDto(loan);
     }
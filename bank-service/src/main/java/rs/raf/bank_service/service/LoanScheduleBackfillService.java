@@ -0,0 +1,72 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.entity.Installment;
+import rs.raf.bank_service.domain.entity.Loan;
+import rs.raf.bank_service.repository.InstallmentRepository;
+import rs.raf.bank_service.repository.LoanRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/// Dopunjuje plan otplate kreditima odobrenim pre cuvanja celog plana (rate bez rednog broja, samo tekuca otvorena rata).
+/// Svi se dopunjuju jednom posle starta, a naplata rata poziva completeSchedules za svoje kredite pre citanja plana,
+/// pa kredit bez plana nikad ne prelazi u PAID_OFF posle prve sledece uplate.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanScheduleBackfillService {
+
+    private final InstallmentRepository installmentRepository;
+    private final LoanRepository loanRepository;
+    private final AmortizationService amortizationService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${loan.schedule-backfill.batch-size:200}")
+    private int batchSize = 200;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSchedules() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            Integer completed = transaction.execute(status -> completeSchedules(
+                    installmentRepository.findLoanIdsWithoutSchedule(PageRequest.of(0, batchSize))));
+            if (completed == null || completed == 0)
+                break;
+            total += completed;
+        }
+        if (total > 0)
+            log.info("Completed repayment schedules for {} legacy loans", total);
+    }
+
+    /// Dopunjuje plan onim kreditima iz liste koji ga nemaju; vraca broj dopunjenih kredita
+    @Transactional
+    public int completeSchedules(Collection<Long> loanIds) {
+        if (loanIds.isEmpty())
+            return 0;
+
+        List<Long> legacy = installmentRepository.findLoanIdsWithoutSchedule(loanIds);
+        for (Long loanId : legacy) {
+            Loan loan = loanRepository.findByIdForUpdate(loanId);
+            // posle zakljucavanja ponovo citamo rate - druga instanca je mozda vec dopunila plan
+            List<Installment> existing = installmentRepository.findByLoanIdOrderById(loanId);
+            if (existing.stream().allMatch(installment -> installment.getInstallmentNumber() != null))
+                continue;
+
+            List<Installment> missing = amortizationService.completeLegacySchedule(loan, existing);
+            installmentRepository.saveAll(existing);
+            installmentRepository.saveAll(missing);
+        }
+        return legacy.size();
+    }
+}
@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import rs.raf.bank_service.client.UserClient;
@@ -13,25 +12,29 @@ import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
 import rs.raf.bank_service.domain.entity.Installment;
+import rs.raf.bank_service.domain.entity.LedgerEntry;
 import rs.raf.bank_service.domain.entity.Loan;
 import rs.raf.bank_service.domain.enums.*;
 import rs.raf.bank_service.domain.mapper.InstallmentMapper;
 import rs.raf.bank_service.domain.mapper.LoanMapper;
+import rs.raf.bank_service.domain.money.Money;
 import rs.raf.bank_service.exceptions.BankAccountNotFoundException;
 import rs.raf.bank_service.exceptions.InsufficientFundsException;
+import rs.raf.bank_service.exceptions.LoanNotFoundException;
 import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.InstallmentRepository;
 import rs.raf.bank_service.repository.LoanRepository;
 import rs.raf.bank_service.repository.LoanRequestRepository;
-import rs.raf.bank_service.specification.LoanRateCalculator;
 import rs.raf.bank_service.specification.LoanSpecification;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -50,12 +53,36 @@ public class LoanService {
     private final JwtTokenUtil jwtTokenUtil;
     private final InstallmentRepository installmentRepository;
     private final InstallmentMapper installmentMapper;
-    private final TransactionQueueService transactionQueueService;
+    private final LedgerService ledgerService;
+    private final AmortizationService amortizationService;
+    private final LoanScheduleBackfillService loanScheduleBackfillService;
 
     public List<InstallmentDto> getLoanInstallments(Long loanId) {
         return installmentRepository.findByLoanId(loanId).stream().map(installmentMapper::toDto).collect(Collectors.toList());
     }
 
+    /// Ceo plan otplate kredita iz sacuvanih rata (bez ponovnog racunanja)
+    public LoanScheduleDto getLoanSchedule(Long loanId) {
+        Loan loan = loanRepository.findById(loanId).orElseThrow(() -> new LoanNotFoundException(loanId));
+        List<Installment> installments = installmentRepository.findByLoanIdOrderByInstallmentNumber(loanId);
+
+        BigDecimal totalInterest = installments.stream().map(Installment::getInterestAmount)
+                .filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalPayment = installments.stream().map(Installment::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal installmentAmount = installments.isEmpty() ? loan.getNextInstallmentAmount() : installments.get(0).getAmount();
+
+        return new LoanScheduleDto(loanId, installmentAmount, totalInterest, totalPayment, installmentMapper.toDtoList(installments));
+    }
+
+    /// Ocekivane uplate rata po mesecima i valutama u periodu [from, to]
+    public List<LoanBookProjectionDto> getLoanBookProjection(LocalDate from, LocalDate to) {
+        return installmentRepository.projectByMonth(from, to, InstallmentStatus.PAID).stream()
+                .map(row -> new LoanBookProjectionDto(YearMonth.of(row.getYear(), row.getMonth()), row.getCurrencyCode(),
+                        row.getInstallments(), row.getAmount(), row.getInterest(), row.getPrincipal()))
+                .collect(Collectors.toList());
+    }
+
     public Page<LoanShortDto> getClientLoans(String authHeader, Pageable pageable) {
         Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(authHeader);
         List<Account> accounts = accountRepository.findByClientId(clientId);
@@ -94,72 +121,29 @@ public class LoanService {
 
         Account account = loan.getAccount();
 
-        if (account.getBalance().compareTo(loan.getNextInstallmentAmount()) < 0) {
-            throw new InsufficientFundsException(account.getBalance(), loan.getNextInstallmentAmount());
+        Money amount = Money.ofRounded(loan.getNextInstallmentAmount(), account.getCurrency().getCode());
+        BigDecimal balance = ledgerService.getAvailableBalance(account);
+        if (Money.ofRounded(balance, amount.getCurrencyCode()).isLessThan(amount)) {
+            throw new InsufficientFundsException(balance, loan.getNextInstallmentAmount());
         }
 
-        BigDecimal amount = loan.getNextInstallmentAmount();
-
-        account.setBalance(account.getBalance().subtract(amount));
-        account.setAvailableBalance(account.getAvailableBalance().subtract(amount));
-        accountRepository.save(account);
-
-        //azurira stanje banke
+        //knjizi ratu sa racuna klijenta na racun banke
         CompanyAccount bankAccount = accountRepository
                 .findFirstByCurrencyAndCompanyId(account.getCurrency(), 1L)
                 .orElseThrow(() -> new BankAccountNotFoundException("Bank account not found for currency: " + account.getCurrency().getCode()));
 
-        bankAccount.setBalance(bankAccount.getBalance().add(amount));
-        bankAccount.setAvailableBalance(bankAccount.getBalance());
-        accountRepository.save(bankAccount);
-
-        // azurira remainingDebt
-        BigDecimal updatedDebt = loan.getRemainingDebt().subtract(amount);
-        loan.setRemainingDebt(updatedDebt.max(BigDecimal.ZERO));
-
-        List<Installment> installments = loan.getInstallments();
-        installments.sort(Comparator.comparing(Installment::getId));
-
-        Installment current = installments.get(installments.size() - 1);
-        current.setInstallmentStatus(InstallmentStatus.PAID);
-        current.setActualDueDate(LocalDate.now());
-        installmentRepository.save(current);
-
-        if (installments.size() < loan.getRepaymentPeriod()) {
-            Installment next = new Installment(
-                    loan,
-                    LoanRateCalculator.calculateMonthlyRate(loan.getAmount(), loan.getEffectiveInterestRate(), loan.getRepaymentPeriod()),
-                    loan.getEffectiveInterestRate(),
-                    LocalDate.now().plusMonths(1),
-                    InstallmentStatus.UNPAID
-            );
-            loan.getInstallments().add(next);
-            loan.setNextInstallmentDate(next.getExpectedDueDate());
-            loan.setNextInstallmentAmount(next.getAmount()); //dodato
-            installmentRepository.save(next);
-        } else {
-            loan.setStatus(LoanStatus.PAID_OFF);
-        }
+        ledgerService.post(PostingType.INSTALLMENT, loan.getId(),
+                List.of(LedgerEntry.debit(account, amount), LedgerEntry.credit(bankAccount, amount)));
 
-        loanRepository.save(loan);
-    }
+        // azurira remainingDebt i prelazi na sledecu ratu iz plana (stari krediti prvo dobijaju ceo plan)
+        loanScheduleBackfillService.completeSchedules(List.of(loan.getId()));
+        List<Installment> open = installmentRepository.findCurrentAndNextOpen(List.of(loan.getId()), InstallmentStatus.PAID);
+        amortizationService.applyPayment(loan, open, amount.toBigDecimal(), LocalDate.now());
+        installmentRepository.saveAll(open);
 
-    @Scheduled(cron = "*/15 * * * * *")
-    //@Scheduled(cron = "0 0 2 * * *") ovako je svaki dan u 02:00h ali zbog testiranja koristimo ovo gore koje radi na 15sec
-    public void queueDueInstallments() {
-        LocalDate today = LocalDate.now();
-
-
-        List<Loan> loans = loanRepository.findByNextInstallmentDateAndStartDateBefore(today, today);
-
-        for (Loan loan : loans) {
-            transactionQueueService.queueTransaction(TransactionType.PAY_INSTALLMENT, loan.getId());
-        }
-
-        log.info("Queued {} loan installments for {}", loans.size(), today);
+        loanRepository.save(loan);
     }
 
-
     private void scheduleRetry(Loan loan, long delay, TimeUnit timeUnit) {
         scheduledExecutorService.schedule(() -> retryLoanPayment(loan), delay, timeUnit);
     }
@@ -168,52 +152,23 @@ public class LoanService {
     public void retryLoanPayment(Loan loan) {
         Account currAccount = accountRepository.findByAccountNumber(loan.getAccount().getAccountNumber()).orElseThrow();
 
+        Money amount = Money.ofRounded(loan.getNextInstallmentAmount(), currAccount.getCurrency().getCode());
         if (loan.getStatus().compareTo(LoanStatus.PAID_OFF) < 0 &&
-                currAccount.getBalance().compareTo(loan.getNextInstallmentAmount()) >= 0) {
-
-            BigDecimal amount = loan.getNextInstallmentAmount();
-
+                !Money.ofRounded(ledgerService.getAvailableBalance(currAccount), amount.getCurrencyCode()).isLessThan(amount)) {
 
-            //azurira balance
-            currAccount.setBalance(currAccount.getBalance().subtract(amount));
-            currAccount.setAvailableBalance(currAccount.getAvailableBalance().subtract(amount));
-            accountRepository.save(currAccount);
-
-            //azurira stanje banke
+            //knjizi ratu sa racuna klijenta na racun banke
             CompanyAccount bankAccount = accountRepository
                     .findFirstByCurrencyAndCompanyId(currAccount.getCurrency(), 1L)
                     .orElseThrow(() -> new BankAccountNotFoundException("Bank account not found for currency: " + currAccount.getCurrency().getCode()));
 
-            bankAccount.setBalance(bankAccount.getBalance().add(amount));
-            bankAccount.setAvailableBalance(bankAccount.getBalance());
-            accountRepository.save(bankAccount);
-
-            // azurira remainingDebt
-            BigDecimal updatedDebt = loan.getRemainingDebt().subtract(amount);
-            loan.setRemainingDebt(updatedDebt.max(BigDecimal.ZERO));
-
-            List<Installment> installments = loan.getInstallments();
-            installments.sort(Comparator.comparing(Installment::getId));
-            Installment installment1 = installments.get(installments.size() - 1);
-            installment1.setInstallmentStatus(InstallmentStatus.PAID);
-            installment1.setActualDueDate(LocalDate.now());
-            installmentRepository.save(installment1);
-
-            if (loan.getInstallments().size() < loan.getRepaymentPeriod()) {
-                Installment newInstallment = new Installment(
-                        loan,
-                        LoanRateCalculator.calculateMonthlyRate(loan.getAmount(), loan.getEffectiveInterestRate(), loan.getRepaymentPeriod()),
-                        loan.getEffectiveInterestRate(),
-                        LocalDate.now().plusMonths(1),
-                        InstallmentStatus.UNPAID
-                );
-                loan.getInstallments().add(newInstallment);
-                loan.setNextInstallmentDate(newInstallment.getExpectedDueDate());
-                loan.setNextInstallmentAmount(newInstallment.getAmount());
-                installmentRepository.save(newInstallment);
-            } else {
-                loan.setStatus(LoanStatus.PAID_OFF);
-            }
+            ledgerService.post(PostingType.INSTALLMENT, loan.getId(),
+                    List.of(LedgerEntry.debit(currAccount, amount), LedgerEntry.credit(bankAccount, amount)));
+
+            // azurira remainingDebt i prelazi na sledecu ratu iz plana (stari krediti prvo dobijaju ceo plan)
+            loanScheduleBackfillService.completeSchedules(List.of(loan.getId()));
+            List<Installment> open = installmentRepository.findCurrentAndNextOpen(List.of(loan.getId()), InstallmentStatus.PAID);
+            amortizationService.applyPayment(loan, open, amount.toBigDecimal(), LocalDate.now());
+            installmentRepository.saveAll(open);
 
             loanRepository.save(loan);
 
@@ -0,0 +1,134 @@
+package rs.raf.bank_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/// Salje poruke iz outbox_messages na RabbitMQ u batch-evima sa publisher confirms.
+/// Batch se zakljucava advisory lock-om, pa samo jedna instanca salje u jednom trenutku. Redosled po id-u nije
+/// garantovan: id se dodeljuje pri insert-u, a transakcije se commit-uju drugim redom, pa red sa manjim id-em moze
+/// postati vidljiv tek posle slanja veceg. Redovi se oznacavaju kao poslati tek kada broker potvrdi ceo batch -
+/// ako commit posle potvrde padne, batch se salje ponovo (at-least-once), pa potrosaci moraju biti idempotentni.
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    // kljuc pg advisory lock-a relay-a (proizvoljan, jedinstven u bazi)
+    private static final long RELAY_LOCK = 0x6F7574626F78L;
+
+    private static final String SELECT_UNSENT = "SELECT id, exchange, routing_key, payload_type, payload " +
+            "FROM outbox_messages WHERE sent_at IS NULL ORDER BY id LIMIT ?";
+    private static final String MARK_SENT = "UPDATE outbox_messages SET sent_at = ? WHERE id = ?";
+    private static final String PURGE_SENT = "DELETE FROM outbox_messages WHERE sent_at < ?";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours = 24;
+
+    public OutboxRelay(RabbitTemplate rabbitTemplate, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.publishedCounter = Counter.builder("outbox.messages").tag("outcome", "published").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.messages").tag("outcome", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+    }
+
+    /// Salje batch-eve dok ima neposlatih poruka. Neuspeh ostavlja poruke u outbox-u za sledeci prolaz.
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:100}")
+    public void relay() {
+        try {
+            while (Boolean.TRUE.equals(transaction.execute(status -> publishBatch())))
+                ;
+        } catch (AmqpException e) {
+            log.warn("Outbox relay failed, messages stay queued: {}", e.getMessage());
+        }
+    }
+
+    // true ako je batch bio pun (verovatno ima jos poruka)
+    private boolean publishBatch() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK)))
+            return false;
+
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT_UNSENT, (rs, i) -> new OutboxRow(rs.getLong("id"),
+                rs.getString("exchange"), rs.getString("routing_key"), rs.getString("payload_type"), rs.getString("payload")), batchSize);
+        if (rows.isEmpty())
+            return false;
+
+        Timer.Sample sample = Timer.start();
+        try {
+            // jedan kanal za ceo batch i jedno cekanje na potvrde umesto round trip-a po poruci
+            rabbitTemplate.invoke(operations -> {
+                for (OutboxRow row : rows)
+                    operations.send(row.exchange(), row.routingKey(), row.toMessage());
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+        } catch (AmqpException e) {
+            failedCounter.increment(rows.size());
+            throw e;
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        Timestamp sentAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_SENT, rows, rows.size(), (ps, row) -> {
+            ps.setTimestamp(1, sentAt);
+            ps.setLong(2, row.id());
+        });
+        publishedCounter.increment(rows.size());
+        return rows.size() == batchSize;
+    }
+
+    /// Brise poslate poruke starije od retention-hours
+    @Scheduled(cron = "${outbox.purge.cron:0 0 * * * *}")
+    public void purgeSent() {
+        int deleted = jdbcTemplate.update(PURGE_SENT, Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted > 0)
+            log.info("Purged {} sent outbox messages", deleted);
+    }
+
+    private record OutboxRow(long id, String exchange, String routingKey, String payloadType, String payload) {
+        Message toMessage() {
+            MessageProperties properties = new MessageProperties();
+            properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            properties.setContentEncoding(StandardCharsets.UTF_8.name());
+            properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+            if (payloadType != null)
+                properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, payloadType);
+            return new Message(payload.getBytes(StandardCharsets.UTF_8), properties);
+        }
+    }
+}
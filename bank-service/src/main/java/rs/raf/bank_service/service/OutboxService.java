@@ -0,0 +1,37 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+import rs.raf.bank_service.domain.entity.OutboxMessage;
+import rs.raf.bank_service.repository.OutboxMessageRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/// Umesto rabbitTemplate.convertAndSend - poruka se upisuje u outbox u transakciji pozivaoca,
+/// a salje je OutboxRelay, pa zahtev ne ceka broker.
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final MessageConverter jsonMessageConverter;
+
+    /// Poruka za red preko default exchange-a
+    public void enqueue(String queue, Object payload) {
+        enqueue("", queue, payload);
+    }
+
+    public void enqueue(String exchange, String routingKey, Object payload) {
+        // isti converter kao RabbitTemplate, pa je poruka na zici ista kao ranije
+        Message message = jsonMessageConverter.toMessage(payload, new MessageProperties());
+        Object typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+
+        outboxMessageRepository.save(new OutboxMessage(exchange, routingKey, typeId == null ? null : typeId.toString(),
+                new String(message.getBody(), StandardCharsets.UTF_8), LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,259 @@
+package rs.raf.bank_service.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.enums.StatementFormat;
+import rs.raf.bank_service.exceptions.AccountNotFoundException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.utils.JwtTokenUtil;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Izvoz istorije placanja za racun (CSV / JSON Lines) direktno u response, bez ucitavanja u memoriju.
+/// Cita se forward-only kursorom sa fetch size-om, u segmentima: svaki segment je kratka read-only transakcija
+/// koja nastavlja od poslednjeg (date, id), tako da ni dugacak izvoz ne drzi transakciju otvorenom.
+@Service
+@RequiredArgsConstructor
+public class PaymentExportService {
+
+    private static final String CSV_HEADER = "id,date,direction,senderName,senderAccount,receiverAccount,amount,outAmount,status,paymentCode,purposeOfPayment,referenceNumber";
+
+    private static final String SELECT = "SELECT p.id, p.date, p.sender_name, p.sender_account_number, p.account_number_receiver, " +
+            "p.amount, p.out_amount, p.status, p.payment_code, p.purpose_of_payment, p.reference_number " +
+            "FROM payments p WHERE (p.sender_account_number = ? OR p.account_number_receiver = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final AccountRepository accountRepository;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${payment.export.segment-size:50000}")
+    private int segmentSize = 50000;
+
+    /// Klijent moze da izveze samo svoj racun, zaposleni bilo koji postojeci.
+    /// Poziva se pre pocetka strimovanja da bi greska bila normalan HTTP odgovor.
+    public void checkAccess(String token, String accountNumber) {
+        String role = jwtTokenUtil.getUserRoleFromAuthHeader(token);
+        if ("CLIENT".equals(role)) {
+            Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+            accountRepository.findByAccountNumberAndClientId(accountNumber, clientId).orElseThrow(AccountNotFoundException::new);
+        } else {
+            accountRepository.findByAccountNumber(accountNumber).orElseThrow(AccountNotFoundException::new);
+        }
+    }
+
+    public void export(String accountNumber, LocalDateTime startDate, LocalDateTime endDate,
+                       StatementFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == StatementFormat.JSONL ? new JsonLinesRowWriter(writer) : new CsvRowWriter(writer);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Segment segment = new Segment(null, null, 0);
+        try {
+            do {
+                Segment after = segment;
+                segment = readOnly.execute(status -> readSegment(accountNumber, startDate, endDate, after, rowWriter));
+                rowWriter.flush();
+            } while (segment != null && segment.rows() == segmentSize);
+        } catch (UncheckedIOException e) {
+            // klijent je prekinuo download ili je pukla konekcija
+            throw e.getCause();
+        }
+    }
+
+    private Segment readSegment(String accountNumber, LocalDateTime startDate, LocalDateTime endDate,
+                                Segment after, RowWriter rowWriter) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> params = new ArrayList<>(List.of(accountNumber, accountNumber));
+        if (startDate != null) {
+            sql.append(" AND p.date >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND p.date <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        if (after.lastId() != null) {
+            sql.append(" AND (p.date > ? OR (p.date = ? AND p.id > ?))");
+            params.add(Timestamp.valueOf(after.lastDate()));
+            params.add(Timestamp.valueOf(after.lastDate()));
+            params.add(after.lastId());
+        }
+        sql.append(" ORDER BY p.date, p.id LIMIT ?");
+        params.add(segmentSize);
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++)
+                ps.setObject(i + 1, params.get(i));
+            return ps;
+        };
+
+        Segment[] last = {new Segment(after.lastDate(), after.lastId(), 0)};
+        jdbcTemplate.query(statement, (RowCallbackHandler) rs -> {
+            ExportRow row = ExportRow.from(rs, accountNumber);
+            try {
+                rowWriter.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            last[0] = new Segment(row.date(), row.id(), last[0].rows() + 1);
+        });
+        return last[0];
+    }
+
+    private record Segment(LocalDateTime lastDate, Long lastId, int rows) {
+    }
+
+    private record ExportRow(Long id, LocalDateTime date, String direction, String senderName, String senderAccount,
+                             String receiverAccount, BigDecimal amount, BigDecimal outAmount, String status,
+                             String paymentCode, String purposeOfPayment, String referenceNumber) {
+
+        static ExportRow from(ResultSet rs, String accountNumber) throws SQLException {
+            Timestamp date = rs.getTimestamp("date");
+            String senderAccount = rs.getString("sender_account_number");
+            return new ExportRow(
+                    rs.getLong("id"),
+                    date == null ? null : date.toLocalDateTime(),
+                    accountNumber.equals(senderAccount) ? "DEBIT" : "CREDIT",
+                    rs.getString("sender_name"),
+                    senderAccount,
+                    rs.getString("account_number_receiver"),
+                    rs.getBigDecimal("amount"),
+                    rs.getBigDecimal("out_amount"),
+                    rs.getString("status"),
+                    rs.getString("payment_code"),
+                    rs.getString("purpose_of_payment"),
+                    rs.getString("reference_number"));
+        }
+    }
+
+    private interface RowWriter {
+        void write(ExportRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private boolean headerWritten;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            if (!headerWritten) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                headerWritten = true;
+            }
+            writer.write(String.valueOf(row.id()));
+            writeField(row.date() == null ? null : row.date().toString());
+            writeField(row.direction());
+            writeField(row.senderName());
+            writeField(row.senderAccount());
+            writeField(row.receiverAccount());
+            writeField(row.amount() == null ? null : row.amount().toPlainString());
+            writeField(row.outAmount() == null ? null : row.outAmount().toPlainString());
+            writeField(row.status());
+            writeField(row.paymentCode());
+            writeField(row.purposeOfPayment());
+            writeField(row.referenceNumber());
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            writer.write(',');
+            if (value == null)
+                return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // i prazan izvoz ima zaglavlje
+            if (!headerWritten) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                headerWritten = true;
+            }
+            writer.flush();
+        }
+    }
+
+    private final class JsonLinesRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        JsonLinesRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // jedan objekat po liniji, bez podrazumevanog razmaka izmedju root vrednosti
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.id());
+            generator.writeStringField("date", row.date() == null ? null : row.date().toString());
+            generator.writeStringField("direction", row.direction());
+            generator.writeStringField("senderName", row.senderName());
+            generator.writeStringField("senderAccount", row.senderAccount());
+            generator.writeStringField("receiverAccount", row.receiverAccount());
+            generator.writeFieldName("amount");
+            writeNumber(row.amount());
+            generator.writeFieldName("outAmount");
+            writeNumber(row.outAmount());
+            generator.writeStringField("status", row.status());
+            generator.writeStringField("paymentCode", row.paymentCode());
+            generator.writeStringField("purposeOfPayment", row.purposeOfPayment());
+            generator.writeStringField("referenceNumber", row.referenceNumber());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void writeNumber(BigDecimal value) throws IOException {
+            if (value == null)
+                generator.writeNull();
+            else
+                generator.writeNumber(value);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
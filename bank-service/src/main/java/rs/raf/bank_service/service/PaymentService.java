@@ -3,36 +3,49 @@ package rs.raf.bank_service.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.Account;
 import rs.raf.bank_service.domain.entity.CompanyAccount;
+import rs.raf.bank_service.domain.entity.LedgerEntry;
 import rs.raf.bank_service.domain.entity.Payment;
 import rs.raf.bank_service.domain.entity.PersonalAccount;
 import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.domain.enums.PostingType;
 import rs.raf.bank_service.domain.enums.TransactionType;
 import rs.raf.bank_service.domain.enums.VerificationType;
 import rs.raf.bank_service.domain.mapper.PaymentMapper;
+import rs.raf.bank_service.domain.money.Money;
 import rs.raf.bank_service.exceptions.*;
 import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.CardRepository;
 import rs.raf.bank_service.repository.CompanyAccountRepository;
+import rs.raf.bank_service.repository.PaymentOverviewRepository;
 import rs.raf.bank_service.repository.PaymentRepository;
 import rs.raf.bank_service.specification.PaymentSpecification;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class PaymentService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final AccountRepository accountRepository;
     private final JwtTokenUtil jwtTokenUtil;
     private final UserClient userClient;
@@ -40,10 +53,14 @@ public class PaymentService {
     private final ObjectMapper objectMapper;
     private final ExchangeRateService exchangeRateService;
     private final TransactionQueueService transactionQueueService;
+    private final LedgerService ledgerService;
+    private final SpendingLimitService spendingLimitService;
+    private final OutboxService outboxService;
     private PaymentRepository paymentRepository;
     private CardRepository cardRepository;
     private CompanyAccountRepository companyAccountRepository;
 
+    @Transactional
     public boolean createTransferPendingConfirmation(TransferDto transferDto, Long clientId) throws JsonProcessingException {
         // Preuzimanje računa za sender i receiver
         Account sender = accountRepository.findByAccountNumberAndClientId(transferDto.getSenderAccountNumber(), clientId)
@@ -55,33 +72,34 @@ public class PaymentService {
                 .orElseThrow(() -> new ReceiverAccountNotFoundException(transferDto.getReceiverAccountNumber()));
 
         // Provera da li sender ima dovoljno sredstava
-        if (sender.getBalance().compareTo(transferDto.getAmount()) < 0) {
-            throw new InsufficientFundsException(sender.getBalance(), transferDto.getAmount());
+        Money amount = Money.of(transferDto.getAmount(), sender.getCurrency().getCode());
+        BigDecimal senderBalance = ledgerService.getAvailableBalance(sender);
+        if (Money.ofRounded(senderBalance, amount.getCurrencyCode()).isLessThan(amount)) {
+            throw new InsufficientFundsException(senderBalance, transferDto.getAmount());
         }
+        // dnevni/mesecni limit - iznos se rezervise odmah, vraca se ako se transfer odbije ili se transakcija vrati
+        spendingLimitService.reserve(sender, amount);
 
-        BigDecimal amount = transferDto.getAmount();
-        BigDecimal convertedAmount = amount;
-        BigDecimal exchangeRateValue = BigDecimal.ONE;
+        Money convertedAmount = amount;
 
         // Provera da li su valute različite
         if (!sender.getCurrency().equals(receiver.getCurrency())) {
             // Dobijanje kursa konverzije
             ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate(sender.getCurrency().getCode(), receiver.getCurrency().getCode());
-            exchangeRateValue = exchangeRateDto.getSellRate();
 
-            // Konverzija iznosa u valutu receiver-a
-            convertedAmount = amount.multiply(exchangeRateValue);
+            // Konverzija iznosa u valutu receiver-a, zaokruzeno po pravilu te valute
+            convertedAmount = amount.convert(exchangeRateDto.getSellRate(), receiver.getCurrency().getCode());
         }
 
         // Kreiranje Payment entiteta za transfer
         Payment payment = new Payment();
         payment.setClientId(clientId);  // Dodajemo Client ID
         payment.setSenderAccount(sender);  // Sender račun
-        payment.setAmount(transferDto.getAmount());  // Iznos
+        payment.setAmount(amount.toBigDecimal());  // Iznos
         payment.setAccountNumberReceiver(transferDto.getReceiverAccountNumber());  // Primalac (receiver)
         payment.setStatus(PaymentStatus.PENDING_CONFIRMATION);  // Status je "na čekanju"
         payment.setDate(LocalDateTime.now());  // Datum transakcije
-        payment.setOutAmount(convertedAmount);
+        payment.setOutAmount(convertedAmount.toBigDecimal());
 
         // Postavi receiverClientId samo ako je receiver u našoj banci
         payment.setReceiverClientId(receiver.getClientId());  // Postavljamo receiverClientId
@@ -94,14 +112,14 @@ public class PaymentService {
                 .amount(transferDto.getAmount())
                 .build();
 
-        // Kreiraj PaymentVerificationRequestDto i pozovi UserClient da kreira verificationRequest
+        // Kreiraj PaymentVerificationRequestDto - user-service ga upisuje asinhrono preko verification-requests reda
         CreateVerificationRequestDto paymentVerificationRequestDto = new CreateVerificationRequestDto(
                 clientId,
                 payment.getId(),
                 VerificationType.TRANSFER,
                 objectMapper.writeValueAsString(paymentVerificationDetailsDto)
         );
-        userClient.createVerificationRequest(paymentVerificationRequestDto);
+        outboxService.enqueue(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, paymentVerificationRequestDto);
         return true;
     }
 
@@ -110,71 +128,26 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException(paymentId));
 
-        Account sender = payment.getSenderAccount();
-        Account receiver = accountRepository.findByAccountNumber(payment.getAccountNumberReceiver())
-                .orElseThrow(() -> new ReceiverAccountNotFoundException(payment.getAccountNumberReceiver()));
-
-        BigDecimal amount = payment.getAmount();
-        BigDecimal convertedAmount = amount;
-        BigDecimal exchangeRateValue = BigDecimal.ONE;
-
-        //  Ako su valute različite, koristimo kursnu listu
-        if (!sender.getCurrency().getCode().equals(receiver.getCurrency().getCode())) {
-            //  Obezbeđujemo da transakcije idu preko bankovnih računa (companyId = 1)
-            CompanyAccount bankAccountFrom = accountRepository.findFirstByCurrencyAndCompanyId(sender.getCurrency(), 1L)
-                    .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + sender.getCurrency().getCode()));
-
-            CompanyAccount bankAccountTo = accountRepository.findFirstByCurrencyAndCompanyId(receiver.getCurrency(), 1L)
-                    .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + receiver.getCurrency().getCode()));
-
-            ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate(sender.getCurrency().getCode(), receiver.getCurrency().getCode());
-            exchangeRateValue = exchangeRateDto.getExchangeRate();
-            convertedAmount = amount.multiply(exchangeRateValue);
-
-            //  Sender -> Banka (ista valuta)
-            sender.setBalance(sender.getBalance().subtract(amount));
-            sender.setAvailableBalance(sender.getBalance());
-            bankAccountFrom.setBalance(bankAccountFrom.getBalance().add(amount));
-            bankAccountFrom.setAvailableBalance(bankAccountFrom.getBalance());
-            accountRepository.save(sender);
-            accountRepository.save(bankAccountFrom);
-
-            //  Banka -> Receiver
-            bankAccountTo.setBalance(bankAccountTo.getBalance().subtract(convertedAmount));
-            bankAccountTo.setAvailableBalance(bankAccountTo.getBalance());
-            receiver.setBalance(receiver.getBalance().add(convertedAmount));
-            receiver.setAvailableBalance(receiver.getBalance());
-            accountRepository.save(bankAccountTo);
-        } else {
-            sender.setBalance(sender.getBalance().subtract(amount));
-            sender.setAvailableBalance(sender.getBalance());
-            receiver.setBalance(receiver.getBalance().add(amount));
-            receiver.setAvailableBalance(receiver.getBalance());
-        }
-
-        accountRepository.save(sender);
-        accountRepository.save(receiver);
-
-        //  Čuvamo outAmount u Payment (stvarno primljen iznos)
-        payment.setOutAmount(convertedAmount);
-        payment.setStatus(PaymentStatus.COMPLETED);
-        paymentRepository.save(payment);
-
+        executePosting(payment, PostingType.TRANSFER);
         return true;
     }
 
+    @Transactional
     public void rejectTransfer(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException(paymentId));
 
-        if (!payment.getStatus().equals(PaymentStatus.PENDING_CONFIRMATION))
+        // uslovno, da se ne ponisti placanje koje je istovremeno potvrdjeno
+        if (paymentRepository.updateStatus(paymentId, PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.CANCELED) == 0)
             throw new RejectNonPendingRequestException();
 
         payment.setStatus(PaymentStatus.CANCELED);
         paymentRepository.save(payment);
+        releaseSpending(payment);
     }
 
 
+    @Transactional
     public PaymentDto createPaymentBeforeConfirmation(CreatePaymentDto paymentDto, Long clientId) throws JsonProcessingException {
         if (paymentDto.getPaymentCode() == null || paymentDto.getPaymentCode().isEmpty()) {
             throw new PaymentCodeNotProvidedException();
@@ -203,19 +176,19 @@ public class PaymentService {
 
 
         // Provera balansa sender računa
-        if (sender.getBalance().compareTo(paymentDto.getAmount()) < 0) {
-            throw new InsufficientFundsException(sender.getBalance(), paymentDto.getAmount());
+        Money amount = Money.of(paymentDto.getAmount(), sender.getCurrency().getCode());
+        BigDecimal senderBalance = ledgerService.getAvailableBalance(sender);
+        if (Money.ofRounded(senderBalance, amount.getCurrencyCode()).isLessThan(amount)) {
+            throw new InsufficientFundsException(senderBalance, paymentDto.getAmount());
         }
+        spendingLimitService.reserve(sender, amount);
 
 
-        BigDecimal amount = paymentDto.getAmount();
-        BigDecimal convertedAmount = amount;
-        BigDecimal exchangeRateValue = BigDecimal.ONE;
+        Money convertedAmount = amount;
         // Provera da li su valute različite
         if (!sender.getCurrency().equals(receiver.getCurrency())) {
             ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate(sender.getCurrency().getCode(), receiver.getCurrency().getCode());
-            exchangeRateValue = exchangeRateDto.getSellRate();
-            convertedAmount = amount.multiply(exchangeRateValue);
+            convertedAmount = amount.convert(exchangeRateDto.getSellRate(), receiver.getCurrency().getCode());
         }
 
         // Kreiranje Payment entiteta
@@ -224,13 +197,13 @@ public class PaymentService {
         payment.setClientId(clientId);
         payment.setSenderAccount(sender);
         payment.setAccountNumberReceiver(paymentDto.getReceiverAccountNumber());
-        payment.setAmount(paymentDto.getAmount());
+        payment.setAmount(amount.toBigDecimal());
         payment.setPaymentCode(paymentDto.getPaymentCode());
         payment.setPurposeOfPayment(paymentDto.getPurposeOfPayment());
         payment.setReferenceNumber(paymentDto.getReferenceNumber());
         payment.setDate(LocalDateTime.now());
         payment.setStatus(PaymentStatus.PENDING_CONFIRMATION);
-        payment.setOutAmount(convertedAmount);
+        payment.setOutAmount(convertedAmount.toBigDecimal());
 
         // Postavi receiverClientId samo ako je receiver u našoj banci (za sad uvek postoji)
         payment.setReceiverClientId(receiver.getClientId());
@@ -244,7 +217,7 @@ public class PaymentService {
                 .build();
 
         CreateVerificationRequestDto createVerificationRequestDto = new CreateVerificationRequestDto(clientId, payment.getId(), VerificationType.PAYMENT, objectMapper.writeValueAsString(paymentVerificationDetailsDto));
-        userClient.createVerificationRequest(createVerificationRequestDto);
+        outboxService.enqueue(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, createVerificationRequestDto);
 
         return paymentMapper.toPaymentDto(payment, paymentDto.getRecieverName());
     }
@@ -256,11 +229,14 @@ public class PaymentService {
         createPaymentDto.setReferenceNumber("N/A");
         createPaymentDto.setPaymentCode("N/A");
         createPaymentDto.setRecieverName("Republika Srbija");
-        createPaymentDto.setAmount(taxDto.getAmount());
+        // porez je izracunat u stock-service (profit * stopa, konverzija), pa se zaokruzuje na decimale valute racuna
+        createPaymentDto.setAmount(accountRepository.findByAccountNumber(taxDto.getSenderAccountNumber())
+                .map(sender -> Money.ofRounded(taxDto.getAmount(), sender.getCurrency().getCode()).toBigDecimal())
+                .orElse(taxDto.getAmount()));
         Account account = companyAccountRepository.findByCompanyId(2L);
         createPaymentDto.setReceiverAccountNumber(account.getAccountNumber());
         PaymentDto paymentDto = createPaymentBeforeConfirmation(createPaymentDto, taxDto.getClientId());
-        transactionQueueService.queueTransaction(TransactionType.CONFIRM_PAYMENT, paymentDto.getId());
+        transactionQueueService.queueTransaction(TransactionType.CONFIRM_PAYMENT, paymentDto.getId(), null, taxDto.getSenderAccountNumber());
     }
 
     @Transactional
@@ -268,15 +244,24 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException(paymentId));
 
+        executePosting(payment, PostingType.PAYMENT);
+    }
+
+    // Umesto izmene stanja na racunima, svako placanje se knjizi kao skup stavki duguje/potrazuje u ledger-u
+    // Poruke iz outbox-a stizu bar jednom, pa se knjizi samo ako je ovaj poziv prebacio placanje iz PENDING_CONFIRMATION
+    private void executePosting(Payment payment, PostingType postingType) {
+        if (paymentRepository.updateStatus(payment.getId(), PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.COMPLETED) == 0) {
+            log.info("Payment {} is no longer pending confirmation, skipping {} posting", payment.getId(), postingType);
+            return;
+        }
+
         Account sender = payment.getSenderAccount();
         Account receiver = accountRepository.findByAccountNumber(payment.getAccountNumberReceiver())
-                .stream().findFirst()
                 .orElseThrow(() -> new ReceiverAccountNotFoundException(payment.getAccountNumberReceiver()));
 
-
-        BigDecimal amount = payment.getAmount();
-        BigDecimal convertedAmount = amount;
-        BigDecimal exchangeRateValue = BigDecimal.ONE;
+        Money amount = Money.ofRounded(payment.getAmount(), sender.getCurrency().getCode());
+        Money convertedAmount = amount;
+        List<LedgerEntry> legs = new ArrayList<>();
 
         //  Ako su valute različite, koristimo kursnu listu
         if (!sender.getCurrency().getCode().equals(receiver.getCurrency().getCode())) {
@@ -288,35 +273,22 @@ public class PaymentService {
                     .orElseThrow(() -> new BankAccountNotFoundException("No bank account found for currency: " + receiver.getCurrency().getCode()));
 
             ExchangeRateDto exchangeRateDto = exchangeRateService.getExchangeRate(sender.getCurrency().getCode(), receiver.getCurrency().getCode());
-            exchangeRateValue = exchangeRateDto.getExchangeRate();
-            convertedAmount = amount.multiply(exchangeRateValue);
-
-            //  Sender -> Banka (ista valuta)
-            sender.setBalance(sender.getBalance().subtract(amount));
-            sender.setAvailableBalance(sender.getBalance());
-            bankAccountFrom.setBalance(bankAccountFrom.getBalance().add(amount));
-            bankAccountFrom.setAvailableBalance(bankAccountFrom.getBalance());
-            accountRepository.save(sender);
-            accountRepository.save(bankAccountFrom);
-
-            //  Banka -> Receiver
-            bankAccountTo.setBalance(bankAccountTo.getBalance().subtract(convertedAmount));
-            bankAccountTo.setAvailableBalance(bankAccountTo.getBalance());
-            receiver.setBalance(receiver.getBalance().add(convertedAmount));
-            receiver.setAvailableBalance(receiver.getBalance());
-            accountRepository.save(bankAccountTo);
+            convertedAmount = amount.convert(exchangeRateDto.getExchangeRate(), receiver.getCurrency().getCode());
+
+            //  Sender -> Banka (ista valuta), Banka -> Receiver
+            legs.add(LedgerEntry.debit(sender, amount));
+            legs.add(LedgerEntry.credit(bankAccountFrom, amount));
+            legs.add(LedgerEntry.debit(bankAccountTo, convertedAmount));
+            legs.add(LedgerEntry.credit(receiver, convertedAmount));
         } else {
-            sender.setBalance(sender.getBalance().subtract(amount));
-            sender.setAvailableBalance(sender.getBalance());
-            receiver.setBalance(receiver.getBalance().add(amount));
-            receiver.setAvailableBalance(receiver.getBalance());
+            legs.add(LedgerEntry.debit(sender, amount));
+            legs.add(LedgerEntry.credit(receiver, amount));
         }
 
-        accountRepository.save(sender);
-        accountRepository.save(receiver);
+        ledgerService.post(postingType, payment.getId(), legs);
 
         //  Čuvamo outAmount u Payment (stvarno primljen iznos)
-        payment.setOutAmount(convertedAmount);
+        payment.setOutAmount(convertedAmount.toBigDecimal());
         payment.setStatus(PaymentStatus.COMPLETED);
         paymentRepository.save(payment);
     }
@@ -333,7 +305,76 @@ public class PaymentService {
             Pageable pageable
     ) {
         Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        validatePaymentFilters(accountNumber, cardNumber);
+
+        Specification<Payment> spec = PaymentSpecification.filterPayments(clientId, startDate, endDate, minAmount, maxAmount, paymentStatus, accountNumber, cardNumber);
+        Page<PaymentOverviewRepository.OverviewRow> rows = paymentRepository.findOverviewPage(spec, pageable);
+        Map<String, String> receiverCurrencies = findReceiverCurrencies(rows.getContent());
+        return rows.map(row -> paymentMapper.toOverviewDto(row, receiverCurrencies.get(row.getAccountNumberReceiver())));
+    }
+
+    /// Keyset varijanta getPayments: bez offset-a i count upita, strana pocinje posle (date, id) iz cursor-a.
+    /// Poslata i primljena placanja se citaju odvojeno (svako svojim indeksom) i spajaju, umesto jednog OR upita.
+    public PaymentCursorPageDto getPaymentsByCursor(
+            String token,
+            LocalDateTime startDate, LocalDateTime endDate,
+            BigDecimal minAmount, BigDecimal maxAmount,
+            PaymentStatus paymentStatus,
+            String accountNumber,
+            String cardNumber,
+            String cursor,
+            int size
+    ) {
+        Long clientId = jwtTokenUtil.getUserIdFromAuthHeader(token);
+        validatePaymentFilters(accountNumber, cardNumber);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        PaymentCursor after = cursor == null || cursor.isBlank() ? new PaymentCursor(null, null) : decodeCursor(cursor);
+
+        Specification<Payment> filters = PaymentSpecification.matchesFilters(startDate, endDate, minAmount, maxAmount, paymentStatus, accountNumber, cardNumber);
+        List<PaymentOverviewRepository.OverviewRow> sent = paymentRepository.findOverviewRows(
+                PaymentSpecification.sentBy(clientId).and(filters), after.date(), after.id(), pageSize + 1);
+        List<PaymentOverviewRepository.OverviewRow> received = paymentRepository.findOverviewRows(
+                PaymentSpecification.receivedBy(clientId).and(filters), after.date(), after.id(), pageSize + 1);
+
+        // prenos izmedju sopstvenih racuna je u obe liste
+        Map<Long, PaymentOverviewRepository.OverviewRow> merged = new LinkedHashMap<>();
+        for (PaymentOverviewRepository.OverviewRow row : sent) merged.put(row.getId(), row);
+        for (PaymentOverviewRepository.OverviewRow row : received) merged.putIfAbsent(row.getId(), row);
+
+        List<PaymentOverviewRepository.OverviewRow> rows = merged.values().stream()
+                .sorted(Comparator.comparing(PaymentOverviewRepository.OverviewRow::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(PaymentOverviewRepository.OverviewRow::getId, Comparator.reverseOrder()))
+                .limit(pageSize + 1L)
+                .toList();
+
+        boolean hasNext = rows.size() > pageSize;
+        List<PaymentOverviewRepository.OverviewRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        Map<String, String> receiverCurrencies = findReceiverCurrencies(page);
+        List<PaymentOverviewDto> content = page.stream()
+                .map(row -> paymentMapper.toOverviewDto(row, receiverCurrencies.get(row.getAccountNumberReceiver())))
+                .toList();
+
+        PaymentOverviewRepository.OverviewRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasNext ? encodeCursor(last.getDate(), last.getId()) : null;
+        return new PaymentCursorPageDto(content, nextCursor, hasNext);
+    }
+
+    // Valute racuna primalaca za celu stranu jednim upitom
+    private Map<String, String> findReceiverCurrencies(List<PaymentOverviewRepository.OverviewRow> rows) {
+        Set<String> receiverAccounts = rows.stream()
+                .map(PaymentOverviewRepository.OverviewRow::getAccountNumberReceiver)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (receiverAccounts.isEmpty())
+            return Map.of();
+        return accountRepository.findCurrencyCodes(receiverAccounts).stream()
+                .collect(Collectors.toMap(AccountRepository.AccountCurrency::getAccountNumber,
+                        AccountRepository.AccountCurrency::getCurrencyCode, (a, b) -> a));
+    }
 
+    private void validatePaymentFilters(String accountNumber, String cardNumber) {
         if (accountNumber != null) {
             accountRepository.findByAccountNumber(accountNumber)
                     .orElseThrow(AccountNotFoundException::new);
@@ -343,10 +384,27 @@ public class PaymentService {
             cardRepository.findByCardNumber(cardNumber)
                     .orElseThrow(() -> new CardNotFoundException(cardNumber));
         }
+    }
 
-        Specification<Payment> spec = PaymentSpecification.filterPayments(clientId, startDate, endDate, minAmount, maxAmount, paymentStatus, accountNumber, cardNumber);
-        Page<Payment> payments = paymentRepository.findAll(spec, pageable);
-        return payments.map(paymentMapper::toOverviewDto);
+    // cursor je base64url("date|id") poslednjeg reda sa prethodne strane
+    static String encodeCursor(LocalDateTime date, Long id) {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PaymentCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2)
+                throw new InvalidPaymentCursorException(cursor);
+            return new PaymentCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPaymentCursorException(cursor);
+        }
+    }
+
+    private record PaymentCursor(LocalDateTime date, Long id) {
     }
 
     // Dohvatanje detalja transakcije po ID-u
@@ -357,14 +415,24 @@ public class PaymentService {
         return paymentMapper.toDetailsDto(payment);
     }
 
+    @Transactional
     public void rejectPayment(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentNotFoundException(paymentId));
 
-        if (!payment.getStatus().equals(PaymentStatus.PENDING_CONFIRMATION))
+        // uslovno, da se ne ponisti placanje koje je istovremeno potvrdjeno
+        if (paymentRepository.updateStatus(paymentId, PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.CANCELED) == 0)
             throw new RejectNonPendingRequestException();
 
         payment.setStatus(PaymentStatus.CANCELED);
         paymentRepository.save(payment);
+        releaseSpending(payment);
+    }
+
+    // vraca iznos odbijenog placanja u dnevni/mesecni limit racuna
+    private void releaseSpending(Payment payment) {
+        Account sender = payment.getSenderAccount();
+        spendingLimitService.release(sender, Money.ofRounded(payment.getAmount(), sender.getCurrency().getCode()),
+                payment.getDate().toLocalDate());
     }
 }
@@ -0,0 +1,118 @@
+package rs.raf.bank_service.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.CacheImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import rs.raf.bank_service.domain.dto.CacheRegionStatsDto;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.ExchangeRate;
+import rs.raf.bank_service.exceptions.CacheRegionNotFoundException;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/// Hibernate second-level i query cache za referentne podatke banke (JCache, Caffeine provider - application.conf).
+/// Valute i kursevi su kesirani kao entiteti. Racuni se ne kesiraju ni kao rezultat upita: snapshot stanja menja
+/// tabelu accounts na nekoliko sekundi, a svaka izmena tabele ponistava njene query regione. Izmene kroz JPA
+/// azuriraju cache lokalno; ostale instance brisu kurseve na exchange-rate-events, a evict je za izmene mimo
+/// aplikacije (rucni SQL, migracije).
+@Slf4j
+@Service
+public class ReferenceDataCache {
+
+    public static final String CURRENCIES = "currencies";
+    public static final String CURRENCY_QUERIES = "currency-queries";
+    public static final String EXCHANGE_RATES = "exchange-rates";
+    public static final String EXCHANGE_RATE_QUERIES = "exchange-rate-queries";
+
+    private static final List<String> ENTITY_REGIONS = List.of(CURRENCIES, EXCHANGE_RATES);
+    private static final List<String> QUERY_REGIONS = List.of(CURRENCY_QUERIES, EXCHANGE_RATE_QUERIES);
+
+    private final SessionFactory sessionFactory;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        // query regioni se inace kreiraju tek pri prvom upitu, a Hibernate pamti null statistiku za region
+        // koji jos ne postoji (posle toga upiti u taj region padaju) - zato ih kreiramo odmah
+        if (options().isQueryCacheEnabled())
+            QUERY_REGIONS.forEach(region -> sessionFactory.getCache().unwrap(CacheImplementor.class).getQueryResultsCache(region));
+        ENTITY_REGIONS.forEach(region -> registerMetrics(meterRegistry, region));
+        QUERY_REGIONS.forEach(region -> registerMetrics(meterRegistry, region));
+    }
+
+    public void evictCurrencies() {
+        sessionFactory.getCache().evictEntityData(Currency.class);
+        sessionFactory.getCache().evictQueryRegion(CURRENCY_QUERIES);
+    }
+
+    public void evictExchangeRates() {
+        sessionFactory.getCache().evictEntityData(ExchangeRate.class);
+        sessionFactory.getCache().evictQueryRegion(EXCHANGE_RATE_QUERIES);
+    }
+
+    /// Grupe su currencies, exchange-rates ili all
+    public void evict(String group) {
+        switch (group) {
+            case CURRENCIES -> evictCurrencies();
+            case EXCHANGE_RATES -> evictExchangeRates();
+            case "all" -> {
+                evictCurrencies();
+                evictExchangeRates();
+            }
+            default -> throw new CacheRegionNotFoundException(group);
+        }
+        log.info("Evicted second-level cache group {}", group);
+    }
+
+    public List<CacheRegionStatsDto> getStatistics() {
+        List<CacheRegionStatsDto> stats = new ArrayList<>();
+        ENTITY_REGIONS.forEach(region -> stats.add(toDto(region)));
+        QUERY_REGIONS.forEach(region -> stats.add(toDto(region)));
+        return stats;
+    }
+
+    private CacheRegionStatsDto toDto(String region) {
+        long hits = count(region, CacheRegionStatistics::getHitCount);
+        long misses = count(region, CacheRegionStatistics::getMissCount);
+        return new CacheRegionStatsDto(region, hits, misses, count(region, CacheRegionStatistics::getPutCount), hitRatio(hits, misses));
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry, String region) {
+        FunctionCounter.builder("reference.cache.requests", this, cache -> cache.count(region, CacheRegionStatistics::getHitCount))
+                .tag("region", region).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("reference.cache.requests", this, cache -> cache.count(region, CacheRegionStatistics::getMissCount))
+                .tag("region", region).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("reference.cache.hit.ratio", this, cache -> hitRatio(cache.count(region, CacheRegionStatistics::getHitCount),
+                        cache.count(region, CacheRegionStatistics::getMissCount)))
+                .tag("region", region).register(meterRegistry);
+    }
+
+    private long count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        boolean queryRegion = QUERY_REGIONS.contains(region);
+        if (!options().isSecondLevelCacheEnabled() || (queryRegion && !options().isQueryCacheEnabled()))
+            return 0;
+
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics regionStatistics = queryRegion
+                ? statistics.getQueryRegionStatistics(region)
+                : statistics.getDomainDataRegionStatistics(region);
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+
+    private SessionFactoryOptions options() {
+        return sessionFactory.getSessionFactoryOptions();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
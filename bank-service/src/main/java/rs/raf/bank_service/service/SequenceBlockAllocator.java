@@ -0,0 +1,71 @@
+package rs.raf.bank_service.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+/// Deli vrednosti iz sekvence u blokovima: jedan nextval rezervise blockSize uzastopnih vrednosti za ovu instancu,
+/// a one se dele iz memorije. Sekvenca raste za blockSize (kao allocationSize kod @SequenceGenerator),
+/// pa blockSize ne sme da se smanji dok sekvenca postoji.
+/// Vrednosti koje su vec zauzete brojevima nastalim mimo sekvence (pocetni podaci, stari nasumicni brojevi) se preskacu -
+/// proverava se jednim upitom po bloku.
+public class SequenceBlockAllocator {
+
+    /// Zauzete vrednosti u opsegu [from, to]
+    @FunctionalInterface
+    public interface TakenValues {
+        Set<Long> find(long from, long to);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final int blockSize;
+    private final long maxValue;
+    private final TakenValues takenValues;
+
+    private long next;
+    private long blockEnd;
+    private Set<Long> taken = Set.of();
+    private boolean sequenceCreated;
+
+    public SequenceBlockAllocator(JdbcTemplate jdbcTemplate, String sequenceName, int blockSize, long maxValue) {
+        this(jdbcTemplate, sequenceName, blockSize, maxValue, (from, to) -> Set.of());
+    }
+
+    public SequenceBlockAllocator(JdbcTemplate jdbcTemplate, String sequenceName, int blockSize, long maxValue,
+                                  TakenValues takenValues) {
+        if (!sequenceName.matches("[a-z_]+"))
+            throw new IllegalArgumentException("Invalid sequence name " + sequenceName);
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+        this.maxValue = maxValue;
+        this.takenValues = takenValues;
+    }
+
+    public synchronized long next() {
+        while (true) {
+            if (next == blockEnd)
+                reserveBlock();
+            long value = next++;
+            if (!taken.contains(value))
+                return value;
+        }
+    }
+
+    private void reserveBlock() {
+        if (!sequenceCreated) {
+            // sekvenca nije vezana za entitet pa je ddl-auto ne pravi
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName + " START WITH 1 INCREMENT BY " + blockSize);
+            sequenceCreated = true;
+        }
+        Long start = jdbcTemplate.queryForObject("SELECT nextval('" + sequenceName + "')", Long.class);
+        if (start == null || start + blockSize - 1 > maxValue)
+            throw new IllegalStateException("Sequence " + sequenceName + " exhausted");
+        next = start;
+        blockEnd = start + blockSize;
+        taken = takenValues.find(start, blockEnd - 1);
+    }
+}
@@ -0,0 +1,363 @@
+package rs.raf.bank_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.AccNotFoundException;
+import rs.raf.bank_service.exceptions.SpendingLimitExceededException;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/// Dnevni i mesecni limiti potrosnje racuna.
+/// Limit se sprovodi atomicno u bazi: instanca uslovnim update-om reda u accounts (limiti su u WHERE) uzima deo
+/// preostalog limita (lease), a placanja trose lease u memoriji pod lock striping-om - provera je O(1) i update reda
+/// ide samo kada se lease potrosi. Zbir lease-ova svih instanci nikad ne prelazi limit, pa ni vise instanci ne moze
+/// da potrosi vise od limita. daily_spending/monthly_spending zato ukljucuju i nepotrosene lease-ove; oni se vracaju
+/// u bazu kada racun miruje, posle promene limita i pri gasenju instance.
+@Slf4j
+@Service
+public class SpendingLimitService {
+
+    private static final String CLAIM = "UPDATE accounts SET " +
+            "daily_spending = CASE WHEN spending_date = ? THEN COALESCE(daily_spending, 0) ELSE 0 END + ?, " +
+            "monthly_spending = CASE WHEN spending_date >= ? THEN COALESCE(monthly_spending, 0) ELSE 0 END + ?, " +
+            "spending_date = ? WHERE account_number = ? " +
+            "AND (daily_limit IS NULL OR CASE WHEN spending_date = ? THEN COALESCE(daily_spending, 0) ELSE 0 END + ? <= daily_limit) " +
+            "AND (monthly_limit IS NULL OR CASE WHEN spending_date >= ? THEN COALESCE(monthly_spending, 0) ELSE 0 END + ? <= monthly_limit)";
+    private static final int[] CLAIM_TYPES = {Types.DATE, Types.NUMERIC, Types.DATE, Types.NUMERIC, Types.DATE, Types.VARCHAR,
+            Types.DATE, Types.NUMERIC, Types.DATE, Types.NUMERIC};
+
+    private static final String RETURN = "UPDATE accounts SET " +
+            "daily_spending = CASE WHEN spending_date = ? THEN GREATEST(COALESCE(daily_spending, 0) - ?, 0) ELSE daily_spending END, " +
+            "monthly_spending = CASE WHEN spending_date >= ? THEN GREATEST(COALESCE(monthly_spending, 0) - ?, 0) ELSE monthly_spending END " +
+            "WHERE account_number = ?";
+
+    private static final String SPENDING = "SELECT daily_limit, monthly_limit, " +
+            "CASE WHEN spending_date = ? THEN COALESCE(daily_spending, 0) ELSE 0 END, " +
+            "CASE WHEN spending_date >= ? THEN COALESCE(monthly_spending, 0) ELSE 0 END " +
+            "FROM accounts WHERE account_number = ?";
+    private static final int[] SPENDING_TYPES = {Types.DATE, Types.DATE, Types.VARCHAR};
+
+    private final JdbcTemplate jdbcTemplate;
+    // lease se uzima u posebnoj transakciji da red u accounts ne ostane zakljucan do kraja placanja
+    private final TransactionTemplate claimTransaction;
+    private final int leaseDivisor;
+    private final Object[] stripes;
+    private final Map<String, SpendingCounter> counters = new ConcurrentHashMap<>();
+
+    public SpendingLimitService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                @Value("${spending.stripes:64}") int stripeCount,
+                                @Value("${spending.lease-divisor:10}") int leaseDivisor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseDivisor = Math.max(1, leaseDivisor);
+        // broj stripe-ova je stepen dvojke da bi izbor bio samo maska
+        this.stripes = new Object[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Object();
+    }
+
+    /// Proverava oba limita i uvecava potrosnju. Iznos mora biti u valuti racuna.
+    /// Ako je pozvano u transakciji, rezervacija se vraca kada se transakcija vrati (greska u kasnijem koraku placanja).
+    public void reserve(Account account, Money amount) {
+        LocalDate today = LocalDate.now();
+        synchronized (stripeFor(account.getAccountNumber())) {
+            SpendingCounter counter = counterFor(account, amount.getCurrencyCode(), today);
+            counter.limitsFrom(account);
+            reserve(account.getAccountNumber(), counter, amount, today);
+        }
+        releaseOnRollback(account.getAccountNumber(), amount, today, () -> account);
+    }
+
+    /// Isto kao reserve(Account, Money), ali se racun ucitava samo ako brojac nije u memoriji (limiti su kesirani u brojacu)
+    public void reserve(String accountNumber, Money amount, Supplier<Account> accountLoader) {
+        LocalDate today = LocalDate.now();
+        synchronized (stripeFor(accountNumber)) {
+            reserve(accountNumber, counterFor(accountNumber, amount, today, accountLoader), amount, today);
+        }
+        releaseOnRollback(accountNumber, amount, today, accountLoader);
+    }
+
+    /// Osvezava kesirane limite posle promene limita racuna. Lease uzet po starom limitu se vraca u sledecem flush-u,
+    /// a sledece placanje uzima novi lease po novom limitu.
+    public void updateLimits(Account account) {
+        synchronized (stripeFor(account.getAccountNumber())) {
+            SpendingCounter counter = counters.get(account.getAccountNumber());
+            if (counter != null) {
+                counter.limitsFrom(account);
+                counter.returnLease();
+            }
+        }
+    }
+
+    /// Vraca rezervisani iznos (odbijeno/otkazano placanje). Dan/mesec iz kog je potrosnja vec istekao se ne dira.
+    /// U transakciji se vraca tek posle commit-a - ako se odbijanje vrati, placanje i dalje drzi svoju rezervaciju.
+    public void release(Account account, Money amount, LocalDate spentOn) {
+        release(account.getAccountNumber(), amount, spentOn, () -> account);
+    }
+
+    public void release(String accountNumber, Money amount, LocalDate spentOn, Supplier<Account> accountLoader) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            releaseNow(accountNumber, amount, spentOn, accountLoader);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                releaseNow(accountNumber, amount, spentOn, accountLoader);
+            }
+        });
+    }
+
+    private void releaseOnRollback(String accountNumber, Money amount, LocalDate spentOn, Supplier<Account> accountLoader) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED)
+                    releaseNow(accountNumber, amount, spentOn, accountLoader);
+            }
+        });
+    }
+
+    // vraceni iznos je i dalje upisan u bazi - danasnji se vraca u lease, stariji iz istog meseca ceka flush
+    private void releaseNow(String accountNumber, Money amount, LocalDate spentOn, Supplier<Account> accountLoader) {
+        LocalDate today = LocalDate.now();
+        synchronized (stripeFor(accountNumber)) {
+            SpendingCounter counter = counterFor(accountNumber, amount, today, accountLoader);
+            if (spentOn.equals(today))
+                counter.lease += amount.getMinorUnits();
+            else if (spentOn.withDayOfMonth(1).equals(today.withDayOfMonth(1)))
+                counter.returnMonthly += amount.getMinorUnits();
+            counter.touched = true;
+        }
+    }
+
+    /// Vraca u bazu lease-ove racuna bez placanja od prethodnog flush-a i iznose vracene za ranije dane
+    @Scheduled(fixedDelayString = "${spending.flush-interval-ms:2000}")
+    public void flush() {
+        flush(false);
+    }
+
+    /// Pri gasenju se vracaju svi lease-ovi da ostatak limita ostane drugim instancama
+    @PreDestroy
+    public void returnAll() {
+        flush(true);
+    }
+
+    private void flush(boolean all) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> updates = new ArrayList<>();
+        List<Map.Entry<String, SpendingCounter>> flushed = new ArrayList<>();
+
+        for (Map.Entry<String, SpendingCounter> entry : counters.entrySet()) {
+            synchronized (stripeFor(entry.getKey())) {
+                SpendingCounter counter = entry.getValue();
+                counter.rollTo(today);
+                if (all || !counter.touched)
+                    counter.returnLease();
+                // neaktivan brojac se izbacuje, sledeca rezervacija ga ponovo ucitava
+                if (!counter.touched)
+                    counters.remove(entry.getKey(), counter);
+                counter.touched = false;
+                if (counter.returnDaily == 0 && counter.returnMonthly == 0)
+                    continue;
+
+                updates.add(new Object[]{today, toDecimal(counter, counter.returnDaily),
+                        today.withDayOfMonth(1), toDecimal(counter, counter.returnMonthly), entry.getKey()});
+                counter.returnDaily = 0;
+                counter.returnMonthly = 0;
+                flushed.add(entry);
+            }
+        }
+
+        if (updates.isEmpty())
+            return;
+        try {
+            jdbcTemplate.batchUpdate(RETURN, updates);
+        } catch (RuntimeException e) {
+            // iznosi se vracaju da bi otisli u sledecem flush-u
+            for (int i = 0; i < flushed.size(); i++)
+                restore(flushed.get(i), updates.get(i));
+            throw e;
+        }
+    }
+
+    /// Nulira potrosnju racuna koji nisu imali placanja od pocetka dana/meseca. Aktivni brojaci se prebacuju sami pri prvoj rezervaciji.
+    @Scheduled(cron = "${spending.rollover.cron:0 0 0 * * *}")
+    public void rollover() {
+        flush();
+        LocalDate today = LocalDate.now();
+        int daily = jdbcTemplate.update("UPDATE accounts SET daily_spending = 0 WHERE spending_date < ? AND daily_spending <> 0", today);
+        int monthly = jdbcTemplate.update("UPDATE accounts SET monthly_spending = 0 WHERE spending_date < ? AND monthly_spending <> 0",
+                today.withDayOfMonth(1));
+        log.info("Spending rollover for {}: {} daily and {} monthly counters reset", today, daily, monthly);
+    }
+
+    // poziva se pod lock-om stripe-a racuna
+    private SpendingCounter counterFor(Account account, String currencyCode, LocalDate today) {
+        if (!currencyCode.equals(account.getCurrency().getCode()))
+            throw new IllegalArgumentException("Spending amount must be in account currency " + account.getCurrency().getCode());
+
+        SpendingCounter counter = counters.computeIfAbsent(account.getAccountNumber(),
+                key -> new SpendingCounter(account.getCurrency().getCode(), today));
+        counter.rollTo(today);
+        return counter;
+    }
+
+    // racun se ucitava samo ako brojac nije u memoriji
+    private SpendingCounter counterFor(String accountNumber, Money amount, LocalDate today, Supplier<Account> accountLoader) {
+        SpendingCounter counter = counters.get(accountNumber);
+        if (counter == null) {
+            Account account = accountLoader.get();
+            counter = counterFor(account, amount.getCurrencyCode(), today);
+            counter.limitsFrom(account);
+            return counter;
+        }
+        checkCurrency(counter.currencyCode, amount);
+        counter.rollTo(today);
+        return counter;
+    }
+
+    private void reserve(String accountNumber, SpendingCounter counter, Money amount, LocalDate today) {
+        long shortfall = amount.getMinorUnits() - counter.lease;
+        if (shortfall > 0)
+            claim(accountNumber, counter, shortfall, amount, today);
+        counter.lease -= amount.getMinorUnits();
+        counter.touched = true;
+    }
+
+    // prvo se trazi ceo lease, pa samo iznos koji nedostaje (ostatak limita je manji od lease-a)
+    private void claim(String accountNumber, SpendingCounter counter, long shortfall, Money amount, LocalDate today) {
+        long preferred = Math.max(shortfall, counter.leaseSize(leaseDivisor));
+        if (preferred > shortfall && tryClaim(accountNumber, counter, preferred, today))
+            return;
+        if (tryClaim(accountNumber, counter, shortfall, today))
+            return;
+        throw exceeded(accountNumber, counter, shortfall, amount, today);
+    }
+
+    private boolean tryClaim(String accountNumber, SpendingCounter counter, long minorUnits, LocalDate today) {
+        BigDecimal grant = toDecimal(counter, minorUnits);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        Object[] args = {today, grant, monthStart, grant, today, accountNumber, today, grant, monthStart, grant};
+        Integer updated = claimTransaction.execute(status -> jdbcTemplate.update(CLAIM, args, CLAIM_TYPES));
+        if (updated == null || updated == 0)
+            return false;
+        counter.lease += minorUnits;
+        return true;
+    }
+
+    // potrosnja u bazi ukljucuje i lease ove instance, pa se on oduzima od prijavljene potrosnje
+    private SpendingLimitExceededException exceeded(String accountNumber, SpendingCounter counter, long shortfall,
+                                                    Money amount, LocalDate today) {
+        List<BigDecimal[]> rows = jdbcTemplate.query(SPENDING, new Object[]{today, today.withDayOfMonth(1), accountNumber},
+                SPENDING_TYPES, (rs, rowNum) -> new BigDecimal[]{rs.getBigDecimal(1), rs.getBigDecimal(2),
+                        rs.getBigDecimal(3), rs.getBigDecimal(4)});
+        if (rows.isEmpty())
+            throw new AccNotFoundException("Account not found");
+
+        BigDecimal[] row = rows.get(0);
+        BigDecimal lease = toDecimal(counter, counter.lease);
+        BigDecimal needed = toDecimal(counter, shortfall);
+        boolean daily = row[0] != null && (row[1] == null || row[2].add(needed).compareTo(row[0]) > 0);
+        BigDecimal limit = daily ? row[0] : row[1];
+        BigDecimal spent = (daily ? row[2] : row[3]).subtract(lease).max(BigDecimal.ZERO);
+        return new SpendingLimitExceededException(accountNumber, daily ? "daily" : "monthly", limit, spent, amount.toBigDecimal());
+    }
+
+    private static void checkCurrency(String currencyCode, Money amount) {
+        if (!currencyCode.equals(amount.getCurrencyCode()))
+            throw new IllegalArgumentException("Spending amount must be in account currency " + currencyCode);
+    }
+
+    private void restore(Map.Entry<String, SpendingCounter> entry, Object[] update) {
+        synchronized (stripeFor(entry.getKey())) {
+            // brojac je mozda izbacen i ponovo ucitan - iznosi idu u onaj koji je sada u mapi
+            SpendingCounter counter = counters.computeIfAbsent(entry.getKey(), key -> entry.getValue());
+            if (counter.day.equals(update[0]))
+                counter.returnDaily += Money.ofRounded((BigDecimal) update[1], counter.currencyCode).getMinorUnits();
+            if (counter.day.withDayOfMonth(1).equals(update[2]))
+                counter.returnMonthly += Money.ofRounded((BigDecimal) update[3], counter.currencyCode).getMinorUnits();
+        }
+    }
+
+    private Object stripeFor(String accountNumber) {
+        return stripes[(accountNumber.hashCode() ^ (accountNumber.hashCode() >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static BigDecimal toDecimal(SpendingCounter counter, long minorUnits) {
+        return Money.ofMinor(minorUnits, counter.currencyCode).toBigDecimal();
+    }
+
+    /// Lease jednog racuna (minor jedinice); sva polja se menjaju samo pod lock-om stripe-a
+    private static final class SpendingCounter {
+        private final String currencyCode;
+        private LocalDate day;
+        // upisano u bazu za day, a jos nepotroseno
+        private long lease;
+        // iznosi za vracanje u bazu u sledecem flush-u; returnMonthly ukljucuje i returnDaily
+        private long returnDaily;
+        private long returnMonthly;
+        private boolean touched;
+        // null - bez limita
+        private Long dailyLimit;
+        private Long monthlyLimit;
+
+        private SpendingCounter(String currencyCode, LocalDate day) {
+            this.currencyCode = currencyCode;
+            this.day = day;
+        }
+
+        void limitsFrom(Account account) {
+            dailyLimit = account.getDailyLimit() == null ? null : minor(account.getDailyLimit(), currencyCode);
+            monthlyLimit = account.getMonthlyLimit() == null ? null : minor(account.getMonthlyLimit(), currencyCode);
+        }
+
+        // deo manjeg limita; racun bez limita uzima samo iznos placanja
+        long leaseSize(int divisor) {
+            Long limit = dailyLimit == null ? monthlyLimit : monthlyLimit == null ? dailyLimit : Math.min(dailyLimit, monthlyLimit);
+            return limit == null ? 0 : limit / divisor;
+        }
+
+        void returnLease() {
+            returnDaily += lease;
+            returnMonthly += lease;
+            lease = 0;
+        }
+
+        void rollTo(LocalDate today) {
+            if (today.equals(day))
+                return;
+            // dnevna potrosnja prethodnog dana se ne vraca jer rollover u bazi nulira taj dan, mesecna samo u istom mesecu
+            returnLease();
+            returnDaily = 0;
+            if (!today.withDayOfMonth(1).equals(day.withDayOfMonth(1)))
+                returnMonthly = 0;
+            day = today;
+        }
+
+        private static long minor(BigDecimal amount, String currencyCode) {
+            return amount == null ? 0 : Money.ofRounded(amount, currencyCode).getMinorUnits();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package rs.raf.bank_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.domain.dto.*;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.mapper.StandingOrderMapper;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.*;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+import rs.raf.bank_service.repository.StandingOrderRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/// Trajni nalozi (kirija, stednja) i placanja sa buducim datumom.
+/// Nema cron-a po nalogu: scheduler cita dospele naloge po indeksu dospeca (status, nextExecutionDate, id) strana po strana,
+/// u istoj transakciji ih oznacava kao preuzete i salje izvrsenja po particijama transaction-queue racuna platioca.
+/// Particija izvrsava svoj deo kao obicna placanja (Payment, limit potrosnje, kurs) jednim knjizenjem u ledger-u
+/// i tek tada pomera naloge na sledece izvrsenje - izvrsenje koje se vrati (rollback) se preuzima ponovo.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StandingOrderService {
+
+    private static final Long BANK_COMPANY_ID = 1L;
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final AccountRepository accountRepository;
+    private final PaymentRepository paymentRepository;
+    private final LedgerService ledgerService;
+    private final SpendingLimitService spendingLimitService;
+    private final ExchangeRateService exchangeRateService;
+    private final TransactionQueueService transactionQueueService;
+    private final TransactionPartitioner transactionPartitioner;
+    private final PlatformTransactionManager transactionManager;
+    private final UserClient userClient;
+    private final StandingOrderMapper standingOrderMapper;
+
+    @Value("${standing-order.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${standing-order.requeue-after-minutes:10}")
+    private long requeueAfterMinutes = 10;
+
+    @Transactional
+    public StandingOrderDto createStandingOrder(CreateStandingOrderDto dto, Long clientId) {
+        Account sender = accountRepository.findByAccountNumberAndClientId(dto.getSenderAccountNumber(), clientId)
+                .orElseThrow(() -> new SenderAccountNotFoundException(dto.getSenderAccountNumber()));
+        if (dto.getReceiverAccountNumber().equals(sender.getAccountNumber()))
+            throw new InvalidStandingOrderException("Receiver account must differ from the sender account.");
+        if (accountRepository.findByAccountNumber(dto.getReceiverAccountNumber()).isEmpty())
+            throw new ReceiverAccountNotFoundException(dto.getReceiverAccountNumber());
+        if (dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate()))
+            throw new InvalidStandingOrderException("End date cannot be before the start date.");
+        if (!Money.hasValidScale(dto.getAmount(), sender.getCurrency().getCode()))
+            throw new InvalidStandingOrderException("Amount has more decimals than the account currency allows.");
+        Money amount = Money.of(dto.getAmount(), sender.getCurrency().getCode());
+        if (amount.signum() <= 0)
+            throw new InvalidStandingOrderException("Amount must be positive.");
+
+        StandingOrder order = new StandingOrder();
+        order.setClientId(clientId);
+        order.setSenderAccountNumber(sender.getAccountNumber());
+        order.setSenderName(senderName(sender, clientId));
+        order.setReceiverAccountNumber(dto.getReceiverAccountNumber());
+        order.setReceiverName(dto.getReceiverName());
+        order.setAmount(amount.toBigDecimal());
+        order.setPaymentCode(dto.getPaymentCode());
+        order.setPurposeOfPayment(dto.getPurposeOfPayment());
+        order.setReferenceNumber(dto.getReferenceNumber());
+        order.setFrequency(dto.getFrequency());
+        order.setStartDate(dto.getStartDate());
+        order.setEndDate(dto.getEndDate());
+        order.setNextExecutionDate(dto.getStartDate());
+        order.setStatus(StandingOrderStatus.ACTIVE);
+        order.setCreatedAt(LocalDateTime.now());
+        return standingOrderMapper.toDto(standingOrderRepository.save(order));
+    }
+
+    private String senderName(Account sender, Long clientId) {
+        if (sender instanceof CompanyAccount companyAccount && BANK_COMPANY_ID.equals(companyAccount.getCompanyId()))
+            return "Banka 2";
+        ClientDto clientDto = userClient.getClientById(clientId);
+        return clientDto.getFirstName() + " " + clientDto.getLastName();
+    }
+
+    /// Otkazivanje vazi za izvrsenja koja jos nisu izvrsena, i ona vec poslata u particiju se preskacu
+    @Transactional
+    public StandingOrderDto cancelStandingOrder(Long orderId, Long clientId) {
+        StandingOrder order = standingOrderRepository.findByIdAndClientId(orderId, clientId)
+                .orElseThrow(() -> new StandingOrderNotFoundException(orderId));
+        if (order.getStatus() != StandingOrderStatus.ACTIVE)
+            throw new InvalidStandingOrderException("Only active standing orders can be canceled.");
+
+        order.setStatus(StandingOrderStatus.CANCELED);
+        order.setNextExecutionDate(null);
+        order.setCanceledAt(LocalDateTime.now());
+        return standingOrderMapper.toDto(standingOrderRepository.save(order));
+    }
+
+    @Transactional
+    public Page<StandingOrderDto> getStandingOrders(Long clientId, Pageable pageable) {
+        return standingOrderRepository.findByClientId(clientId, pageable).map(standingOrderMapper::toDto);
+    }
+
+    @Transactional
+    public StandingOrderDto getStandingOrder(Long orderId, Long clientId) {
+        return standingOrderRepository.findByIdAndClientId(orderId, clientId)
+                .map(standingOrderMapper::toDto)
+                .orElseThrow(() -> new StandingOrderNotFoundException(orderId));
+    }
+
+    // proverava cesto da bi nalozi kreirani za danas i oni propusteni tokom zastoja bili izvrseni bez cekanja sledeceg dana
+    @Scheduled(cron = "${standing-order.cron:0 * * * * *}")
+    public void runDueStandingOrders() {
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        int chunks = 0;
+        try {
+            // svaki chunk u svojoj transakciji: oznaka preuzimanja i poruke u outbox-u se commit-uju zajedno
+            while (Boolean.TRUE.equals(transaction.execute(status -> queueNextChunk(today, LocalDateTime.now()))))
+                chunks++;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // druga instanca je preuzela iste naloge ili je nalog upravo otkazan - sledeci prolaz nastavlja
+            log.info("Standing orders for {} are being queued by another instance", today);
+            return;
+        }
+
+        if (chunks > 0)
+            log.info("Queued {} standing order chunks for {}", chunks, today);
+    }
+
+    // true ako je strana bila puna (mozda ima jos dospelih)
+    boolean queueNextChunk(LocalDate today, LocalDateTime now) {
+        List<StandingOrder> due = standingOrderRepository.findDue(StandingOrderStatus.ACTIVE, today,
+                now.minusMinutes(requeueAfterMinutes), PageRequest.of(0, chunkSize));
+        if (due.isEmpty())
+            return false;
+
+        Map<Integer, List<StandingOrder>> byPartition = due.stream()
+                .collect(Collectors.groupingBy(order -> transactionPartitioner.partitionFor(order.getSenderAccountNumber())));
+        for (List<StandingOrder> group : byPartition.values()) {
+            List<StandingOrderExecutionDto> executions = new ArrayList<>(group.size());
+            for (StandingOrder order : group) {
+                executions.add(new StandingOrderExecutionDto(order.getId(), order.getNextExecutionDate()));
+                // datum pomera izvrsenje; nalog koji kasni vise perioda ostaje dospeo i bice preuzet ponovo posle toga
+                order.setQueuedAt(now);
+            }
+            transactionQueueService.queueTransaction(TransactionType.PAY_STANDING_ORDERS,
+                    new StandingOrderBatchDto(executions), null, group.get(0).getSenderAccountNumber());
+        }
+        // izmene naloga idu batch update-om pri commit-u
+        return due.size() == chunkSize;
+    }
+
+    /// Izvrsava izvrsenja jednog chunk-a (poziva se iz particije transaction-queue).
+    /// Otkazani nalozi i vec izvrseni datumi (ponovljena poruka) se preskacu. Izvrsenje bez dovoljno sredstava,
+    /// preko limita, bez racuna primaoca ili kursa se belezi kao neuspelo i ne ponavlja se - nalog ide dalje po rasporedu.
+    /// Nalozi se pomeraju u istoj transakciji, pa posle rollback-a ostaju na istom datumu i preuzimaju se ponovo.
+    @Transactional
+    public void executeStandingOrders(StandingOrderBatchDto batch) {
+        Map<Long, StandingOrder> orders = standingOrderRepository.findAllById(batch.getExecutions().stream()
+                        .map(StandingOrderExecutionDto::getOrderId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(StandingOrder::getId, Function.identity()));
+
+        List<StandingOrderExecutionDto> executions = batch.getExecutions().stream()
+                .filter(execution -> isPending(orders.get(execution.getOrderId()), execution.getExecutionDate()))
+                .sorted(Comparator.comparing(StandingOrderExecutionDto::getExecutionDate))
+                .collect(Collectors.toList());
+        if (executions.isEmpty())
+            return;
+
+        Set<String> senderNumbers = executions.stream()
+                .map(execution -> orders.get(execution.getOrderId()).getSenderAccountNumber())
+                .collect(Collectors.toSet());
+        Set<String> accountNumbers = new HashSet<>(senderNumbers);
+        executions.forEach(execution -> accountNumbers.add(orders.get(execution.getOrderId()).getReceiverAccountNumber()));
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        // vise naloga moze da tereti isti racun, zato se stanje umanjuje u hodu
+        Map<String, BigDecimal> balances = new HashMap<>(ledgerService.getAvailableBalances(senderNumbers));
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        Map<String, CompanyAccount> bankAccounts = new HashMap<>();
+        List<Payment> payments = new ArrayList<>();
+        // datum izvrsenja -> uspesni nalozi / razlog -> neuspeli nalozi
+        Map<LocalDate, List<Long>> completed = new TreeMap<>();
+        Map<LocalDate, Map<String, List<Long>>> failed = new TreeMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (StandingOrderExecutionDto execution : executions) {
+            StandingOrder order = orders.get(execution.getOrderId());
+            Account sender = accounts.get(order.getSenderAccountNumber());
+            Account receiver = accounts.get(order.getReceiverAccountNumber());
+            String failure = execute(order, sender, receiver, balances, rates, bankAccounts, payments, now);
+            if (failure == null) {
+                completed.computeIfAbsent(execution.getExecutionDate(), date -> new ArrayList<>()).add(order.getId());
+            } else {
+                failed.computeIfAbsent(execution.getExecutionDate(), date -> new HashMap<>())
+                        .computeIfAbsent(failure, reason -> new ArrayList<>()).add(order.getId());
+            }
+        }
+
+        if (!payments.isEmpty()) {
+            paymentRepository.saveAll(payments);
+            ledgerService.post(PostingType.STANDING_ORDER, legs(payments, accounts, bankAccounts));
+        }
+
+        // redom po datumu, da posle nadoknade propustenih izvrsenja poslednji datum ostane upisan
+        Set<LocalDate> dates = new TreeSet<>(completed.keySet());
+        dates.addAll(failed.keySet());
+        for (LocalDate date : dates) {
+            List<Long> completedIds = completed.getOrDefault(date, List.of());
+            if (!completedIds.isEmpty())
+                standingOrderRepository.recordCompleted(completedIds, date);
+            failed.getOrDefault(date, Map.of()).forEach((reason, ids) -> standingOrderRepository.recordFailed(ids, date, reason));
+        }
+        // posle bulk update-a rezultata; nalog se upisuje verzionisano pri commit-u
+        executions.forEach(execution -> orders.get(execution.getOrderId()).advance());
+
+        int failures = executions.size() - payments.size();
+        if (failures > 0)
+            log.warn("{} of {} standing order executions failed", failures, executions.size());
+    }
+
+    // nalog ceka bas ovo izvrsenje - ponovljena ili zastarela poruka ga ne pomera jos jednom
+    private static boolean isPending(StandingOrder order, LocalDate executionDate) {
+        return order != null && order.getStatus() == StandingOrderStatus.ACTIVE
+                && executionDate.equals(order.getNextExecutionDate())
+                && (order.getLastExecutionDate() == null || order.getLastExecutionDate().isBefore(executionDate));
+    }
+
+    // null ako je placanje kreirano
+    private String execute(StandingOrder order, Account sender, Account receiver, Map<String, BigDecimal> balances,
+                           Map<String, BigDecimal> rates, Map<String, CompanyAccount> bankAccounts,
+                           List<Payment> payments, LocalDateTime now) {
+        if (sender == null || sender.getStatus() != AccountStatus.ACTIVE)
+            return "Sender account is not active.";
+        if (receiver == null)
+            return "Receiver account not found.";
+
+        String senderCurrency = sender.getCurrency().getCode();
+        Money amount = Money.ofRounded(order.getAmount(), senderCurrency);
+        Money available = Money.ofRounded(balances.getOrDefault(sender.getAccountNumber(), BigDecimal.ZERO), senderCurrency);
+        if (available.isLessThan(amount))
+            return "Insufficient funds.";
+
+        // kurs i racuni banke pre rezervacije limita, da neuspeh jednog naloga ne obori ceo chunk
+        String receiverCurrency = receiver.getCurrency().getCode();
+        Money outAmount = amount;
+        if (!receiverCurrency.equals(senderCurrency)) {
+            try {
+                outAmount = amount.convert(rates.computeIfAbsent(senderCurrency + receiverCurrency,
+                        pair -> exchangeRateService.getExchangeRate(senderCurrency, receiverCurrency).getExchangeRate()), receiverCurrency);
+            } catch (CurrencyNotFoundException | ExchangeRateNotFoundException e) {
+                return "Exchange rate not available.";
+            }
+            if (bankAccount(bankAccounts, sender.getCurrency()) == null || bankAccount(bankAccounts, receiver.getCurrency()) == null)
+                return "Bank account not found.";
+        }
+
+        try {
+            spendingLimitService.reserve(sender, amount);
+        } catch (SpendingLimitExceededException e) {
+            return "Spending limit exceeded.";
+        }
+        balances.put(sender.getAccountNumber(), available.minus(amount).toBigDecimal());
+
+        Payment payment = new Payment();
+        payment.setSenderName(order.getSenderName());
+        payment.setClientId(order.getClientId());
+        payment.setSenderAccount(sender);
+        payment.setAccountNumberReceiver(receiver.getAccountNumber());
+        payment.setReceiverClientId(receiver.getClientId());
+        payment.setAmount(amount.toBigDecimal());
+        payment.setOutAmount(outAmount.toBigDecimal());
+        payment.setPaymentCode(order.getPaymentCode());
+        payment.setPurposeOfPayment(order.getPurposeOfPayment());
+        payment.setReferenceNumber(order.getReferenceNumber());
+        payment.setDate(now);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payments.add(payment);
+        return null;
+    }
+
+    // placanja u drugoj valuti idu preko racuna banke: platilac -> banka (valuta platioca), banka -> primalac
+    private List<LedgerEntry> legs(List<Payment> payments, Map<String, Account> accounts, Map<String, CompanyAccount> bankAccounts) {
+        List<LedgerEntry> legs = new ArrayList<>();
+        Map<String, Money> bankCredits = new LinkedHashMap<>();
+        Map<String, Money> bankDebits = new LinkedHashMap<>();
+
+        for (Payment payment : payments) {
+            Account sender = payment.getSenderAccount();
+            Account receiver = accounts.get(payment.getAccountNumberReceiver());
+            String senderCurrency = sender.getCurrency().getCode();
+            String receiverCurrency = receiver.getCurrency().getCode();
+            Money amount = Money.ofRounded(payment.getAmount(), senderCurrency);
+            Money outAmount = Money.ofRounded(payment.getOutAmount(), receiverCurrency);
+
+            legs.add(LedgerEntry.debit(sender, amount).toBuilder().referenceId(payment.getId()).build());
+            legs.add(LedgerEntry.credit(receiver, outAmount).toBuilder().referenceId(payment.getId()).build());
+            if (!receiverCurrency.equals(senderCurrency)) {
+                bankCredits.merge(senderCurrency, amount, Money::plus);
+                bankDebits.merge(receiverCurrency, outAmount, Money::plus);
+            }
+        }
+
+        // racuni banke su vec nadjeni u execute za svako placanje u drugoj valuti
+        bankCredits.forEach((currencyCode, total) -> legs.add(LedgerEntry.credit(bankAccounts.get(currencyCode), total)));
+        bankDebits.forEach((currencyCode, total) -> legs.add(LedgerEntry.debit(bankAccounts.get(currencyCode), total)));
+        return legs;
+    }
+
+    // null ako banka nema racun u valuti; nadjeni racuni se pamte za ceo chunk
+    private CompanyAccount bankAccount(Map<String, CompanyAccount> bankAccounts, Currency currency) {
+        return bankAccounts.computeIfAbsent(currency.getCode(),
+                code -> accountRepository.findFirstByCurrencyAndCompanyId(currency, BANK_COMPANY_ID).orElse(null));
+    }
+}
@@ -0,0 +1,162 @@
+package rs.raf.bank_service.service;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.domain.dto.TransactionTypeStatsDto;
+import rs.raf.bank_service.domain.enums.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Metrike obrade poruka iz transaction-queue (TransactionProcessor), po tipu transakcije:
+/// - transaction.queue.lag: od upisa poruke u outbox do pocetka obrade
+/// - transaction.processing: trajanje obrade sa commit-om, outcome success/failure/rolled_back
+/// - transaction.failures: izuzeci iz obrade po klasi izuzetka
+/// - transaction.in.flight i transaction.in.flight.oldest: obrade u toku i starost najstarije (zaglavljena knjizenja)
+@Component
+public class TransactionMetrics {
+
+    private static final String UNKNOWN_TYPE = "unknown";
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, TypeMeters> meters = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+        for (TransactionType type : TransactionType.values())
+            meters.put(type.name(), new TypeMeters(type.name()));
+    }
+
+    /// Poziva se na pocetku obrade; vraceni InFlight se zatvara sa finish() (u finally)
+    public InFlight start(TransactionMessageDto message) {
+        String type = message.getType() != null ? message.getType().name() : UNKNOWN_TYPE;
+        TypeMeters typeMeters = meters.computeIfAbsent(type, TypeMeters::new);
+        if (message.getTimestamp() != null)
+            typeMeters.lag.record(Math.max(0, clock.wallTime() - message.getTimestamp()), TimeUnit.MILLISECONDS);
+        return new InFlight(typeMeters);
+    }
+
+    public List<TransactionTypeStatsDto> getStatistics() {
+        List<TransactionTypeStatsDto> statistics = new ArrayList<>();
+        new TreeMap<>(meters).forEach((type, typeMeters) -> {
+            HistogramSnapshot lag = typeMeters.lag.takeSnapshot();
+            HistogramSnapshot processing = typeMeters.succeeded.takeSnapshot();
+            Map<String, Long> failures = new TreeMap<>();
+            typeMeters.failures.forEach((exception, counter) -> failures.put(exception, (long) counter.count()));
+            statistics.add(new TransactionTypeStatsDto(type,
+                    typeMeters.succeeded.count(), typeMeters.failed.count(), typeMeters.rolledBack.count(),
+                    typeMeters.inFlight.size(), typeMeters.oldestInFlightSeconds(),
+                    percentile(lag, 0), percentile(lag, 1), lag.max(TimeUnit.MILLISECONDS),
+                    percentile(processing, 0), percentile(processing, 1), processing.max(TimeUnit.MILLISECONDS),
+                    failures));
+        });
+        return statistics;
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, int index) {
+        ValueAtPercentile[] values = snapshot.percentileValues();
+        return index < values.length ? values[index].value(TimeUnit.MILLISECONDS) : 0;
+    }
+
+    /// Jedna obrada u toku. Trajanje i ishod se belezi tek posle commit-a/rollback-a transakcije obrade,
+    /// jer processTransaction hvata izuzetke, a transakcija i dalje moze da padne pri commit-u.
+    public class InFlight {
+
+        private final TypeMeters typeMeters;
+        private final long id = sequence.incrementAndGet();
+        private final long startNanos = clock.monotonicTime();
+        private boolean failed;
+
+        private InFlight(TypeMeters typeMeters) {
+            this.typeMeters = typeMeters;
+            typeMeters.inFlight.put(id, startNanos);
+        }
+
+        public void failed(Exception e) {
+            failed = true;
+            typeMeters.failures.computeIfAbsent(e.getClass().getSimpleName(), exception -> Counter.builder("transaction.failures")
+                    .tag("type", typeMeters.type)
+                    .tag("exception", exception)
+                    .register(meterRegistry)).increment();
+        }
+
+        public void finish() {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                complete(true);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(status == STATUS_COMMITTED);
+                }
+            });
+        }
+
+        private void complete(boolean committed) {
+            typeMeters.inFlight.remove(id);
+            Timer timer = failed ? typeMeters.failed : committed ? typeMeters.succeeded : typeMeters.rolledBack;
+            timer.record(clock.monotonicTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private class TypeMeters {
+
+        private final String type;
+        private final Timer lag;
+        private final Timer succeeded;
+        private final Timer failed;
+        private final Timer rolledBack;
+        private final Map<String, Counter> failures = new ConcurrentHashMap<>();
+        // id obrade -> pocetak (monotonicTime)
+        private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+        private TypeMeters(String type) {
+            this.type = type;
+            this.lag = Timer.builder("transaction.queue.lag")
+                    .tag("type", type)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.succeeded = processingTimer("success");
+            this.failed = processingTimer("failure");
+            this.rolledBack = processingTimer("rolled_back");
+            Gauge.builder("transaction.in.flight", inFlight, Map::size).tag("type", type).register(meterRegistry);
+            Gauge.builder("transaction.in.flight.oldest", this, TypeMeters::oldestInFlightSeconds)
+                    .tag("type", type)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        private Timer processingTimer(String outcome) {
+            return Timer.builder("transaction.processing")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private double oldestInFlightSeconds() {
+            long now = clock.monotonicTime();
+            return inFlight.values().stream()
+                    .mapToLong(start -> now - start)
+                    .max()
+                    .orElse(0) / 1e9;
+        }
+    }
+}
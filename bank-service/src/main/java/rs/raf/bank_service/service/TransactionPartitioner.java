@@ -0,0 +1,79 @@
+package rs.raf.bank_service.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Rasporedjuje transakcije po particijama transaction-queue na osnovu broja racuna.
+/// Sve transakcije istog racuna idu u istu particiju (i redom se obradjuju), a razliciti racuni paralelno.
+@Component
+public class TransactionPartitioner {
+
+    @Getter
+    private final int partitions;
+
+    // po particiji: broj obradjenih poruka i kasnjenje (ms) poslednje obradjene poruke
+    private final AtomicLongArray processed;
+    private final AtomicLongArray lastLagMs;
+
+    public TransactionPartitioner(@Value("${transaction.queue.partitions:4}") int partitions) {
+        if (partitions < 1)
+            throw new IllegalArgumentException("transaction.queue.partitions must be at least 1");
+        this.partitions = partitions;
+        this.processed = new AtomicLongArray(partitions);
+        this.lastLagMs = new AtomicLongArray(partitions);
+    }
+
+    public int partitionFor(String key) {
+        if (key == null)
+            return 0;
+        return jumpConsistentHash(fnv1a64(key), partitions);
+    }
+
+    public String queueFor(String key) {
+        return queueName(partitionFor(key));
+    }
+
+    public String queueName(int partition) {
+        return RabbitMQConfig.TRANSACTION_QUEUE + "." + partition;
+    }
+
+    public void recordProcessed(int partition, Long enqueuedAt) {
+        processed.incrementAndGet(partition);
+        if (enqueuedAt != null)
+            lastLagMs.set(partition, Math.max(0, System.currentTimeMillis() - enqueuedAt));
+    }
+
+    public long getProcessed(int partition) {
+        return processed.get(partition);
+    }
+
+    public long getLastLagMs(int partition) {
+        return lastLagMs.get(partition);
+    }
+
+    // Jump consistent hash (Lamping, Veach): pri promeni broja particija pomera se samo ~1/n kljuceva
+    private static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    private static long fnv1a64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
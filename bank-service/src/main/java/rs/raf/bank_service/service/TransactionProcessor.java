@@ -3,9 +3,11 @@ package rs.raf.bank_service.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import rs.raf.bank_service.domain.dto.BulkPaymentChunkDto;
+import rs.raf.bank_service.domain.dto.InstallmentBatchDto;
+import rs.raf.bank_service.domain.dto.StandingOrderBatchDto;
 import rs.raf.bank_service.domain.dto.TransactionMessageDto;
 import rs.raf.bank_service.domain.enums.TransactionType;
 
@@ -18,11 +20,16 @@ public class TransactionProcessor {
     private final LoanRequestService loanRequestService;
     private final TransactionQueueService transactionQueueService;
     private final LoanService loanService;
+    private final InstallmentBatchService installmentBatchService;
+    private final BulkPaymentService bulkPaymentService;
+    private final StandingOrderService standingOrderService;
     private final ObjectMapper objectMapper;
+    private final TransactionMetrics transactionMetrics;
 
-    @RabbitListener(queues = "transaction-queue")
+    // poziva se iz listener-a particija (TransactionListenerConfig)
     @Transactional
     public void processTransaction(TransactionMessageDto message) {
+        TransactionMetrics.InFlight inFlight = transactionMetrics.start(message);
         try {
             switch (message.getType()) {
                 case CONFIRM_PAYMENT:
@@ -51,12 +58,33 @@ public class TransactionProcessor {
                     log.info("Processed PAY_INSTALLMENT for loan id {}", loanid);
                     break;
 
+                case PAY_INSTALLMENTS:
+                    InstallmentBatchDto batch = objectMapper.readValue(message.getPayloadJson(), InstallmentBatchDto.class);
+                    installmentBatchService.payInstallments(batch);
+                    log.info("Processed PAY_INSTALLMENTS for {} loans of run {}", batch.getLoanIds().size(), batch.getRunId());
+                    break;
+
+                case PAY_BULK_PAYMENT:
+                    BulkPaymentChunkDto chunk = objectMapper.readValue(message.getPayloadJson(), BulkPaymentChunkDto.class);
+                    bulkPaymentService.executeChunk(chunk);
+                    log.info("Processed PAY_BULK_PAYMENT lines {}-{} of bulk payment {}", chunk.getFirstLine(), chunk.getLastLine(), chunk.getOrderId());
+                    break;
+
+                case PAY_STANDING_ORDERS:
+                    StandingOrderBatchDto standingOrders = objectMapper.readValue(message.getPayloadJson(), StandingOrderBatchDto.class);
+                    standingOrderService.executeStandingOrders(standingOrders);
+                    log.info("Processed PAY_STANDING_ORDERS for {} executions", standingOrders.getExecutions().size());
+                    break;
+
                 default:
                     log.warn("Unknown transaction type: {}", message.getType());
             }
 
         } catch (Exception e) {
             log.error("Failed to process transaction: {}", message, e);
+            inFlight.failed(e);
+        } finally {
+            inFlight.finish();
         }
     }
 }
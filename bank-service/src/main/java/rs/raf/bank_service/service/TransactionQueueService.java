@@ -3,32 +3,52 @@ package rs.raf.bank_service.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.stereotype.Service;
 import rs.raf.bank_service.domain.dto.LoanDto;
 import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.domain.dto.TransactionPartitionDto;
 import rs.raf.bank_service.domain.enums.TransactionType;
+import rs.raf.bank_service.repository.LoanRepository;
+import rs.raf.bank_service.repository.LoanRequestRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionQueueService {
 
-    private static final String QUEUE_NAME = "transaction-queue";
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
     private final LoanRequestService loanRequestService;
+    private final TransactionPartitioner transactionPartitioner;
+    private final AmqpAdmin amqpAdmin;
+    private final PaymentRepository paymentRepository;
+    private final LoanRepository loanRepository;
+    private final LoanRequestRepository loanRequestRepository;
 
-    public boolean queueTransaction(TransactionType type, Object dto, Long userId) {
+    /// accountNumber odredjuje particiju - transakcije istog racuna se obradjuju jedna po jedna, redom kojim stignu
+    /// u red, sto ne mora biti redosled poziva. Poruka ide u outbox u transakciji pozivaoca (ako postoji); OutboxRelay
+    /// je salje bar jednom, bez garancije redosleda, pa se izvrsioci oslanjaju na proveru statusa (idempotentnost).
+    public boolean queueTransaction(TransactionType type, Object dto, Long userId, String accountNumber) {
         try {
             String jsonPayload = objectMapper.writeValueAsString(dto);
             TransactionMessageDto message = new TransactionMessageDto(type, jsonPayload, userId, System.currentTimeMillis());
-            rabbitTemplate.convertAndSend(QUEUE_NAME, message);
+            outboxService.enqueue(transactionPartitioner.queueFor(accountNumber), message);
             return true;
         } catch (JsonProcessingException e) {
             return false;
         }
     }
 
+    public boolean queueTransaction(TransactionType type, Object dto, Long userId) {
+        return queueTransaction(type, dto, userId, resolveAccountNumber(type, dto));
+    }
+
     public boolean queueTransaction(TransactionType type, Object dto) {
         return queueTransaction(type, dto, null);
     }
@@ -45,4 +65,33 @@ public class TransactionQueueService {
         throw new UnsupportedOperationException("Unsupported typed transaction: " + type);
     }
 
+    public List<TransactionPartitionDto> getPartitions() {
+        List<TransactionPartitionDto> partitions = new ArrayList<>();
+        for (int i = 0; i < transactionPartitioner.getPartitions(); i++) {
+            String queueName = transactionPartitioner.queueName(i);
+            long pending = Optional.ofNullable(amqpAdmin.getQueueProperties(queueName))
+                    .map(properties -> properties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT))
+                    .map(count -> ((Number) count).longValue())
+                    .orElse(0L);
+            partitions.add(new TransactionPartitionDto(i, queueName, pending,
+                    transactionPartitioner.getProcessed(i), transactionPartitioner.getLastLagMs(i)));
+        }
+        return partitions;
+    }
+
+    // racun koji se zaduzuje; kada ga pozivalac ne prosledi citamo samo broj racuna iz baze
+    private String resolveAccountNumber(TransactionType type, Object dto) {
+        if (!(dto instanceof Long id))
+            return null;
+
+        Optional<String> accountNumber = switch (type) {
+            case CONFIRM_PAYMENT, CONFIRM_TRANSFER -> paymentRepository.findSenderAccountNumberById(id);
+            case APPROVE_LOAN -> loanRequestRepository.findAccountNumberById(id);
+            case PAY_INSTALLMENT -> loanRepository.findAccountNumberById(id);
+            // chunk rata, grupnog placanja i trajnih naloga se uvek salje sa racunom iz particije
+            case PAY_INSTALLMENTS, PAY_BULK_PAYMENT, PAY_STANDING_ORDERS -> Optional.<String>empty();
+        };
+        return accountNumber.orElse(null);
+    }
+
 }
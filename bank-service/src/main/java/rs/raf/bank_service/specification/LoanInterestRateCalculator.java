@@ -13,7 +13,11 @@ public class LoanInterestRateCalculator {
     }
 
     public static BigDecimal calculateEffectiveRate(LoanRequest request) {
-        return getBaseRate(request.getAmount()).add(getMarginByLoanType(request.getType()));
+        return calculateEffectiveRate(request.getAmount(), request.getType());
+    }
+
+    public static BigDecimal calculateEffectiveRate(BigDecimal amount, LoanType type) {
+        return getBaseRate(amount).add(getMarginByLoanType(type));
     }
 
     private static BigDecimal getBaseRate(BigDecimal amount) {
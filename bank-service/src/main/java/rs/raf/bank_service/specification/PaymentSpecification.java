@@ -19,16 +19,30 @@ public class PaymentSpecification {
             PaymentStatus paymentStatus,
             String accountNumber,
             String cardNumber
+    ) {
+        // Filtriraj po clientId (senderClientId ili receiverClientId)
+        return Specification.where(sentBy(clientId).or(receivedBy(clientId)))
+                .and(matchesFilters(startDate, endDate, minAmount, maxAmount, paymentStatus, accountNumber, cardNumber));
+    }
+
+    public static Specification<Payment> sentBy(Long clientId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("clientId"), clientId);
+    }
+
+    public static Specification<Payment> receivedBy(Long clientId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("receiverClientId"), clientId);
+    }
+
+    public static Specification<Payment> matchesFilters(
+            LocalDateTime startDate, LocalDateTime endDate,
+            BigDecimal minAmount, BigDecimal maxAmount,
+            PaymentStatus paymentStatus,
+            String accountNumber,
+            String cardNumber
     ) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // Filtriraj po clientId (senderClientId ili receiverClientId)
-            predicates.add(criteriaBuilder.or(
-                    criteriaBuilder.equal(root.get("clientId"), clientId),  // senderClientId
-                    criteriaBuilder.equal(root.get("receiverClientId"), clientId)  // receiverClientId
-            ));
-
             // Filtriraj po datumu
             if (startDate != null) {
                 predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("date"), startDate));
@@ -63,4 +77,4 @@ public class PaymentSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package rs.raf.bank_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.service.CardNumberAllocator;
+
+import java.util.concurrent.TimeUnit;
+
+/// Kontrolna cifra po Luhn-u, racuna se za svaki novi broj kartice (CardNumberAllocator.next).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardNumberBenchmark {
+
+    private String[] prefixes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // 15 cifara kao iz alokatora: prefiks izdavaoca + redni broj iz bloka
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++)
+            prefixes[i] = String.format("%d%09d", i % 2 == 0 ? 433333 : 533333, 100_000_000L + i * 7919L);
+    }
+
+    @Benchmark
+    public String luhnDigit() {
+        String prefix = prefixes[next++ & (prefixes.length - 1)];
+        return CardNumberAllocator.luhnDigit(prefix);
+    }
+
+    @Benchmark
+    public String cardNumber() {
+        String prefix = prefixes[next++ & (prefixes.length - 1)];
+        return prefix + CardNumberAllocator.luhnDigit(prefix);
+    }
+}
@@ -0,0 +1,89 @@
+package rs.raf.bank_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.domain.dto.AccountDto;
+import rs.raf.bank_service.domain.dto.ClientDto;
+import rs.raf.bank_service.domain.dto.PaymentDto;
+import rs.raf.bank_service.domain.dto.PaymentOverviewDto;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.Payment;
+import rs.raf.bank_service.domain.entity.PersonalAccount;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.mapper.AccountMapper;
+import rs.raf.bank_service.domain.mapper.PaymentMapper;
+import rs.raf.bank_service.repository.PaymentOverviewRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/// Mapiranje u DTO-ove za liste racuna i istorije placanja (po jedan red strane).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private PersonalAccount account;
+    private ClientDto client;
+    private Payment payment;
+    private PaymentOverviewRepository.OverviewRow overviewRow;
+    // metode koje se mere ne koriste repozitorijum
+    private final PaymentMapper paymentMapper = new PaymentMapper(null);
+
+    @Setup
+    public void setUp() {
+        Currency currency = new Currency();
+        currency.setCode("EUR");
+
+        account = new PersonalAccount();
+        account.setAccountNumber("333000100000001110");
+        account.setName("Tekuci");
+        account.setClientId(7L);
+        account.setCreatedByEmployeeId(1L);
+        account.setCreationDate(LocalDate.of(2025, 1, 15));
+        account.setExpirationDate(LocalDate.of(2030, 1, 15));
+        account.setCurrency(currency);
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setType(AccountType.FOREIGN);
+        account.setAccountOwnerType(AccountOwnerType.PERSONAL);
+        account.setBalance(new BigDecimal("15234.55"));
+        account.setAvailableBalance(new BigDecimal("14234.55"));
+        account.setDailyLimit(new BigDecimal("5000.00"));
+        account.setMonthlyLimit(new BigDecimal("50000.00"));
+        account.setDailySpending(new BigDecimal("1000.00"));
+        account.setMonthlySpending(new BigDecimal("9000.00"));
+
+        client = new ClientDto(7L, "Petar", "Petrovic");
+
+        payment = new Payment();
+        payment.setId(42L);
+        payment.setSenderAccount(account);
+        payment.setAmount(new BigDecimal("1234.56"));
+        payment.setAccountNumberReceiver("333000100000002220");
+        payment.setPaymentCode("289");
+        payment.setPurposeOfPayment("Racun za struju");
+
+        overviewRow = new PaymentOverviewRepository.OverviewRow(42L, "Petar Petrovic", new BigDecimal("1234.56"),
+                new BigDecimal("144712.34"), LocalDateTime.of(2025, 3, 1, 12, 0), PaymentStatus.COMPLETED,
+                "4333331000000017", "EUR", "333000100000002220");
+    }
+
+    @Benchmark
+    public AccountDto accountToDto() {
+        return AccountMapper.toDto(account, client);
+    }
+
+    @Benchmark
+    public PaymentOverviewDto paymentOverviewRowToDto() {
+        return paymentMapper.toOverviewDto(overviewRow, "RSD");
+    }
+
+    @Benchmark
+    public PaymentDto paymentToDto() {
+        return paymentMapper.toPaymentDto(payment, "Elektroprivreda Srbije");
+    }
+}
@@ -0,0 +1,92 @@
+package rs.raf.bank_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.ExchangeRate;
+import rs.raf.bank_service.service.ExchangeRateMatrix;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Konverzija kao u ExchangeRateService.convert/convertBatch: citanje kursa iz matrice i mnozenje iznosa,
+/// za direktan par (preko RSD) i ukrsteni par. Posebno se meri pravljenje matrice posle izmene kurseva.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRateBenchmark {
+
+    private static final String[] CODES = {"RSD", "EUR", "USD", "CHF", "GBP", "JPY", "CAD", "AUD"};
+    private static final String[] RATES_TO_RSD = {"1", "117.2154", "108.4120", "121.8830", "137.0410", "0.7245", "79.5230", "70.8810"};
+
+    private List<Currency> currencies;
+    private List<ExchangeRate> exchangeRates;
+    private ExchangeRateMatrix matrix;
+    private BigDecimal amount;
+    private BigDecimal[] batchAmounts;
+
+    @Setup
+    public void setUp() {
+        currencies = new ArrayList<>();
+        for (String code : CODES) {
+            Currency currency = new Currency();
+            currency.setCode(code);
+            currency.setName(code);
+            currency.setActive(true);
+            currencies.add(currency);
+        }
+
+        // baza ima samo kurseve od/ka RSD, ostali parovi su ukrsteni
+        exchangeRates = new ArrayList<>();
+        Currency rsd = currencies.get(0);
+        for (int i = 1; i < CODES.length; i++) {
+            BigDecimal toRsd = new BigDecimal(RATES_TO_RSD[i]);
+            BigDecimal fromRsd = BigDecimal.ONE.divide(toRsd, 6, RoundingMode.UP);
+            exchangeRates.add(rate(currencies.get(i), rsd, toRsd));
+            exchangeRates.add(rate(rsd, currencies.get(i), fromRsd));
+        }
+        matrix = ExchangeRateMatrix.build(currencies, exchangeRates);
+
+        amount = new BigDecimal("1234.56");
+        batchAmounts = new BigDecimal[100];
+        for (int i = 0; i < batchAmounts.length; i++)
+            batchAmounts[i] = new BigDecimal(i * 37 + 1).movePointLeft(1);
+    }
+
+    private static ExchangeRate rate(Currency from, Currency to, BigDecimal value) {
+        return ExchangeRate.builder()
+                .fromCurrency(from)
+                .toCurrency(to)
+                .exchangeRate(value)
+                .sellRate(value.multiply(new BigDecimal("1.01")))
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal convertDirect() {
+        return amount.multiply(matrix.get("EUR", "RSD").getExchangeRate());
+    }
+
+    @Benchmark
+    public BigDecimal convertCross() {
+        return amount.multiply(matrix.get("EUR", "USD").getExchangeRate());
+    }
+
+    @Benchmark
+    public BigDecimal convertBatch() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < batchAmounts.length; i++)
+            total = total.add(batchAmounts[i].multiply(matrix.get(CODES[i % CODES.length], "EUR").getExchangeRate()));
+        return total;
+    }
+
+    @Benchmark
+    public ExchangeRateMatrix buildMatrix() {
+        return ExchangeRateMatrix.build(currencies, exchangeRates);
+    }
+}
@@ -0,0 +1,49 @@
+package rs.raf.bank_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.domain.enums.LoanType;
+import rs.raf.bank_service.specification.LoanInterestRateCalculator;
+import rs.raf.bank_service.specification.LoanRateCalculator;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/// Obracun mesecne rate (pow po broju meseci) i efektivne kamatne stope, koji se rade za svaki kredit
+/// pri odobravanju i pri svakoj promeni referentne stope (LoanRepricingService).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanRateBenchmark {
+
+    // kratak gotovinski, srednji auto i najduzi stambeni kredit
+    @Param({"12", "60", "360"})
+    private int months;
+
+    private BigDecimal principal;
+    private BigDecimal annualRate;
+
+    @Setup
+    public void setUp() {
+        principal = new BigDecimal("1500000.00");
+        annualRate = LoanInterestRateCalculator.calculateEffectiveRate(principal, LoanType.MORTGAGE);
+    }
+
+    @Benchmark
+    public BigDecimal monthlyRate() {
+        return LoanRateCalculator.calculateMonthlyRate(principal, annualRate, months);
+    }
+
+    @Benchmark
+    public BigDecimal effectiveRate() {
+        return LoanInterestRateCalculator.calculateEffectiveRate(principal, LoanType.MORTGAGE);
+    }
+
+    @Benchmark
+    public BigDecimal effectiveAndMonthlyRate() {
+        BigDecimal rate = LoanInterestRateCalculator.calculateEffectiveRate(principal, LoanType.CASH);
+        return LoanRateCalculator.calculateMonthlyRate(principal, rate, months);
+    }
+}
@@ -0,0 +1,89 @@
+package rs.raf.bank_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.domain.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/// Poredjenje knjizenja placanja sa BigDecimal-om (kao ranije u PaymentService) i sa Money:
+/// provera stanja, oduzimanje/dodavanje, konverzija kursom i provera ravnoteze stavki.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private BigDecimal balance;
+    private BigDecimal amount;
+    private BigDecimal rate;
+
+    private Money balanceMoney;
+    private Money amountMoney;
+
+    @Setup
+    public void setUp() {
+        balance = new BigDecimal("152340.55");
+        amount = new BigDecimal("1234.56");
+        rate = new BigDecimal("117.2154");
+        balanceMoney = Money.of(balance, "EUR");
+        amountMoney = Money.of(amount, "EUR");
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalPosting() {
+        if (balance.compareTo(amount) < 0)
+            throw new IllegalStateException();
+        BigDecimal converted = amount.multiply(rate);
+        BigDecimal senderAfter = balance.subtract(amount);
+        // provera ravnoteze: -amount + amount - converted + converted
+        BigDecimal sum = amount.negate().add(amount).add(converted.negate()).add(converted);
+        if (sum.signum() != 0)
+            throw new IllegalStateException();
+        return senderAfter.add(converted);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalPostingPinnedScale() {
+        if (balance.compareTo(amount) < 0)
+            throw new IllegalStateException();
+        BigDecimal converted = amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal senderAfter = balance.subtract(amount).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal sum = amount.negate().add(amount).add(converted.negate()).add(converted);
+        if (sum.signum() != 0)
+            throw new IllegalStateException();
+        return senderAfter.add(converted);
+    }
+
+    @Benchmark
+    public long moneyPosting() {
+        if (balanceMoney.isLessThan(amountMoney))
+            throw new IllegalStateException();
+        Money converted = amountMoney.convert(rate, "RSD");
+        Money senderAfter = balanceMoney.minus(amountMoney);
+        Money sum = amountMoney.negate().plus(amountMoney);
+        Money convertedSum = converted.negate().plus(converted);
+        if (sum.signum() != 0 || convertedSum.signum() != 0)
+            throw new IllegalStateException();
+        return senderAfter.getMinorUnits() + converted.getMinorUnits();
+    }
+
+    @Benchmark
+    public long moneyBalanceCheck() {
+        Money remaining = balanceMoney;
+        for (int i = 0; i < 10; i++)
+            remaining = remaining.minus(amountMoney);
+        return remaining.isNegative() ? 0 : remaining.getMinorUnits();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalBalanceCheck() {
+        BigDecimal remaining = balance;
+        for (int i = 0; i < 10; i++)
+            remaining = remaining.subtract(amount);
+        return remaining.signum() < 0 ? BigDecimal.ZERO : remaining;
+    }
+}
@@ -0,0 +1,72 @@
+package rs.raf.bank_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import rs.raf.bank_service.domain.dto.PaymentDto;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.domain.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/// Jackson (de)serijalizacija TransactionMessageDto kao u outbox-u i TransactionProcessor-u:
+/// payload se prvo serijalizuje u payloadJson, pa cela poruka; consumer cita obrnutim redom.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMessageJsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter messageWriter;
+    private ObjectWriter paymentWriter;
+    private ObjectReader messageReader;
+    private ObjectReader paymentReader;
+
+    private PaymentDto payment;
+    private byte[] messageBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        messageWriter = objectMapper.writerFor(TransactionMessageDto.class);
+        paymentWriter = objectMapper.writerFor(PaymentDto.class);
+        messageReader = objectMapper.readerFor(TransactionMessageDto.class);
+        paymentReader = objectMapper.readerFor(PaymentDto.class);
+
+        payment = new PaymentDto(42L, new BigDecimal("1234.56"), "Racun za struju", "333000100000001110",
+                "333000100000002220", "Elektroprivreda Srbije", "289", "RSD");
+        messageBytes = objectMapper.writeValueAsBytes(new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT,
+                objectMapper.writeValueAsString(payment), 7L, 1_740_830_400_000L));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        TransactionMessageDto dto = new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT,
+                objectMapper.writeValueAsString(payment), 7L, 1_740_830_400_000L);
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public PaymentDto deserialize() throws Exception {
+        TransactionMessageDto dto = objectMapper.readValue(messageBytes, TransactionMessageDto.class);
+        return objectMapper.readValue(dto.getPayloadJson(), PaymentDto.class);
+    }
+
+    // unapred napravljeni reader/writer preskacu trazenje serializer-a po pozivu
+    @Benchmark
+    public byte[] serializePrebuiltWriter() throws Exception {
+        TransactionMessageDto dto = new TransactionMessageDto(TransactionType.CONFIRM_PAYMENT,
+                paymentWriter.writeValueAsString(payment), 7L, 1_740_830_400_000L);
+        return messageWriter.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public PaymentDto deserializePrebuiltReader() throws Exception {
+        TransactionMessageDto dto = messageReader.readValue(messageBytes);
+        return paymentReader.readValue(dto.getPayloadJson());
+    }
+}
@@ -0,0 +1,29 @@
+package rs.raf.bank_service.load;
+
+/// PostgreSQL funkcije koje aplikacija poziva, a H2 ih nema (registruju se u load/h2-functions.sql)
+public final class H2Functions {
+
+    // H2 nema id transakcije - stavka dobija vreme upisa, a granica snapshot-a zaostaje za SETTLE_MILLIS
+    // (dovoljno za jednu instancu u load testu, na PostgreSQL-u granica je stvarno najstarija transakcija u toku)
+    private static final long SETTLE_MILLIS = 10_000;
+
+    private H2Functions() {
+    }
+
+    // u load testu radi jedna instanca, pa je advisory lock uvek slobodan
+    public static boolean tryAdvisoryXactLock(long key) {
+        return true;
+    }
+
+    public static long txidCurrent() {
+        return System.currentTimeMillis();
+    }
+
+    public static long txidCurrentSnapshot() {
+        return System.currentTimeMillis();
+    }
+
+    public static long txidSnapshotXmin(long snapshot) {
+        return snapshot - SETTLE_MILLIS;
+    }
+}
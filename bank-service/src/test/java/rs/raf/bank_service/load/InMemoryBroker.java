@@ -0,0 +1,117 @@
+package rs.raf.bank_service.load;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.CreateVerificationRequestDto;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.service.TransactionPartitioner;
+import rs.raf.bank_service.service.TransactionProcessor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/// RabbitMQ u memoriji za load test. OutboxRelay salje kroz ovaj template (confirms su trenutni), pa poruke
+/// prolaze isti put kao u produkciji: outbox_messages -> relay -> red.
+/// - particije transaction-queue obradjuje po jedna nit, kao jedan consumer po redu (TransactionListenerConfig)
+/// - verification-requests preuzima umesto user-service-a i ceka da ih approve-verification odobri
+/// - ostali redovi (notifikacije) se samo broje
+class InMemoryBroker extends RabbitTemplate {
+
+    private final MessageConverter jsonMessageConverter;
+    private final TransactionPartitioner transactionPartitioner;
+    private final ObjectProvider<TransactionProcessor> transactionProcessor;
+    private final LoadMetrics loadMetrics;
+
+    private final Map<String, Integer> partitionByQueue = new HashMap<>();
+    private final ExecutorService[] consumers;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Queue<CreateVerificationRequestDto> pendingVerifications = new ConcurrentLinkedQueue<>();
+    private final Map<String, LongAdder> otherQueues = new ConcurrentHashMap<>();
+
+    InMemoryBroker(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter,
+                   TransactionPartitioner transactionPartitioner, ObjectProvider<TransactionProcessor> transactionProcessor,
+                   LoadMetrics loadMetrics) {
+        super(connectionFactory);
+        this.jsonMessageConverter = jsonMessageConverter;
+        this.transactionPartitioner = transactionPartitioner;
+        this.transactionProcessor = transactionProcessor;
+        this.loadMetrics = loadMetrics;
+
+        consumers = new ExecutorService[transactionPartitioner.getPartitions()];
+        for (int i = 0; i < consumers.length; i++) {
+            partitionByQueue.put(transactionPartitioner.queueName(i), i);
+            consumers[i] = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @Override
+    public <T> T invoke(OperationsCallback<T> action, com.rabbitmq.client.ConfirmCallback acks,
+                        com.rabbitmq.client.ConfirmCallback nacks) {
+        return action.doInRabbit(this);
+    }
+
+    @Override
+    public void waitForConfirmsOrDie(long timeout) {
+    }
+
+    @Override
+    public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+        Integer partition = partitionByQueue.get(routingKey);
+        if (partition != null) {
+            consume(partition, (TransactionMessageDto) jsonMessageConverter.fromMessage(message));
+        } else if (RabbitMQConfig.VERIFICATION_REQUEST_QUEUE.equals(routingKey)) {
+            pendingVerifications.add((CreateVerificationRequestDto) jsonMessageConverter.fromMessage(message));
+        } else {
+            otherQueues.computeIfAbsent(routingKey, key -> new LongAdder()).increment();
+        }
+    }
+
+    private void consume(int partition, TransactionMessageDto message) {
+        long enqueuedAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        consumers[partition].execute(() -> {
+            try {
+                String operation = message.getType().name().toLowerCase().replace('_', '-');
+                loadMetrics.record(operation, enqueuedAt, () -> transactionProcessor.getObject().processTransaction(message));
+                transactionPartitioner.recordProcessed(partition, message.getTimestamp());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /// Sledeci zahtev za verifikaciju koji "korisnik" odobrava, null ako ih nema
+    CreateVerificationRequestDto pollVerification() {
+        return pendingVerifications.poll();
+    }
+
+    long inFlight() {
+        return inFlight.get();
+    }
+
+    Map<String, Long> otherQueueCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        otherQueues.forEach((queue, count) -> counts.put(queue, count.sum()));
+        return counts;
+    }
+
+    void shutdown() throws InterruptedException {
+        for (ExecutorService consumer : consumers) {
+            consumer.shutdown();
+            consumer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
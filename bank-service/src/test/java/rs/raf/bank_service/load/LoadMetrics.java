@@ -0,0 +1,123 @@
+package rs.raf.bank_service.load;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Latencija, greske i cekanje na lock-ove po operaciji.
+/// Cekanje se meri ThreadMXBean brojacima niti koja izvrsava operaciju: blocked je cekanje na monitor
+/// (synchronized stripe-ovi u servisima), waited je wait/park (H2 row lock-ovi, Hikari pool, ...).
+class LoadMetrics {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean contentionMonitoring;
+    private volatile SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private volatile Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    LoadMetrics() {
+        contentionMonitoring = threads.isThreadContentionMonitoringSupported();
+        if (contentionMonitoring)
+            threads.setThreadContentionMonitoringEnabled(true);
+    }
+
+    /// Meri operaciju od planiranog pocetka, pa kasnjenje zbog zagusenja ulazi u latenciju (bez coordinated omission)
+    void record(String operation, long intendedStartNanos, Runnable action) {
+        OperationStats stats = operations.computeIfAbsent(operation, this::newStats);
+        ThreadInfo before = threadInfo();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            stats.errors.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        } finally {
+            stats.timer.record(System.nanoTime() - intendedStartNanos, TimeUnit.NANOSECONDS);
+            ThreadInfo after = threadInfo();
+            if (before != null && after != null) {
+                stats.blockedCount.add(after.getBlockedCount() - before.getBlockedCount());
+                stats.waitedCount.add(after.getWaitedCount() - before.getWaitedCount());
+                if (contentionMonitoring) {
+                    stats.blockedMs.add(after.getBlockedTime() - before.getBlockedTime());
+                    stats.waitedMs.add(after.getWaitedTime() - before.getWaitedTime());
+                }
+            }
+        }
+    }
+
+    void skipped(String operation) {
+        operations.computeIfAbsent(operation, this::newStats).skipped.increment();
+    }
+
+    /// Brise sve izmereno (posle zagrevanja)
+    void reset() {
+        registry = new SimpleMeterRegistry();
+        operations = new ConcurrentHashMap<>();
+    }
+
+    /// Propusnost se racuna nad zadatim prozorom merenja (bez zagrevanja i praznjenja redova)
+    List<OperationReport> report(double seconds) {
+        List<OperationReport> reports = new ArrayList<>();
+        new TreeMap<>(operations).forEach((operation, stats) -> {
+            long count = stats.timer.count();
+            Map<String, Long> errors = new TreeMap<>();
+            stats.errors.forEach((type, adder) -> errors.put(type, adder.sum()));
+            double[] percentiles = new double[2];
+            for (var value : stats.timer.takeSnapshot().percentileValues())
+                percentiles[value.percentile() < 0.9 ? 0 : 1] = value.value(TimeUnit.MILLISECONDS);
+            reports.add(new OperationReport(operation, count, errors.values().stream().mapToLong(Long::longValue).sum(),
+                    stats.skipped.sum(), count / seconds, percentiles[0], percentiles[1], stats.timer.max(TimeUnit.MILLISECONDS),
+                    perOperation(stats.blockedCount.sum(), count), stats.blockedMs.sum(),
+                    perOperation(stats.waitedCount.sum(), count), stats.waitedMs.sum(), errors));
+        });
+        return reports;
+    }
+
+    private static double perOperation(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    private ThreadInfo threadInfo() {
+        return threads.getThreadInfo(Thread.currentThread().getId());
+    }
+
+    private OperationStats newStats(String operation) {
+        Timer timer = Timer.builder("load.operation")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                // percentili za ceo run, ne za klizni prozor
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+        return new OperationStats(timer);
+    }
+
+    private static class OperationStats {
+        private final Timer timer;
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder blockedCount = new LongAdder();
+        private final LongAdder blockedMs = new LongAdder();
+        private final LongAdder waitedCount = new LongAdder();
+        private final LongAdder waitedMs = new LongAdder();
+
+        private OperationStats(Timer timer) {
+            this.timer = timer;
+        }
+    }
+
+    record OperationReport(String operation, long count, long errors, long skipped, double throughputPerSecond,
+                           double p50Ms, double p99Ms, double maxMs,
+                           double blockedPerOperation, long blockedMsTotal,
+                           double waitedPerOperation, long waitedMsTotal,
+                           Map<String, Long> errorsByType) {
+    }
+}
@@ -0,0 +1,47 @@
+package rs.raf.bank_service.load;
+
+import org.springframework.amqp.rabbit.config.AbstractRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import rs.raf.bank_service.client.CachedUserClient;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.service.TransactionPartitioner;
+import rs.raf.bank_service.service.TransactionProcessor;
+
+/// Bean-ovi koji aplikaciju odvajaju od RabbitMQ-a i user-service-a u load testu.
+/// Namerno nije @Configuration - ne sme da ga pokupi component scan drugih testova, registruje ga PaymentLoadGenerator.
+class LoadTestConfig {
+
+    @Bean
+    LoadMetrics loadMetrics() {
+        return new LoadMetrics();
+    }
+
+    // RabbitAutoConfiguration ne pravi svoj template kada postoji ovaj
+    @Bean
+    RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter,
+                                  TransactionPartitioner transactionPartitioner,
+                                  ObjectProvider<TransactionProcessor> transactionProcessor, LoadMetrics loadMetrics) {
+        return new InMemoryBroker(connectionFactory, jsonMessageConverter, transactionPartitioner, transactionProcessor, loadMetrics);
+    }
+
+    /// Feign UserClient (delegat CachedUserClient-a) se menja stub-om, a listener kontejneri se ne pokrecu
+    /// jer broker ne postoji - poruke za particije obradjuje InMemoryBroker.
+    @Bean
+    static BeanPostProcessor loadTestBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof UserClient && !(bean instanceof CachedUserClient))
+                    return new StubUserClient();
+                if (bean instanceof AbstractRabbitListenerContainerFactory<?> factory)
+                    factory.setAutoStartup(false);
+                return bean;
+            }
+        };
+    }
+}
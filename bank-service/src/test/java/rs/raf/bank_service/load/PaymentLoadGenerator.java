@@ -0,0 +1,356 @@
+package rs.raf.bank_service.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.bank_service.BankServiceApplication;
+import rs.raf.bank_service.domain.dto.CreatePaymentDto;
+import rs.raf.bank_service.domain.dto.CreateVerificationRequestDto;
+import rs.raf.bank_service.domain.dto.TransferDto;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.PersonalAccount;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.repository.CurrencyRepository;
+import rs.raf.bank_service.service.PaymentService;
+import rs.raf.bank_service.service.TransactionQueueService;
+
+import javax.persistence.EntityManager;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/// Load generator za placanja i transfere: podize bank-service nad H2 (PostgreSQL mod) sa brokerom u memoriji
+/// i stub-ovanim user-service-om, pravi sinteticke racune i zadatim tempom pusta mesavinu operacija.
+/// Pokretanje: mvn -Pload -DskipTests test -Dload.args="--load.rate=500 --load.duration-seconds=120"
+/// (parametri i podrazumevane vrednosti su u src/test/resources/load/application.properties).
+///
+/// Operacije koje generator zadaje:
+/// - create-payment / transfer: PaymentService kao iz kontrolera, zahtev za verifikaciju ide kroz outbox
+/// - approve-verification: odobrava najstariji zahtev koji je stigao na verification-requests (kao user-service
+///   kada korisnik potvrdi kod) i salje CONFIRM_PAYMENT/CONFIRM_TRANSFER u particiju transaction-queue
+/// Obradu poruka iz particija (confirm-payment, confirm-transfer) meri InMemoryBroker, od prijema poruke.
+@Slf4j
+public class PaymentLoadGenerator {
+
+    private static final String CREATE_PAYMENT = "create-payment";
+    private static final String TRANSFER = "transfer";
+    private static final String APPROVE_VERIFICATION = "approve-verification";
+    private static final long CLIENT_ID_OFFSET = 100_000L;
+
+    private final ConfigurableApplicationContext context;
+    private final PaymentService paymentService;
+    private final TransactionQueueService transactionQueueService;
+    private final InMemoryBroker broker;
+    private final LoadMetrics loadMetrics;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+
+    private final int rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int threads;
+    private final int hotAccounts;
+    private final double hotRatio;
+    private final int drainTimeoutSeconds;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+
+    private final List<SyntheticAccount> accounts = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankServiceApplication.class, LoadTestConfig.class)
+                .properties("spring.config.additional-location=classpath:load/")
+                .run(args);
+        int exitCode = 0;
+        try {
+            new PaymentLoadGenerator(context).run();
+        } catch (Exception e) {
+            log.error("Load run failed", e);
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    PaymentLoadGenerator(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.paymentService = context.getBean(PaymentService.class);
+        this.transactionQueueService = context.getBean(TransactionQueueService.class);
+        this.broker = context.getBean(InMemoryBroker.class);
+        this.loadMetrics = context.getBean(LoadMetrics.class);
+        this.entityManager = context.getBean(EntityManager.class);
+        this.transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Environment env = context.getEnvironment();
+        this.rate = env.getRequiredProperty("load.rate", Integer.class);
+        this.durationSeconds = env.getRequiredProperty("load.duration-seconds", Integer.class);
+        this.warmupSeconds = env.getRequiredProperty("load.warmup-seconds", Integer.class);
+        this.threads = env.getRequiredProperty("load.threads", Integer.class);
+        this.hotAccounts = env.getRequiredProperty("load.hot-accounts", Integer.class);
+        this.hotRatio = env.getRequiredProperty("load.hot-ratio", Double.class);
+        this.drainTimeoutSeconds = env.getRequiredProperty("load.drain-timeout-seconds", Integer.class);
+        if (rate < 1)
+            throw new IllegalArgumentException("load.rate must be positive");
+
+        // npr. create-payment:40,transfer:20,approve-verification:40
+        String[] entries = env.getRequiredProperty("load.mix").split(",");
+        this.operations = new String[entries.length];
+        this.cumulativeWeights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].trim().split(":");
+            if (!List.of(CREATE_PAYMENT, TRANSFER, APPROVE_VERIFICATION).contains(parts[0]))
+                throw new IllegalArgumentException("Unknown load operation " + parts[0]);
+            operations[i] = parts[0];
+            total += Integer.parseInt(parts[1]);
+            cumulativeWeights[i] = total;
+        }
+
+        seedAccounts(env.getRequiredProperty("load.accounts", Integer.class));
+    }
+
+    void run() throws Exception {
+        log.info("Load: {} ops/s for {}s (+{}s warmup), {} accounts, {} threads, mix {}",
+                rate, durationSeconds, warmupSeconds, accounts.size(), threads, Arrays.toString(operations));
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        boolean measuring = warmupSeconds == 0;
+
+        // otvorena petlja: i-ta operacija je zakazana za start + i * interval, bez obzira da li su prethodne zavrsene
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * interval;
+            if (intendedStart >= end)
+                break;
+            if (!measuring && intendedStart >= measureFrom) {
+                loadMetrics.reset();
+                measuring = true;
+            }
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0)
+                LockSupport.parkNanos(delay);
+            String operation = pickOperation(ThreadLocalRandom.current());
+            workers.execute(() -> execute(operation, intendedStart));
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS))
+            log.warn("Workers did not finish within {}s", drainTimeoutSeconds);
+        drainMessages();
+
+        List<LoadMetrics.OperationReport> operationReports = loadMetrics.report(durationSeconds);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", rate);
+        report.put("durationSeconds", durationSeconds);
+        report.put("accounts", accounts.size());
+        report.put("hotAccounts", hotAccounts);
+        report.put("hotRatio", hotRatio);
+        report.put("operations", operationReports);
+        report.put("paymentsByStatus", paymentsByStatus());
+        report.put("ledgerImbalance", ledgerImbalance());
+        report.put("otherQueues", broker.otherQueueCounts());
+
+        printReport(operationReports, report);
+        String reportPath = context.getEnvironment().getProperty("load.report");
+        if (reportPath != null) {
+            context.getBean(ObjectMapper.class).writerWithDefaultPrettyPrinter().writeValue(new File(reportPath), report);
+            log.info("Load report written to {}", reportPath);
+        }
+        broker.shutdown();
+    }
+
+    private String pickOperation(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i])
+                return operations[i];
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(String operation, long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case CREATE_PAYMENT -> loadMetrics.record(operation, intendedStart, () -> createPayment(random));
+            case TRANSFER -> loadMetrics.record(operation, intendedStart, () -> createTransfer(random));
+            case APPROVE_VERIFICATION -> {
+                CreateVerificationRequestDto request = broker.pollVerification();
+                if (request == null)
+                    loadMetrics.skipped(operation);
+                else
+                    loadMetrics.record(operation, intendedStart, () -> approve(request));
+            }
+            default -> throw new IllegalStateException(operation);
+        }
+    }
+
+    private void createPayment(Random random) {
+        SyntheticAccount sender = pickSender(random);
+        SyntheticAccount receiver = pickReceiver(random, sender);
+
+        CreatePaymentDto dto = new CreatePaymentDto();
+        dto.setSenderAccountNumber(sender.accountNumber());
+        dto.setReceiverAccountNumber(receiver.accountNumber());
+        dto.setAmount(randomAmount(random));
+        dto.setPaymentCode("289");
+        dto.setPurposeOfPayment("Load test");
+        dto.setReferenceNumber(String.valueOf(random.nextInt(1_000_000)));
+        dto.setRecieverName("Client" + receiver.clientId());
+        try {
+            paymentService.createPaymentBeforeConfirmation(dto, sender.clientId());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void createTransfer(Random random) {
+        SyntheticAccount sender = pickSender(random);
+        SyntheticAccount receiver = pickReceiver(random, sender);
+
+        TransferDto dto = new TransferDto();
+        dto.setSenderAccountNumber(sender.accountNumber());
+        dto.setReceiverAccountNumber(receiver.accountNumber());
+        dto.setAmount(randomAmount(random));
+        try {
+            paymentService.createTransferPendingConfirmation(dto, sender.clientId());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // isto kao PaymentController confirm-payment / confirm-transfer posle potvrde u user-service-u
+    private void approve(CreateVerificationRequestDto request) {
+        TransactionType type = request.getVerificationType() == VerificationType.TRANSFER
+                ? TransactionType.CONFIRM_TRANSFER : TransactionType.CONFIRM_PAYMENT;
+        transactionQueueService.queueTransaction(type, request.getTargetId());
+    }
+
+    private SyntheticAccount pickSender(Random random) {
+        if (hotAccounts > 0 && random.nextDouble() < hotRatio)
+            return accounts.get(random.nextInt(Math.min(hotAccounts, accounts.size())));
+        return accounts.get(random.nextInt(accounts.size()));
+    }
+
+    private SyntheticAccount pickReceiver(Random random, SyntheticAccount sender) {
+        SyntheticAccount receiver;
+        do {
+            receiver = pickSender(random);
+        } while (receiver == sender);
+        return receiver;
+    }
+
+    private static BigDecimal randomAmount(Random random) {
+        return BigDecimal.valueOf(100 + random.nextInt(9_900), 2);
+    }
+
+    /// Racuni sa dovoljno sredstava i limitima da operacije padaju samo zbog takmicenja, ne zbog stanja.
+    /// Svaki peti racun je u EUR, pa deo placanja ide preko racuna banke (BootstrapData).
+    private void seedAccounts(int count) {
+        CurrencyRepository currencyRepository = context.getBean(CurrencyRepository.class);
+        Currency rsd = currencyRepository.findByCode("RSD").orElseThrow();
+        Currency eur = currencyRepository.findByCode("EUR").orElseThrow();
+
+        for (int from = 0; from < count; from += 500) {
+            int to = Math.min(count, from + 500);
+            int first = from;
+            transaction.executeWithoutResult(status -> {
+                for (int i = first; i < to; i++) {
+                    boolean foreign = i % 5 == 4;
+                    PersonalAccount account = PersonalAccount.builder()
+                            .accountNumber(String.format("33300019%010d", i))
+                            .name("Load " + i)
+                            .clientId(CLIENT_ID_OFFSET + i)
+                            .createdByEmployeeId(3L)
+                            .creationDate(LocalDate.now())
+                            .expirationDate(LocalDate.now().plusYears(5))
+                            .currency(foreign ? eur : rsd)
+                            .status(AccountStatus.ACTIVE)
+                            .type(foreign ? AccountType.FOREIGN : AccountType.CURRENT)
+                            .accountOwnerType(AccountOwnerType.PERSONAL)
+                            .balance(BigDecimal.valueOf(100_000_000))
+                            .availableBalance(BigDecimal.valueOf(100_000_000))
+                            .dailyLimit(BigDecimal.valueOf(1_000_000_000))
+                            .monthlyLimit(BigDecimal.valueOf(10_000_000_000L))
+                            .dailySpending(BigDecimal.ZERO)
+                            .monthlySpending(BigDecimal.ZERO)
+                            .build();
+                    entityManager.persist(account);
+                    accounts.add(new SyntheticAccount(account.getAccountNumber(), account.getClientId()));
+                }
+            });
+        }
+        log.info("Seeded {} load test accounts", count);
+    }
+
+    // ceka da relay posalje sve iz outbox-a i da particije obrade sve poruke
+    private void drainMessages() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        while (System.nanoTime() < deadline) {
+            Long unsent = transaction.execute(status -> entityManager
+                    .createQuery("SELECT COUNT(m) FROM OutboxMessage m WHERE m.sentAt IS NULL", Long.class)
+                    .getSingleResult());
+            if (unsent != null && unsent == 0 && broker.inFlight() == 0)
+                return;
+            Thread.sleep(100);
+        }
+        log.warn("Messages not drained within {}s", drainTimeoutSeconds);
+    }
+
+    private Map<String, Long> paymentsByStatus() {
+        Map<String, Long> counts = new TreeMap<>();
+        transaction.executeWithoutResult(status -> entityManager
+                .createQuery("SELECT p.status, COUNT(p) FROM payments p GROUP BY p.status", Object[].class)
+                .getResultList()
+                .forEach(row -> counts.put(String.valueOf(row[0]), (Long) row[1])));
+        return counts;
+    }
+
+    // zbir potrazuje - duguje po valuti, za ispravno knjizenje mora biti 0
+    private Map<String, BigDecimal> ledgerImbalance() {
+        Map<String, BigDecimal> imbalance = new TreeMap<>();
+        transaction.executeWithoutResult(status -> entityManager
+                .createQuery("SELECT l.currencyCode, l.direction, SUM(l.amount) FROM LedgerEntry l " +
+                        "GROUP BY l.currencyCode, l.direction", Object[].class)
+                .getResultList()
+                .forEach(row -> {
+                    BigDecimal amount = (BigDecimal) row[2];
+                    if (row[1] == LedgerEntryDirection.DEBIT)
+                        amount = amount.negate();
+                    imbalance.merge((String) row[0], amount, BigDecimal::add);
+                }));
+        return imbalance;
+    }
+
+    private void printReport(List<LoadMetrics.OperationReport> operationReports, Map<String, Object> report) {
+        StringBuilder table = new StringBuilder(String.format("%n%-22s %8s %7s %7s %9s %9s %9s %9s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "skipped", "ops/s", "p50 ms", "p99 ms", "max ms",
+                "blocked/op", "blocked ms", "waited/op", "waited ms"));
+        for (LoadMetrics.OperationReport r : operationReports) {
+            table.append(String.format("%-22s %8d %7d %7d %9.1f %9.2f %9.2f %9.2f %10.2f %10d %10.2f %10d%n",
+                    r.operation(), r.count(), r.errors(), r.skipped(), r.throughputPerSecond(), r.p50Ms(), r.p99Ms(),
+                    r.maxMs(), r.blockedPerOperation(), r.blockedMsTotal(), r.waitedPerOperation(), r.waitedMsTotal()));
+            if (!r.errorsByType().isEmpty())
+                table.append(String.format("%-22s errors: %s%n", "", r.errorsByType()));
+        }
+        table.append("payments by status: ").append(report.get("paymentsByStatus")).append('\n');
+        table.append("ledger imbalance: ").append(report.get("ledgerImbalance"));
+        log.info(table.toString());
+    }
+
+    private record SyntheticAccount(String accountNumber, Long clientId) {
+    }
+}
@@ -0,0 +1,78 @@
+package rs.raf.bank_service.load;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.domain.dto.*;
+
+import java.util.List;
+
+/// user-service za load test: svaki klijent postoji i ima ime izvedeno iz id-ja, bez HTTP poziva.
+/// Operacije koje placanja i transferi ne koriste nisu podrzane.
+class StubUserClient implements UserClient {
+
+    @Override
+    public ClientDto getClientById(Long id) {
+        return new ClientDto(id, "Load", "Client" + id);
+    }
+
+    @Override
+    public UserBatchDto getUsersByIds(UserBatchRequestDto request) {
+        UserBatchDto batch = new UserBatchDto();
+        request.getIds().forEach(id -> batch.getClients().add(getClientById(id)));
+        return batch;
+    }
+
+    @Override
+    public void checkToken(CheckTokenDto checkTokenDto) {
+    }
+
+    @Override
+    public CompanyDto getCompanyById(Long id) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<AuthorizedPersonelDto> getAuthorizedPersonnelByCompany(Long companyId) {
+        return List.of();
+    }
+
+    @Override
+    public void createVerificationRequest(CreateVerificationRequestDto request) {
+        throw unsupported();
+    }
+
+    @Override
+    public LoginResponseDto employeeLogin(LoginRequestDto request) {
+        throw unsupported();
+    }
+
+    @Override
+    public ClientDto addClient(CreateClientDto createClientDto) {
+        throw unsupported();
+    }
+
+    @Override
+    public void activateUser(ActivationRequestDto activationRequestDto) {
+        throw unsupported();
+    }
+
+    @Override
+    public ResponseEntity<Page<ClientDto>> getAllClients(String firstName, String lastName, String email, int page, int size) {
+        throw unsupported();
+    }
+
+    @Override
+    public LoginResponseDto clientLogin(LoginRequestDto request) {
+        throw unsupported();
+    }
+
+    @Override
+    public AuthorizedPersonelDto getAuthorizedPersonnelById(Long id) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not stubbed in load test");
+    }
+}
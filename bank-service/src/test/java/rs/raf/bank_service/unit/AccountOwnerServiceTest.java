@@ -0,0 +1,116 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.domain.dto.ClientDto;
+import rs.raf.bank_service.domain.dto.UserChangedEventDto;
+import rs.raf.bank_service.domain.entity.AccountOwner;
+import rs.raf.bank_service.domain.enums.UserEntityType;
+import rs.raf.bank_service.repository.AccountOwnerRepository;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.service.AccountOwnerService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountOwnerServiceTest {
+
+    @Mock
+    private AccountOwnerRepository accountOwnerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private UserClient userClient;
+
+    @InjectMocks
+    private AccountOwnerService accountOwnerService;
+
+    @Test
+    void onUserChanged_ClientUpdated_UpsertsOwner() {
+        accountOwnerService.onUserChanged(new UserChangedEventDto(UserEntityType.CLIENT, 5L, "Pera", "Peric", false, 3L));
+
+        ArgumentCaptor<AccountOwner> captor = ArgumentCaptor.forClass(AccountOwner.class);
+        verify(accountOwnerRepository).save(captor.capture());
+        assertEquals(5L, captor.getValue().getClientId());
+        assertEquals("Peric", captor.getValue().getLastName());
+    }
+
+    @Test
+    void onUserChanged_OlderVersion_KeepsNewerOwner() {
+        when(accountOwnerRepository.updateIfNotOlder(eq(5L), eq("Pera"), eq("Peric"), eq(2L), any(LocalDateTime.class))).thenReturn(0);
+        when(accountOwnerRepository.existsById(5L)).thenReturn(true);
+
+        accountOwnerService.onUserChanged(new UserChangedEventDto(UserEntityType.CLIENT, 5L, "Pera", "Peric", false, 2L));
+
+        verify(accountOwnerRepository, never()).save(any());
+    }
+
+    @Test
+    void onUserChanged_ClientDeleted_RemovesOwner() {
+        when(accountOwnerRepository.existsById(5L)).thenReturn(true);
+
+        accountOwnerService.onUserChanged(new UserChangedEventDto(UserEntityType.CLIENT, 5L, null, null, true, null));
+
+        verify(accountOwnerRepository).deleteById(5L);
+        verify(accountOwnerRepository, never()).save(any());
+    }
+
+    @Test
+    void onUserChanged_NotClient_Ignored() {
+        accountOwnerService.onUserChanged(new UserChangedEventDto(UserEntityType.COMPANY, 5L, null, null, false, null));
+
+        verifyNoInteractions(accountOwnerRepository);
+    }
+
+    @Test
+    void backfillOwners_ResolvesMissingClientsInOneCall() {
+        when(accountRepository.findClientIdsWithoutOwner(any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userClient.getClientsByIds(List.of(1L, 2L))).thenReturn(Map.of(1L, new ClientDto(1L, "Ana", "Popovic")));
+
+        accountOwnerService.backfillOwners();
+
+        verify(userClient, times(1)).getClientsByIds(any());
+        verify(accountOwnerRepository, times(1)).save(any(AccountOwner.class));
+        verify(accountOwnerRepository).markSynced(eq(List.of(2L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void backfillOwners_RefreshesStaleOwners() {
+        when(accountRepository.findClientIdsWithoutOwner(any(Pageable.class))).thenReturn(List.of());
+        when(accountOwnerRepository.findClientIdsSyncedBefore(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(3L));
+        when(userClient.getClientsByIds(List.of(3L))).thenReturn(Map.of(3L, new ClientDto(3L, "Ana", "Markovic")));
+
+        accountOwnerService.backfillOwners();
+
+        ArgumentCaptor<AccountOwner> captor = ArgumentCaptor.forClass(AccountOwner.class);
+        verify(accountOwnerRepository).save(captor.capture());
+        assertEquals("Markovic", captor.getValue().getLastName());
+    }
+
+    @Test
+    void backfillOwners_UserServiceUnavailable_KeepsExistingRows() {
+        when(accountRepository.findClientIdsWithoutOwner(any(Pageable.class))).thenReturn(List.of());
+        when(accountOwnerRepository.findClientIdsSyncedBefore(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(3L));
+        when(userClient.getClientsByIds(List.of(3L))).thenReturn(Map.of());
+
+        accountOwnerService.backfillOwners();
+
+        verify(accountOwnerRepository, never()).save(any());
+        verify(accountOwnerRepository, never()).markSynced(any(), any());
+    }
+}
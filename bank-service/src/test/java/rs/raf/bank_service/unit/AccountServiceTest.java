@@ -10,7 +10,9 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.*;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.entity.Currency;
@@ -20,8 +22,13 @@ import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.ChangeLimitRequestRepository;
 import rs.raf.bank_service.repository.CompanyAccountRepository;
 import rs.raf.bank_service.repository.CurrencyRepository;
+import rs.raf.bank_service.service.AccountNumberAllocator;
+import rs.raf.bank_service.service.AccountOwnerService;
 import rs.raf.bank_service.service.AccountService;
 import rs.raf.bank_service.service.ExchangeRateService;
+import rs.raf.bank_service.service.LedgerService;
+import rs.raf.bank_service.service.OutboxService;
+import rs.raf.bank_service.service.SpendingLimitService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -29,6 +36,9 @@ import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 public class AccountServiceTest {
@@ -60,6 +70,21 @@ public class AccountServiceTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private AccountOwnerService accountOwnerService;
+
+    @Mock
+    private SpendingLimitService spendingLimitService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private AccountNumberAllocator accountNumberAllocator = new AccountNumberAllocator(sequence(), 100);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -103,6 +128,26 @@ public class AccountServiceTest {
         assertEquals("Pera Peric", result.getAccountOwner());
     }
 
+    @Test
+    void getAccountDetails_IncludesLedgerTail() {
+        Account acc = new PersonalAccount();
+        acc.setAccountNumber("123");
+        acc.setClientId(1L);
+        acc.setAccountOwnerType(AccountOwnerType.STUDENT);
+        acc.setBalance(BigDecimal.valueOf(100));
+        acc.setAvailableBalance(BigDecimal.valueOf(80));
+
+        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(acc));
+        when(userClient.getClientById(1L)).thenReturn(new ClientDto(1L, "Pera", "Peric"));
+        when(ledgerService.getAccountBalances(List.of("123"))).thenReturn(Map.of(
+                "123", new LedgerService.AccountBalances(BigDecimal.valueOf(150), BigDecimal.valueOf(130))));
+
+        AccountDetailsDto result = accountService.getAccountDetails("EMPLOYEE", 1L, "123");
+
+        assertEquals(BigDecimal.valueOf(150), result.getBalance());
+        assertEquals(BigDecimal.valueOf(130), result.getAvailableBalance());
+    }
+
     @Test
     void shouldReturnDetailsDtoForAdminOrOtherRole() {
         Account acc = new CompanyAccount();
@@ -217,8 +262,6 @@ public class AccountServiceTest {
     @Test
     void getAccounts_FilterByFirstAndLastName_Success() {
         String accountNumber = "123";
-        String firstName = "john";
-        String lastName = "doe";
         Pageable pageable = PageRequest.of(0, 10);
 
         ClientDto clientDto = new ClientDto(1L, "John", "Doe");
@@ -227,40 +270,38 @@ public class AccountServiceTest {
         account.setClientId(1L);
         account.setAccountNumber(accountNumber);
 
-        //when(accountRepository.findAll(any())).thenReturn(List.of(account));
-        when(accountRepository.findAll(any(Specification.class))).thenReturn(Arrays.asList(account));
-        when(userClient.getClientById(1L)).thenReturn(clientDto);
+        when(accountRepository.searchByOwnerName(eq(accountNumber), eq("john"), eq("doe"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(account), pageable, 1));
+        when(userClient.getClientsByIds(List.of(1L))).thenReturn(Map.of(1L, clientDto));
 
-        Page<AccountDto> result = accountService.getAccounts(accountNumber, firstName, lastName, pageable);
+        Page<AccountDto> result = accountService.getAccounts(accountNumber, "John", " Doe ", pageable);
 
         assertEquals(1, result.getTotalElements());
         assertEquals(accountNumber, result.getContent().get(0).getAccountNumber());
+        assertEquals("John", result.getContent().get(0).getOwner().getFirstName());
     }
 
     @Test
     void getAccounts_PaginationOnly_Success() {
-        String accountNumber = "acc";
-        Pageable pageable = PageRequest.of(0, 1);
+        Pageable pageable = PageRequest.of(1, 1, Sort.by("owner.lastName"));
 
-        ClientDto clientDto1 = new ClientDto(1L, "Ana", "Popovic");
         ClientDto clientDto2 = new ClientDto(2L, "Ivan", "Zoric");
 
-        PersonalAccount acc1 = new PersonalAccount();
-        acc1.setAccountNumber("acc1");
-        acc1.setClientId(1L);
         PersonalAccount acc2 = new PersonalAccount();
         acc2.setAccountNumber("acc2");
         acc2.setClientId(2L);
 
-        when(accountRepository.findAll(any(Specification.class))).thenReturn(Arrays.asList(acc1, acc2));
-
-        when(userClient.getClientById(1L)).thenReturn(clientDto1);
-        when(userClient.getClientById(2L)).thenReturn(clientDto2);
+        when(accountRepository.searchByOwnerName(eq("acc"), eq(""), eq(""), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(acc2), PageRequest.of(1, 1), 2));
+        when(userClient.getClientsByIds(List.of(2L))).thenReturn(Map.of(2L, clientDto2));
 
-        Page<AccountDto> result = accountService.getAccounts(accountNumber, null, null, pageable);
+        Page<AccountDto> result = accountService.getAccounts("acc", null, null, pageable);
 
         assertEquals(1, result.getContent().size());
-        assertEquals("acc1", result.getContent().get(0).getAccountNumber());
+        assertEquals(2, result.getTotalElements());
+        assertEquals("acc2", result.getContent().get(0).getAccountNumber());
+        // sortiranje je u upitu, pa se u repozitorijum salje nesortiran Pageable
+        verify(accountRepository).searchByOwnerName(eq("acc"), eq(""), eq(""), eq(PageRequest.of(1, 1)));
     }
 
     @Test
@@ -288,27 +329,17 @@ public class AccountServiceTest {
 
     @Test
     void getAccounts_FilterByNonMatchingName_EmptyResult() {
-        String accountNumber = "acc";
-        String firstName = "marko";
-        String lastName = "markovic";
         Pageable pageable = PageRequest.of(0, 10);
 
-        PersonalAccount acc = new PersonalAccount();
-        acc.setClientId(1L);
-        acc.setAccountNumber(accountNumber);
-
-        when(accountRepository.findAll((Specification<Account>) any(Specification.class)))
-                .thenReturn(Arrays.asList(acc));
-
-        when(userClient.getClientById(1L)).thenReturn(new ClientDto(1L, "Ana", "Popovic"));
+        when(accountRepository.searchByOwnerName(eq("acc"), eq("marko"), eq("markovic"), any(Pageable.class)))
+                .thenReturn(Page.empty(pageable));
+        when(userClient.getClientsByIds(List.of())).thenReturn(Map.of());
 
-        Page<AccountDto> result = accountService.getAccounts(accountNumber, firstName, lastName, pageable);
+        Page<AccountDto> result = accountService.getAccounts("acc", "marko", "markovic", pageable);
 
         assertEquals(0, result.getTotalElements());
     }
 
-
-
     @Test
     void changeAccountName_Success() {
         String accountNumber = "123";
@@ -368,7 +399,7 @@ public class AccountServiceTest {
 
         accountService.requestAccountLimitChange(accountNumber, limit, auth);
 
-        verify(userClient).createVerificationRequest(any());
+        verify(outboxService).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), any(CreateVerificationRequestDto.class));
     }
 
     @Test
@@ -395,6 +426,7 @@ public class AccountServiceTest {
         assertEquals(BigDecimal.valueOf(3000), account.getDailyLimit());
         assertEquals(VerificationStatus.APPROVED, request.getStatus());
         verify(accountRepository).save(account);
+        verify(spendingLimitService).updateLimits(account);
     }
 
     @Test
@@ -409,17 +441,47 @@ public class AccountServiceTest {
     void getMyAccounts_Success() {
         Long clientId = 1L;
 
-        Account acc = new PersonalAccount();
-        acc.setAccountNumber("123");
-        acc.setAvailableBalance(BigDecimal.valueOf(100));
-        List<Account> accountList = List.of(acc);
+        AccountRepository.AccountListRow low = mock(AccountRepository.AccountListRow.class);
+        when(low.getAccountNumber()).thenReturn("123");
+        when(low.getAvailableBalance()).thenReturn(BigDecimal.valueOf(100));
+        AccountRepository.AccountListRow high = mock(AccountRepository.AccountListRow.class);
+        when(high.getAccountNumber()).thenReturn("456");
+        when(high.getAvailableBalance()).thenReturn(BigDecimal.valueOf(500));
+        when(high.getCurrencyCode()).thenReturn("EUR");
 
         when(userClient.getClientById(clientId)).thenReturn(new ClientDto(clientId, "John", "Doe"));
-        when(accountRepository.findAllByClientId(clientId)).thenReturn(accountList);
+        when(accountRepository.findListRowsByClientId(clientId)).thenReturn(List.of(low, high));
 
         List<AccountDto> result = accountService.getMyAccounts(clientId);
-        assertEquals(1, result.size());
-        assertEquals("123", result.get(0).getAccountNumber());
+        assertEquals(2, result.size());
+        assertEquals("456", result.get(0).getAccountNumber());
+        assertEquals("EUR", result.get(0).getCurrencyCode());
+        assertEquals("123", result.get(1).getAccountNumber());
+    }
+
+    @Test
+    void getMyAccounts_IncludesLedgerTailAndSortsByIt() {
+        Long clientId = 1L;
+
+        AccountRepository.AccountListRow first = mock(AccountRepository.AccountListRow.class);
+        when(first.getAccountNumber()).thenReturn("123");
+        when(first.getAvailableBalance()).thenReturn(BigDecimal.valueOf(500));
+        AccountRepository.AccountListRow second = mock(AccountRepository.AccountListRow.class);
+        when(second.getAccountNumber()).thenReturn("456");
+        when(second.getAvailableBalance()).thenReturn(BigDecimal.valueOf(100));
+
+        when(userClient.getClientById(clientId)).thenReturn(new ClientDto(clientId, "John", "Doe"));
+        when(accountRepository.findListRowsByClientId(clientId)).thenReturn(List.of(first, second));
+        // uplata na 456 je proknjizena, ali jos nije u snapshot-u
+        when(ledgerService.getAccountBalances(List.of("123", "456"))).thenReturn(Map.of(
+                "123", new LedgerService.AccountBalances(BigDecimal.valueOf(500), BigDecimal.valueOf(500)),
+                "456", new LedgerService.AccountBalances(BigDecimal.valueOf(900), BigDecimal.valueOf(900))));
+
+        List<AccountDto> result = accountService.getMyAccounts(clientId);
+
+        assertEquals("456", result.get(0).getAccountNumber());
+        assertEquals(BigDecimal.valueOf(900), result.get(0).getAvailableBalance());
+        assertEquals(BigDecimal.valueOf(900), result.get(0).getBalance());
     }
 
     @Test
@@ -689,8 +751,7 @@ public class AccountServiceTest {
 
         ClientDto clientDto1 = new ClientDto(10L, "Alice", "Smith");
         ClientDto clientDto2 = new ClientDto(20L, "Bob", "Johnson");
-        when(userClient.getClientById(10L)).thenReturn(clientDto1);
-        when(userClient.getClientById(20L)).thenReturn(clientDto2);
+        when(userClient.getClientsByIds(List.of(10L, 20L))).thenReturn(Map.of(10L, clientDto1, 20L, clientDto2));
 
         CompanyAccount bankAccount = new CompanyAccount();
         bankAccount.setAccountNumber("999");
@@ -705,130 +766,129 @@ public class AccountServiceTest {
         assertEquals("111", result.get(0).getAccountNumber());
         assertEquals("222", result.get(1).getAccountNumber());
         assertEquals("999", result.get(2).getAccountNumber());
+        assertEquals("Alice", result.get(0).getOwner().getFirstName());
+        verify(userClient, never()).getClientById(any());
     }
 
     @Test
     void updateAvailableBalance_Success() {
-        // Arrange
         CompanyAccount account = CompanyAccount.builder().accountNumber("123").availableBalance(new BigDecimal(1000))
                 .currency(Currency.builder().code("RSD").build()).build();
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(account);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(usdToRsd());
+        when(ledgerService.getAvailableBalance(account)).thenReturn(new BigDecimal(1000));
 
-        CurrencyDto currencyDto1 = new CurrencyDto();
-        currencyDto1.setCode("USD");
-        CurrencyDto currencyDto2 = new CurrencyDto();
-        currencyDto2.setCode("RSD");
-        ExchangeRateDto exchangeRateDto = new ExchangeRateDto(currencyDto1, currencyDto2,
-                new BigDecimal(100), new BigDecimal(100));
-
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(account));
-        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(exchangeRateDto);
-
-        // Act & Assert
         accountService.updateAvailableBalance("123", new BigDecimal(1));
 
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(new BigDecimal(900), account.getAvailableBalance());
+        verify(accountRepository).adjustAvailableBalance("123", new BigDecimal("-100.00"));
+        verify(accountRepository, never()).save(any(Account.class));
     }
 
     @Test
     void updateAvailableBalance_AccountNotFound() {
-        // Arrange
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(null);
 
-        // Act & Assert
         AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.updateAvailableBalance("123", new BigDecimal(1));
         });
 
         assertEquals("Account not found", exception.getMessage());
-        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountRepository, never()).adjustAvailableBalance(anyString(), any());
     }
 
     @Test
     void updateAvailableBalance_InsufficientFunds() {
-        // Arrange
         CompanyAccount account = CompanyAccount.builder().accountNumber("123").availableBalance(new BigDecimal(900))
                 .currency(Currency.builder().code("RSD").build()).build();
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(account);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(usdToRsd());
+        // stanje iz ledger-a (snapshot + stavke posle njega), ne samo kolona na racunu
+        when(ledgerService.getAvailableBalance(account)).thenReturn(new BigDecimal(900));
 
-        CurrencyDto currencyDto1 = new CurrencyDto();
-        currencyDto1.setCode("USD");
-        CurrencyDto currencyDto2 = new CurrencyDto();
-        currencyDto2.setCode("RSD");
-        ExchangeRateDto exchangeRateDto = new ExchangeRateDto(currencyDto1, currencyDto2,
-                new BigDecimal(100), new BigDecimal(100));
-
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(account));
-        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(exchangeRateDto);
-        // Act & Assert
-        // Act & Assert
         InsufficientFundsException exception = assertThrows(InsufficientFundsException.class, () -> {
             accountService.updateAvailableBalance("123", new BigDecimal(10));
         });
 
-        assertEquals("Insufficient funds: Available balance 900 is less than transfer amount 1000", exception.getMessage());
-        verify(accountRepository, never()).save(any(Account.class));
+        assertEquals("Insufficient funds: Available balance 900 is less than transfer amount 1000.00", exception.getMessage());
+        verify(accountRepository, never()).adjustAvailableBalance(anyString(), any());
     }
 
     @Test
-    void updateBalance_Success() {
-        // Arrange
-        CompanyAccount account = CompanyAccount.builder().accountNumber("123").balance(new BigDecimal(1000))
+    void updateAvailableBalance_NegativeAmountReleasesReservation() {
+        CompanyAccount account = CompanyAccount.builder().accountNumber("123").availableBalance(BigDecimal.ZERO)
                 .currency(Currency.builder().code("RSD").build()).build();
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(account);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(usdToRsd());
+        when(ledgerService.getAvailableBalance(account)).thenReturn(BigDecimal.ZERO);
 
-        CurrencyDto currencyDto1 = new CurrencyDto();
-        currencyDto1.setCode("USD");
-        CurrencyDto currencyDto2 = new CurrencyDto();
-        currencyDto2.setCode("RSD");
-        ExchangeRateDto exchangeRateDto = new ExchangeRateDto(currencyDto1, currencyDto2,
-                new BigDecimal(100), new BigDecimal(100));
+        accountService.updateAvailableBalance("123", new BigDecimal(-2));
 
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(account));
-        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(exchangeRateDto);
+        verify(accountRepository).adjustAvailableBalance("123", new BigDecimal("200.00"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateBalance_Success() {
+        Currency rsd = Currency.builder().code("RSD").build();
+        CompanyAccount account = CompanyAccount.builder().accountNumber("123").balance(new BigDecimal(1000)).currency(rsd).build();
+        CompanyAccount bank = CompanyAccount.builder().accountNumber("BANK").companyId(1L).currency(rsd).build();
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(account);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(usdToRsd());
+        when(ledgerService.getBalance(account)).thenReturn(new BigDecimal(1000));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(rsd, 1L)).thenReturn(Optional.of(bank));
 
-        // Act & Assert
         accountService.updateBalance("123", new BigDecimal(1));
 
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(new BigDecimal(900), account.getBalance());
+        ArgumentCaptor<List<LedgerEntry>> legs = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).post(eq(PostingType.SECURITIES_ORDER), legs.capture());
+        assertEquals("123", legs.getValue().get(0).getAccountNumber());
+        assertEquals(LedgerEntryDirection.DEBIT, legs.getValue().get(0).getDirection());
+        assertEquals("BANK", legs.getValue().get(1).getAccountNumber());
+        // rezervacija se trosi za isti iznos
+        verify(accountRepository).adjustAvailableBalance("123", new BigDecimal("100.00"));
+        verify(accountRepository, never()).save(any(Account.class));
     }
 
     @Test
     void updateBalance_AccountNotFound() {
-        // Arrange
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(null);
 
-        // Act & Assert
         AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.updateBalance("123", new BigDecimal(1));
         });
 
         assertEquals("Account not found", exception.getMessage());
-        verify(accountRepository, never()).save(any(Account.class));
+        verify(ledgerService, never()).post(any(), anyList());
     }
 
     @Test
     void updateBalance_InsufficientFunds() {
-        // Arrange
         CompanyAccount account = CompanyAccount.builder().accountNumber("123").balance(new BigDecimal(900))
                 .currency(Currency.builder().code("RSD").build()).build();
+        when(accountRepository.findByIdForUpdate("123")).thenReturn(account);
+        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(usdToRsd());
+        when(ledgerService.getBalance(account)).thenReturn(new BigDecimal(900));
 
-        CurrencyDto currencyDto1 = new CurrencyDto();
-        currencyDto1.setCode("USD");
-        CurrencyDto currencyDto2 = new CurrencyDto();
-        currencyDto2.setCode("RSD");
-        ExchangeRateDto exchangeRateDto = new ExchangeRateDto(currencyDto1, currencyDto2,
-                new BigDecimal(100), new BigDecimal(100));
-
-        when(accountRepository.findByAccountNumber("123")).thenReturn(Optional.of(account));
-        when(exchangeRateService.getExchangeRate("USD", "RSD")).thenReturn(exchangeRateDto);
-        // Act & Assert
-        // Act & Assert
         InsufficientFundsException exception = assertThrows(InsufficientFundsException.class, () -> {
             accountService.updateBalance("123", new BigDecimal(10));
         });
 
-        assertEquals("Insufficient funds: Available balance 900 is less than transfer amount 1000", exception.getMessage());
-        verify(accountRepository, never()).save(any(Account.class));
+        assertEquals("Insufficient funds: Available balance 900 is less than transfer amount 1000.00", exception.getMessage());
+        verify(ledgerService, never()).post(any(), anyList());
+        verify(accountRepository, never()).adjustAvailableBalance(anyString(), any());
+    }
+
+    private static ExchangeRateDto usdToRsd() {
+        CurrencyDto usd = new CurrencyDto();
+        usd.setCode("USD");
+        CurrencyDto rsd = new CurrencyDto();
+        rsd.setCode("RSD");
+        return new ExchangeRateDto(usd, rsd, new BigDecimal(100), new BigDecimal(100));
     }
-}
 
+    private static JdbcTemplate sequence() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,101 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.CardChangedEventDto;
+import rs.raf.bank_service.domain.entity.Card;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.PersonalAccount;
+import rs.raf.bank_service.domain.enums.CardStatus;
+import rs.raf.bank_service.repository.CardRepository;
+import rs.raf.bank_service.service.ActiveCardIndex;
+import rs.raf.bank_service.service.OutboxService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveCardIndexTest {
+
+    @Mock private CardRepository cardRepository;
+    @Mock private OutboxService outboxService;
+
+    private ActiveCardIndex activeCardIndex;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        activeCardIndex = new ActiveCardIndex(cardRepository, outboxService);
+
+        PersonalAccount account = new PersonalAccount();
+        account.setAccountNumber("111111");
+        account.setCurrency(new Currency("RSD"));
+        card = new Card();
+        card.setId(7L);
+        card.setCardNumber("4333331234567890");
+        card.setCvv("123");
+        card.setAccount(account);
+        card.setExpirationDate(LocalDate.now().plusYears(1));
+        card.setStatus(CardStatus.ACTIVE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void update_WithoutTransaction_AppliedImmediately() {
+        activeCardIndex.update(card);
+
+        assertEquals("111111", activeCardIndex.get(card.getCardNumber()).accountNumber());
+        verify(outboxService).enqueue(eq(RabbitMQConfig.CARD_EVENTS_EXCHANGE), eq(""), any(CardChangedEventDto.class));
+    }
+
+    @Test
+    void update_InTransaction_AppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        activeCardIndex.update(card);
+        assertNull(activeCardIndex.get(card.getCardNumber()));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertNotNull(activeCardIndex.get(card.getCardNumber()));
+    }
+
+    @Test
+    void update_TransactionRolledBack_IndexUnchanged() {
+        activeCardIndex.update(card);
+        card.setStatus(CardStatus.BLOCKED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        activeCardIndex.update(card);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertNotNull(activeCardIndex.get(card.getCardNumber()));
+    }
+
+    @Test
+    void onCardChanged_ReloadsCardFromDatabase() {
+        activeCardIndex.update(card);
+        when(cardRepository.findActiveCard(card.getCardNumber(), CardStatus.ACTIVE)).thenReturn(Optional.empty());
+
+        activeCardIndex.onCardChanged(new CardChangedEventDto(card.getCardNumber()));
+
+        assertNull(activeCardIndex.get(card.getCardNumber()));
+    }
+}
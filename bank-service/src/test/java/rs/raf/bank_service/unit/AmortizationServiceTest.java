@@ -0,0 +1,145 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rs.raf.bank_service.domain.entity.Installment;
+import rs.raf.bank_service.domain.entity.Loan;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
+import rs.raf.bank_service.domain.enums.LoanStatus;
+import rs.raf.bank_service.service.AmortizationService;
+import rs.raf.bank_service.specification.LoanRateCalculator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AmortizationServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AmortizationService amortizationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        amortizationService = new AmortizationService(meterRegistry, 100);
+    }
+
+    @Test
+    void testInstallmentAmountMatchesRateCalculator() {
+        for (String rate : List.of("6.0", "8.25", "12.5")) {
+            for (int months : List.of(12, 60, 360)) {
+                BigDecimal principal = new BigDecimal("250000");
+                assertEquals(LoanRateCalculator.calculateMonthlyRate(principal, new BigDecimal(rate), months),
+                        amortizationService.installmentAmount(principal, new BigDecimal(rate), months));
+            }
+        }
+    }
+
+    @Test
+    void testAnnuityFactorIsCached() {
+        amortizationService.installmentAmount(new BigDecimal("1000"), new BigDecimal("6.0"), 12);
+        amortizationService.installmentAmount(new BigDecimal("5000"), new BigDecimal("6.00"), 12);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "amortization.annuity-factors")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testZeroRateSplitsPrincipalEvenly() {
+        assertEquals(new BigDecimal("100.00"), amortizationService.installmentAmount(new BigDecimal("1200"), BigDecimal.ZERO, 12));
+    }
+
+    @Test
+    void testScheduleRepaysPrincipalExactly() {
+        BigDecimal principal = new BigDecimal("10000");
+        List<AmortizationService.ScheduleRow> rows = amortizationService.schedule(principal, new BigDecimal("8.0"), 12);
+
+        assertEquals(12, rows.size());
+        assertEquals(0, rows.get(11).remainingPrincipal().signum());
+        assertEquals(0, principal.compareTo(rows.stream().map(AmortizationService.ScheduleRow::principal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        // kamata opada, glavnica raste
+        assertTrue(rows.get(0).interest().compareTo(rows.get(10).interest()) > 0);
+        assertTrue(rows.get(0).principal().compareTo(rows.get(10).principal()) < 0);
+        for (AmortizationService.ScheduleRow row : rows)
+            assertEquals(row.amount(), row.interest().add(row.principal()));
+    }
+
+    @Test
+    void testCreateInstallmentsSetsNumbersAndDueDates() {
+        Loan loan = Loan.builder().amount(new BigDecimal("6000")).effectiveInterestRate(new BigDecimal("6.0")).repaymentPeriod(6).build();
+        LocalDate first = LocalDate.of(2025, 1, 31);
+
+        List<Installment> installments = amortizationService.createInstallments(loan, first);
+
+        assertEquals(6, installments.size());
+        assertEquals(1, installments.get(0).getInstallmentNumber());
+        assertEquals(LocalDate.of(2025, 2, 28), installments.get(1).getExpectedDueDate());
+        assertTrue(installments.stream().allMatch(i -> i.getInstallmentStatus() == InstallmentStatus.UNPAID && i.getLoan() == loan));
+    }
+
+    @Test
+    void testApplyPaymentMovesToNextInstallment() {
+        Loan loan = Loan.builder().amount(new BigDecimal("6000")).effectiveInterestRate(new BigDecimal("6.0")).repaymentPeriod(6)
+                .remainingDebt(new BigDecimal("6000")).status(LoanStatus.APPROVED).build();
+        List<Installment> installments = amortizationService.createInstallments(loan, LocalDate.now());
+
+        amortizationService.applyPayment(loan, installments.subList(0, 2), installments.get(0).getAmount(), LocalDate.now());
+
+        assertEquals(InstallmentStatus.PAID, installments.get(0).getInstallmentStatus());
+        assertEquals(LocalDate.now(), installments.get(0).getActualDueDate());
+        assertEquals(installments.get(1).getExpectedDueDate(), loan.getNextInstallmentDate());
+        assertEquals(installments.get(1).getAmount(), loan.getNextInstallmentAmount());
+        assertEquals(new BigDecimal("6000").subtract(installments.get(0).getAmount()), loan.getRemainingDebt());
+    }
+
+    @Test
+    void testApplyPaymentOnLastInstallmentPaysOffLoan() {
+        Loan loan = Loan.builder().amount(new BigDecimal("100")).effectiveInterestRate(new BigDecimal("6.0")).repaymentPeriod(1)
+                .remainingDebt(new BigDecimal("100")).status(LoanStatus.APPROVED).build();
+        List<Installment> installments = amortizationService.createInstallments(loan, LocalDate.now());
+
+        amortizationService.applyPayment(loan, installments, installments.get(0).getAmount(), LocalDate.now());
+
+        assertEquals(LoanStatus.PAID_OFF, loan.getStatus());
+        assertEquals(0, loan.getRemainingDebt().signum());
+    }
+
+    @Test
+    void testCompleteLegacySchedule_NumbersExistingAndAddsRemainingInstallments() {
+        Loan loan = Loan.builder().amount(new BigDecimal("6000")).effectiveInterestRate(new BigDecimal("6.0")).repaymentPeriod(6)
+                .remainingDebt(new BigDecimal("4000")).status(LoanStatus.APPROVED).build();
+        BigDecimal legacyAmount = LoanRateCalculator.calculateMonthlyRate(loan.getAmount(), loan.getEffectiveInterestRate(), 6);
+        Installment paid = new Installment(loan, legacyAmount, loan.getEffectiveInterestRate(), LocalDate.of(2025, 1, 31), InstallmentStatus.PAID);
+        Installment current = new Installment(loan, legacyAmount, loan.getEffectiveInterestRate(), LocalDate.of(2025, 2, 28), InstallmentStatus.UNPAID);
+
+        List<Installment> missing = amortizationService.completeLegacySchedule(loan, List.of(paid, current));
+
+        assertEquals(1, paid.getInstallmentNumber());
+        assertEquals(2, current.getInstallmentNumber());
+        assertNotNull(current.getRemainingPrincipal());
+        assertEquals(4, missing.size());
+        assertEquals(3, missing.get(0).getInstallmentNumber());
+        assertEquals(LocalDate.of(2025, 3, 28), missing.get(0).getExpectedDueDate());
+        assertEquals(0, missing.get(3).getRemainingPrincipal().signum());
+        assertTrue(missing.stream().allMatch(i -> i.getInstallmentStatus() == InstallmentStatus.UNPAID));
+
+        // posle uplate tekuce rate kredit prelazi na sledecu, ne na PAID_OFF
+        amortizationService.applyPayment(loan, List.of(current, missing.get(0)), legacyAmount, LocalDate.now());
+        assertEquals(LoanStatus.APPROVED, loan.getStatus());
+        assertEquals(missing.get(0).getExpectedDueDate(), loan.getNextInstallmentDate());
+    }
+
+    @Test
+    void testCompleteLegacySchedule_PaidOffLoanOnlyNumbersRows() {
+        Loan loan = Loan.builder().amount(new BigDecimal("6000")).effectiveInterestRate(new BigDecimal("6.0")).repaymentPeriod(6)
+                .remainingDebt(BigDecimal.ZERO).status(LoanStatus.PAID_OFF).build();
+        Installment paid = new Installment(loan, new BigDecimal("1000"), loan.getEffectiveInterestRate(), LocalDate.of(2025, 1, 31), InstallmentStatus.PAID);
+
+        assertTrue(amortizationService.completeLegacySchedule(loan, List.of(paid)).isEmpty());
+        assertEquals(1, paid.getInstallmentNumber());
+    }
+}
@@ -0,0 +1,325 @@
+package rs.raf.bank_service.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
+import rs.raf.bank_service.domain.dto.*;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.mapper.BulkPaymentMapper;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.BulkPaymentValidationException;
+import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
+import rs.raf.bank_service.exceptions.RejectNonPendingRequestException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.BulkPaymentLineRepository;
+import rs.raf.bank_service.repository.BulkPaymentOrderRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+import rs.raf.bank_service.service.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkPaymentServiceTest {
+
+    @Mock private AccountRepository accountRepository;
+    @Mock private BulkPaymentOrderRepository bulkPaymentOrderRepository;
+    @Mock private BulkPaymentLineRepository bulkPaymentLineRepository;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private LedgerService ledgerService;
+    @Mock private SpendingLimitService spendingLimitService;
+    @Mock private ExchangeRateService exchangeRateService;
+    @Mock private TransactionQueueService transactionQueueService;
+    @Mock private OutboxService outboxService;
+    @Mock private UserClient userClient;
+
+    private BulkPaymentService bulkPaymentService;
+
+    private Currency rsd;
+    private Currency eur;
+    private CompanyAccount sender;
+
+    @BeforeEach
+    void init() {
+        bulkPaymentService = new BulkPaymentService(accountRepository, bulkPaymentOrderRepository, bulkPaymentLineRepository,
+                paymentRepository, ledgerService, spendingLimitService, exchangeRateService, transactionQueueService,
+                outboxService, userClient, new BulkPaymentMapper(), new ObjectMapper());
+        ReflectionTestUtils.setField(bulkPaymentService, "chunkSize", 2);
+
+        rsd = new Currency("RSD", "Dinar", "RSD", "RS", "Dinar", true);
+        eur = new Currency("EUR", "Euro", "EUR", "EU", "Euro", true);
+        sender = new CompanyAccount();
+        sender.setAccountNumber("COMPANY");
+        sender.setClientId(5L);
+        sender.setCompanyId(3L);
+        sender.setCurrency(rsd);
+    }
+
+    @Test
+    void testCreateBulkPayment_ReportsAllInvalidLines() {
+        when(accountRepository.findByAccountNumberAndClientId("COMPANY", 5L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findCurrencyCodes(anyCollection())).thenReturn(List.of(currency("R1", "RSD")));
+
+        CreateBulkPaymentDto dto = request(
+                line("R1", "100"),
+                line("MISSING", "100"),
+                line("R1", "-5"),
+                line("COMPANY", "10"));
+
+        BulkPaymentValidationException e = assertThrows(BulkPaymentValidationException.class,
+                () -> bulkPaymentService.createBulkPayment(dto, 5L));
+
+        assertEquals(List.of(2, 3, 4), e.getLineErrors().stream().map(BulkPaymentLineErrorDto::getLineNumber).toList());
+        verify(bulkPaymentOrderRepository, never()).save(any());
+        verify(spendingLimitService, never()).reserve(any(Account.class), any());
+    }
+
+    @Test
+    void testCreateBulkPayment_RejectsPersonalAccount() {
+        PersonalAccount personal = new PersonalAccount();
+        personal.setAccountNumber("COMPANY");
+        personal.setCurrency(rsd);
+        when(accountRepository.findByAccountNumberAndClientId("COMPANY", 5L)).thenReturn(Optional.of(personal));
+
+        assertThrows(BulkPaymentValidationException.class, () -> bulkPaymentService.createBulkPayment(request(line("R1", "1")), 5L));
+    }
+
+    @Test
+    void testCreateBulkPayment_ReservesTotalAndRequestsSingleVerification() throws Exception {
+        when(accountRepository.findByAccountNumberAndClientId("COMPANY", 5L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findCurrencyCodes(anyCollection())).thenReturn(List.of(currency("R1", "RSD"), currency("R2", "EUR")));
+        when(ledgerService.getAvailableBalance(sender)).thenReturn(new BigDecimal("100000"));
+        when(userClient.getClientById(5L)).thenReturn(new ClientDto(5L, "Pera", "Peric"));
+        when(exchangeRateService.getExchangeRate("RSD", "EUR"))
+                .thenReturn(new ExchangeRateDto(null, null, new BigDecimal("0.0085"), new BigDecimal("0.0080")));
+        when(bulkPaymentOrderRepository.save(any())).thenAnswer(invocation -> {
+            BulkPaymentOrder order = invocation.getArgument(0);
+            order.setId(9L);
+            return order;
+        });
+
+        BulkPaymentOrderDto result = bulkPaymentService.createBulkPayment(request(line("R1", "1500"), line("R2", "10000")), 5L);
+
+        assertEquals(BulkPaymentStatus.PENDING_CONFIRMATION, result.getStatus());
+        assertEquals(2, result.getLineCount());
+        assertEquals(0, new BigDecimal("11500").compareTo(result.getTotalAmount()));
+        verify(spendingLimitService).reserve(sender, Money.of(new BigDecimal("11500"), "RSD"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BulkPaymentLine>> lines = ArgumentCaptor.forClass(List.class);
+        verify(bulkPaymentLineRepository).saveAll(lines.capture());
+        assertEquals(2, lines.getValue().get(1).getLineNumber());
+        assertEquals(0, new BigDecimal("80").compareTo(lines.getValue().get(1).getOutAmount()));
+        assertEquals("Pera Peric", lines.getValue().get(0).getOrder().getSenderName());
+
+        ArgumentCaptor<CreateVerificationRequestDto> verification = ArgumentCaptor.forClass(CreateVerificationRequestDto.class);
+        verify(outboxService).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), verification.capture());
+        assertEquals(VerificationType.BULK_PAYMENT, verification.getValue().getVerificationType());
+        assertEquals(9L, verification.getValue().getTargetId());
+    }
+
+    @Test
+    void testConfirmBulkPayment_QueuesChunksToSenderPartition() {
+        BulkPaymentOrder order = order(BulkPaymentStatus.PENDING_CONFIRMATION, 5);
+        when(bulkPaymentOrderRepository.findById(9L)).thenReturn(Optional.of(order));
+
+        assertTrue(bulkPaymentService.confirmBulkPayment(9L));
+
+        assertEquals(BulkPaymentStatus.PROCESSING, order.getStatus());
+        ArgumentCaptor<BulkPaymentChunkDto> chunks = ArgumentCaptor.forClass(BulkPaymentChunkDto.class);
+        verify(transactionQueueService, times(3)).queueTransaction(eq(TransactionType.PAY_BULK_PAYMENT), chunks.capture(),
+                isNull(), eq("COMPANY"));
+        assertEquals(List.of(1, 3, 5), chunks.getAllValues().stream().map(BulkPaymentChunkDto::getFirstLine).toList());
+        assertEquals(5, chunks.getAllValues().get(2).getLastLine());
+
+        assertFalse(bulkPaymentService.confirmBulkPayment(9L));
+        verifyNoMoreInteractions(transactionQueueService);
+    }
+
+    @Test
+    void testRejectBulkPayment_CancelsLinesAndReleasesLimit() {
+        BulkPaymentOrder order = order(BulkPaymentStatus.PENDING_CONFIRMATION, 2);
+        when(bulkPaymentOrderRepository.findById(9L)).thenReturn(Optional.of(order));
+
+        bulkPaymentService.rejectBulkPayment(9L);
+
+        assertEquals(BulkPaymentStatus.CANCELED, order.getStatus());
+        verify(bulkPaymentLineRepository).updateStatus(9L, BulkPaymentLineStatus.PENDING, BulkPaymentLineStatus.CANCELED);
+        verify(spendingLimitService).release(sender, Money.of(new BigDecimal("3000"), "RSD"), LocalDate.now());
+        assertThrows(RejectNonPendingRequestException.class, () -> bulkPaymentService.rejectBulkPayment(9L));
+    }
+
+    @Test
+    void testExecuteChunk_PostsOnceAndRecordsPerLineResults() {
+        BulkPaymentOrder order = order(BulkPaymentStatus.PROCESSING, 4);
+        when(bulkPaymentOrderRepository.findById(9L)).thenReturn(Optional.of(order));
+        BulkPaymentLine local = pendingLine(order, 1, "R1", "1000");
+        BulkPaymentLine foreign = pendingLine(order, 2, "R2", "1000");
+        BulkPaymentLine missing = pendingLine(order, 3, "GONE", "10");
+        BulkPaymentLine tooMuch = pendingLine(order, 4, "R1", "5000");
+        when(bulkPaymentLineRepository.findChunk(9L, 1, 4, BulkPaymentLineStatus.PENDING))
+                .thenReturn(List.of(local, foreign, missing, tooMuch));
+        when(ledgerService.getAvailableBalance(sender)).thenReturn(new BigDecimal("3000"));
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(account("R1", rsd), account("R2", eur)));
+        when(exchangeRateService.getExchangeRate("RSD", "EUR"))
+                .thenReturn(new ExchangeRateDto(null, null, new BigDecimal("0.0085"), new BigDecimal("0.0080")));
+        CompanyAccount bankRsd = bankAccount("BANK-RSD", rsd);
+        CompanyAccount bankEur = bankAccount("BANK-EUR", eur);
+        when(accountRepository.findFirstByCurrencyAndCompanyId(rsd, 1L)).thenReturn(Optional.of(bankRsd));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(eur, 1L)).thenReturn(Optional.of(bankEur));
+        when(paymentRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            long id = 100;
+            for (Payment payment : invocation.<Collection<Payment>>getArgument(0))
+                payment.setId(id++);
+            return null;
+        });
+
+        bulkPaymentService.executeChunk(new BulkPaymentChunkDto(9L, 1, 4));
+
+        assertEquals(BulkPaymentLineStatus.COMPLETED, local.getStatus());
+        assertEquals(100L, local.getPaymentId());
+        assertEquals(0, new BigDecimal("8.50").compareTo(foreign.getOutAmount()));
+        assertEquals(BulkPaymentLineStatus.FAILED, missing.getStatus());
+        assertEquals("Receiver account not found.", missing.getFailureReason());
+        assertEquals(BulkPaymentLineStatus.FAILED, tooMuch.getStatus());
+        assertEquals("Insufficient funds.", tooMuch.getFailureReason());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> legs = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).post(eq(PostingType.BULK_PAYMENT), legs.capture());
+        // platilac i primalac po stavci + racuni banke za placanje u EUR
+        assertEquals(6, legs.getValue().size());
+        assertTrue(legs.getValue().stream().anyMatch(leg -> leg.getAccountNumber().equals("BANK-RSD")
+                && leg.getDirection() == LedgerEntryDirection.CREDIT));
+        assertTrue(legs.getValue().stream().anyMatch(leg -> leg.getAccountNumber().equals("BANK-EUR")
+                && leg.getDirection() == LedgerEntryDirection.DEBIT));
+
+        verify(spendingLimitService).release(sender, Money.of(new BigDecimal("5010"), "RSD"), LocalDate.now());
+        verify(bulkPaymentOrderRepository).recordResults(9L, 2, 2);
+        verify(bulkPaymentOrderRepository).completeIfFinished(eq(9L), any(LocalDateTime.class),
+                eq(BulkPaymentStatus.PROCESSING), eq(BulkPaymentStatus.COMPLETED));
+    }
+
+    @Test
+    void testExecuteChunk_MissingRateOrBankAccountFailsOnlyThatLine() {
+        Currency usd = new Currency("USD", "Dollar", "$", "US", "Dollar", true);
+        BulkPaymentOrder order = order(BulkPaymentStatus.PROCESSING, 3);
+        when(bulkPaymentOrderRepository.findById(9L)).thenReturn(Optional.of(order));
+        BulkPaymentLine local = pendingLine(order, 1, "R1", "1000");
+        BulkPaymentLine noRate = pendingLine(order, 2, "R2", "500");
+        BulkPaymentLine noBank = pendingLine(order, 3, "R3", "700");
+        when(bulkPaymentLineRepository.findChunk(9L, 1, 3, BulkPaymentLineStatus.PENDING))
+                .thenReturn(List.of(local, noRate, noBank));
+        when(ledgerService.getAvailableBalance(sender)).thenReturn(new BigDecimal("3000"));
+        when(accountRepository.findByAccountNumberIn(anyCollection()))
+                .thenReturn(List.of(account("R1", rsd), account("R2", eur), account("R3", usd)));
+        when(exchangeRateService.getExchangeRate("RSD", "EUR")).thenThrow(new ExchangeRateNotFoundException("RSD", "EUR"));
+        when(exchangeRateService.getExchangeRate("RSD", "USD"))
+                .thenReturn(new ExchangeRateDto(null, null, new BigDecimal("0.0093"), new BigDecimal("0.0090")));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(rsd, 1L)).thenReturn(Optional.of(bankAccount("BANK-RSD", rsd)));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(usd, 1L)).thenReturn(Optional.empty());
+
+        bulkPaymentService.executeChunk(new BulkPaymentChunkDto(9L, 1, 3));
+
+        assertEquals(BulkPaymentLineStatus.COMPLETED, local.getStatus());
+        assertEquals(BulkPaymentLineStatus.FAILED, noRate.getStatus());
+        assertEquals("Exchange rate not available.", noRate.getFailureReason());
+        assertEquals(BulkPaymentLineStatus.FAILED, noBank.getStatus());
+        assertEquals("Bank account not found.", noBank.getFailureReason());
+        verify(ledgerService).post(eq(PostingType.BULK_PAYMENT), argThat(legs -> legs.size() == 2));
+        verify(spendingLimitService).release(sender, Money.of(new BigDecimal("1200"), "RSD"), LocalDate.now());
+        verify(bulkPaymentOrderRepository).recordResults(9L, 1, 2);
+    }
+
+    @Test
+    void testExecuteChunk_SkipsRedeliveredChunk() {
+        when(bulkPaymentOrderRepository.findById(9L)).thenReturn(Optional.of(order(BulkPaymentStatus.PROCESSING, 2)));
+        when(bulkPaymentLineRepository.findChunk(9L, 1, 2, BulkPaymentLineStatus.PENDING)).thenReturn(List.of());
+
+        bulkPaymentService.executeChunk(new BulkPaymentChunkDto(9L, 1, 2));
+
+        verifyNoInteractions(ledgerService, paymentRepository);
+        verify(bulkPaymentOrderRepository, never()).recordResults(anyLong(), anyInt(), anyInt());
+    }
+
+    private BulkPaymentOrder order(BulkPaymentStatus status, int lineCount) {
+        BulkPaymentOrder order = new BulkPaymentOrder();
+        order.setId(9L);
+        order.setClientId(5L);
+        order.setSenderAccount(sender);
+        order.setSenderName("Firma");
+        order.setStatus(status);
+        order.setLineCount(lineCount);
+        order.setTotalAmount(new BigDecimal("3000"));
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    private static BulkPaymentLine pendingLine(BulkPaymentOrder order, int lineNumber, String receiver, String amount) {
+        BulkPaymentLine line = new BulkPaymentLine();
+        line.setOrder(order);
+        line.setLineNumber(lineNumber);
+        line.setReceiverAccountNumber(receiver);
+        line.setAmount(new BigDecimal(amount));
+        line.setPaymentCode("240");
+        line.setPurposeOfPayment("Zarada");
+        line.setStatus(BulkPaymentLineStatus.PENDING);
+        return line;
+    }
+
+    private static PersonalAccount account(String accountNumber, Currency currency) {
+        PersonalAccount account = new PersonalAccount();
+        account.setAccountNumber(accountNumber);
+        account.setClientId(50L);
+        account.setCurrency(currency);
+        return account;
+    }
+
+    private static CompanyAccount bankAccount(String accountNumber, Currency currency) {
+        CompanyAccount account = new CompanyAccount();
+        account.setAccountNumber(accountNumber);
+        account.setCompanyId(1L);
+        account.setCurrency(currency);
+        return account;
+    }
+
+    private static AccountRepository.AccountCurrency currency(String accountNumber, String currencyCode) {
+        return new AccountRepository.AccountCurrency() {
+            @Override
+            public String getAccountNumber() {
+                return accountNumber;
+            }
+
+            @Override
+            public String getCurrencyCode() {
+                return currencyCode;
+            }
+        };
+    }
+
+    private static BulkPaymentLineRequestDto line(String receiver, String amount) {
+        return new BulkPaymentLineRequestDto(receiver, "Primalac", new BigDecimal(amount), "240", "Zarada", null);
+    }
+
+    private static CreateBulkPaymentDto request(BulkPaymentLineRequestDto... lines) {
+        CreateBulkPaymentDto dto = new CreateBulkPaymentDto();
+        dto.setSenderAccountNumber("COMPANY");
+        dto.setLines(List.of(lines));
+        return dto;
+    }
+}
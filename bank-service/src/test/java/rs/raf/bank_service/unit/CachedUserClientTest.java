@@ -0,0 +1,134 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.bank_service.client.CachedUserClient;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.client.UserClientFallbackFactory;
+import rs.raf.bank_service.domain.dto.ClientDto;
+import rs.raf.bank_service.domain.dto.CompanyDto;
+import rs.raf.bank_service.domain.dto.UserBatchDto;
+import rs.raf.bank_service.domain.dto.UserBatchRequestDto;
+import rs.raf.bank_service.domain.dto.UserChangedEventDto;
+import rs.raf.bank_service.domain.enums.UserEntityType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachedUserClientTest {
+
+    @Mock
+    private UserClient delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachedUserClient cachedUserClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachedUserClient = new CachedUserClient(delegate, meterRegistry, 100, 60);
+    }
+
+    @Test
+    void getClientById_SecondCallServedFromCache() {
+        ClientDto client = new ClientDto();
+        client.setId(1L);
+        when(delegate.getClientById(1L)).thenReturn(client);
+
+        assertSame(client, cachedUserClient.getClientById(1L));
+        assertSame(client, cachedUserClient.getClientById(1L));
+
+        verify(delegate, times(1)).getClientById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "user-client.clients").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "user-client.clients").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getClientById_NullIsNotCached() {
+        when(delegate.getClientById(2L)).thenReturn(null);
+
+        assertNull(cachedUserClient.getClientById(2L));
+        assertNull(cachedUserClient.getClientById(2L));
+
+        verify(delegate, times(2)).getClientById(2L);
+    }
+
+    @Test
+    void onUserChanged_EvictsOnlyMatchingEntry() {
+        ClientDto client = new ClientDto();
+        CompanyDto company = new CompanyDto();
+        when(delegate.getClientById(1L)).thenReturn(client);
+        when(delegate.getCompanyById(1L)).thenReturn(company);
+
+        cachedUserClient.getClientById(1L);
+        cachedUserClient.getCompanyById(1L);
+        cachedUserClient.onUserChanged(new UserChangedEventDto(UserEntityType.CLIENT, 1L, "Pera", "Peric", false, 1L));
+        cachedUserClient.getClientById(1L);
+        cachedUserClient.getCompanyById(1L);
+
+        verify(delegate, times(2)).getClientById(1L);
+        verify(delegate, times(1)).getCompanyById(1L);
+    }
+
+    @Test
+    void getClientsByIds_FetchesOnlyMissingIdsInOneCall() {
+        ClientDto cached = new ClientDto();
+        cached.setId(1L);
+        ClientDto loaded = new ClientDto();
+        loaded.setId(2L);
+        when(delegate.getClientById(1L)).thenReturn(cached);
+        when(delegate.getUsersByIds(any(UserBatchRequestDto.class)))
+                .thenReturn(new UserBatchDto(new ArrayList<>(List.of(loaded)), new ArrayList<>()));
+
+        cachedUserClient.getClientById(1L);
+        Map<Long, ClientDto> result = cachedUserClient.getClientsByIds(List.of(1L, 2L, 2L));
+
+        assertEquals(Map.of(1L, cached, 2L, loaded), result);
+        verify(delegate).getUsersByIds(argThat(request -> request.getIds().equals(Set.of(2L))));
+        assertSame(loaded, cachedUserClient.getClientById(2L));
+        verify(delegate, never()).getClientById(2L);
+    }
+
+    @Test
+    void getClientsByIds_ChangeDuringFetch_ResultNotCached() {
+        ClientDto stale = new ClientDto(2L, "Pera", "Peric");
+        ClientDto fresh = new ClientDto(2L, "Pera", "Markovic");
+        when(delegate.getUsersByIds(any(UserBatchRequestDto.class))).thenAnswer(invocation -> {
+            // izmena stigne dok je odgovor sa starim imenom na putu
+            cachedUserClient.onUserChanged(new UserChangedEventDto(UserEntityType.CLIENT, 2L, "Pera", "Markovic", false, 2L));
+            return new UserBatchDto(new ArrayList<>(List.of(stale)), new ArrayList<>());
+        });
+        when(delegate.getClientById(2L)).thenReturn(fresh);
+
+        assertSame(stale, cachedUserClient.getClientsByIds(List.of(2L)).get(2L));
+        assertSame(fresh, cachedUserClient.getClientById(2L));
+    }
+
+    @Test
+    void getClientsByIds_SplitsIntoBatchesOfAtMostMaxIds() {
+        when(delegate.getUsersByIds(any(UserBatchRequestDto.class))).thenReturn(new UserBatchDto(new ArrayList<>(), new ArrayList<>()));
+        List<Long> ids = LongStream.rangeClosed(1, 2 * UserClient.MAX_BATCH_IDS + 1).boxed().toList();
+
+        cachedUserClient.getClientsByIds(ids);
+
+        verify(delegate, times(3)).getUsersByIds(argThat(request -> request.getIds().size() <= UserClient.MAX_BATCH_IDS));
+    }
+
+    @Test
+    void getClientsByIds_FallbackReturnsEmptyMap() {
+        UserClient fallback = new UserClientFallbackFactory().create(new RuntimeException("user-service down"));
+
+        assertTrue(fallback.getClientsByIds(List.of(1L, 2L)).isEmpty());
+    }
+}
@@ -0,0 +1,255 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import rs.raf.bank_service.domain.dto.CardAuthorizationDto;
+import rs.raf.bank_service.domain.dto.CardAuthorizationRequestDto;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.CardAuthorizationNotHeldException;
+import rs.raf.bank_service.exceptions.SpendingLimitExceededException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.CardAuthorizationRepository;
+import rs.raf.bank_service.repository.CardRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+import rs.raf.bank_service.service.ActiveCardIndex;
+import rs.raf.bank_service.service.CardAuthorizationService;
+import rs.raf.bank_service.service.LedgerService;
+import rs.raf.bank_service.service.SpendingLimitService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardAuthorizationServiceTest {
+
+    @Mock private ActiveCardIndex activeCardIndex;
+    @Mock private CardAuthorizationRepository cardAuthorizationRepository;
+    @Mock private CardRepository cardRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private LedgerService ledgerService;
+    @Mock private SpendingLimitService spendingLimitService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private CardAuthorizationService cardAuthorizationService;
+    private ActiveCardIndex.ActiveCard card;
+    // red racuna u bazi - hold-ovi menjaju availableBalance preko adjustAvailableBalance
+    private Account account;
+
+    @BeforeEach
+    void init() {
+        cardAuthorizationService = new CardAuthorizationService(activeCardIndex, cardAuthorizationRepository, cardRepository,
+                accountRepository, paymentRepository, ledgerService, spendingLimitService, transactionManager,
+                new SimpleMeterRegistry(), 168, 16);
+        card = new ActiveCardIndex.ActiveCard(7L, "4333331234567890", "123", "111111", "RSD",
+                LocalDate.now().plusYears(1), new BigDecimal("1000"));
+    }
+
+    @Test
+    void authorize_Approved_PlacesHold() {
+        givenCard(card, "500");
+
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "200"));
+
+        assertEquals(CardAuthorizationStatus.HELD, result.getStatus());
+        assertNull(result.getDeclineReason());
+        assertEquals(new BigDecimal("200.00"), result.getAmount());
+        verify(spendingLimitService).reserve(eq("111111"), eq(Money.of(new BigDecimal("200"), "RSD")), any());
+    }
+
+    @Test
+    void authorize_UnknownOrInactiveCard_Declined() {
+        when(activeCardIndex.get("4333331234567890")).thenReturn(null);
+
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "10"));
+
+        assertEquals(CardDeclineReason.CARD_NOT_ACTIVE, result.getDeclineReason());
+        verifyNoInteractions(ledgerService, cardAuthorizationRepository);
+    }
+
+    @Test
+    void authorize_WrongCvv_Declined() {
+        when(activeCardIndex.get(card.cardNumber())).thenReturn(card);
+
+        assertEquals(CardDeclineReason.INVALID_CVV, cardAuthorizationService.authorize(request("999", "10")).getDeclineReason());
+    }
+
+    @Test
+    void authorize_AmountWithTooManyDecimals_Declined() {
+        when(activeCardIndex.get(card.cardNumber())).thenReturn(card);
+
+        assertEquals(CardDeclineReason.INVALID_AMOUNT, cardAuthorizationService.authorize(request("123", "10.005")).getDeclineReason());
+    }
+
+    @Test
+    void authorize_InactiveAccount_Declined() {
+        when(activeCardIndex.get(card.cardNumber())).thenReturn(card);
+        when(ledgerService.getActiveAvailableBalance("111111")).thenReturn(null);
+
+        assertEquals(CardDeclineReason.ACCOUNT_NOT_ACTIVE, cardAuthorizationService.authorize(request("123", "10")).getDeclineReason());
+        verifyNoInteractions(spendingLimitService);
+        verify(cardAuthorizationRepository, never()).save(any());
+    }
+
+    @Test
+    void authorize_ExpiredCard_Declined() {
+        ActiveCardIndex.ActiveCard expired = new ActiveCardIndex.ActiveCard(7L, card.cardNumber(), "123", "111111", "RSD",
+                LocalDate.now().minusDays(1), null);
+        when(activeCardIndex.get(card.cardNumber())).thenReturn(expired);
+
+        assertEquals(CardDeclineReason.CARD_EXPIRED, cardAuthorizationService.authorize(request("123", "10")).getDeclineReason());
+    }
+
+    @Test
+    void authorize_OverCardLimitForDay_Declined() {
+        givenCard(card, "5000");
+
+        cardAuthorizationService.authorize(request("123", "800"));
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "300"));
+
+        assertEquals(CardDeclineReason.CARD_LIMIT_EXCEEDED, result.getDeclineReason());
+    }
+
+    @Test
+    void authorize_OpenHoldsReduceAvailableBalance() {
+        givenCard(card, "500");
+
+        cardAuthorizationService.authorize(request("123", "400"));
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "200"));
+
+        assertEquals(CardDeclineReason.INSUFFICIENT_FUNDS, result.getDeclineReason());
+        verify(cardAuthorizationRepository, times(1)).save(any(CardAuthorization.class));
+        // hold je u bazi, pa ga vide i placanja i druge instance
+        verify(accountRepository).adjustAvailableBalance("111111", new BigDecimal("-400.00"));
+        assertEquals(0, new BigDecimal("100").compareTo(account.getAvailableBalance()));
+    }
+
+    @Test
+    void authorize_FundsSpentAfterCheck_DeclinedUnderLock() {
+        givenCard(card, "500");
+        // drugo placanje je potrosilo sredstva izmedju provere i zakljucavanja racuna
+        account.setAvailableBalance(new BigDecimal("50"));
+        when(ledgerService.getActiveAvailableBalance("111111")).thenReturn(new BigDecimal("500"));
+
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "200"));
+
+        assertEquals(CardDeclineReason.INSUFFICIENT_FUNDS, result.getDeclineReason());
+        verify(accountRepository, never()).adjustAvailableBalance(anyString(), any());
+        verify(spendingLimitService).release(eq("111111"), eq(Money.of(new BigDecimal("200"), "RSD")), eq(LocalDate.now()), any());
+    }
+
+    @Test
+    void authorize_AccountSpendingLimit_Declined() {
+        givenCard(card, "500");
+        doThrow(new SpendingLimitExceededException("111111", "daily", BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.TEN))
+                .when(spendingLimitService).reserve(eq("111111"), any(Money.class), any());
+
+        CardAuthorizationDto result = cardAuthorizationService.authorize(request("123", "10"));
+
+        assertEquals(CardDeclineReason.SPENDING_LIMIT_EXCEEDED, result.getDeclineReason());
+        verify(cardAuthorizationRepository, never()).save(any());
+    }
+
+    @Test
+    void release_FreesHoldAndCardLimit() {
+        givenCard(card, "1000");
+        cardAuthorizationService.authorize(request("123", "900"));
+
+        CardAuthorization hold = held(1L, "900.00");
+        when(cardAuthorizationRepository.findById(1L)).thenReturn(Optional.of(hold));
+
+        CardAuthorizationDto released = cardAuthorizationService.release(1L);
+
+        assertEquals(CardAuthorizationStatus.RELEASED, released.getStatus());
+        verify(spendingLimitService).release(eq("111111"), eq(Money.of(new BigDecimal("900"), "RSD")), eq(LocalDate.now()), any());
+        // i raspolozivo stanje i limit kartice su ponovo slobodni
+        assertEquals(CardAuthorizationStatus.HELD, cardAuthorizationService.authorize(request("123", "900")).getStatus());
+    }
+
+    @Test
+    void capture_PostsCardPaymentToBankAccount() {
+        Currency rsd = new Currency("RSD");
+        Account account = new PersonalAccount();
+        account.setAccountNumber("111111");
+        account.setClientId(3L);
+        account.setCurrency(rsd);
+        CompanyAccount bankAccount = new CompanyAccount();
+        bankAccount.setAccountNumber("BANK-RSD");
+        bankAccount.setCurrency(rsd);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(cardAuthorizationRepository.findById(1L)).thenReturn(Optional.of(held(1L, "250.00")));
+        when(cardAuthorizationRepository.save(any(CardAuthorization.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.findByAccountNumber("111111")).thenReturn(Optional.of(account));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(rsd, 1L)).thenReturn(Optional.of(bankAccount));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(42L);
+            return payment;
+        });
+
+        CardAuthorizationDto captured = cardAuthorizationService.capture(1L);
+
+        assertEquals(CardAuthorizationStatus.CAPTURED, captured.getStatus());
+        // knjizenje skida sredstva, pa se hold vraca u raspolozivo stanje u istoj transakciji
+        verify(accountRepository).adjustAvailableBalance("111111", new BigDecimal("250.00"));
+        verify(ledgerService).post(eq(PostingType.CARD_PAYMENT), eq(42L), argThat(legs ->
+                legs.size() == 2
+                        && legs.get(0).getAccountNumber().equals("111111") && legs.get(0).getDirection() == LedgerEntryDirection.DEBIT
+                        && legs.get(1).getAccountNumber().equals("BANK-RSD") && legs.get(1).getDirection() == LedgerEntryDirection.CREDIT));
+        verify(cardRepository).getReferenceById(7L);
+    }
+
+    @Test
+    void capture_AlreadyReleased_Throws() {
+        CardAuthorization hold = held(1L, "10.00");
+        hold.setStatus(CardAuthorizationStatus.RELEASED);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(cardAuthorizationRepository.findById(1L)).thenReturn(Optional.of(hold));
+
+        assertThrows(CardAuthorizationNotHeldException.class, () -> cardAuthorizationService.capture(1L));
+        verifyNoInteractions(ledgerService);
+    }
+
+    private void givenCard(ActiveCardIndex.ActiveCard activeCard, String balance) {
+        account = new PersonalAccount();
+        account.setAccountNumber(activeCard.accountNumber());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setAvailableBalance(new BigDecimal(balance));
+
+        when(activeCardIndex.get(activeCard.cardNumber())).thenReturn(activeCard);
+        lenient().when(ledgerService.getActiveAvailableBalance(activeCard.accountNumber())).thenAnswer(invocation -> account.getAvailableBalance());
+        lenient().when(ledgerService.getAvailableBalance(account)).thenAnswer(invocation -> account.getAvailableBalance());
+        lenient().when(accountRepository.findByIdForUpdate(activeCard.accountNumber())).thenReturn(account);
+        lenient().when(accountRepository.adjustAvailableBalance(eq(activeCard.accountNumber()), any())).thenAnswer(invocation -> {
+            account.setAvailableBalance(account.getAvailableBalance().add(invocation.getArgument(1)));
+            return 1;
+        });
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(cardAuthorizationRepository.save(any(CardAuthorization.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private CardAuthorization held(Long id, String amount) {
+        return CardAuthorization.builder().id(id).cardId(7L).cardNumber(card.cardNumber()).accountNumber("111111")
+                .amount(new BigDecimal(amount)).currencyCode("RSD").status(CardAuthorizationStatus.HELD)
+                .createdAt(LocalDateTime.now()).build();
+    }
+
+    private CardAuthorizationRequestDto request(String cvv, String amount) {
+        return new CardAuthorizationRequestDto(card.cardNumber(), cvv, new BigDecimal(amount), "Maxi");
+    }
+}
@@ -7,8 +7,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.enums.*;
@@ -19,7 +19,10 @@ import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.CardRepository;
 import rs.raf.bank_service.repository.CardRequestRepository;
 import rs.raf.bank_service.security.JwtAuthenticationFilter;
+import rs.raf.bank_service.service.ActiveCardIndex;
+import rs.raf.bank_service.service.CardNumberAllocator;
 import rs.raf.bank_service.service.CardService;
+import rs.raf.bank_service.service.OutboxService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import javax.persistence.EntityNotFoundException;
@@ -38,13 +41,15 @@ public class CardServiceTest {
 
     @Mock private CardRepository cardRepository;
     @Mock private UserClient userClient;
-    @Mock private RabbitTemplate rabbitTemplate;
+    @Mock private OutboxService outboxService;
     @Mock private AccountRepository accountRepository;
     @Mock private JwtAuthenticationFilter jwtAuthenticationFilter;
     @Mock private JwtTokenUtil jwtTokenUtil;
     @Mock private CardRequestRepository cardRequestRepository;
     @Mock private AccountMapper accountMapper;
     @Mock private ObjectMapper objectMapper;
+    @Mock private ActiveCardIndex activeCardIndex;
+    @Mock private CardNumberAllocator cardNumberAllocator;
 
     private final String authHeader = "Bearer test-token";
     private Account account;
@@ -56,7 +61,7 @@ public class CardServiceTest {
         account = new PersonalAccount();
         account.setAccountNumber("1234567890");
         account.setClientId(1L);
-        client = new ClientDto(1L, "Test", "User", "test@example.com");
+        client = new ClientDto(1L, "Test", "User", "test@example.com", null);
     }
 
     @Test
@@ -100,7 +105,7 @@ public class CardServiceTest {
 
         cardService.changeCardStatus("1234", CardStatus.BLOCKED);
         verify(cardRepository).save(card);
-        verify(rabbitTemplate).convertAndSend(eq("card-status-change"), any(EmailRequestDto.class));
+        verify(outboxService).enqueue(eq("card-status-change"), any(EmailRequestDto.class));
     }
 
     @Test
@@ -123,7 +128,8 @@ public class CardServiceTest {
 
         assertEquals(CardStatus.BLOCKED, card.getStatus());
         verify(cardRepository).save(card);
-        verify(rabbitTemplate).convertAndSend(eq("card-status-change"), any(EmailRequestDto.class));
+        verify(activeCardIndex).update(card);
+        verify(outboxService).enqueue(eq("card-status-change"), any(EmailRequestDto.class));
     }
 
     @Test
@@ -141,17 +147,18 @@ public class CardServiceTest {
 
     @Test
     void getUserCards_returnsList() {
-        Card card = new Card();
-        card.setAccount(account);
-        List<Account> accounts = List.of(account);
-        account.setCards(List.of(card));
+        CardRepository.CardListRow row = mock(CardRepository.CardListRow.class);
+        when(row.getCardNumber()).thenReturn("1234123412341234");
+        when(row.getAccountNumber()).thenReturn(account.getAccountNumber());
 
         when(jwtTokenUtil.getUserIdFromAuthHeader(authHeader)).thenReturn(account.getClientId());
-        when(accountRepository.findByClientId(account.getClientId())).thenReturn(accounts);
+        when(cardRepository.findListRowsByClientId(account.getClientId())).thenReturn(List.of(row));
         when(userClient.getClientById(account.getClientId())).thenReturn(client);
 
         List<CardDto> cards = cardService.getUserCards(authHeader);
         assertEquals(1, cards.size());
+        assertEquals(account.getAccountNumber(), cards.get(0).getAccountNumber());
+        assertEquals(client, cards.get(0).getOwner());
     }
 
     @Test
@@ -166,7 +173,7 @@ public class CardServiceTest {
         cardService.requestNewCard(dto, authHeader);
 
         verify(cardRequestRepository).save(any(CardRequest.class));
-        verify(userClient).createVerificationRequest(any(CreateVerificationRequestDto.class));
+        verify(outboxService).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), any(CreateVerificationRequestDto.class));
     }
 
     @Test
@@ -198,10 +205,12 @@ public class CardServiceTest {
         when(accountMapper.toAccountTypeDto(account)).thenReturn(new AccountTypeDto(account.getAccountNumber(), AccountOwnerType.PERSONAL));
         when(cardRepository.countByAccount(account)).thenReturn(0L);
 
+        when(cardNumberAllocator.next(CardIssuer.VISA)).thenReturn("4333330000000017");
+
         cardService.approveCardRequest(1L);
 
         assertEquals(RequestStatus.APPROVED, request.getStatus());
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).save(argThat(card -> "4333330000000017".equals(card.getCardNumber())));
     }
 
     @Test
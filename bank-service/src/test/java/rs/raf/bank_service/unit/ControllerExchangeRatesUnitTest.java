@@ -24,6 +24,7 @@ import rs.raf.bank_service.service.ExchangeRateService;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 
 public class ControllerExchangeRatesUnitTest {
 
@@ -120,6 +121,23 @@ public class ControllerExchangeRatesUnitTest {
                 .andExpect(content().string("Currency not found: XYZ"));
     }
 
+    @Test
+    @WithMockUser
+    void testConvertBatch_Success() throws Exception {
+        List<ConvertDto> convertDtos = List.of(
+                new ConvertDto("USD", "RSD", new BigDecimal("10")),
+                new ConvertDto("USD", "RSD", new BigDecimal("20")));
+
+        when(exchangeRateService.convertBatch(anyList())).thenReturn(List.of(new BigDecimal("1080"), new BigDecimal("2160")));
+
+        mockMvc.perform(post("/api/exchange-rates/convert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(convertDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(1080))
+                .andExpect(jsonPath("$[1]").value(2160));
+    }
+
 
     @Test
     @WithMockUser
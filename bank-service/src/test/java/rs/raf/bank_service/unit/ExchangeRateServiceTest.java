@@ -3,12 +3,16 @@ package rs.raf.bank_service.unit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rs.raf.bank_service.client.ExchangeRateClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.ConvertDto;
+import rs.raf.bank_service.domain.dto.ExchangeRateChangedEventDto;
 import rs.raf.bank_service.domain.dto.ExchangeRateDto;
+import rs.raf.bank_service.domain.dto.SetExchangeRateDto;
 import rs.raf.bank_service.domain.dto.UpdateExchangeRateDto;
 import rs.raf.bank_service.domain.entity.Currency;
 import rs.raf.bank_service.domain.entity.ExchangeRate;
@@ -18,6 +22,8 @@ import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
 import rs.raf.bank_service.repository.CurrencyRepository;
 import rs.raf.bank_service.repository.ExchangeRateRepository;
 import rs.raf.bank_service.service.ExchangeRateService;
+import rs.raf.bank_service.service.OutboxService;
+import rs.raf.bank_service.service.ReferenceDataCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,6 +31,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +46,12 @@ public class ExchangeRateServiceTest {
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -113,9 +126,8 @@ public class ExchangeRateServiceTest {
 
     @Test
     public void testConvert_Success() {
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, dummyCurrency2)).thenReturn(Optional.of(dummyExchangeRate));
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
 
         BigDecimal result = exchangeRateService.convert(dummyConvertDto);
         assertEquals(BigDecimal.valueOf(117), result);
@@ -127,40 +139,36 @@ public class ExchangeRateServiceTest {
         ExchangeRate eurToRsd = new ExchangeRate(null, null, dummyCurrency1, dummyCurrency2, BigDecimal.valueOf(117), BigDecimal.valueOf(118));
         ExchangeRate rsdToUsd = new ExchangeRate(null, null, dummyCurrency2, usd, BigDecimal.valueOf(100), BigDecimal.valueOf(102));
 
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usd));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, usd)).thenReturn(Optional.empty());
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, dummyCurrency2)).thenReturn(Optional.of(eurToRsd));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency2, usd)).thenReturn(Optional.of(rsdToUsd));
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2, usd));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(eurToRsd, rsdToUsd));
 
         ConvertDto dto = new ConvertDto("EUR", "USD", BigDecimal.ONE);
         BigDecimal result = exchangeRateService.convert(dto);
-        assertNotNull(result);
+        assertEquals(BigDecimal.valueOf(118).multiply(BigDecimal.valueOf(102)), result);
+    }
+
+    @Test
+    public void testConvertBatch_KeepsRequestOrder() {
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
+
+        List<BigDecimal> result = exchangeRateService.convertBatch(List.of(
+                new ConvertDto("EUR", "RSD", BigDecimal.valueOf(2)),
+                new ConvertDto("EUR", "RSD", BigDecimal.valueOf(3))));
+
+        assertEquals(List.of(BigDecimal.valueOf(234), BigDecimal.valueOf(351)), result);
     }
 
     @Test
     public void testConvert_CurrencyNotFound() {
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.empty());
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency2));
         assertThrows(CurrencyNotFoundException.class, () -> exchangeRateService.convert(dummyConvertDto));
     }
 
     @Test
     public void testConvert_ExchangeRateNotFound() {
-
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
-
-
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, dummyCurrency2))
-                .thenReturn(Optional.empty());
-
-
-        Currency rsd = new Currency("RSD", "Dinar", "RSD", "Serbia", "Dinar currency", true);
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(rsd));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, rsd)).thenReturn(Optional.empty());
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(rsd, dummyCurrency2)).thenReturn(Optional.empty());
-
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of());
 
         ExchangeRateNotFoundException exception = assertThrows(ExchangeRateNotFoundException.class, () ->
                 exchangeRateService.convert(dummyConvertDto));
@@ -171,10 +179,8 @@ public class ExchangeRateServiceTest {
 
     @Test
     public void testGetExchangeRate_Direct() {
-        when(currencyRepository.findByCode(dummyCurrency1.getCode())).thenReturn(Optional.of(dummyCurrency1));
-        when(currencyRepository.findByCode(dummyCurrency2.getCode())).thenReturn(Optional.of(dummyCurrency2));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, dummyCurrency2))
-                .thenReturn(Optional.of(dummyExchangeRate));
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
 
         ExchangeRateDto result = exchangeRateService.getExchangeRate(dummyCurrency1.getCode(), dummyCurrency2.getCode());
 
@@ -188,16 +194,90 @@ public class ExchangeRateServiceTest {
 
     @Test
     public void testGetExchangeRate_NotFound() {
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(any(), any())).thenReturn(Optional.empty());
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of());
 
         assertThrows(ExchangeRateNotFoundException.class, () -> exchangeRateService.getExchangeRate("EUR", "RSD"));
     }
 
     @Test
     public void testGetExchangeRate_CurrencyMissing() {
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.empty());
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency2));
         assertThrows(CurrencyNotFoundException.class, () -> exchangeRateService.getExchangeRate("EUR", "RSD"));
     }
+
+    @Test
+    public void testGetExchangeRate_ReadsDatabaseOnlyOnce() {
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
+
+        for (int i = 0; i < 5; i++) {
+            exchangeRateService.getExchangeRate("EUR", "RSD");
+        }
+
+        verify(exchangeRateRepository, times(1)).findAll();
+        verify(currencyRepository, never()).findByCode(any());
+    }
+
+    @Test
+    public void testUpdateExchangeRates_RebuildsMatrix() {
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
+        assertEquals(BigDecimal.valueOf(117), exchangeRateService.getExchangeRate("EUR", "RSD").getExchangeRate());
+
+        ExchangeRate changed = new ExchangeRate(1L, LocalDateTime.now(), dummyCurrency1, dummyCurrency2, BigDecimal.valueOf(120), BigDecimal.valueOf(121));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(changed));
+        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
+        when(exchangeRateClient.getExchangeRates("RSD")).thenReturn(new UpdateExchangeRateDto("success", "RSD", Map.of()));
+
+        exchangeRateService.updateExchangeRates();
+
+        assertEquals(BigDecimal.valueOf(120), exchangeRateService.getExchangeRate("EUR", "RSD").getExchangeRate());
+    }
+
+    @Test
+    public void testSetExchangeRate_UpdatesMirroredRate() {
+        ExchangeRate mirrored = new ExchangeRate(2L, LocalDateTime.now(), dummyCurrency2, dummyCurrency1, new BigDecimal("0.008547"), new BigDecimal("0.008632"));
+        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
+        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency1, dummyCurrency2)).thenReturn(Optional.of(dummyExchangeRate));
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(dummyCurrency2, dummyCurrency1)).thenReturn(Optional.of(mirrored));
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate, mirrored));
+
+        ExchangeRateDto result = exchangeRateService.setExchangeRate("EUR", "RSD",
+                new SetExchangeRateDto(BigDecimal.valueOf(100), BigDecimal.valueOf(101)));
+
+        assertEquals(BigDecimal.valueOf(100), result.getExchangeRate());
+        assertEquals(new BigDecimal("0.010000"), mirrored.getExchangeRate());
+        assertEquals(0, new BigDecimal("0.0101").compareTo(mirrored.getSellRate()));
+        assertEquals(new BigDecimal("0.010000"), exchangeRateService.getExchangeRate("RSD", "EUR").getExchangeRate());
+    }
+
+    @Test
+    public void testSetExchangeRate_PublishesChangeToAllInstances() {
+        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(dummyCurrency1));
+        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(dummyCurrency2));
+
+        exchangeRateService.setExchangeRate("EUR", "RSD", new SetExchangeRateDto(BigDecimal.valueOf(100), BigDecimal.valueOf(101)));
+
+        ArgumentCaptor<ExchangeRateChangedEventDto> event = ArgumentCaptor.forClass(ExchangeRateChangedEventDto.class);
+        verify(outboxService).enqueue(eq(RabbitMQConfig.EXCHANGE_RATE_EVENTS_EXCHANGE), eq(""), event.capture());
+        assertEquals("EUR", event.getValue().getFromCurrencyCode());
+        assertEquals("RSD", event.getValue().getToCurrencyCode());
+    }
+
+    @Test
+    public void testOnExchangeRatesChanged_RebuildsMatrix() {
+        when(currencyRepository.findAll()).thenReturn(List.of(dummyCurrency1, dummyCurrency2));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(dummyExchangeRate));
+        exchangeRateService.getExchangeRate("EUR", "RSD");
+
+        ExchangeRate changed = new ExchangeRate(1L, LocalDateTime.now(), dummyCurrency1, dummyCurrency2, BigDecimal.valueOf(120), BigDecimal.valueOf(121));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(changed));
+        exchangeRateService.onExchangeRatesChanged(new ExchangeRateChangedEventDto("EUR", "RSD"));
+
+        verify(referenceDataCache).evictExchangeRates();
+        assertEquals(BigDecimal.valueOf(120), exchangeRateService.getExchangeRate("EUR", "RSD").getExchangeRate());
+    }
 }
@@ -0,0 +1,227 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.bank_service.domain.dto.InstallmentBatchDto;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.InstallmentBatchRunRepository;
+import rs.raf.bank_service.repository.InstallmentRepository;
+import rs.raf.bank_service.repository.LoanRepository;
+import rs.raf.bank_service.service.AmortizationService;
+import rs.raf.bank_service.service.InstallmentBatchService;
+import rs.raf.bank_service.service.LedgerService;
+import rs.raf.bank_service.service.LoanScheduleBackfillService;
+import rs.raf.bank_service.service.TransactionPartitioner;
+import rs.raf.bank_service.service.TransactionQueueService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InstallmentBatchServiceTest {
+
+    @Mock private LoanRepository loanRepository;
+    @Mock private InstallmentRepository installmentRepository;
+    @Mock private InstallmentBatchRunRepository installmentBatchRunRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private LedgerService ledgerService;
+    @Mock private TransactionQueueService transactionQueueService;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private LoanScheduleBackfillService loanScheduleBackfillService;
+
+    private InstallmentBatchService installmentBatchService;
+
+    private Currency currency;
+    private CompanyAccount bankAccount;
+
+    @BeforeEach
+    void init() {
+        installmentBatchService = new InstallmentBatchService(loanRepository, installmentRepository, installmentBatchRunRepository,
+                accountRepository, ledgerService, transactionQueueService, new TransactionPartitioner(4), transactionManager,
+                new AmortizationService(new SimpleMeterRegistry(), 100), loanScheduleBackfillService);
+
+        currency = new Currency("RSD", "Dinar", "RSD", "RS", "Dinar", true);
+        bankAccount = new CompanyAccount();
+        bankAccount.setAccountNumber("BANK-RSD");
+        bankAccount.setCurrency(currency);
+    }
+
+    @Test
+    void testPayInstallments_DebitsInBulkAndSkipsInsufficientFunds() {
+        Loan rich = loan(1L, "111", 12);
+        Loan poor = loan(2L, "222", 12);
+        when(loanRepository.findDueByIdIn(eq(List.of(1L, 2L)), any(LocalDate.class), anyCollection())).thenReturn(List.of(rich, poor));
+        when(ledgerService.getAvailableBalances(Set.of("111", "222"))).thenReturn(Map.of("111", new BigDecimal("5000"), "222", new BigDecimal("10")));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(currency, 1L)).thenReturn(Optional.of(bankAccount));
+        Installment current = installment(rich, 3, LocalDate.now(), "1100");
+        Installment next = installment(rich, 4, LocalDate.now().plusMonths(1), "1050");
+        when(installmentRepository.findCurrentAndNextOpen(List.of(1L), InstallmentStatus.PAID)).thenReturn(List.of(current, next));
+
+        installmentBatchService.payInstallments(new InstallmentBatchDto(7L, List.of(1L, 2L)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> legs = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).post(eq(PostingType.INSTALLMENT), legs.capture());
+        assertEquals(2, legs.getValue().size());
+        assertEquals("111", legs.getValue().get(0).getAccountNumber());
+        assertEquals(1L, legs.getValue().get(0).getReferenceId());
+        assertEquals(LedgerEntryDirection.CREDIT, legs.getValue().get(1).getDirection());
+        assertEquals("BANK-RSD", legs.getValue().get(1).getAccountNumber());
+
+        assertEquals(InstallmentStatus.PAID, current.getInstallmentStatus());
+        assertEquals(LocalDate.now(), current.getActualDueDate());
+        assertEquals(InstallmentStatus.UNPAID, next.getInstallmentStatus());
+        assertEquals(LocalDate.now().plusMonths(1), rich.getNextInstallmentDate());
+        assertEquals(new BigDecimal("1050"), rich.getNextInstallmentAmount());
+        verify(installmentRepository, never()).saveAll(any());
+        assertEquals(new BigDecimal("8900"), rich.getRemainingDebt());
+        assertEquals(LocalDate.now(), poor.getNextInstallmentDate());
+
+        verify(installmentBatchRunRepository).recordResults(7L, 1, 1);
+    }
+
+    @Test
+    void testPayInstallments_AggregatesBankCreditForSameAccount() {
+        Loan first = loan(1L, "111", 12);
+        Loan second = loan(2L, "111", 12);
+        second.setAccount(first.getAccount());
+        when(loanRepository.findDueByIdIn(anyCollection(), any(LocalDate.class), anyCollection())).thenReturn(List.of(first, second));
+        // dovoljno samo za jednu ratu
+        when(ledgerService.getAvailableBalances(Set.of("111"))).thenReturn(Map.of("111", new BigDecimal("1500")));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(currency, 1L)).thenReturn(Optional.of(bankAccount));
+        when(installmentRepository.findCurrentAndNextOpen(List.of(1L), InstallmentStatus.PAID))
+                .thenReturn(List.of(installment(first, 1, LocalDate.now(), "1100"), installment(first, 2, LocalDate.now().plusMonths(1), "1100")));
+
+        installmentBatchService.payInstallments(new InstallmentBatchDto(7L, List.of(1L, 2L)));
+
+        verify(installmentBatchRunRepository).recordResults(7L, 1, 1);
+    }
+
+    @Test
+    void testPayInstallments_LastInstallmentPaysOffLoan() {
+        Loan loan = loan(1L, "111", 12);
+        when(loanRepository.findDueByIdIn(anyCollection(), any(LocalDate.class), anyCollection())).thenReturn(List.of(loan));
+        when(ledgerService.getAvailableBalances(Set.of("111"))).thenReturn(Map.of("111", new BigDecimal("5000")));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(currency, 1L)).thenReturn(Optional.of(bankAccount));
+        Installment last = installment(loan, 12, LocalDate.now(), "1100");
+        when(installmentRepository.findCurrentAndNextOpen(List.of(1L), InstallmentStatus.PAID)).thenReturn(List.of(last));
+
+        installmentBatchService.payInstallments(new InstallmentBatchDto(7L, List.of(1L)));
+
+        assertEquals(LoanStatus.PAID_OFF, loan.getStatus());
+        assertEquals(InstallmentStatus.PAID, last.getInstallmentStatus());
+    }
+
+    @Test
+    void testPayInstallments_AlreadyPaidLoansAreSkipped() {
+        when(loanRepository.findDueByIdIn(anyCollection(), any(LocalDate.class), anyCollection())).thenReturn(List.of());
+
+        installmentBatchService.payInstallments(new InstallmentBatchDto(7L, List.of(1L)));
+
+        verify(ledgerService, never()).post(any(), anyList());
+        verify(installmentBatchRunRepository).recordResults(7L, 0, 0);
+    }
+
+    @Test
+    void testRunDueInstallments_QueuesChunksAndAdvancesCursor() {
+        ReflectionTestUtils.setField(installmentBatchService, "chunkSize", 2);
+        InstallmentBatchRun run = new InstallmentBatchRun(LocalDate.now());
+        run.setId(5L);
+        when(installmentBatchRunRepository.findByRunDate(any(LocalDate.class))).thenReturn(Optional.of(run));
+        when(installmentBatchRunRepository.findById(5L)).thenReturn(Optional.of(run));
+        when(loanRepository.findDueLoans(any(LocalDate.class), anyCollection(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(dueLoan(1L, "111"), dueLoan(2L, "111")));
+        when(loanRepository.findDueLoans(any(LocalDate.class), anyCollection(), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(dueLoan(3L, "333")));
+
+        installmentBatchService.runDueInstallments();
+
+        // isti racun -> ista particija -> jedna poruka za prvi chunk
+        verify(transactionQueueService).queueTransaction(eq(TransactionType.PAY_INSTALLMENTS),
+                argThat(dto -> ((InstallmentBatchDto) dto).getLoanIds().equals(List.of(1L, 2L))), isNull(), eq("111"));
+        verify(transactionQueueService).queueTransaction(eq(TransactionType.PAY_INSTALLMENTS),
+                argThat(dto -> ((InstallmentBatchDto) dto).getLoanIds().equals(List.of(3L))), isNull(), eq("333"));
+        assertEquals(3L, run.getLastLoanId());
+        assertEquals(2, run.getChunksQueued());
+        assertEquals(3L, run.getLoansQueued());
+        assertEquals(InstallmentBatchStatus.COMPLETED, run.getStatus());
+    }
+
+    @Test
+    void testRunDueInstallments_ResumesFromCursor() {
+        InstallmentBatchRun run = new InstallmentBatchRun(LocalDate.now());
+        run.setId(5L);
+        run.setLastLoanId(40L);
+        when(installmentBatchRunRepository.findByRunDate(any(LocalDate.class))).thenReturn(Optional.of(run));
+        when(installmentBatchRunRepository.findById(5L)).thenReturn(Optional.of(run));
+        when(loanRepository.findDueLoans(any(LocalDate.class), anyCollection(), eq(40L), any(Pageable.class))).thenReturn(List.of());
+
+        installmentBatchService.runDueInstallments();
+
+        verify(transactionQueueService, never()).queueTransaction(any(), any(), any(), any());
+        assertEquals(InstallmentBatchStatus.COMPLETED, run.getStatus());
+    }
+
+    @Test
+    void testRunDueInstallments_CompletedRunIsNotRepeated() {
+        InstallmentBatchRun run = new InstallmentBatchRun(LocalDate.now());
+        run.setId(5L);
+        run.setStatus(InstallmentBatchStatus.COMPLETED);
+        when(installmentBatchRunRepository.findByRunDate(any(LocalDate.class))).thenReturn(Optional.of(run));
+
+        installmentBatchService.runDueInstallments();
+
+        verify(loanRepository, never()).findDueLoans(any(), any(), any(), any());
+    }
+
+    private Loan loan(Long id, String accountNumber, int repaymentPeriod) {
+        Account account = new PersonalAccount();
+        account.setAccountNumber(accountNumber);
+        account.setCurrency(currency);
+        return Loan.builder()
+                .id(id)
+                .amount(BigDecimal.valueOf(12000))
+                .repaymentPeriod(repaymentPeriod)
+                .effectiveInterestRate(BigDecimal.valueOf(6.0))
+                .nextInstallmentAmount(new BigDecimal("1100"))
+                .nextInstallmentDate(LocalDate.now())
+                .remainingDebt(new BigDecimal("10000"))
+                .status(LoanStatus.APPROVED)
+                .account(account)
+                .build();
+    }
+
+    private LoanRepository.DueLoan dueLoan(Long id, String accountNumber) {
+        return new LoanRepository.DueLoan() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getAccountNumber() {
+                return accountNumber;
+            }
+        };
+    }
+
+    private Installment installment(Loan loan, int number, LocalDate dueDate, String amount) {
+        Installment installment = new Installment(loan, new BigDecimal(amount), loan.getEffectiveInterestRate(), dueDate, InstallmentStatus.UNPAID);
+        installment.setInstallmentNumber(number);
+        return installment;
+    }
+}
@@ -0,0 +1,142 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.LedgerEntry;
+import rs.raf.bank_service.domain.entity.PersonalAccount;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
+import rs.raf.bank_service.domain.enums.PostingType;
+import rs.raf.bank_service.exceptions.UnbalancedPostingException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.LedgerEntryRepository;
+import rs.raf.bank_service.service.LedgerService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private Account sender;
+    private Account receiver;
+
+    @BeforeEach
+    void setUp() {
+        Currency rsd = new Currency("RSD");
+
+        sender = new PersonalAccount();
+        sender.setAccountNumber("111");
+        sender.setCurrency(rsd);
+        sender.setBalance(BigDecimal.valueOf(1000));
+
+        receiver = new PersonalAccount();
+        receiver.setAccountNumber("222");
+        receiver.setCurrency(rsd);
+        receiver.setBalance(BigDecimal.valueOf(500));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void post_BalancedPosting_SavesAllLegsWithSamePostingId() {
+        when(ledgerEntryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ledgerService.post(PostingType.PAYMENT, 5L, List.of(
+                LedgerEntry.debit(sender, BigDecimal.valueOf(100)),
+                LedgerEntry.credit(receiver, BigDecimal.valueOf(100))));
+
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+
+        List<LedgerEntry> saved = captor.getValue();
+        assertEquals(2, saved.size());
+        assertNotNull(saved.get(0).getPostingId());
+        assertEquals(saved.get(0).getPostingId(), saved.get(1).getPostingId());
+        assertEquals(saved.get(0).getPostedAt(), saved.get(1).getPostedAt());
+        assertEquals(PostingType.PAYMENT, saved.get(1).getPostingType());
+        assertEquals(5L, saved.get(1).getReferenceId());
+    }
+
+    @Test
+    void post_UnbalancedPosting_ThrowsException() {
+        List<LedgerEntry> legs = List.of(
+                LedgerEntry.debit(sender, BigDecimal.valueOf(100)),
+                LedgerEntry.credit(receiver, BigDecimal.valueOf(90)));
+
+        assertThrows(UnbalancedPostingException.class, () -> ledgerService.post(PostingType.TRANSFER, 1L, legs));
+        verify(ledgerEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void post_NegativeAmount_ThrowsException() {
+        List<LedgerEntry> legs = List.of(
+                LedgerEntry.debit(sender, BigDecimal.valueOf(-100)),
+                LedgerEntry.credit(receiver, BigDecimal.valueOf(-100)));
+
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.post(PostingType.TRANSFER, 1L, legs));
+    }
+
+    @Test
+    void getBalance_AddsEntriesAfterSnapshot() {
+        sender.setSnapshotTxId(700L);
+
+        LedgerEntryRepository.DirectionTotal debit = total(LedgerEntryDirection.DEBIT, BigDecimal.valueOf(300));
+        LedgerEntryRepository.DirectionTotal credit = total(LedgerEntryDirection.CREDIT, BigDecimal.valueOf(50));
+        when(ledgerEntryRepository.sumTail("111", 700L)).thenReturn(List.of(debit, credit));
+
+        assertEquals(BigDecimal.valueOf(750), ledgerService.getBalance(sender));
+    }
+
+    @Test
+    void snapshotBalances_AppliesDeltaUpToSettledTransactions() {
+        LedgerEntryRepository.AccountDirectionTotal debit = accountTotal("111", 700L, LedgerEntryDirection.DEBIT, BigDecimal.valueOf(100));
+        LedgerEntryRepository.AccountDirectionTotal credit = accountTotal("111", 700L, LedgerEntryDirection.CREDIT, BigDecimal.valueOf(40));
+        // racun bez prethodnog snapshot-a pocinje od 0
+        LedgerEntryRepository.AccountDirectionTotal first = accountTotal("222", null, LedgerEntryDirection.CREDIT, BigDecimal.valueOf(10));
+
+        when(ledgerEntryRepository.findSettledTxHorizon()).thenReturn(900L);
+        when(ledgerEntryRepository.sumPendingSnapshot(900L)).thenReturn(List.of(debit, credit, first));
+        when(accountRepository.applySnapshot(anyString(), any(), anyLong(), anyLong())).thenReturn(1);
+
+        ledgerService.snapshotBalances();
+
+        verify(accountRepository).applySnapshot("111", BigDecimal.valueOf(-60), 900L, 700L);
+        verify(accountRepository).applySnapshot("222", BigDecimal.valueOf(10), 900L, 0L);
+    }
+
+    private LedgerEntryRepository.DirectionTotal total(LedgerEntryDirection direction, BigDecimal amount) {
+        LedgerEntryRepository.DirectionTotal total = mock(LedgerEntryRepository.DirectionTotal.class);
+        when(total.getDirection()).thenReturn(direction);
+        when(total.getTotal()).thenReturn(amount);
+        return total;
+    }
+
+    private LedgerEntryRepository.AccountDirectionTotal accountTotal(String accountNumber, Long snapshotTxId,
+                                                                     LedgerEntryDirection direction, BigDecimal amount) {
+        LedgerEntryRepository.AccountDirectionTotal total = mock(LedgerEntryRepository.AccountDirectionTotal.class);
+        when(total.getAccountNumber()).thenReturn(accountNumber);
+        when(total.getSnapshotTxId()).thenReturn(snapshotTxId);
+        when(total.getDirection()).thenReturn(direction);
+        when(total.getTotal()).thenReturn(amount);
+        return total;
+    }
+}
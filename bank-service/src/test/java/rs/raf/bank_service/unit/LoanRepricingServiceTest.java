@@ -0,0 +1,186 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.bank_service.domain.dto.LoanRepricingStatusDto;
+import rs.raf.bank_service.domain.enums.InstallmentStatus;
+import rs.raf.bank_service.domain.enums.InterestRateType;
+import rs.raf.bank_service.domain.enums.LoanStatus;
+import rs.raf.bank_service.domain.enums.LoanType;
+import rs.raf.bank_service.repository.LoanRepository;
+import rs.raf.bank_service.service.AmortizationService;
+import rs.raf.bank_service.service.LoanRepricingService;
+import rs.raf.bank_service.specification.LoanRateCalculator;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanRepricingServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private LoanRepricingService loanRepricingService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        meterRegistry = new SimpleMeterRegistry();
+        loanRepricingService = new LoanRepricingService(loanRepository, jdbcTemplate, transactionManager, executor,
+                new AmortizationService(meterRegistry, 100), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testReprice_UpdatesRatesAndNextInstallmentInBatch() {
+        when(loanRepository.findRepricingLoans(eq(LoanStatus.APPROVED), eq(InterestRateType.VARIABLE), eq(InstallmentStatus.PAID), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(loan(1L, new BigDecimal("5"), 4L)));
+
+        assertTrue(loanRepricingService.repriceVariableRateLoans());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> loanArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE loans"), loanArgs.capture());
+        Object[] row = loanArgs.getValue().get(0);
+        BigDecimal nominal = (BigDecimal) row[0];
+        assertTrue(nominal.compareTo(new BigDecimal("3.5")) >= 0 && nominal.compareTo(new BigDecimal("6.5")) <= 0);
+        // 10000 <= 500000 -> 6.25 + 1.75 (CASH)
+        assertEquals(0, new BigDecimal("8.00").compareTo((BigDecimal) row[1]));
+        // sledeca rata je peta rata iz plana, isti iznos kao klasicna anuitetna formula
+        assertEquals(LoanRateCalculator.calculateMonthlyRate(new BigDecimal("10000"), (BigDecimal) row[1], 12), row[2]);
+        assertEquals(1L, row[3]);
+
+        // placene rate (1-4) se ne diraju, ostatak plana se prepisuje
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> installmentArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE installments"), installmentArgs.capture());
+        List<Object[]> rows = installmentArgs.getValue();
+        assertEquals(8, rows.size());
+        assertEquals(5, rows.get(0)[6]);
+        assertEquals(12, rows.get(7)[6]);
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) rows.get(7)[4]));
+        assertEquals(1L, rows.get(0)[5]);
+    }
+
+    @Test
+    void testReprice_FullyPaidLoanIsSkipped() {
+        when(loanRepository.findRepricingLoans(any(), any(), any(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(loan(1L, new BigDecimal("5"), 12L)));
+
+        loanRepricingService.repriceVariableRateLoans();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(1, loanRepricingService.getStatus().getSkipped());
+    }
+
+    @Test
+    void testReprice_SkipsIncompleteLoansAndReportsProgress() {
+        when(loanRepository.findRepricingLoans(any(), any(), any(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(loan(1L, new BigDecimal("5")), loan(2L, null)));
+
+        loanRepricingService.repriceVariableRateLoans();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> loanArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE loans"), loanArgs.capture());
+        assertEquals(1, loanArgs.getValue().size());
+
+        LoanRepricingStatusDto status = loanRepricingService.getStatus();
+        assertFalse(status.isRunning());
+        assertEquals(2, status.getProcessed());
+        assertEquals(1, status.getRepriced());
+        assertEquals(1, status.getSkipped());
+        assertNotNull(status.getFinishedAt());
+        assertEquals(1.0, meterRegistry.get("loan.repricing.loans").tag("outcome", "repriced").counter().count());
+        assertEquals(1L, meterRegistry.get("loan.repricing.run").timer().count());
+    }
+
+    @Test
+    void testReprice_PagesByCursorAndSplitsIntoWorkerChunks() {
+        ReflectionTestUtils.setField(loanRepricingService, "pageSize", 2);
+        ReflectionTestUtils.setField(loanRepricingService, "workerChunkSize", 1);
+        when(loanRepository.findRepricingLoans(any(), any(), any(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(loan(1L, BigDecimal.ONE), loan(2L, BigDecimal.ONE)));
+        when(loanRepository.findRepricingLoans(any(), any(), any(), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(loan(3L, BigDecimal.ONE)));
+
+        loanRepricingService.repriceVariableRateLoans();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> loanArgs = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE loans"), loanArgs.capture());
+        assertEquals(List.of(1L, 2L), loanArgs.getAllValues().get(0).stream().map(args -> args[3]).toList());
+        assertEquals(List.of(3L), loanArgs.getAllValues().get(1).stream().map(args -> args[3]).toList());
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals(3, loanRepricingService.getStatus().getRepriced());
+    }
+
+    @Test
+    void testReprice_NoLoans() {
+        when(loanRepository.findRepricingLoans(any(), any(), any(), eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        loanRepricingService.repriceVariableRateLoans();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(0, loanRepricingService.getStatus().getProcessed());
+    }
+
+    private LoanRepository.RepricingLoan loan(Long id, BigDecimal nominal) {
+        return loan(id, nominal, 0L);
+    }
+
+    private LoanRepository.RepricingLoan loan(Long id, BigDecimal nominal, Long paidInstallments) {
+        return new LoanRepository.RepricingLoan() {
+            public Long getId() {
+                return id;
+            }
+
+            public BigDecimal getAmount() {
+                return new BigDecimal("10000");
+            }
+
+            public LoanType getType() {
+                return LoanType.CASH;
+            }
+
+            public BigDecimal getNominalInterestRate() {
+                return nominal;
+            }
+
+            public Integer getRepaymentPeriod() {
+                return 12;
+            }
+
+            public Long getPaidInstallments() {
+                return paidInstallments;
+            }
+        };
+    }
+}
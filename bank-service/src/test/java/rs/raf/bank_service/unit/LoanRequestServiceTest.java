@@ -1,6 +1,7 @@
 package rs.raf.bank_service.unit;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -14,12 +15,16 @@ import rs.raf.bank_service.domain.dto.LoanDto;
 import rs.raf.bank_service.domain.dto.LoanRequestDto;
 import rs.raf.bank_service.domain.entity.*;
 import rs.raf.bank_service.domain.enums.InterestRateType;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
 import rs.raf.bank_service.domain.enums.LoanRequestStatus;
 import rs.raf.bank_service.domain.enums.LoanType;
+import rs.raf.bank_service.domain.enums.PostingType;
 import rs.raf.bank_service.domain.mapper.LoanMapper;
 import rs.raf.bank_service.domain.mapper.LoanRequestMapper;
 import rs.raf.bank_service.exceptions.*;
 import rs.raf.bank_service.repository.*;
+import rs.raf.bank_service.service.AmortizationService;
+import rs.raf.bank_service.service.LedgerService;
 import rs.raf.bank_service.service.LoanRequestService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
@@ -39,6 +44,7 @@ class LoanRequestServiceTest {
     private CurrencyRepository currencyRepository;
     private InstallmentRepository installmentRepository;
     private JwtTokenUtil jwtTokenUtil;
+    private LedgerService ledgerService;
 
     private LoanRequestService loanRequestService;
 
@@ -52,6 +58,7 @@ class LoanRequestServiceTest {
         currencyRepository = mock(CurrencyRepository.class);
         installmentRepository = mock(InstallmentRepository.class);
         jwtTokenUtil = mock(JwtTokenUtil.class);
+        ledgerService = mock(LedgerService.class);
 
         loanRequestService = new LoanRequestService(
                 loanRequestRepository,
@@ -61,7 +68,9 @@ class LoanRequestServiceTest {
                 loanMapper,
                 currencyRepository,
                 installmentRepository,
-                jwtTokenUtil
+                jwtTokenUtil,
+                ledgerService,
+                new AmortizationService(new SimpleMeterRegistry(), 100)
         );
     }
 
@@ -140,6 +149,19 @@ class LoanRequestServiceTest {
         assertThrows(LoanRequestNotFoundException.class, () -> loanRequestService.approveLoan(1L));
     }
 
+    @Test
+    void testApproveLoan_ApprovedConcurrently_NoSecondLoan() {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setId(1L);
+        loanRequest.setStatus(LoanRequestStatus.PENDING);
+        when(loanRequestRepository.findByIdAndStatus(1L, LoanRequestStatus.PENDING)).thenReturn(Optional.of(loanRequest));
+        when(loanRequestRepository.updateStatus(1L, LoanRequestStatus.PENDING, LoanRequestStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(LoanRequestNotFoundException.class, () -> loanRequestService.approveLoan(1L));
+        verifyNoInteractions(ledgerService);
+        verify(loanRepository, never()).save(any());
+    }
+
     @Test
     void testRejectLoan_RequestNotFound() {
         when(loanRequestRepository.findByIdAndStatus(1L, LoanRequestStatus.PENDING)).thenReturn(Optional.empty());
@@ -180,18 +202,27 @@ class LoanRequestServiceTest {
         LoanDto loanDto = new LoanDto();
 
         when(loanRequestRepository.findByIdAndStatus(loanRequestId, LoanRequestStatus.PENDING)).thenReturn(Optional.of(loanRequest));
+        when(loanRequestRepository.updateStatus(loanRequestId, LoanRequestStatus.PENDING, LoanRequestStatus.APPROVED)).thenReturn(1);
         when(accountRepository.findFirstByCurrencyAndCompanyId(currency, 1L)).thenReturn(Optional.of(bankAccount));
         when(loanRepository.save(Mockito.any(Loan.class))).thenReturn(loan);
-        when(installmentRepository.save(Mockito.any(Installment.class))).thenReturn(new Installment());
         when(loanMapper.toDto(Mockito.any(Loan.class))).thenReturn(loanDto);
 
         LoanDto result = loanRequestService.approveLoan(loanRequestId);
 
         assertEquals(loanDto, result);
         assertEquals(LoanRequestStatus.APPROVED, loanRequest.getStatus());
-        assertEquals(BigDecimal.valueOf(3000), clientAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(3000), clientAccount.getAvailableBalance());
-        assertEquals(BigDecimal.valueOf(49000), bankAccount.getBalance());
+        verify(ledgerService).post(eq(PostingType.LOAN_DISBURSEMENT), any(), argThat(legs ->
+                legs.size() == 2
+                        && legs.get(0).getAccountNumber().equals("BANK-123")
+                        && legs.get(0).getDirection() == LedgerEntryDirection.DEBIT
+                        && legs.get(1).getDirection() == LedgerEntryDirection.CREDIT
+                        && legs.get(1).getAmount().equals(new BigDecimal("1000.00"))));
+        // stanje se vise ne menja direktno na racunu
+        assertEquals(BigDecimal.valueOf(2000), clientAccount.getBalance());
+        // ceo plan otplate se cuva odmah
+        verify(installmentRepository).saveAll(argThat((List<Installment> installments) -> installments.size() == 12
+                && installments.get(11).getInstallmentNumber() == 12
+                && installments.get(11).getRemainingPrincipal().signum() == 0));
     }
 
     @Test
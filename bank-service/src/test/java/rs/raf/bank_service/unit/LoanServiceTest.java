@@ -1,10 +1,12 @@
 package rs.raf.bank_service.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
@@ -16,8 +18,10 @@ import rs.raf.bank_service.domain.enums.*;
 import rs.raf.bank_service.domain.mapper.InstallmentMapper;
 import rs.raf.bank_service.domain.mapper.LoanMapper;
 import rs.raf.bank_service.repository.*;
+import rs.raf.bank_service.service.AmortizationService;
+import rs.raf.bank_service.service.LedgerService;
+import rs.raf.bank_service.service.LoanScheduleBackfillService;
 import rs.raf.bank_service.service.LoanService;
-import rs.raf.bank_service.service.TransactionQueueService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -41,7 +45,9 @@ public class LoanServiceTest {
     @Mock private ScheduledExecutorService scheduledExecutorService;
     @Mock private InstallmentRepository installmentRepository;
     @Mock private InstallmentMapper installmentMapper;
-    @Mock private TransactionQueueService transactionQueueService;
+    @Mock private LedgerService ledgerService;
+    @Mock private LoanScheduleBackfillService loanScheduleBackfillService;
+    @Spy private AmortizationService amortizationService = new AmortizationService(new SimpleMeterRegistry(), 100);
 
     @InjectMocks private LoanService loanService;
 
@@ -59,6 +65,7 @@ public class LoanServiceTest {
         account = new PersonalAccount();
         account.setAccountNumber("12345");
         account.setClientId(1L);
+        account.setCurrency(currency);
         account.setBalance(BigDecimal.valueOf(50000));
         account.setAvailableBalance(BigDecimal.valueOf(50000));
 
@@ -195,29 +202,6 @@ public class LoanServiceTest {
         assertTrue(result.isEmpty());
     }
 
-    @Test
-    void testQueueDueInstallments_QueuesInstallmentsCorrectly() {
-        loan.setNextInstallmentDate(LocalDate.now());
-        loan.setStartDate(LocalDate.now().minusMonths(1));
-
-        when(loanRepository.findByNextInstallmentDateAndStartDateBefore(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(loan));
-
-        loanService.queueDueInstallments();
-
-        verify(transactionQueueService, times(1)).queueTransaction(TransactionType.PAY_INSTALLMENT, loan.getId());
-    }
-
-    @Test
-    void testQueueDueInstallments_NoLoans() {
-        when(loanRepository.findByNextInstallmentDateAndStartDateBefore(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(Collections.emptyList());
-
-        assertDoesNotThrow(() -> loanService.queueDueInstallments());
-
-        verify(transactionQueueService, never()).queueTransaction(any(), any());
-    }
-
     @Test
     void testRetryLoanPayment_SuccessfulRetry() {
         // Setup valuta
@@ -245,12 +229,20 @@ public class LoanServiceTest {
         when(accountRepository.findFirstByCurrencyAndCompanyId(currency, 1L))
                 .thenReturn(Optional.of(bankAccount));
 
+        when(ledgerService.getAvailableBalance(account)).thenReturn(account.getBalance());
+
+        when(installmentRepository.findCurrentAndNextOpen(List.of(loan.getId()), InstallmentStatus.PAID))
+                .thenReturn(List.of(installment));
+
         // Poziv
         loanService.retryLoanPayment(loan);
 
         // Provere
-        verify(accountRepository).save(account);
-        verify(accountRepository).save(bankAccount);
+        verify(ledgerService).post(eq(PostingType.INSTALLMENT), eq(loan.getId()), argThat(legs ->
+                legs.size() == 2
+                        && legs.get(0).getDirection() == LedgerEntryDirection.DEBIT
+                        && legs.get(1).getDirection() == LedgerEntryDirection.CREDIT));
+        verify(accountRepository, never()).save(any());
         assertEquals(InstallmentStatus.PAID, installment.getInstallmentStatus());
         assertNotNull(installment.getActualDueDate());
     }
@@ -259,6 +251,7 @@ public class LoanServiceTest {
     void testRetryLoanPayment_InsufficientFunds() {
         account.setBalance(BigDecimal.ZERO);
         when(accountRepository.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+        when(ledgerService.getAvailableBalance(account)).thenReturn(BigDecimal.ZERO);
 
         ClientDto clientDto = new ClientDto();
         clientDto.setEmail("client@example.com");
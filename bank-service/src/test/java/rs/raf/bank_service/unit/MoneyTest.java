@@ -0,0 +1,91 @@
+package rs.raf.bank_service.unit;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.domain.money.MoneyConverter;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    void testOfRoundedRoundsToCurrencyScale() {
+        assertEquals(10001, Money.ofRounded(new BigDecimal("100.005"), "RSD").getMinorUnits());
+        assertEquals(new BigDecimal("100.00"), Money.ofRounded(new BigDecimal("100"), "EUR").toBigDecimal());
+        // jen nema decimale
+        assertEquals(new BigDecimal("101"), Money.ofRounded(new BigDecimal("100.5"), "JPY").toBigDecimal());
+    }
+
+    @Test
+    void testOfRejectsMoreDecimalsThanCurrencyAllows() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("100.005"), "RSD"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("100.5"), "JPY"));
+        // nule na kraju nisu visak decimala
+        assertEquals(10000, Money.of(new BigDecimal("100.000"), "EUR").getMinorUnits());
+        assertEquals(new BigDecimal("100"), Money.of(new BigDecimal("100.00"), "JPY").toBigDecimal());
+    }
+
+    @Test
+    void testArithmeticInMinorUnits() {
+        Money a = Money.of(new BigDecimal("10.10"), "EUR");
+        Money b = Money.of(new BigDecimal("0.20"), "EUR");
+
+        assertEquals(Money.of(new BigDecimal("10.30"), "EUR"), a.plus(b));
+        assertEquals(Money.of(new BigDecimal("9.90"), "EUR"), a.minus(b));
+        assertTrue(b.isLessThan(a));
+        assertTrue(b.minus(a).isNegative());
+        assertEquals(a, a.max(b));
+    }
+
+    @Test
+    void testCurrencyMismatchIsRejected() {
+        Money eur = Money.of(BigDecimal.ONE, "EUR");
+        Money rsd = Money.of(BigDecimal.ONE, "RSD");
+
+        assertThrows(IllegalArgumentException.class, () -> eur.plus(rsd));
+        assertThrows(IllegalArgumentException.class, () -> eur.compareTo(rsd));
+    }
+
+    @Test
+    void testConvertRoundsByTargetCurrency() {
+        Money eur = Money.of(new BigDecimal("10.00"), "EUR");
+
+        assertEquals(new BigDecimal("1171.23"), eur.convert(new BigDecimal("117.1234"), "RSD").toBigDecimal());
+        assertEquals(new BigDecimal("1629"), eur.convert(new BigDecimal("162.93"), "JPY").toBigDecimal());
+        assertEquals(new BigDecimal("0.50"), eur.multiply(new BigDecimal("0.05")).toBigDecimal());
+    }
+
+    @Test
+    void testOverflowIsDetected() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, "RSD");
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1, "RSD")));
+    }
+
+    @Test
+    void testConverterRoundTrip() {
+        MoneyConverter converter = new MoneyConverter();
+        Money money = Money.of(new BigDecimal("-1234.5"), "CHF");
+
+        assertEquals("CHF -1234.50", converter.convertToDatabaseColumn(money));
+        assertEquals(money, converter.convertToEntityAttribute("CHF -1234.50"));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Money money = Money.of(new BigDecimal("100.1"), "EUR");
+
+        String json = mapper.writeValueAsString(money);
+
+        assertEquals("{\"amount\":100.10,\"currency\":\"EUR\"}", json);
+        assertEquals(money, mapper.readValue(json, Money.class));
+        assertEquals(money, mapper.readValue("{\"amount\":\"100.1\",\"currency\":\"EUR\"}", Money.class));
+        assertThrows(JsonMappingException.class, () -> mapper.readValue("{\"amount\":100.001,\"currency\":\"EUR\"}", Money.class));
+    }
+}
@@ -0,0 +1,148 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.raf.bank_service.domain.enums.CardIssuer;
+import rs.raf.bank_service.service.AccountNumberAllocator;
+import rs.raf.bank_service.service.CardNumberAllocator;
+import rs.raf.bank_service.service.SequenceBlockAllocator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NumberAllocatorTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sequenceBlockAllocator_OneNextvalPerBlock() {
+        givenSequence(10);
+        SequenceBlockAllocator allocator = new SequenceBlockAllocator(jdbcTemplate, "test_seq", 10, 1_000);
+
+        for (long expected = 1; expected <= 25; expected++)
+            assertEquals(expected, allocator.next());
+
+        verify(jdbcTemplate, times(1)).execute("CREATE SEQUENCE IF NOT EXISTS test_seq START WITH 1 INCREMENT BY 10");
+        verify(jdbcTemplate, times(3)).queryForObject("SELECT nextval('test_seq')", Long.class);
+    }
+
+    @Test
+    void sequenceBlockAllocator_Exhausted_Throws() {
+        givenSequence(10);
+        SequenceBlockAllocator allocator = new SequenceBlockAllocator(jdbcTemplate, "test_seq", 10, 15);
+
+        for (int i = 0; i < 10; i++)
+            allocator.next();
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    void sequenceBlockAllocator_Concurrent_NoDuplicates() throws InterruptedException {
+        givenSequence(50);
+        SequenceBlockAllocator allocator = new SequenceBlockAllocator(jdbcTemplate, "test_seq", 50, 1_000_000);
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++)
+            executor.submit(() -> values.add(allocator.next()));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(2000, values.size());
+    }
+
+    @Test
+    void sequenceBlockAllocator_SkipsTakenValues() {
+        givenSequence(10);
+        SequenceBlockAllocator allocator = new SequenceBlockAllocator(jdbcTemplate, "test_seq", 10, 1_000,
+                (from, to) -> from == 1 ? Set.of(2L, 3L, 10L) : Set.of(11L));
+
+        assertEquals(List.of(1L, 4L, 5L, 6L, 7L, 8L, 9L, 12L), List.of(allocator.next(), allocator.next(), allocator.next(),
+                allocator.next(), allocator.next(), allocator.next(), allocator.next(), allocator.next()));
+    }
+
+    @Test
+    void accountNumberAllocator_SkipsSerialOfExistingAccount() {
+        givenSequence(100);
+        // pocetni racun 333000100000000112 ima redni broj 1
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("333000100000000100"), eq("333000100000010099")))
+                .thenReturn(List.of("333000100000000112"));
+        AccountNumberAllocator allocator = new AccountNumberAllocator(jdbcTemplate, 100);
+
+        assertEquals("333000100000000212", allocator.next("COMPANY"));
+    }
+
+    @Test
+    void cardNumberAllocator_SkipsSerialOfExistingCard() {
+        givenSequence(100);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("5133330000000019", "4333330000000020", "3433330000001017"));
+        CardNumberAllocator allocator = new CardNumberAllocator(jdbcTemplate, 100);
+
+        assertTrue(allocator.next(CardIssuer.VISA).startsWith("433333000000003"));
+        for (int i = 0; i < 97; i++)
+            allocator.next(CardIssuer.VISA);
+        // redni broj 101 je zauzet, a postojece kartice se ne citaju ponovo za sledeci blok
+        assertTrue(allocator.next(CardIssuer.VISA).startsWith("433333000000102"));
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class));
+    }
+
+    @Test
+    void accountNumberAllocator_BankPrefixSerialAndOwnerType() {
+        givenSequence(100);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(jdbcTemplate, 100);
+
+        assertEquals("333000100000000111", allocator.next("PERSONAL"));
+        assertEquals("333000100000000212", allocator.next("COMPANY"));
+    }
+
+    @Test
+    void cardNumberAllocator_IssuerPrefixAndValidLuhn() {
+        givenSequence(100);
+        CardNumberAllocator allocator = new CardNumberAllocator(jdbcTemplate, 100);
+
+        String visa = allocator.next(CardIssuer.VISA);
+        assertEquals(16, visa.length());
+        assertTrue(visa.startsWith("433333000000001"));
+        assertTrue(isLuhnValid(visa));
+
+        for (CardIssuer issuer : CardIssuer.values())
+            assertTrue(isLuhnValid(allocator.next(issuer)), issuer.name());
+    }
+
+    // sekvenca koja raste za blockSize, kao u bazi
+    private void givenSequence(int blockSize) {
+        AtomicLong sequence = new AtomicLong(1 - blockSize);
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> sequence.addAndGet(blockSize));
+    }
+
+    private static boolean isLuhnValid(String number) {
+        int sum = 0;
+        boolean doubleDigit = false;
+        for (int i = number.length() - 1; i >= 0; i--) {
+            int digit = number.charAt(i) - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9)
+                    digit -= 9;
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return sum % 10 == 0;
+    }
+}
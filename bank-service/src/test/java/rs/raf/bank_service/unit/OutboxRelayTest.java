@@ -0,0 +1,145 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.bank_service.service.OutboxRelay;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private RabbitOperations rabbitOperations;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(rabbitTemplate, jdbcTemplate, transactionManager, meterRegistry, 2, 1000);
+    }
+
+    @Test
+    void relay_publishesBatchInOrderAndMarksSent() throws Exception {
+        lockAcquired(true);
+        unsentRows(List.of(row(1L, "", "transaction-queue.0", "rs.raf.Dto", "{\"a\":1}")), List.of());
+        rabbitInvokesCallback();
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitOperations).send(eq(""), eq("transaction-queue.0"), message.capture());
+        verify(rabbitOperations).waitForConfirmsOrDie(1000);
+        assertEquals("{\"a\":1}", new String(message.getValue().getBody(), StandardCharsets.UTF_8));
+        assertEquals("rs.raf.Dto", message.getValue().getMessageProperties().getHeader("__TypeId__"));
+        assertEquals("application/json", message.getValue().getMessageProperties().getContentType());
+
+        verify(jdbcTemplate).batchUpdate(contains("SET sent_at"), anyCollection(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.get("outbox.messages").tag("outcome", "published").counter().count());
+    }
+
+    @Test
+    void relay_fullBatchDrainsNextBatch() throws Exception {
+        lockAcquired(true);
+        unsentRows(List.of(row(1L, "", "q", null, "{}"), row(2L, "", "q", null, "{}")),
+                List.of(row(3L, "", "q", null, "{}")));
+        rabbitInvokesCallback();
+
+        outboxRelay.relay();
+
+        verify(rabbitOperations, times(3)).send(eq(""), eq("q"), any(Message.class));
+        verify(rabbitOperations, times(2)).waitForConfirmsOrDie(1000);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void relay_brokerFailureLeavesRowsUnsent() throws Exception {
+        lockAcquired(true);
+        unsentRows(List.of(row(1L, "", "q", null, "{}")), List.of());
+        when(rabbitTemplate.invoke(any())).thenThrow(new AmqpTimeoutException("no confirm"));
+
+        assertDoesNotThrow(() -> outboxRelay.relay());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.get("outbox.messages").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void relay_skipsWhenAnotherInstanceHoldsLock() {
+        lockAcquired(false);
+
+        outboxRelay.relay();
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private void lockAcquired(boolean acquired) {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any(Object[].class)))
+                .thenReturn(acquired);
+    }
+
+    @SafeVarargs
+    private void unsentRows(List<Row>... batches) throws Exception {
+        var stub = when(jdbcTemplate.query(contains("FROM outbox_messages"), any(RowMapper.class), any(Object[].class)));
+        for (List<Row> batch : batches) {
+            stub = stub.thenAnswer(invocation -> {
+                RowMapper<?> mapper = invocation.getArgument(1);
+                List<Object> mapped = new ArrayList<>();
+                for (Row row : batch)
+                    mapped.add(mapper.mapRow(row.toResultSet(), mapped.size()));
+                return mapped;
+            });
+        }
+    }
+
+    private void rabbitInvokesCallback() {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+    }
+
+    private static Row row(Long id, String exchange, String routingKey, String payloadType, String payload) {
+        return new Row(id, exchange, routingKey, payloadType, payload);
+    }
+
+    private record Row(Long id, String exchange, String routingKey, String payloadType, String payload) {
+        ResultSet toResultSet() throws Exception {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(id);
+            when(rs.getString("exchange")).thenReturn(exchange);
+            when(rs.getString("routing_key")).thenReturn(routingKey);
+            when(rs.getString("payload_type")).thenReturn(payloadType);
+            when(rs.getString("payload")).thenReturn(payload);
+            return rs;
+        }
+    }
+}
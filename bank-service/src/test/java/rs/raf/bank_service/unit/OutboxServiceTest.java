@@ -0,0 +1,59 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import rs.raf.bank_service.domain.dto.EmailRequestDto;
+import rs.raf.bank_service.domain.entity.OutboxMessage;
+import rs.raf.bank_service.repository.OutboxMessageRepository;
+import rs.raf.bank_service.service.OutboxService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxServiceTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxMessageRepository, new Jackson2JsonMessageConverter());
+    }
+
+    @Test
+    void enqueue_storesSerializedPayloadForDefaultExchange() {
+        EmailRequestDto email = new EmailRequestDto();
+        email.setCode("CARD_BLOCKED");
+        email.setDestination("client@example.com");
+
+        outboxService.enqueue("card-status-change", email);
+
+        ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxMessageRepository).save(captor.capture());
+        OutboxMessage message = captor.getValue();
+        assertEquals("", message.getExchange());
+        assertEquals("card-status-change", message.getRoutingKey());
+        assertEquals(EmailRequestDto.class.getName(), message.getPayloadType());
+        assertTrue(message.getPayload().contains("\"code\":\"CARD_BLOCKED\""));
+        assertNotNull(message.getCreatedAt());
+        assertNull(message.getSentAt());
+    }
+
+    @Test
+    void enqueue_keepsExchangeAndRoutingKey() {
+        outboxService.enqueue("user-events", "key", new EmailRequestDto());
+
+        ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxMessageRepository).save(captor.capture());
+        assertEquals("user-events", captor.getValue().getExchange());
+        assertEquals("key", captor.getValue().getRoutingKey());
+    }
+}
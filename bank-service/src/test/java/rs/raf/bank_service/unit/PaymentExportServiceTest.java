@@ -0,0 +1,173 @@
+package rs.raf.bank_service.unit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.enums.StatementFormat;
+import rs.raf.bank_service.exceptions.AccountNotFoundException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.service.PaymentExportService;
+import rs.raf.bank_service.utils.JwtTokenUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentExportServiceTest {
+
+    private static final String ACCOUNT = "111000100000000011";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private JwtTokenUtil jwtTokenUtil;
+
+    private PaymentExportService paymentExportService;
+
+    @BeforeEach
+    void setUp() {
+        paymentExportService = new PaymentExportService(jdbcTemplate, transactionManager, accountRepository, jwtTokenUtil, new ObjectMapper());
+    }
+
+    @Test
+    void testExportCsvWritesHeaderAndEscapesFields() throws Exception {
+        stubSegments(List.of(List.of(
+                row(1L, LocalDateTime.of(2025, 3, 1, 10, 0), ACCOUNT, "222000100000000022", "Marko, \"Mare\"", "100.50", "COMPLETED")
+        )));
+
+        String csv = export(StatementFormat.CSV);
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,date,direction"));
+        assertEquals("1,2025-03-01T10:00,DEBIT,\"Marko, \"\"Mare\"\"\"," + ACCOUNT + ",222000100000000022,100.50,100.50,COMPLETED,289,Racun,", lines[1]);
+    }
+
+    @Test
+    void testExportCsvEmptyStillWritesHeader() throws Exception {
+        stubSegments(List.of(List.of()));
+
+        String csv = export(StatementFormat.CSV);
+
+        assertTrue(csv.startsWith("id,date,direction"));
+        assertEquals(1, csv.split("\n").length);
+    }
+
+    @Test
+    void testExportJsonLinesOneObjectPerLine() throws Exception {
+        stubSegments(List.of(List.of(
+                row(1L, LocalDateTime.of(2025, 3, 1, 10, 0), ACCOUNT, "222000100000000022", "Marko", "100.50", "COMPLETED"),
+                row(2L, LocalDateTime.of(2025, 3, 2, 11, 0), "333000100000000033", ACCOUNT, "Jovan", "20", "PENDING")
+        )));
+
+        String jsonl = export(StatementFormat.JSONL);
+
+        String[] lines = jsonl.split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        JsonNode second = mapper.readTree(lines[1]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("DEBIT", first.get("direction").asText());
+        assertTrue(lines[0].contains("\"amount\":100.50"));
+        assertEquals("CREDIT", second.get("direction").asText());
+        assertEquals("2025-03-02T11:00", second.get("date").asText());
+    }
+
+    @Test
+    void testExportReadsInReadOnlySegmentsUntilShortSegment() throws Exception {
+        ReflectionTestUtils.setField(paymentExportService, "segmentSize", 2);
+        stubSegments(List.of(
+                List.of(row(1L, LocalDateTime.of(2025, 3, 1, 10, 0), ACCOUNT, "X", "A", "1", "COMPLETED"),
+                        row(2L, LocalDateTime.of(2025, 3, 1, 10, 0), ACCOUNT, "X", "A", "2", "COMPLETED")),
+                List.of(row(3L, LocalDateTime.of(2025, 3, 2, 10, 0), ACCOUNT, "X", "A", "3", "COMPLETED"))
+        ));
+
+        String csv = export(StatementFormat.CSV);
+
+        assertEquals(4, csv.split("\n").length);
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        assertTrue(definitions.getAllValues().stream().allMatch(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void testCheckAccessClientOnlyOwnAccount() {
+        when(jwtTokenUtil.getUserRoleFromAuthHeader("token")).thenReturn("CLIENT");
+        when(jwtTokenUtil.getUserIdFromAuthHeader("token")).thenReturn(5L);
+        when(accountRepository.findByAccountNumberAndClientId(ACCOUNT, 5L)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> paymentExportService.checkAccess("token", ACCOUNT));
+    }
+
+    @Test
+    void testCheckAccessEmployeeAnyAccount() {
+        when(jwtTokenUtil.getUserRoleFromAuthHeader("token")).thenReturn("EMPLOYEE");
+        when(accountRepository.findByAccountNumber(ACCOUNT)).thenReturn(Optional.of(mock(Account.class)));
+
+        assertDoesNotThrow(() -> paymentExportService.checkAccess("token", ACCOUNT));
+        verify(accountRepository, never()).findByAccountNumberAndClientId(any(), any());
+    }
+
+    private String export(StatementFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        paymentExportService.export(ACCOUNT, null, null, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void stubSegments(List<List<ResultSet>> segments) {
+        Deque<List<ResultSet>> remaining = new ArrayDeque<>(segments);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : remaining.poll())
+                handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private ResultSet row(Long id, LocalDateTime date, String sender, String receiver, String senderName,
+                          String amount, String status) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.getLong("id")).thenReturn(id);
+        lenient().when(rs.getTimestamp("date")).thenReturn(Timestamp.valueOf(date));
+        lenient().when(rs.getString("sender_account_number")).thenReturn(sender);
+        lenient().when(rs.getString("account_number_receiver")).thenReturn(receiver);
+        lenient().when(rs.getString("sender_name")).thenReturn(senderName);
+        lenient().when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal(amount));
+        lenient().when(rs.getBigDecimal("out_amount")).thenReturn(new BigDecimal(amount));
+        lenient().when(rs.getString("status")).thenReturn(status);
+        lenient().when(rs.getString("payment_code")).thenReturn("289");
+        lenient().when(rs.getString("purpose_of_payment")).thenReturn("Racun");
+        return rs;
+    }
+}
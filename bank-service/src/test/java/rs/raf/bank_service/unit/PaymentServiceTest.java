@@ -3,6 +3,7 @@ package rs.raf.bank_service.unit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -12,16 +13,27 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.configuration.RabbitMQConfig;
 import rs.raf.bank_service.domain.dto.*;
 import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.enums.LedgerEntryDirection;
 import rs.raf.bank_service.domain.enums.PaymentStatus;
+import rs.raf.bank_service.domain.enums.PostingType;
+import rs.raf.bank_service.domain.enums.TransactionType;
+import rs.raf.bank_service.domain.money.Money;
 import rs.raf.bank_service.exceptions.*;
 import rs.raf.bank_service.repository.AccountRepository;
 import rs.raf.bank_service.repository.CardRepository;
+import rs.raf.bank_service.repository.CompanyAccountRepository;
 import rs.raf.bank_service.domain.mapper.PaymentMapper;
+import rs.raf.bank_service.repository.PaymentOverviewRepository;
 import rs.raf.bank_service.repository.PaymentRepository;
 import rs.raf.bank_service.service.ExchangeRateService;
+import rs.raf.bank_service.service.LedgerService;
+import rs.raf.bank_service.service.OutboxService;
 import rs.raf.bank_service.service.PaymentService;
+import rs.raf.bank_service.service.SpendingLimitService;
+import rs.raf.bank_service.service.TransactionQueueService;
 import rs.raf.bank_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
@@ -29,6 +41,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -63,9 +76,42 @@ class PaymentServiceTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private SpendingLimitService spendingLimitService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CompanyAccountRepository companyAccountRepository;
+
+    @Mock
+    private TransactionQueueService transactionQueueService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(ledgerService.getAvailableBalance(any(Account.class))).thenAnswer(invocation -> ((Account) invocation.getArgument(0)).getBalance());
+        when(paymentRepository.updateStatus(anyLong(), eq(PaymentStatus.PENDING_CONFIRMATION), any())).thenReturn(1);
+    }
+
+    // Proverava stavke knjizenja kao trojke (broj racuna, smer, iznos)
+    @SuppressWarnings("unchecked")
+    private void assertLegs(PostingType postingType, Long referenceId, Object... expected) {
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).post(eq(postingType), eq(referenceId), captor.capture());
+
+        List<LedgerEntry> legs = captor.getValue();
+        assertEquals(expected.length / 3, legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            assertEquals(expected[i * 3], legs.get(i).getAccountNumber());
+            assertEquals(expected[i * 3 + 1], legs.get(i).getDirection());
+            // iznosi u ledger-u uvek imaju broj decimala valute
+            assertEquals(((BigDecimal) expected[i * 3 + 2]).setScale(2), legs.get(i).getAmount());
+        }
     }
 
     @Test
@@ -77,18 +123,9 @@ class PaymentServiceTest {
 
         when(jwtTokenUtil.getUserIdFromAuthHeader(token)).thenReturn(clientId);
 
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setClientId(clientId);
-        payment.setAmount(BigDecimal.valueOf(100));
-        payment.setDate(LocalDateTime.now());
-        payment.setStatus(PaymentStatus.COMPLETED);
-
-        Page<Payment> paymentPage = new PageImpl<>(Collections.singletonList(payment));
-        when(paymentRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(paymentPage);
-
-        when(paymentMapper.toOverviewDto(any(Payment.class))).thenReturn(new PaymentOverviewDto());
+        Page<PaymentOverviewRepository.OverviewRow> rowPage = new PageImpl<>(List.of(row(1L, LocalDateTime.now())));
+        when(paymentRepository.findOverviewPage(any(Specification.class), eq(pageable))).thenReturn(rowPage);
+        when(paymentMapper.toOverviewDto(any(PaymentOverviewRepository.OverviewRow.class), any())).thenReturn(new PaymentOverviewDto());
 
         // Act
         Page<PaymentOverviewDto> result = paymentService.getPayments(
@@ -97,7 +134,62 @@ class PaymentServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(paymentRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(paymentRepository, times(1)).findOverviewPage(any(Specification.class), eq(pageable));
+        // valute primalaca se citaju jednim upitom za celu stranu
+        verify(accountRepository, times(1)).findCurrencyCodes(Set.of("222"));
+    }
+
+    private PaymentOverviewRepository.OverviewRow row(Long id, LocalDateTime date) {
+        return new PaymentOverviewRepository.OverviewRow(id, "Pera", BigDecimal.TEN, BigDecimal.TEN, date,
+                PaymentStatus.COMPLETED, null, "RSD", "222");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPaymentsByCursor_MergesSentAndReceivedNewestFirst() {
+        String token = "valid-token";
+        LocalDateTime now = LocalDateTime.now();
+        when(jwtTokenUtil.getUserIdFromAuthHeader(token)).thenReturn(1L);
+
+        // id 3 je prenos izmedju sopstvenih racuna i vraca se u obe liste
+        when(paymentRepository.findOverviewRows(any(Specification.class), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(row(3L, now), row(1L, now.minusHours(2))))
+                .thenReturn(List.of(row(3L, now), row(2L, now.minusHours(1))));
+        AccountRepository.AccountCurrency currency = mock(AccountRepository.AccountCurrency.class);
+        when(currency.getAccountNumber()).thenReturn("222");
+        when(currency.getCurrencyCode()).thenReturn("EUR");
+        when(accountRepository.findCurrencyCodes(Set.of("222"))).thenReturn(List.of(currency));
+        when(paymentMapper.toOverviewDto(any(PaymentOverviewRepository.OverviewRow.class), eq("EUR")))
+                .thenAnswer(invocation -> {
+                    PaymentOverviewDto dto = new PaymentOverviewDto();
+                    dto.setId(((PaymentOverviewRepository.OverviewRow) invocation.getArgument(0)).getId());
+                    return dto;
+                });
+
+        PaymentCursorPageDto page = paymentService.getPaymentsByCursor(token, null, null, null, null, null, null, null, null, 2);
+
+        assertEquals(List.of(3L, 2L), page.getContent().stream().map(PaymentOverviewDto::getId).toList());
+        assertTrue(page.isHasNext());
+        assertNotNull(page.getNextCursor());
+
+        // sledeca strana krece posle poslednjeg vracenog reda (id 2)
+        when(paymentRepository.findOverviewRows(any(Specification.class), eq(now.minusHours(1)), eq(2L), eq(3)))
+                .thenReturn(List.of(row(1L, now.minusHours(2))))
+                .thenReturn(List.of());
+
+        PaymentCursorPageDto next = paymentService.getPaymentsByCursor(token, null, null, null, null, null, null, null, page.getNextCursor(), 2);
+
+        assertEquals(List.of(1L), next.getContent().stream().map(PaymentOverviewDto::getId).toList());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getPaymentsByCursor_InvalidCursor_ThrowsException() {
+        when(jwtTokenUtil.getUserIdFromAuthHeader("valid-token")).thenReturn(1L);
+
+        assertThrows(InvalidPaymentCursorException.class, () -> paymentService.getPaymentsByCursor(
+                "valid-token", null, null, null, null, null, null, null, "not-a-cursor", 10));
     }
 
     @Test
@@ -112,18 +204,9 @@ class PaymentServiceTest {
         when(cardRepository.findByCardNumber(cardNumber))
                 .thenReturn(Optional.of(new Card()));
 
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setClientId(clientId);
-        payment.setAmount(BigDecimal.valueOf(100));
-        payment.setDate(LocalDateTime.now());
-        payment.setStatus(PaymentStatus.COMPLETED);
-
-        Page<Payment> paymentPage = new PageImpl<>(Collections.singletonList(payment));
-        when(paymentRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(paymentPage);
-
-        when(paymentMapper.toOverviewDto(any(Payment.class))).thenReturn(new PaymentOverviewDto());
+        Page<PaymentOverviewRepository.OverviewRow> rowPage = new PageImpl<>(List.of(row(1L, LocalDateTime.now())));
+        when(paymentRepository.findOverviewPage(any(Specification.class), eq(pageable))).thenReturn(rowPage);
+        when(paymentMapper.toOverviewDto(any(PaymentOverviewRepository.OverviewRow.class), any())).thenReturn(new PaymentOverviewDto());
 
         // Act
         Page<PaymentOverviewDto> result = paymentService.getPayments(
@@ -132,7 +215,7 @@ class PaymentServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(paymentRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(paymentRepository, times(1)).findOverviewPage(any(Specification.class), eq(pageable));
     }
 
     @Test
@@ -172,20 +255,9 @@ class PaymentServiceTest {
                 .thenReturn(Optional.of(acc));
 
 
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setClientId(clientId);
-        payment.setAmount(BigDecimal.valueOf(100));
-        payment.setDate(LocalDateTime.now());
-        payment.setStatus(PaymentStatus.COMPLETED);
-
-
-        Page<Payment> paymentPage = new PageImpl<>(Collections.singletonList(payment));
-        when(paymentRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(paymentPage);
-
-
-        when(paymentMapper.toOverviewDto(any(Payment.class))).thenReturn(new PaymentOverviewDto());
+        Page<PaymentOverviewRepository.OverviewRow> rowPage = new PageImpl<>(List.of(row(1L, LocalDateTime.now())));
+        when(paymentRepository.findOverviewPage(any(Specification.class), eq(pageable))).thenReturn(rowPage);
+        when(paymentMapper.toOverviewDto(any(PaymentOverviewRepository.OverviewRow.class), any())).thenReturn(new PaymentOverviewDto());
 
         // Act
         Page<PaymentOverviewDto> result = paymentService.getPayments(
@@ -194,7 +266,7 @@ class PaymentServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(paymentRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(paymentRepository, times(1)).findOverviewPage(any(Specification.class), eq(pageable));
     }
 
     @Test
@@ -246,13 +318,9 @@ class PaymentServiceTest {
 
         when(jwtTokenUtil.getUserIdFromAuthHeader(token)).thenReturn(clientId);
 
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setClientId(clientId);
-
-        Page<Payment> paymentPage = new PageImpl<>(Collections.singletonList(payment));
-        when(paymentRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(paymentPage);
-        when(paymentMapper.toOverviewDto(any(Payment.class))).thenReturn(new PaymentOverviewDto());
+        Page<PaymentOverviewRepository.OverviewRow> rowPage = new PageImpl<>(List.of(row(1L, LocalDateTime.now())));
+        when(paymentRepository.findOverviewPage(any(Specification.class), eq(pageable))).thenReturn(rowPage);
+        when(paymentMapper.toOverviewDto(any(PaymentOverviewRepository.OverviewRow.class), any())).thenReturn(new PaymentOverviewDto());
 
         // Act
         Page<PaymentOverviewDto> result = paymentService.getPayments(
@@ -261,7 +329,7 @@ class PaymentServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(paymentRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(paymentRepository, times(1)).findOverviewPage(any(Specification.class), eq(pageable));
     }
 
 
@@ -356,18 +424,54 @@ class PaymentServiceTest {
                     "", payment.getPaymentCode(), payment.getPaymentCode());
         });
 
-        doNothing().when(userClient).createVerificationRequest(any(CreateVerificationRequestDto.class));
-
         // Act
         PaymentDto result = paymentService.createPaymentBeforeConfirmation(paymentDto, clientId);
 
         // Assert
         assertNotNull(result, "PaymentDto should not be null");
         assertNotNull(result.getId(), "PaymentDto ID should not be null");
-        assertEquals(BigDecimal.valueOf(100), result.getAmount(), "Amount should match input");
+        assertEquals(new BigDecimal("100.00"), result.getAmount(), "Amount should match input");
 
         verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(userClient, times(1)).createVerificationRequest(any(CreateVerificationRequestDto.class));
+        verify(outboxService, times(1)).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), any(CreateVerificationRequestDto.class));
+    }
+
+    @Test
+    void handleTax_RoundsComputedAmountToAccountCurrency() throws Exception {
+        Account sender = new PersonalAccount();
+        sender.setAccountNumber("111111");
+        sender.setBalance(BigDecimal.valueOf(1000));
+        sender.setCurrency(new Currency("RSD"));
+        CompanyAccount state = new CompanyAccount();
+        state.setAccountNumber("222222");
+        state.setCurrency(new Currency("RSD"));
+        state.setCompanyId(2L);
+
+        when(accountRepository.findByAccountNumber("111111")).thenReturn(Optional.of(sender));
+        when(accountRepository.findByAccountNumber("222222")).thenReturn(Optional.of(state));
+        when(companyAccountRepository.findByCompanyId(2L)).thenReturn(state);
+        when(userClient.getClientById(5L)).thenReturn(new ClientDto(5L, "Pera", "Peric"));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+        when(paymentMapper.toPaymentDto(any(Payment.class), anyString())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            return new PaymentDto(payment.getId(), payment.getAmount(), "tax", "111111", "222222", "", "N/A", "N/A");
+        });
+
+        // profit 100.37 * 0.15 ima vise decimala nego RSD
+        TaxDto taxDto = new TaxDto();
+        taxDto.setSenderAccountNumber("111111");
+        taxDto.setAmount(new BigDecimal("15.0555"));
+        taxDto.setClientId(5L);
+        paymentService.handleTax(taxDto);
+
+        ArgumentCaptor<Payment> saved = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).save(saved.capture());
+        assertEquals(new BigDecimal("15.06"), saved.getValue().getAmount());
+        verify(transactionQueueService).queueTransaction(TransactionType.CONFIRM_PAYMENT, 9L, null, "111111");
     }
 
 
@@ -401,11 +505,11 @@ class PaymentServiceTest {
         boolean result = paymentService.confirmTransferAndExecute(paymentId);
 
         assertTrue(result);
-        assertEquals(BigDecimal.valueOf(400), sender.getBalance());
-        assertEquals(BigDecimal.valueOf(300), receiver.getBalance());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
-        verify(accountRepository, times(1)).save(sender);
-        verify(accountRepository, times(1)).save(receiver);
+        assertLegs(PostingType.TRANSFER, paymentId,
+                "1", LedgerEntryDirection.DEBIT, BigDecimal.valueOf(100),
+                "2", LedgerEntryDirection.CREDIT, BigDecimal.valueOf(100));
+        verify(accountRepository, never()).save(any());
         verify(paymentRepository, times(1)).save(payment);
     }
 
@@ -462,17 +566,15 @@ class PaymentServiceTest {
         boolean result = paymentService.confirmTransferAndExecute(paymentId);
 
         assertTrue(result);
-        assertEquals(BigDecimal.valueOf(400), sender.getBalance());
-        assertEquals(BigDecimal.valueOf(1100), bankAccountFrom.getBalance());
-//        assertEquals(BigDecimal.valueOf(1915.0), bankAccountTo.getBalance());
-//        assertEquals(BigDecimal.valueOf(285), receiver.getBalance());
         assertEquals(convertedAmount, payment.getOutAmount());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertLegs(PostingType.TRANSFER, paymentId,
+                "1", LedgerEntryDirection.DEBIT, BigDecimal.valueOf(100),
+                "3", LedgerEntryDirection.CREDIT, BigDecimal.valueOf(100),
+                "4", LedgerEntryDirection.DEBIT, convertedAmount,
+                "2", LedgerEntryDirection.CREDIT, convertedAmount);
 
-        verify(accountRepository, times(2)).save(sender);
-        verify(accountRepository, times(1)).save(bankAccountFrom);
-        verify(accountRepository, times(1)).save(bankAccountTo);
-        verify(accountRepository, times(1)).save(receiver);
+        verify(accountRepository, never()).save(any());
         verify(paymentRepository, times(1)).save(payment);
     }
 
@@ -506,6 +608,7 @@ class PaymentServiceTest {
         Payment payment = new Payment();
         payment.setId(paymentId);
         payment.setAccountNumberReceiver("RECEIVER123");
+        payment.setAmount(new BigDecimal("100"));
         Account sender = new PersonalAccount();
         Currency usd = new Currency("USD");
         sender.setCurrency(usd);
@@ -522,6 +625,21 @@ class PaymentServiceTest {
         assertThrows(BankAccountNotFoundException.class, () -> paymentService.confirmTransferAndExecute(paymentId));
     }
 
+    @Test
+    void confirmPayment_AlreadyConfirmed_SkipsPosting() {
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        // ponovljena poruka - placanje je vec prebaceno u COMPLETED
+        when(paymentRepository.updateStatus(1L, PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.COMPLETED)).thenReturn(0);
+
+        paymentService.confirmPayment(1L);
+
+        verifyNoInteractions(ledgerService);
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
     @Test
     void confirmPayment_SameCurrency_Success() {
         Long paymentId = 1L;
@@ -550,11 +668,11 @@ class PaymentServiceTest {
 
         paymentService.confirmPayment(paymentId);
 
-        assertEquals(BigDecimal.valueOf(400), sender.getBalance());
-        assertEquals(BigDecimal.valueOf(300), receiver.getBalance());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
-        verify(accountRepository, times(1)).save(sender);
-        verify(accountRepository, times(1)).save(receiver);
+        assertLegs(PostingType.PAYMENT, paymentId,
+                "1", LedgerEntryDirection.DEBIT, BigDecimal.valueOf(100),
+                "2", LedgerEntryDirection.CREDIT, BigDecimal.valueOf(100));
+        verify(accountRepository, never()).save(any());
         verify(paymentRepository, times(1)).save(payment);
     }
 
@@ -610,17 +728,15 @@ class PaymentServiceTest {
 
         paymentService.confirmPayment(paymentId);
 
-        assertEquals(BigDecimal.valueOf(400), sender.getBalance());
-        assertEquals(BigDecimal.valueOf(1100), bankAccountFrom.getBalance());
-//        assertEquals(BigDecimal.valueOf(1915), bankAccountTo.getBalance());
-//        assertEquals(BigDecimal.valueOf(285), receiver.getBalance());
         assertEquals(convertedAmount, payment.getOutAmount());
         assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertLegs(PostingType.PAYMENT, paymentId,
+                "1", LedgerEntryDirection.DEBIT, BigDecimal.valueOf(100),
+                "3", LedgerEntryDirection.CREDIT, BigDecimal.valueOf(100),
+                "4", LedgerEntryDirection.DEBIT, convertedAmount,
+                "2", LedgerEntryDirection.CREDIT, convertedAmount);
 
-        verify(accountRepository, times(2)).save(sender);
-        verify(accountRepository, times(1)).save(bankAccountFrom);
-        verify(accountRepository, times(1)).save(bankAccountTo);
-        verify(accountRepository, times(1)).save(receiver);
+        verify(accountRepository, never()).save(any());
         verify(paymentRepository, times(1)).save(payment);
     }
 
@@ -676,7 +792,7 @@ class PaymentServiceTest {
 
         assertTrue(result);
         verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(userClient, times(1)).createVerificationRequest(any(CreateVerificationRequestDto.class));
+        verify(outboxService, times(1)).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), any(CreateVerificationRequestDto.class));
     }
 
     @Test
@@ -714,7 +830,7 @@ class PaymentServiceTest {
         assertTrue(result);
         verify(exchangeRateService).getExchangeRate("USD", "EUR");
         verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(userClient, times(1)).createVerificationRequest(any(CreateVerificationRequestDto.class));
+        verify(outboxService, times(1)).enqueue(eq(RabbitMQConfig.VERIFICATION_REQUEST_QUEUE), any(CreateVerificationRequestDto.class));
     }
 
     @Test
@@ -744,4 +860,64 @@ class PaymentServiceTest {
 
 
 
-}
\ No newline at end of file
+
+    @Test
+    void createTransferPendingConfirmation_SpendingLimitExceeded_ThrowsException() {
+        TransferDto transferDto = new TransferDto();
+        transferDto.setSenderAccountNumber("111111");
+        transferDto.setReceiverAccountNumber("222222");
+        transferDto.setAmount(BigDecimal.valueOf(300));
+
+        Currency currency = new Currency("RSD");
+        Account sender = new PersonalAccount();
+        sender.setAccountNumber("111111");
+        sender.setBalance(BigDecimal.valueOf(500));
+        sender.setCurrency(currency);
+
+        Account receiver = new PersonalAccount();
+        receiver.setAccountNumber("222222");
+        receiver.setCurrency(currency);
+
+        when(accountRepository.findByAccountNumberAndClientId("111111", 1L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findByAccountNumber("222222")).thenReturn(Optional.of(receiver));
+        doThrow(new SpendingLimitExceededException("111111", "daily", BigDecimal.valueOf(200), BigDecimal.ZERO, BigDecimal.valueOf(300)))
+                .when(spendingLimitService).reserve(sender, Money.of(BigDecimal.valueOf(300), "RSD"));
+
+        assertThrows(SpendingLimitExceededException.class, () ->
+                paymentService.createTransferPendingConfirmation(transferDto, 1L));
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void rejectPayment_ReleasesReservedSpending() {
+        Account sender = new PersonalAccount();
+        sender.setAccountNumber("111111");
+        sender.setCurrency(new Currency("RSD"));
+
+        Payment payment = new Payment();
+        payment.setId(5L);
+        payment.setSenderAccount(sender);
+        payment.setAmount(new BigDecimal("150.00"));
+        payment.setDate(LocalDateTime.now());
+        payment.setStatus(PaymentStatus.PENDING_CONFIRMATION);
+        when(paymentRepository.findById(5L)).thenReturn(Optional.of(payment));
+
+        paymentService.rejectPayment(5L);
+
+        assertEquals(PaymentStatus.CANCELED, payment.getStatus());
+        verify(paymentRepository).updateStatus(5L, PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.CANCELED);
+        verify(spendingLimitService).release(sender, Money.of(new BigDecimal("150.00"), "RSD"), payment.getDate().toLocalDate());
+    }
+
+    @Test
+    void rejectPayment_ConfirmedInMeantime_Throws() {
+        Payment payment = new Payment();
+        payment.setId(5L);
+        payment.setStatus(PaymentStatus.PENDING_CONFIRMATION);
+        when(paymentRepository.findById(5L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus(5L, PaymentStatus.PENDING_CONFIRMATION, PaymentStatus.CANCELED)).thenReturn(0);
+
+        assertThrows(RejectNonPendingRequestException.class, () -> paymentService.rejectPayment(5L));
+        verifyNoInteractions(spendingLimitService);
+    }
+}
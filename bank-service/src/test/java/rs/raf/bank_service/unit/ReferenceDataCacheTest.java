@@ -0,0 +1,127 @@
+package rs.raf.bank_service.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.CacheImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import rs.raf.bank_service.domain.dto.CacheRegionStatsDto;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.ExchangeRate;
+import rs.raf.bank_service.exceptions.CacheRegionNotFoundException;
+import rs.raf.bank_service.service.ReferenceDataCache;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReferenceDataCacheTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private SessionFactoryOptions options;
+    @Mock
+    private Cache cache;
+    @Mock
+    private CacheImplementor cacheImplementor;
+    @Mock
+    private Statistics statistics;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDataCache referenceDataCache;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getSessionFactoryOptions()).thenReturn(options);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(cache.unwrap(CacheImplementor.class)).thenReturn(cacheImplementor);
+        when(options.isSecondLevelCacheEnabled()).thenReturn(true);
+        when(options.isQueryCacheEnabled()).thenReturn(true);
+
+        meterRegistry = new SimpleMeterRegistry();
+        referenceDataCache = new ReferenceDataCache(entityManagerFactory, meterRegistry);
+    }
+
+    @Test
+    void constructor_createsQueryRegionsUpFront() {
+        verify(cacheImplementor).getQueryResultsCache(ReferenceDataCache.CURRENCY_QUERIES);
+        verify(cacheImplementor).getQueryResultsCache(ReferenceDataCache.EXCHANGE_RATE_QUERIES);
+    }
+
+    @Test
+    void evict_currenciesClearsEntityAndQueryRegion() {
+        referenceDataCache.evict(ReferenceDataCache.CURRENCIES);
+
+        verify(cache).evictEntityData(Currency.class);
+        verify(cache).evictQueryRegion(ReferenceDataCache.CURRENCY_QUERIES);
+        verify(cache, never()).evictEntityData(ExchangeRate.class);
+    }
+
+    @Test
+    void evict_allClearsEveryGroup() {
+        referenceDataCache.evict("all");
+
+        verify(cache).evictEntityData(Currency.class);
+        verify(cache).evictEntityData(ExchangeRate.class);
+        verify(cache).evictQueryRegion(ReferenceDataCache.EXCHANGE_RATE_QUERIES);
+    }
+
+    @Test
+    void evict_unknownGroupThrows() {
+        assertThrows(CacheRegionNotFoundException.class, () -> referenceDataCache.evict("accounts"));
+        verify(cache, never()).evictQueryRegion(anyString());
+    }
+
+    @Test
+    void statistics_reportHitRatioPerRegion() {
+        CacheRegionStatistics currencies = regionStatistics(9, 1, 1);
+        when(statistics.getDomainDataRegionStatistics(ReferenceDataCache.CURRENCIES)).thenReturn(currencies);
+        CacheRegionStatistics exchangeRateQueries = regionStatistics(3, 1, 1);
+        when(statistics.getQueryRegionStatistics(ReferenceDataCache.EXCHANGE_RATE_QUERIES)).thenReturn(exchangeRateQueries);
+
+        CacheRegionStatsDto currencyStats = referenceDataCache.getStatistics().stream()
+                .filter(stats -> stats.getRegion().equals(ReferenceDataCache.CURRENCIES)).findFirst().orElseThrow();
+        assertEquals(9, currencyStats.getHits());
+        assertEquals(0.9, currencyStats.getHitRatio(), 1e-9);
+
+        assertEquals(0.75, meterRegistry.get("reference.cache.hit.ratio").tag("region", ReferenceDataCache.EXCHANGE_RATE_QUERIES).gauge().value(), 1e-9);
+        assertEquals(3.0, meterRegistry.get("reference.cache.requests").tag("region", ReferenceDataCache.EXCHANGE_RATE_QUERIES)
+                .tag("result", "hit").functionCounter().count());
+        // region bez statistike
+        assertEquals(0.0, meterRegistry.get("reference.cache.hit.ratio").tag("region", ReferenceDataCache.EXCHANGE_RATES).gauge().value());
+    }
+
+    @Test
+    void statistics_zeroWhenSecondLevelCacheDisabled() {
+        when(options.isSecondLevelCacheEnabled()).thenReturn(false);
+
+        assertTrue(referenceDataCache.getStatistics().stream().allMatch(stats -> stats.getHits() == 0 && stats.getMisses() == 0));
+        verifyNoInteractions(statistics);
+    }
+
+    private static CacheRegionStatistics regionStatistics(long hits, long misses, long puts) {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(hits);
+        when(regionStatistics.getMissCount()).thenReturn(misses);
+        when(regionStatistics.getPutCount()).thenReturn(puts);
+        return regionStatistics;
+    }
+}
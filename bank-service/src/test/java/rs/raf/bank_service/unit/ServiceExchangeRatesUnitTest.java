@@ -14,6 +14,8 @@ import rs.raf.bank_service.exceptions.CurrencyNotFoundException;
 import rs.raf.bank_service.repository.CurrencyRepository;
 import rs.raf.bank_service.repository.ExchangeRateRepository;
 import rs.raf.bank_service.service.ExchangeRateService;
+import rs.raf.bank_service.service.OutboxService;
+import rs.raf.bank_service.service.ReferenceDataCache;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -31,6 +33,10 @@ class ServiceExchangeRatesUnitTest {
     private CurrencyRepository currencyRepository;
     @Mock
     private ExchangeRateClient exchangeRateClient;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private ReferenceDataCache referenceDataCache;
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -98,9 +104,8 @@ class ServiceExchangeRatesUnitTest {
         ConvertDto dto = new ConvertDto("RSD", "EUR", new BigDecimal("1000"));
 
         ExchangeRate rate = new ExchangeRate(null, null, rsd, eur, new BigDecimal("0.0085"), new BigDecimal("0.0086"));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(rsd));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eur));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(rsd, eur)).thenReturn(Optional.of(rate));
+        when(currencyRepository.findAll()).thenReturn(List.of(rsd, eur));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(rate));
 
         BigDecimal result = exchangeRateService.convert(dto);
 
@@ -109,26 +114,17 @@ class ServiceExchangeRatesUnitTest {
 
     @Test
     void testGetExchangeRate_CurrencyNotFound() {
-        when(currencyRepository.findByCode("XXX")).thenReturn(Optional.empty());
+        when(currencyRepository.findAll()).thenReturn(List.of(rsd, eur));
         assertThrows(CurrencyNotFoundException.class, () -> exchangeRateService.getExchangeRate("XXX", "EUR"));
     }
 
     @Test
     void testGetExchangeRate_IntermediateRateUsed() {
-        when(currencyRepository.findByCode("USD")).thenReturn(Optional.of(usd));
-        when(currencyRepository.findByCode("EUR")).thenReturn(Optional.of(eur));
-        when(currencyRepository.findByCode("RSD")).thenReturn(Optional.of(rsd));
-
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(usd, eur))
-                .thenReturn(Optional.empty());
-
         ExchangeRate usdToRsd = new ExchangeRate(null, null, usd, rsd, new BigDecimal("108.0"), new BigDecimal("109.0"));
         ExchangeRate rsdToEur = new ExchangeRate(null, null, rsd, eur, new BigDecimal("0.0085"), new BigDecimal("0.0086"));
 
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(usd, rsd))
-                .thenReturn(Optional.of(usdToRsd));
-        when(exchangeRateRepository.findByFromCurrencyAndToCurrency(rsd, eur))
-                .thenReturn(Optional.of(rsdToEur));
+        when(currencyRepository.findAll()).thenReturn(List.of(usd, eur, rsd));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(usdToRsd, rsdToEur));
 
         ExchangeRateDto result = exchangeRateService.getExchangeRate("USD", "EUR");
 
@@ -0,0 +1,369 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.bank_service.domain.entity.Account;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.entity.PersonalAccount;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.SpendingLimitExceededException;
+import rs.raf.bank_service.service.SpendingLimitService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SpendingLimitServiceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    // redovi tabele accounts koje vide sve instance servisa
+    private final Map<String, AccountsRow> rows = new ConcurrentHashMap<>();
+    private SpendingLimitService spendingLimitService;
+    private Account account;
+
+    @BeforeEach
+    void init() {
+        lenient().when(jdbcTemplate.update(anyString(), any(Object[].class), any(int[].class)))
+                .thenAnswer(invocation -> rows.get((String) invocation.getArgument(1, Object[].class)[5])
+                        .claim(invocation.getArgument(1)));
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenAnswer(invocation -> returnLeases(invocation.getArgument(1)));
+        lenient().when(jdbcTemplate.query(anyString(), any(Object[].class), any(int[].class), any(RowMapper.class)))
+                .thenAnswer(invocation -> Collections.singletonList(rows.get((String) invocation.getArgument(1, Object[].class)[2])
+                        .spending(invocation.getArgument(1))));
+
+        spendingLimitService = newInstance();
+
+        account = new PersonalAccount();
+        account.setAccountNumber("111111");
+        account.setCurrency(new Currency("RSD"));
+        account.setDailyLimit(new BigDecimal("500"));
+        account.setMonthlyLimit(new BigDecimal("5000"));
+        account.setDailySpending(new BigDecimal("100"));
+        account.setMonthlySpending(new BigDecimal("1000"));
+        account.setSpendingDate(LocalDate.now());
+        rows.put("111111", new AccountsRow(account));
+    }
+
+    @Test
+    void reserve_WithinLimits_Succeeds() {
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("400")));
+    }
+
+    @Test
+    void reserve_OverDailyLimit_Throws() {
+        spendingLimitService.reserve(account, rsd("300"));
+
+        SpendingLimitExceededException e = assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.reserve(account, rsd("100.01")));
+        assertTrue(e.getMessage().contains("daily"));
+    }
+
+    @Test
+    void reserve_OverMonthlyLimit_Throws() {
+        row().dailyLimit = null;
+        row().monthly = new BigDecimal("4900");
+
+        SpendingLimitExceededException e = assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.reserve(account, rsd("200")));
+        assertTrue(e.getMessage().contains("monthly"));
+    }
+
+    @Test
+    void reserve_StaleSpendingDate_StartsFromZero() {
+        row().date = LocalDate.now().minusMonths(1);
+        row().daily = new BigDecimal("500");
+        row().monthly = new BigDecimal("5000");
+
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("500")));
+    }
+
+    @Test
+    void release_FreesReservedAmount() {
+        spendingLimitService.reserve(account, rsd("400"));
+        spendingLimitService.release(account, rsd("400"), LocalDate.now());
+
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("400")));
+    }
+
+    @Test
+    void reserve_TransactionRolledBack_ReleasesReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spendingLimitService.reserve(account, rsd("400"));
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("400")));
+    }
+
+    @Test
+    void reserve_TransactionCommitted_KeepsReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spendingLimitService.reserve(account, rsd("400"));
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThrows(SpendingLimitExceededException.class, () -> spendingLimitService.reserve(account, rsd("1")));
+    }
+
+    @Test
+    void release_InTransaction_AppliedOnlyAfterCommit() {
+        spendingLimitService.reserve(account, rsd("400"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spendingLimitService.release(account, rsd("400"), LocalDate.now());
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThrows(SpendingLimitExceededException.class, () -> spendingLimitService.reserve(account, rsd("1")));
+    }
+
+    @Test
+    void reserveByAccountNumber_LoadsAccountOnlyOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        spendingLimitService.reserve("111111", rsd("100"), () -> {
+            loads.incrementAndGet();
+            return account;
+        });
+        spendingLimitService.reserve("111111", rsd("100"), () -> {
+            loads.incrementAndGet();
+            return account;
+        });
+
+        assertEquals(1, loads.get());
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.reserve("111111", rsd("200.01"), () -> account));
+    }
+
+    @Test
+    void updateLimits_AppliesToCachedCounter() {
+        spendingLimitService.reserve(account, rsd("100"));
+        account.setDailyLimit(new BigDecimal("1000"));
+        row().dailyLimit = new BigDecimal("1000");
+        spendingLimitService.updateLimits(account);
+
+        assertDoesNotThrow(() -> spendingLimitService.reserve("111111", rsd("700"), () -> fail("already cached")));
+    }
+
+    @Test
+    void reserve_WrongCurrency_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> spendingLimitService.reserve(account, Money.of(BigDecimal.ONE, "EUR")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ReturnsLeaseOfIdleAccount() {
+        spendingLimitService.reserve(account, rsd("10"));
+        // lease je 1/10 manjeg limita - 50 RSD je upisano u bazu, 40 jos nije potroseno
+        assertEquals(new BigDecimal("150.00"), row().daily);
+
+        // racun je bio aktivan od prethodnog flush-a, lease ostaje
+        spendingLimitService.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        spendingLimitService.flush();
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        Object[] update = captor.getValue().get(0);
+        assertEquals(new BigDecimal("40.00"), update[1]);
+        assertEquals(new BigDecimal("40.00"), update[3]);
+        assertEquals("111111", update[4]);
+        assertEquals(new BigDecimal("110.00"), row().daily);
+        assertEquals(new BigDecimal("1010.00"), row().monthly);
+
+        // nema vise nicega za vracanje
+        spendingLimitService.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_Failure_KeepsReturnForNextFlush() {
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doAnswer(invocation -> returnLeases(invocation.getArgument(1)))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        spendingLimitService.reserve(account, rsd("10"));
+        spendingLimitService.flush();
+        assertThrows(DataAccessResourceFailureException.class, () -> spendingLimitService.flush());
+        spendingLimitService.flush();
+
+        assertEquals(new BigDecimal("110.00"), row().daily);
+    }
+
+    @Test
+    void updateLimits_ReturnsLeaseTakenUnderOldLimit() {
+        spendingLimitService.reserve(account, rsd("10"));
+        account.setDailyLimit(new BigDecimal("120"));
+        row().dailyLimit = new BigDecimal("120");
+        spendingLimitService.updateLimits(account);
+
+        spendingLimitService.flush();
+
+        assertEquals(new BigDecimal("110.00"), row().daily);
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("10")));
+        assertThrows(SpendingLimitExceededException.class, () -> spendingLimitService.reserve(account, rsd("0.01")));
+    }
+
+    @Test
+    void reserve_Concurrent_NeverExceedsLimit() throws InterruptedException {
+        row().daily = BigDecimal.ZERO;
+        row().monthly = BigDecimal.ZERO;
+        AtomicInteger accepted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                try {
+                    spendingLimitService.reserve(account, rsd("10"));
+                    accepted.incrementAndGet();
+                } catch (SpendingLimitExceededException ignored) {
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, accepted.get());
+    }
+
+    @Test
+    void reserve_SeveralInstances_ShareOneLimit() {
+        row().daily = BigDecimal.ZERO;
+        row().monthly = BigDecimal.ZERO;
+        List<SpendingLimitService> instances = List.of(spendingLimitService, newInstance(), newInstance());
+        int accepted = 0;
+
+        for (int i = 0; i < 200; i++) {
+            try {
+                instances.get(i % instances.size()).reserve(account, rsd("10"));
+                accepted++;
+            } catch (SpendingLimitExceededException ignored) {
+            }
+        }
+
+        assertEquals(50, accepted);
+        assertEquals(new BigDecimal("500.00"), row().daily);
+    }
+
+    @Test
+    void reserve_OtherInstanceHoldsLease_ReturnedWhenIdle() {
+        SpendingLimitService other = newInstance();
+        row().daily = new BigDecimal("440");
+        other.reserve(account, rsd("10"));
+
+        // druga instanca drzi lease od 50, ostatak limita nije dovoljan
+        assertThrows(SpendingLimitExceededException.class, () -> spendingLimitService.reserve(account, rsd("40")));
+
+        other.flush();
+        other.flush();
+        assertDoesNotThrow(() -> spendingLimitService.reserve(account, rsd("40")));
+    }
+
+    private SpendingLimitService newInstance() {
+        return new SpendingLimitService(jdbcTemplate, transactionManager, 16, 10);
+    }
+
+    private AccountsRow row() {
+        return rows.get("111111");
+    }
+
+    private int[] returnLeases(List<Object[]> updates) {
+        updates.forEach(update -> rows.get((String) update[4]).giveBack(update));
+        return new int[updates.size()];
+    }
+
+    /// Red u accounts sa uslovnim update-om kao u SpendingLimitService
+    private static final class AccountsRow {
+        private BigDecimal dailyLimit;
+        private BigDecimal monthlyLimit;
+        private BigDecimal daily;
+        private BigDecimal monthly;
+        private LocalDate date;
+
+        AccountsRow(Account account) {
+            dailyLimit = account.getDailyLimit();
+            monthlyLimit = account.getMonthlyLimit();
+            daily = account.getDailySpending();
+            monthly = account.getMonthlySpending();
+            date = account.getSpendingDate();
+        }
+
+        synchronized int claim(Object[] args) {
+            LocalDate today = (LocalDate) args[0];
+            BigDecimal grant = (BigDecimal) args[1];
+            BigDecimal dailyAfter = dailyOn(today).add(grant);
+            BigDecimal monthlyAfter = monthlyIn((LocalDate) args[2]).add(grant);
+            if (dailyLimit != null && dailyAfter.compareTo(dailyLimit) > 0
+                    || monthlyLimit != null && monthlyAfter.compareTo(monthlyLimit) > 0)
+                return 0;
+            daily = dailyAfter;
+            monthly = monthlyAfter;
+            date = today;
+            return 1;
+        }
+
+        synchronized void giveBack(Object[] update) {
+            if (update[0].equals(date))
+                daily = daily.subtract((BigDecimal) update[1]).max(BigDecimal.ZERO);
+            if (!date.isBefore((LocalDate) update[2]))
+                monthly = monthly.subtract((BigDecimal) update[3]).max(BigDecimal.ZERO);
+        }
+
+        synchronized BigDecimal[] spending(Object[] args) {
+            return new BigDecimal[]{dailyLimit, monthlyLimit, dailyOn((LocalDate) args[0]), monthlyIn((LocalDate) args[1])};
+        }
+
+        private BigDecimal dailyOn(LocalDate today) {
+            return today.equals(date) ? daily : BigDecimal.ZERO;
+        }
+
+        private BigDecimal monthlyIn(LocalDate monthStart) {
+            return date != null && !date.isBefore(monthStart) ? monthly : BigDecimal.ZERO;
+        }
+    }
+
+    // ono sto transaction manager radi na kraju transakcije
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED)
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Money rsd(String amount) {
+        return Money.of(new BigDecimal(amount), "RSD");
+    }
+}
@@ -0,0 +1,304 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.bank_service.client.UserClient;
+import rs.raf.bank_service.domain.dto.*;
+import rs.raf.bank_service.domain.entity.*;
+import rs.raf.bank_service.domain.entity.Currency;
+import rs.raf.bank_service.domain.enums.*;
+import rs.raf.bank_service.domain.mapper.StandingOrderMapper;
+import rs.raf.bank_service.domain.money.Money;
+import rs.raf.bank_service.exceptions.ExchangeRateNotFoundException;
+import rs.raf.bank_service.exceptions.InvalidStandingOrderException;
+import rs.raf.bank_service.exceptions.SpendingLimitExceededException;
+import rs.raf.bank_service.repository.AccountRepository;
+import rs.raf.bank_service.repository.PaymentRepository;
+import rs.raf.bank_service.repository.StandingOrderRepository;
+import rs.raf.bank_service.service.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StandingOrderServiceTest {
+
+    @Mock private StandingOrderRepository standingOrderRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private LedgerService ledgerService;
+    @Mock private SpendingLimitService spendingLimitService;
+    @Mock private ExchangeRateService exchangeRateService;
+    @Mock private TransactionQueueService transactionQueueService;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private UserClient userClient;
+
+    private StandingOrderService standingOrderService;
+
+    private Currency rsd;
+    private Currency eur;
+    private PersonalAccount sender;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void init() {
+        standingOrderService = new StandingOrderService(standingOrderRepository, accountRepository, paymentRepository,
+                ledgerService, spendingLimitService, exchangeRateService, transactionQueueService,
+                new TransactionPartitioner(4), transactionManager, userClient, new StandingOrderMapper());
+        ReflectionTestUtils.setField(standingOrderService, "chunkSize", 2);
+
+        rsd = new Currency("RSD", "Dinar", "RSD", "RS", "Dinar", true);
+        eur = new Currency("EUR", "Euro", "EUR", "EU", "Euro", true);
+        sender = account("SENDER", rsd);
+        sender.setClientId(5L);
+    }
+
+    @Test
+    void testAdvance_KeepsMonthlyDayAndCompletesAfterEndDate() {
+        StandingOrder order = order(1L, StandingOrderFrequency.MONTHLY, LocalDate.of(2027, 1, 31));
+        order.setEndDate(LocalDate.of(2027, 3, 31));
+
+        order.advance();
+        assertEquals(LocalDate.of(2027, 2, 28), order.getNextExecutionDate());
+        order.advance();
+        // racuna se od pocetnog datuma, ne od 28. februara
+        assertEquals(LocalDate.of(2027, 3, 31), order.getNextExecutionDate());
+        order.advance();
+        assertNull(order.getNextExecutionDate());
+        assertEquals(StandingOrderStatus.COMPLETED, order.getStatus());
+
+        StandingOrder once = order(2L, StandingOrderFrequency.ONCE, today);
+        once.advance();
+        assertEquals(StandingOrderStatus.COMPLETED, once.getStatus());
+    }
+
+    @Test
+    void testCreateStandingOrder_StartsAtStartDate() {
+        when(accountRepository.findByAccountNumberAndClientId("SENDER", 5L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findByAccountNumber("R1")).thenReturn(Optional.of(account("R1", rsd)));
+        when(userClient.getClientById(5L)).thenReturn(new ClientDto(5L, "Pera", "Peric"));
+        when(standingOrderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StandingOrderDto result = standingOrderService.createStandingOrder(request(today.plusDays(3), null), 5L);
+
+        assertEquals(StandingOrderStatus.ACTIVE, result.getStatus());
+        assertEquals(today.plusDays(3), result.getNextExecutionDate());
+        ArgumentCaptor<StandingOrder> saved = ArgumentCaptor.forClass(StandingOrder.class);
+        verify(standingOrderRepository).save(saved.capture());
+        assertEquals("Pera Peric", saved.getValue().getSenderName());
+    }
+
+    @Test
+    void testCreateStandingOrder_RejectsEndBeforeStart() {
+        when(accountRepository.findByAccountNumberAndClientId("SENDER", 5L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findByAccountNumber("R1")).thenReturn(Optional.of(account("R1", rsd)));
+
+        assertThrows(InvalidStandingOrderException.class,
+                () -> standingOrderService.createStandingOrder(request(today.plusDays(3), today), 5L));
+        verify(standingOrderRepository, never()).save(any());
+    }
+
+    @Test
+    void testRunDueStandingOrders_ClaimsPagesAndQueuesByPartition() {
+        StandingOrder first = order(1L, StandingOrderFrequency.MONTHLY, today.minusMonths(1));
+        StandingOrder second = order(2L, StandingOrderFrequency.ONCE, today);
+        StandingOrder third = order(3L, StandingOrderFrequency.DAILY, today);
+        third.setSenderAccountNumber("OTHER");
+        when(standingOrderRepository.findDue(eq(StandingOrderStatus.ACTIVE), eq(today), any(), any()))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        standingOrderService.runDueStandingOrders();
+
+        // preuzimanje samo oznacava naloge - datum pomera izvrsenje
+        assertNotNull(first.getQueuedAt());
+        assertEquals(today.minusMonths(1), first.getNextExecutionDate());
+        assertEquals(StandingOrderStatus.ACTIVE, second.getStatus());
+        assertNotNull(third.getQueuedAt());
+        verify(standingOrderRepository, times(2)).findDue(any(), any(), any(), any());
+
+        ArgumentCaptor<StandingOrderBatchDto> batches = ArgumentCaptor.forClass(StandingOrderBatchDto.class);
+        verify(transactionQueueService).queueTransaction(eq(TransactionType.PAY_STANDING_ORDERS), batches.capture(),
+                isNull(), eq("SENDER"));
+        verify(transactionQueueService).queueTransaction(eq(TransactionType.PAY_STANDING_ORDERS), batches.capture(),
+                isNull(), eq("OTHER"));
+        StandingOrderBatchDto senderBatch = batches.getAllValues().get(0);
+        assertEquals(List.of(1L, 2L), senderBatch.getExecutions().stream().map(StandingOrderExecutionDto::getOrderId).toList());
+        assertEquals(today.minusMonths(1), senderBatch.getExecutions().get(0).getExecutionDate());
+    }
+
+    @Test
+    void testExecuteStandingOrders_PostsOnceAndRecordsResults() {
+        StandingOrder local = order(1L, StandingOrderFrequency.MONTHLY, today);
+        StandingOrder foreign = order(2L, StandingOrderFrequency.MONTHLY, today);
+        foreign.setReceiverAccountNumber("R2");
+        StandingOrder tooMuch = order(3L, StandingOrderFrequency.MONTHLY, today);
+        tooMuch.setAmount(new BigDecimal("5000"));
+        StandingOrder canceled = order(4L, StandingOrderFrequency.MONTHLY, today);
+        canceled.setStatus(StandingOrderStatus.CANCELED);
+        StandingOrder alreadyExecuted = order(5L, StandingOrderFrequency.MONTHLY, today);
+        alreadyExecuted.setLastExecutionDate(today);
+        when(standingOrderRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(local, foreign, tooMuch, canceled, alreadyExecuted));
+        when(accountRepository.findByAccountNumberIn(anyCollection()))
+                .thenReturn(List.of(sender, account("R1", rsd), account("R2", eur)));
+        when(ledgerService.getAvailableBalances(Set.of("SENDER"))).thenReturn(Map.of("SENDER", new BigDecimal("3000")));
+        when(exchangeRateService.getExchangeRate("RSD", "EUR"))
+                .thenReturn(new ExchangeRateDto(null, null, new BigDecimal("0.0085"), new BigDecimal("0.0080")));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(rsd, 1L)).thenReturn(Optional.of(bankAccount("BANK-RSD", rsd)));
+        when(accountRepository.findFirstByCurrencyAndCompanyId(eur, 1L)).thenReturn(Optional.of(bankAccount("BANK-EUR", eur)));
+
+        standingOrderService.executeStandingOrders(batch(1L, 2L, 3L, 4L, 5L));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Payment>> payments = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).saveAll(payments.capture());
+        assertEquals(2, payments.getValue().size());
+        assertEquals(0, new BigDecimal("8.50").compareTo(payments.getValue().get(1).getOutAmount()));
+        assertEquals(PaymentStatus.COMPLETED, payments.getValue().get(0).getStatus());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> legs = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).post(eq(PostingType.STANDING_ORDER), legs.capture());
+        // platilac i primalac po placanju + racuni banke za placanje u EUR
+        assertEquals(6, legs.getValue().size());
+
+        verify(spendingLimitService, times(2)).reserve(eq(sender), any(Money.class));
+        verify(standingOrderRepository).recordCompleted(List.of(1L, 2L), today);
+        verify(standingOrderRepository).recordFailed(List.of(3L), today, "Insufficient funds.");
+        // izvrseni i neuspeli nalozi idu na sledeci mesec, preskoceni ostaju gde su
+        assertEquals(today.plusMonths(1), local.getNextExecutionDate());
+        assertEquals(today.plusMonths(1), tooMuch.getNextExecutionDate());
+        assertEquals(today, alreadyExecuted.getNextExecutionDate());
+    }
+
+    @Test
+    void testExecuteStandingOrders_MissingRateFailsOnlyThatExecution() {
+        StandingOrder local = order(1L, StandingOrderFrequency.MONTHLY, today);
+        StandingOrder foreign = order(2L, StandingOrderFrequency.MONTHLY, today);
+        foreign.setReceiverAccountNumber("R2");
+        foreign.setQueuedAt(today.atStartOfDay());
+        when(standingOrderRepository.findAllById(anyCollection())).thenReturn(List.of(local, foreign));
+        when(accountRepository.findByAccountNumberIn(anyCollection()))
+                .thenReturn(List.of(sender, account("R1", rsd), account("R2", eur)));
+        when(ledgerService.getAvailableBalances(Set.of("SENDER"))).thenReturn(Map.of("SENDER", new BigDecimal("3000")));
+        when(exchangeRateService.getExchangeRate("RSD", "EUR")).thenThrow(new ExchangeRateNotFoundException("RSD", "EUR"));
+
+        standingOrderService.executeStandingOrders(batch(1L, 2L));
+
+        verify(ledgerService).post(eq(PostingType.STANDING_ORDER), anyList());
+        verify(spendingLimitService, times(1)).reserve(eq(sender), any(Money.class));
+        verify(standingOrderRepository).recordCompleted(List.of(1L), today);
+        verify(standingOrderRepository).recordFailed(List.of(2L), today, "Exchange rate not available.");
+        assertEquals(today.plusMonths(1), foreign.getNextExecutionDate());
+        assertNull(foreign.getQueuedAt());
+    }
+
+    @Test
+    void testExecuteStandingOrders_PostingFailsLeavesOrdersForRequeue() {
+        StandingOrder order = order(1L, StandingOrderFrequency.MONTHLY, today);
+        when(standingOrderRepository.findAllById(anyCollection())).thenReturn(List.of(order));
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(sender, account("R1", rsd)));
+        when(ledgerService.getAvailableBalances(Set.of("SENDER"))).thenReturn(Map.of("SENDER", new BigDecimal("3000")));
+        doThrow(new IllegalStateException("ledger unavailable")).when(ledgerService).post(any(), anyList());
+
+        assertThrows(IllegalStateException.class, () -> standingOrderService.executeStandingOrders(batch(1L)));
+
+        // transakcija se vraca, a nalog ostaje na istom datumu i bice preuzet ponovo
+        assertEquals(today, order.getNextExecutionDate());
+        verify(standingOrderRepository, never()).recordCompleted(any(), any());
+    }
+
+    @Test
+    void testExecuteStandingOrders_SpendingLimitFailsOnlyThatExecution() {
+        StandingOrder order = order(1L, StandingOrderFrequency.WEEKLY, today);
+        when(standingOrderRepository.findAllById(anyCollection())).thenReturn(List.of(order));
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(sender, account("R1", rsd)));
+        when(ledgerService.getAvailableBalances(Set.of("SENDER"))).thenReturn(Map.of("SENDER", new BigDecimal("3000")));
+        doThrow(new SpendingLimitExceededException("SENDER", "daily", BigDecimal.ONE, BigDecimal.ONE, BigDecimal.TEN))
+                .when(spendingLimitService).reserve(eq(sender), any(Money.class));
+
+        standingOrderService.executeStandingOrders(batch(1L));
+
+        verifyNoInteractions(paymentRepository);
+        verify(ledgerService, never()).post(any(), anyList());
+        verify(standingOrderRepository).recordFailed(List.of(1L), today, "Spending limit exceeded.");
+        verify(standingOrderRepository, never()).recordCompleted(any(), any());
+    }
+
+    @Test
+    void testCancelStandingOrder() {
+        StandingOrder order = order(1L, StandingOrderFrequency.MONTHLY, today.plusDays(1));
+        when(standingOrderRepository.findByIdAndClientId(1L, 5L)).thenReturn(Optional.of(order));
+        when(standingOrderRepository.save(order)).thenReturn(order);
+
+        StandingOrderDto result = standingOrderService.cancelStandingOrder(1L, 5L);
+
+        assertEquals(StandingOrderStatus.CANCELED, result.getStatus());
+        assertNull(result.getNextExecutionDate());
+        assertThrows(InvalidStandingOrderException.class, () -> standingOrderService.cancelStandingOrder(1L, 5L));
+    }
+
+    private StandingOrder order(Long id, StandingOrderFrequency frequency, LocalDate startDate) {
+        StandingOrder order = new StandingOrder();
+        order.setId(id);
+        order.setClientId(5L);
+        order.setSenderAccountNumber("SENDER");
+        order.setSenderName("Pera Peric");
+        order.setReceiverAccountNumber("R1");
+        order.setAmount(new BigDecimal("1000"));
+        order.setPaymentCode("289");
+        order.setPurposeOfPayment("Kirija");
+        order.setFrequency(frequency);
+        order.setStartDate(startDate);
+        order.setNextExecutionDate(startDate);
+        order.setStatus(StandingOrderStatus.ACTIVE);
+        return order;
+    }
+
+    private StandingOrderBatchDto batch(Long... orderIds) {
+        return new StandingOrderBatchDto(Arrays.stream(orderIds)
+                .map(id -> new StandingOrderExecutionDto(id, today))
+                .toList());
+    }
+
+    private static PersonalAccount account(String accountNumber, Currency currency) {
+        PersonalAccount account = new PersonalAccount();
+        account.setAccountNumber(accountNumber);
+        account.setClientId(50L);
+        account.setCurrency(currency);
+        account.setStatus(AccountStatus.ACTIVE);
+        return account;
+    }
+
+    private static CompanyAccount bankAccount(String accountNumber, Currency currency) {
+        CompanyAccount account = new CompanyAccount();
+        account.setAccountNumber(accountNumber);
+        account.setCompanyId(1L);
+        account.setCurrency(currency);
+        return account;
+    }
+
+    private static CreateStandingOrderDto request(LocalDate startDate, LocalDate endDate) {
+        CreateStandingOrderDto dto = new CreateStandingOrderDto();
+        dto.setSenderAccountNumber("SENDER");
+        dto.setReceiverAccountNumber("R1");
+        dto.setAmount(new BigDecimal("25000"));
+        dto.setPaymentCode("289");
+        dto.setPurposeOfPayment("Kirija");
+        dto.setFrequency(StandingOrderFrequency.MONTHLY);
+        dto.setStartDate(startDate);
+        dto.setEndDate(endDate);
+        return dto;
+    }
+}
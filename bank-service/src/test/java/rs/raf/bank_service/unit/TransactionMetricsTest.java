@@ -0,0 +1,110 @@
+package rs.raf.bank_service.unit;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.raf.bank_service.domain.dto.TransactionMessageDto;
+import rs.raf.bank_service.domain.dto.TransactionTypeStatsDto;
+import rs.raf.bank_service.domain.enums.TransactionType;
+import rs.raf.bank_service.service.TransactionMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionMetricsTest {
+
+    private MockClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionMetrics transactionMetrics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MockClock();
+        meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        transactionMetrics = new TransactionMetrics(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void recordsLagAndProcessingTimeWithoutTransaction() {
+        TransactionMessageDto message = message(TransactionType.CONFIRM_PAYMENT, clock.wallTime() - 250);
+
+        TransactionMetrics.InFlight inFlight = transactionMetrics.start(message);
+        assertEquals(1.0, meterRegistry.get("transaction.in.flight").tag("type", "CONFIRM_PAYMENT").gauge().value());
+        clock.add(Duration.ofMillis(40));
+        inFlight.finish();
+
+        assertEquals(250, meterRegistry.get("transaction.queue.lag").tag("type", "CONFIRM_PAYMENT").timer().max(TimeUnit.MILLISECONDS));
+        var processing = meterRegistry.get("transaction.processing").tags("type", "CONFIRM_PAYMENT", "outcome", "success").timer();
+        assertEquals(1, processing.count());
+        assertEquals(40, processing.max(TimeUnit.MILLISECONDS));
+        assertEquals(0.0, meterRegistry.get("transaction.in.flight").tag("type", "CONFIRM_PAYMENT").gauge().value());
+    }
+
+    @Test
+    void countsFailuresByExceptionClass() {
+        TransactionMetrics.InFlight inFlight = transactionMetrics.start(message(TransactionType.APPROVE_LOAN, null));
+        inFlight.failed(new JsonParseException(null, "bad payload"));
+        inFlight.finish();
+
+        assertEquals(1.0, meterRegistry.get("transaction.failures")
+                .tags("type", "APPROVE_LOAN", "exception", "JsonParseException").counter().count());
+        assertEquals(1, meterRegistry.get("transaction.processing").tags("type", "APPROVE_LOAN", "outcome", "failure").timer().count());
+        assertEquals(0, meterRegistry.get("transaction.queue.lag").tag("type", "APPROVE_LOAN").timer().count());
+    }
+
+    @Test
+    void waitsForTransactionCompletionAndReportsRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionMetrics.InFlight inFlight = transactionMetrics.start(message(TransactionType.CONFIRM_TRANSFER, clock.wallTime()));
+        inFlight.finish();
+        clock.add(Duration.ofSeconds(3));
+
+        TransactionTypeStatsDto stats = stats("CONFIRM_TRANSFER");
+        assertEquals(1, stats.getInFlight());
+        assertEquals(3.0, stats.getOldestInFlightSeconds());
+        assertEquals(0, stats.getSucceeded());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        stats = stats("CONFIRM_TRANSFER");
+        assertEquals(0, stats.getInFlight());
+        assertEquals(0.0, stats.getOldestInFlightSeconds());
+        assertEquals(1, stats.getRolledBack());
+        assertEquals(0, stats.getSucceeded());
+    }
+
+    @Test
+    void messageWithoutTypeIsReportedAsUnknown() {
+        transactionMetrics.start(message(null, null)).finish();
+
+        assertEquals(1, stats("unknown").getSucceeded());
+        assertEquals(TransactionType.values().length + 1, transactionMetrics.getStatistics().size());
+    }
+
+    private TransactionTypeStatsDto stats(String type) {
+        return transactionMetrics.getStatistics().stream()
+                .filter(stats -> stats.getType().equals(type))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static TransactionMessageDto message(TransactionType type, Long timestamp) {
+        return new TransactionMessageDto(type, "1", 1L, timestamp);
+    }
+}
@@ -0,0 +1,65 @@
+package rs.raf.bank_service.unit;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.bank_service.service.TransactionPartitioner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionPartitionerTest {
+
+    @Test
+    void partitionFor_SameAccount_AlwaysSamePartition() {
+        TransactionPartitioner partitioner = new TransactionPartitioner(8);
+
+        int partition = partitioner.partitionFor("333000112345678910");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(partition, partitioner.partitionFor("333000112345678910"));
+        }
+        assertEquals("transaction-queue." + partition, partitioner.queueFor("333000112345678910"));
+    }
+
+    @Test
+    void partitionFor_SpreadsAccountsOverAllPartitions() {
+        TransactionPartitioner partitioner = new TransactionPartitioner(4);
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            int partition = partitioner.partitionFor("3330001" + String.format("%011d", i));
+            assertTrue(partition >= 0 && partition < 4);
+            used.add(partition);
+        }
+        assertEquals(4, used.size());
+    }
+
+    @Test
+    void partitionFor_AddingPartition_MovesOnlyKeysToNewPartition() {
+        TransactionPartitioner four = new TransactionPartitioner(4);
+        TransactionPartitioner five = new TransactionPartitioner(5);
+
+        for (int i = 0; i < 500; i++) {
+            String accountNumber = "3330001" + String.format("%011d", i);
+            int before = four.partitionFor(accountNumber);
+            int after = five.partitionFor(accountNumber);
+            assertTrue(after == before || after == 4);
+        }
+    }
+
+    @Test
+    void recordProcessed_TracksCountAndLag() {
+        TransactionPartitioner partitioner = new TransactionPartitioner(2);
+
+        partitioner.recordProcessed(1, System.currentTimeMillis() - 250);
+
+        assertEquals(1, partitioner.getProcessed(1));
+        assertEquals(0, partitioner.getProcessed(0));
+        assertTrue(partitioner.getLastLagMs(1) >= 250);
+    }
+
+    @Test
+    void constructor_InvalidPartitionCount_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new TransactionPartitioner(0));
+    }
+}
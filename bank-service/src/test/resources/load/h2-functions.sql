@@ -0,0 +1,4 @@
+CREATE ALIAS IF NOT EXISTS pg_try_advisory_xact_lock FOR "rs.raf.bank_service.load.H2Functions.tryAdvisoryXactLock";
+CREATE ALIAS IF NOT EXISTS txid_current FOR "rs.raf.bank_service.load.H2Functions.txidCurrent";
+CREATE ALIAS IF NOT EXISTS txid_current_snapshot FOR "rs.raf.bank_service.load.H2Functions.txidCurrentSnapshot";
+CREATE ALIAS IF NOT EXISTS txid_snapshot_xmin FOR "rs.raf.bank_service.load.H2Functions.txidSnapshotXmin";
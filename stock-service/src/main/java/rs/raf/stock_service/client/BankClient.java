@@ -11,12 +11,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /// Klasa koja sluzi za slanje HTTP poziva na bankService
 @FeignClient(name = "bank-service", url = "${spring.cloud.openfeign.client.config.bank-service.url}",
         fallbackFactory = BankClientFallbackFactory.class, decode404 = true)
 public interface BankClient {
 
+    /// Najvise konverzija po jednom pozivu; mora da odgovara ExchangeRateController.MAX_BATCH_SIZE u bank-service
+    int MAX_CONVERT_BATCH_SIZE = 100;
+
     @GetMapping("/api/account/{accountNumber}/balance")
     BigDecimal getAccountBalance(@PathVariable("accountNumber") String accountNumber);
 
@@ -26,6 +31,24 @@ public interface BankClient {
     @PostMapping("api/exchange-rates/convert")
     BigDecimal convert(@RequestBody ConvertDto convertDto);
 
+    /// Vise konverzija u jednom HTTP pozivu, rezultati su u redosledu zahteva
+    @PostMapping("api/exchange-rates/convert/batch")
+    List<BigDecimal> convertBatch(@RequestBody List<ConvertDto> convertDtos);
+
+    /// Kao convertBatch, ali deli zahteve u delove od najvise MAX_CONVERT_BATCH_SIZE;
+    /// vraca null ako bilo koji deo ne uspe, kao i fallback
+    default List<BigDecimal> convertAll(List<ConvertDto> convertDtos) {
+        List<BigDecimal> converted = new ArrayList<>(convertDtos.size());
+        for (int from = 0; from < convertDtos.size(); from += MAX_CONVERT_BATCH_SIZE) {
+            List<BigDecimal> chunk = convertBatch(
+                    convertDtos.subList(from, Math.min(from + MAX_CONVERT_BATCH_SIZE, convertDtos.size())));
+            if (chunk == null)
+                return null;
+            converted.addAll(chunk);
+        }
+        return converted;
+    }
+
     @GetMapping("api/account/details/{accountNumber}")
     AccountDetailsDto getAccountDetails(@PathVariable("accountNumber") String accountNumber);
 
@@ -10,6 +10,7 @@ import rs.raf.stock_service.exceptions.AccountNotFoundException;
 import rs.raf.stock_service.exceptions.InsufficientFundsException;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Component
 public class BankClientFallbackFactory implements FallbackFactory<BankClient> {
@@ -31,6 +32,11 @@ public class BankClientFallbackFactory implements FallbackFactory<BankClient> {
                 return null;
             }
 
+            @Override
+            public List<BigDecimal> convertBatch(List<ConvertDto> convertDtos) {
+                return null;
+            }
+
             @Override
             public AccountDetailsDto getAccountDetails(String accountNumber) {
                 return null;
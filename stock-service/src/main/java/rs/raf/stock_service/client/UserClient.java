@@ -3,13 +3,13 @@ package rs.raf.stock_service.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
-import rs.raf.stock_service.domain.dto.ActuaryDto;
-import rs.raf.stock_service.domain.dto.ActuaryLimitDto;
-import rs.raf.stock_service.domain.dto.ClientDto;
-import rs.raf.stock_service.domain.dto.UserTaxDto;
+import rs.raf.stock_service.domain.dto.*;
 
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 
 /// Klasa koja sluzi za slanje HTTP poziva na userService
@@ -28,6 +28,35 @@ public interface UserClient {
     @GetMapping("/api/admin/actuaries/all")
     List<UserTaxDto> getAgentsAndClients(@RequestParam String name, @RequestParam String surname,@RequestParam String role);
 
+    @PostMapping("/api/admin/users/batch")
+    UserBatchDto getUsersByIds(@RequestBody UserBatchRequestDto request);
+
+    /// Najvise id-jeva po jednom batch pozivu; mora da odgovara @Size na UserBatchRequestDto u user-service
+    int MAX_BATCH_IDS = 1000;
+
+    /// Ime i prezime za svaki id (klijent ili zaposleni) u pozivima od najvise MAX_BATCH_IDS umesto getClientById
+    /// pa getEmployeeById po stavci. Id-jevi koji nisu pronadjeni nisu u mapi.
+    default Map<Long, String> getUserNames(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, String> names = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_BATCH_IDS) {
+            Set<Long> chunk = new HashSet<>(distinctIds.subList(from, Math.min(from + MAX_BATCH_IDS, distinctIds.size())));
+            UserBatchDto batch = getUsersByIds(new UserBatchRequestDto(chunk));
+            if (batch == null)
+                continue;
+            if (batch.getClients() != null)
+                batch.getClients().forEach(client -> putName(names, client.getId(), client.getFirstName(), client.getLastName()));
+            if (batch.getEmployees() != null)
+                batch.getEmployees().forEach(employee -> putName(names, employee.getId(), employee.getFirstName(), employee.getLastName()));
+        }
+        return names;
+    }
+
+    private static void putName(Map<Long, String> names, Long id, String firstName, String lastName) {
+        if (id == null || (firstName == null && lastName == null))
+            return;
+        names.put(id, (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
+    }
 
 }
 
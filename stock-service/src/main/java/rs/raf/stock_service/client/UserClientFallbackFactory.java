@@ -6,6 +6,8 @@ import org.springframework.stereotype.Component;
 import rs.raf.stock_service.domain.dto.ActuaryDto;
 import rs.raf.stock_service.domain.dto.ActuaryLimitDto;
 import rs.raf.stock_service.domain.dto.ClientDto;
+import rs.raf.stock_service.domain.dto.UserBatchDto;
+import rs.raf.stock_service.domain.dto.UserBatchRequestDto;
 import rs.raf.stock_service.domain.dto.UserTaxDto;
 import rs.raf.stock_service.exceptions.ActuaryLimitNotFoundException;
 
@@ -44,6 +46,11 @@ public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
             public List<UserTaxDto> getAgentsAndClients(String name, String surname, String role) {
                 return null;
             }
+
+            @Override
+            public UserBatchDto getUsersByIds(UserBatchRequestDto request) {
+                return new UserBatchDto();
+            }
         };
     }
 }
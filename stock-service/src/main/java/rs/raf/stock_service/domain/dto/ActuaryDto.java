@@ -9,6 +9,7 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class ActuaryDto {
+    private Long id;
     private String firstName;
     private String lastName;
 }
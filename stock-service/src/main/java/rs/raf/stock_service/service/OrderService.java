@@ -26,7 +26,9 @@ import rs.raf.stock_service.utils.JwtTokenUtil;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -34,6 +36,8 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class OrderService {
 
+    private static final String UNKNOWN_USER = "Unknown User";
+
     private final OrderRepository orderRepository;
     private final JwtTokenUtil jwtTokenUtil;
     private final UserClient userClient;
@@ -50,10 +54,12 @@ public class OrderService {
                 ? orderRepository.findAll(pageable)
                 : orderRepository.findByStatus(status, pageable);
 
+        // imena za celu stranu jednim pozivom ka user-service
+        Map<Long, String> names = getClientNames(ordersPage.getContent());
         return ordersPage.map(order -> {
             ListingDto listingDto = listingMapper.toDto(order.getListing(),
                     listingPriceHistoryRepository.findTopByListingOrderByDateDesc(order.getListing()));
-            String clientName = getClientName(order);
+            String clientName = names.getOrDefault(order.getUserId(), UNKNOWN_USER);
             return OrderMapper.toDto(order, listingDto, clientName, order.getAccountNumber());
         });
     }
@@ -69,10 +75,11 @@ public class OrderService {
             throw new UnauthorizedException("Unauthorized attempt at getting user's orders.");
         }
 
+        Map<Long, String> names = getClientNames(ordersList);
         return ordersList.stream().map(order -> {
             ListingDto listingDto = listingMapper.toDto(order.getListing(),
                     listingPriceHistoryRepository.findTopByListingOrderByDateDesc(order.getListing()));
-            String clientName = getClientName(order);
+            String clientName = names.getOrDefault(order.getUserId(), UNKNOWN_USER);
             return OrderMapper.toDto(order, listingDto, clientName, order.getAccountNumber());
         }).toList();
     }
@@ -80,14 +87,23 @@ public class OrderService {
     public List<OrderDto> getAllOrders() {
         List<Order> orders = orderRepository.findAllByDirection(OrderDirection.SELL);
 
+        Map<Long, String> names = getClientNames(orders);
         return orders.stream().map(order -> {
             ListingDto listingDto = listingMapper.toDto(order.getListing(),
                     listingPriceHistoryRepository.findTopByListingOrderByDateDesc(order.getListing()));
-            String clientName = getClientName(order);
+            String clientName = names.getOrDefault(order.getUserId(), UNKNOWN_USER);
             return OrderMapper.toDto(order, listingDto, clientName, order.getAccountNumber());
         }).collect(Collectors.toList());
     }
 
+    private Map<Long, String> getClientNames(List<Order> orders) {
+        try {
+            return userClient.getUserNames(orders.stream().map(Order::getUserId).toList());
+        } catch (Exception e) {
+            return Collections.emptyMap();
+        }
+    }
+
     private String getClientName(Order order) {
         try {
             ClientDto client = userClient.getClientById(order.getUserId());
@@ -97,13 +113,13 @@ public class OrderService {
                 ActuaryDto actuary = userClient.getEmployeeById(order.getUserId());
                 return formatName(actuary.getFirstName(), actuary.getLastName());
             } catch (Exception e2) {
-                return "Unknown User";
+                return UNKNOWN_USER;
             }
         }
     }
 
     private String formatName(String firstName, String lastName) {
-        if (firstName == null && lastName == null) return "Unknown User";
+        if (firstName == null && lastName == null) return UNKNOWN_USER;
         return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
     }
 
@@ -24,8 +24,10 @@ import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -69,28 +71,31 @@ public class OtcService {
     }
 
     public List<OtcOfferDto> getAllActiveOffersForUser(Long userId) {
-        return otcOfferRepository.findAllByStatus(OtcOfferStatus.PENDING).stream()
+        List<OtcOffer> offers = otcOfferRepository.findAllByStatus(OtcOfferStatus.PENDING).stream()
                 .filter(offer -> offer.getSellerId().equals(userId) || offer.getBuyerId().equals(userId))
                 .sorted(Comparator.comparing(OtcOffer::getLastModified).reversed())
-                .map(offer -> {
-                    OtcOfferDto dto = otcOfferMapper.toDto(offer, userId);
-
-                    boolean canInteract = !offer.getLastModifiedById().equals(userId);
-                    dto.setCanInteract(canInteract);
+                .toList();
 
-                    Long nameUserId;
-                    if (canInteract) {
-                        nameUserId = offer.getLastModifiedById(); // Onaj koji je poslednji slao
-                    } else {
-                        nameUserId = userId.equals(offer.getBuyerId()) ? offer.getSellerId() : offer.getBuyerId(); // druga strana
-                    }
+        // imena svih drugih strana jednim pozivom ka user-service
+        Map<Long, String> names = resolveUserNames(offers.stream().map(offer -> nameUserId(offer, userId)).toList());
 
-                    dto.setName(resolveUserName(nameUserId));
+        return offers.stream()
+                .map(offer -> {
+                    OtcOfferDto dto = otcOfferMapper.toDto(offer, userId);
+                    dto.setCanInteract(!offer.getLastModifiedById().equals(userId));
+                    dto.setName(names.getOrDefault(nameUserId(offer, userId), "Unknown User"));
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    private Long nameUserId(OtcOffer offer, Long userId) {
+        if (!offer.getLastModifiedById().equals(userId)) {
+            return offer.getLastModifiedById(); // Onaj koji je poslednji slao
+        }
+        return userId.equals(offer.getBuyerId()) ? offer.getSellerId() : offer.getBuyerId(); // druga strana
+    }
+
     @Transactional
     public void acceptOffer(Long offerId, Long userId) {
         OtcOffer offer = otcOfferRepository.findById(offerId)
@@ -177,23 +182,12 @@ public class OtcService {
     }
 
 
-    private String resolveUserName(Long userId) {
+    private Map<Long, String> resolveUserNames(List<Long> userIds) {
         try {
-            ClientDto client = userClient.getClientById(userId);
-            return formatName(client.getFirstName(), client.getLastName());
-        } catch (Exception e1) {
-            try {
-                ActuaryDto actuary = userClient.getEmployeeById(userId);
-                return formatName(actuary.getFirstName(), actuary.getLastName());
-            } catch (Exception e2) {
-                return "Unknown User";
-            }
+            return userClient.getUserNames(userIds);
+        } catch (Exception e) {
+            return Collections.emptyMap();
         }
     }
-
-    private String formatName(String firstName, String lastName) {
-        if (firstName == null && lastName == null) return "Unknown User";
-        return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
-    }
 }
 
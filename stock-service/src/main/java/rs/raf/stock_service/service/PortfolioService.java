@@ -145,17 +145,13 @@ public class PortfolioService {
                 .findAllByTypeAndPublicAmountGreaterThan(ListingType.STOCK, 0);
 
 
+        // vlasnici svih javnih pozicija jednim pozivom ka user-service
+        Map<Long, String> ownerNames = userClient.getUserNames(publicEntries.stream().map(PortfolioEntry::getUserId).toList());
+
         return publicEntries.stream().map(entry -> {
             Listing listing = entry.getListing();
 
-            String ownerName;
-            try {
-                ClientDto client = userClient.getClientById(entry.getUserId());
-                ownerName = client.getFirstName() + " " + client.getLastName();
-            } catch (Exception e) {
-                ActuaryDto actuary = userClient.getEmployeeById(entry.getUserId());
-                ownerName = actuary.getFirstName() + " " + actuary.getLastName();
-            }
+            String ownerName = ownerNames.getOrDefault(entry.getUserId(), "Unknown User");
 
             BigDecimal currentPrice = listing.getPrice() != null ? listing.getPrice() : BigDecimal.ZERO;
 
@@ -11,6 +11,7 @@ import rs.raf.stock_service.domain.enums.TaxStatus;
 import rs.raf.stock_service.repository.OrderRepository;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -25,37 +26,69 @@ public class TaxService {
 
     public List<UserTaxDto> getTaxes(String name, String surname, String role) {
         List<UserTaxDto> userTaxDtos = userClient.getAgentsAndClients(name, surname, role);
+
+        // iznosi idu ka banci u delovima od najvise MAX_CONVERT_BATCH_SIZE: za svakog korisnika [neplaceno ovog meseca, placeno ove godine]
+        List<ConvertDto> convertDtos = new ArrayList<>(userTaxDtos.size() * 2);
         for (UserTaxDto userTaxDto : userTaxDtos) {
             TaxGetResponseDto taxForUser = portfolioService.getUserTaxes(userTaxDto.getId());
-            userTaxDto.setUnpaidTaxThisMonth(bankClient.convert(new ConvertDto("USD", "RSD", taxForUser.getUnpaidForThisMonth())));
-            userTaxDto.setPaidTaxThisYear(bankClient.convert(new ConvertDto("USD", "RSD", taxForUser.getPaidForThisYear())));
+            convertDtos.add(new ConvertDto("USD", "RSD", taxForUser.getUnpaidForThisMonth()));
+            convertDtos.add(new ConvertDto("USD", "RSD", taxForUser.getPaidForThisYear()));
+        }
+
+        List<BigDecimal> converted = bankClient.convertAll(convertDtos);
+        if (converted == null)
+            return userTaxDtos;
+
+        for (int i = 0; i < userTaxDtos.size(); i++) {
+            userTaxDtos.get(i).setUnpaidTaxThisMonth(converted.get(i * 2));
+            userTaxDtos.get(i).setPaidTaxThisYear(converted.get(i * 2 + 1));
         }
         return userTaxDtos;
     }
 
     //@Scheduled(cron = "0 0 0 * * *")
     public void processTaxes() {
+        List<Order> pendingOrders = new ArrayList<>();
+        List<AccountDetailsDto> accountDetails = new ArrayList<>();
+        List<ConvertDto> convertDtos = new ArrayList<>();
+
         for (Order order : orderRepository.findAll()) {
             if (order.getTaxAmount() != null && order.getTaxStatus().equals(TaxStatus.PENDING)) {
                 AccountDetailsDto accountDetailsDto = bankClient.getAccountDetails(order.getAccountNumber());
-                BigDecimal taxAmount;
-                if (!accountDetailsDto.getCurrencyCode().equals("USD")) {
-                    ConvertDto convertDto = new ConvertDto("USD", accountDetailsDto.getCurrencyCode(), order.getTaxAmount());
-                    taxAmount = bankClient.convert(convertDto);
-                } else
-                    taxAmount = order.getTaxAmount();
-
-                if (accountDetailsDto.getBalance().compareTo(taxAmount) >= 0) {
-                    TaxDto taxDto = new TaxDto();
-                    taxDto.setAmount(taxAmount);
-                    taxDto.setClientId(order.getUserId());
-                    taxDto.setSenderAccountNumber(order.getAccountNumber());
-                    order.setTaxStatus(TaxStatus.PAID);
-                    orderRepository.save(order);
-                    bankClient.handleTax(taxDto);
-                } else {
-                    System.out.println("Not enough funds to pay taxes for account: " + order.getAccountNumber());
-                }
+                pendingOrders.add(order);
+                accountDetails.add(accountDetailsDto);
+                if (!accountDetailsDto.getCurrencyCode().equals("USD"))
+                    convertDtos.add(new ConvertDto("USD", accountDetailsDto.getCurrencyCode(), order.getTaxAmount()));
+            }
+        }
+
+        // konverzije poreza u valutu racuna, u delovima od najvise MAX_CONVERT_BATCH_SIZE
+        List<BigDecimal> converted = bankClient.convertAll(convertDtos);
+        if (converted == null) {
+            log.error("Tax conversion failed, skipping tax processing");
+            return;
+        }
+
+        int convertedIndex = 0;
+        for (int i = 0; i < pendingOrders.size(); i++) {
+            Order order = pendingOrders.get(i);
+            AccountDetailsDto accountDetailsDto = accountDetails.get(i);
+            BigDecimal taxAmount;
+            if (!accountDetailsDto.getCurrencyCode().equals("USD"))
+                taxAmount = converted.get(convertedIndex++);
+            else
+                taxAmount = order.getTaxAmount();
+
+            if (accountDetailsDto.getBalance().compareTo(taxAmount) >= 0) {
+                TaxDto taxDto = new TaxDto();
+                taxDto.setAmount(taxAmount);
+                taxDto.setClientId(order.getUserId());
+                taxDto.setSenderAccountNumber(order.getAccountNumber());
+                order.setTaxStatus(TaxStatus.PAID);
+                orderRepository.save(order);
+                bankClient.handleTax(taxDto);
+            } else {
+                log.warn("Not enough funds to pay taxes for account: {}", order.getAccountNumber());
             }
         }
     }
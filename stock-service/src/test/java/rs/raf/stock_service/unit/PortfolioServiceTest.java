@@ -6,7 +6,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import rs.raf.stock_service.client.UserClient;
-import rs.raf.stock_service.domain.dto.ClientDto;
 import rs.raf.stock_service.domain.dto.UseOptionDto;
 import rs.raf.stock_service.domain.dto.PortfolioEntryDto;
 import rs.raf.stock_service.domain.dto.PublicStockDto;
@@ -32,6 +31,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -336,12 +336,7 @@ public class PortfolioServiceTest {
         when(portfolioEntryRepository.findAllByTypeAndPublicAmountGreaterThan(ListingType.STOCK, 0))
                 .thenReturn(List.of(entry));
 
-        ClientDto clientDto = ClientDto.builder()
-                .firstName("Marko")
-                .lastName("Markovic")
-                .build();
-
-        when(userClient.getClientById(userId)).thenReturn(clientDto);
+        when(userClient.getUserNames(List.of(userId))).thenReturn(Map.of(userId, "Marko Markovic"));
 
         List<PublicStockDto> result = portfolioService.getAllPublicStocks();
 
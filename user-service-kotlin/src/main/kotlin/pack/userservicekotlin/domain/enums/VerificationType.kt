@@ -7,4 +7,5 @@ enum class VerificationType {
     TRANSFER,
     CHANGE_LIMIT,
     CARD_REQUEST,
+    BULK_PAYMENT,
 }
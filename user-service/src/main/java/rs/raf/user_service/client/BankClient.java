@@ -31,4 +31,10 @@ public interface BankClient {
     @PutMapping("/api/account/1/cards/reject/{id}")
     void rejectApproveCardRequest(@PathVariable("id") Long id);//
 
+    @PostMapping("/api/payment/bulk/confirm/{id}")
+    void confirmBulkPayment(@PathVariable("id") Long id);
+
+    @PostMapping("/api/payment/bulk/reject/{id}")
+    void rejectBulkPayment(@PathVariable("id") Long id);
+
 }
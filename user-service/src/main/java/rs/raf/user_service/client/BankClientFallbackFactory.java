@@ -47,6 +47,16 @@ public class BankClientFallbackFactory implements FallbackFactory<BankClient> {
             public void rejectApproveCardRequest(Long id) {
                 throw new RuntimeException("Unable to communicate with Bank Service");
             }
+
+            @Override
+            public void confirmBulkPayment(Long id) {
+                throw new RuntimeException("Unable to communicate with Bank Service");
+            }
+
+            @Override
+            public void rejectBulkPayment(Long id) {
+                throw new RuntimeException("Unable to communicate with Bank Service");
+            }
         };
     }
 }
@@ -1,17 +1,58 @@
 package rs.raf.user_service.configuration;
 
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
+    public static final String USER_EVENTS_EXCHANGE = "user-events";
+    // bank-service ovde salje zahteve za verifikaciju (placanja, transferi, limiti, kartice)
+    public static final String VERIFICATION_REQUEST_QUEUE = "verification-requests";
+
+    @Bean
+    public FanoutExchange userEventsExchange() {
+        return new FanoutExchange(USER_EVENTS_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue verificationRequestQueue() {
+        return new Queue(VERIFICATION_REQUEST_QUEUE, true);
+    }
+
+    // batch listener - do batch-size poruka se upisuje jednom transakcijom, nepun batch se predaje posle receive-timeout-ms
+    @Bean
+    public SimpleRabbitListenerContainerFactory verificationRequestListenerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${verification.listener.batch-size:100}") int batchSize,
+            @Value("${verification.listener.receive-timeout-ms:50}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        return factory;
+    }
+
+    // isti converter koristi i OutboxService pri upisu poruka u outbox
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+        rabbitTemplate.setMessageConverter(jsonMessageConverter());
         return rabbitTemplate;
     }
 }
@@ -14,6 +14,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
+import rs.raf.user_service.domain.dto.UserBatchDto;
+import rs.raf.user_service.domain.dto.UserBatchRequestDto;
 import rs.raf.user_service.domain.dto.UserDto;
 import rs.raf.user_service.service.UserService;
 import javax.validation.Valid;
@@ -36,6 +38,15 @@ public class UserController {
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(userService.listUsers(pageable));
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/batch")
+    @Operation(summary = "Get clients and employees by ids", description = "Resolves up to 1000 user ids in one call. Unknown ids are omitted.")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Users retrieved successfully")})
+    public ResponseEntity<UserBatchDto> getUsersByIds(@RequestBody @Valid UserBatchRequestDto request) {
+        return ResponseEntity.ok(userService.getUsersByIds(request.getIds()));
+    }
+
     //Ne koristiti, setovanje role-a za zaposlenog je prebaceno u update employee. Klijent nam jos uvek nema setovanje role, uvek je CLIENT
     //Verovatno ce biti obrisano
     @PreAuthorize("hasRole('ADMIN')")
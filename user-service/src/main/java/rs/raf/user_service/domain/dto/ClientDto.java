@@ -22,4 +22,11 @@ public class ClientDto {
     private Date birthDate;
     private String jmbg;
     private String username;
+    // verzija klijenta u trenutku citanja, videti BaseUser.version
+    private Long version;
+
+    public ClientDto(Long id, String firstName, String lastName, String email, String address, String phone,
+                     String gender, Date birthDate, String jmbg, String username) {
+        this(id, firstName, lastName, email, address, phone, gender, birthDate, jmbg, username, null);
+    }
 }
@@ -0,0 +1,19 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// Odgovor na batch upit: id-jevi koji ne postoje se samo izostavljaju
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchDto {
+    private List<ClientDto> clients = new ArrayList<>();
+    private List<EmployeeDto> employees = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchRequestDto {
+    @NotNull
+    // klijenti (bank-service, stock-service UserClient.MAX_BATCH_IDS) dele zahteve po ovoj granici
+    @Size(max = 1000)
+    private Set<Long> ids;
+}
@@ -0,0 +1,23 @@
+package rs.raf.user_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import rs.raf.user_service.domain.enums.UserEntityType;
+
+/// Objavljuje se na user-events exchange kad se entitet izmeni ili obrise, da bi ostali servisi izbacili kesirane kopije
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangedEventDto {
+    private UserEntityType type;
+    private Long id;
+    // ime i prezime posle izmene (prazno kod brisanja), koristi ih bank-service za account_owners
+    private String firstName;
+    private String lastName;
+    private boolean deleted;
+    // BaseUser.version posle izmene (null kod brisanja i za entitete bez verzije); primalac odbacuje starije izmene
+    private Long version;
+}
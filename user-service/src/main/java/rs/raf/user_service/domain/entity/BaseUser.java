@@ -59,6 +59,10 @@ public abstract class BaseUser {
     @JoinColumn(name = "role_id")
     private Role role;
 
+    // raste pri svakoj izmeni; salje se u user-events i batch odgovoru da bi drugi servisi odbacili zastarele kopije
+    @Version
+    private Long version;
+
     public BaseUser(String firstName, String lastName, Date birthDate, String gender, String email, String phone,
                     String address, String jmbg, String username, Role role) {
         this.username = username;
@@ -11,6 +11,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_verification_request_target", columnList = "targetId, verificationType"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -6,5 +6,6 @@ public enum VerificationType {
     PAYMENT,
     TRANSFER,
     CHANGE_LIMIT,
-    CARD_REQUEST
+    CARD_REQUEST,
+    BULK_PAYMENT
 }
@@ -13,7 +13,7 @@ public class ClientMapper {
     // ✅ Mapiranje iz Client u ClientDTO (sa svim poljima)
     public ClientDto toDto(Client client) {
         if (client == null) return null;
-        return new ClientDto(
+        ClientDto dto = new ClientDto(
                 client.getId(),
                 client.getFirstName(),
                 client.getLastName(),
@@ -25,6 +25,8 @@ public class ClientMapper {
                 client.getJmbg(),
                 client.getUsername()
         );
+        dto.setVersion(client.getVersion());
+        return dto;
     }
 
     // ✅ Mapiranje iz ClientDTO u Client
@@ -4,7 +4,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import rs.raf.user_service.domain.entity.VerificationRequest;
+import rs.raf.user_service.domain.enums.VerificationType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,5 +21,15 @@ public interface VerificationRequestRepository extends JpaRepository<Verificatio
     @Query("SELECT v FROM VerificationRequest v WHERE v.id = :id AND v.userId = :userId AND v.status = 'PENDING' AND v.expirationTime > CURRENT_TIMESTAMP")
     Optional<VerificationRequest> findActiveRequest(@Param("id") Long id, @Param("userId") Long userId);
 
+    // (tip, targetId) vec upisanih zahteva - ponovljene poruke iz verification-requests reda se preskacu
+    @Query("SELECT v.verificationType AS verificationType, v.targetId AS targetId FROM VerificationRequest v WHERE v.targetId IN :targetIds")
+    List<VerificationTarget> findTargetsByTargetIdIn(@Param("targetIds") Collection<Long> targetIds);
+
+    interface VerificationTarget {
+        VerificationType getVerificationType();
+
+        Long getTargetId();
+    }
+
 }
 
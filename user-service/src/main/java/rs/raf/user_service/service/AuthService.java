@@ -1,8 +1,8 @@
 package rs.raf.user_service.service;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.dto.EmailRequestDto;
 import rs.raf.user_service.domain.entity.*;
 import rs.raf.user_service.repository.AuthTokenRepository;
@@ -25,16 +25,16 @@ public class AuthService {
     private final EmployeeRepository employeeRepository;
     private final UserRepository userRepository;
     private final AuthTokenRepository authTokenRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
 
     public AuthService(PasswordEncoder passwordEncoder, JwtTokenUtil jwtTokenUtil, ClientRepository clientRepository, EmployeeRepository employeeRepository,
-                       AuthTokenRepository authTokenRepository, RabbitTemplate rabbitTemplate, UserRepository userRepository) {
+                       AuthTokenRepository authTokenRepository, OutboxService outboxService, UserRepository userRepository) {
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenUtil = jwtTokenUtil;
         this.clientRepository = clientRepository;
         this.employeeRepository = employeeRepository;
         this.authTokenRepository = authTokenRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
         this.userRepository = userRepository;
     }
 
@@ -56,12 +56,14 @@ public class AuthService {
         return jwtTokenUtil.generateToken(user.getEmail(), user.getId(), user.getRole().getName());
     }
 
+    // token i mejl za reset se commit-uju zajedno
+    @Transactional
     public void requestPasswordReset(String email) {
         BaseUser user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
 
         UUID token = UUID.fromString(UUID.randomUUID().toString());
         EmailRequestDto emailRequestDto = new EmailRequestDto(token.toString(), email);
-        rabbitTemplate.convertAndSend("reset-password", emailRequestDto);
+        outboxService.enqueue("reset-password", emailRequestDto);
 
         Long createdAt = Instant.now().toEpochMilli();
         Long expiresAt = createdAt + 86400000;//24h
@@ -2,10 +2,14 @@ package rs.raf.user_service.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.user_service.configuration.RabbitMQConfig;
 import rs.raf.user_service.domain.dto.AuthorizedPersonelDto;
 import rs.raf.user_service.domain.dto.CreateAuthorizedPersonelDto;
+import rs.raf.user_service.domain.dto.UserChangedEventDto;
 import rs.raf.user_service.domain.entity.AuthorizedPersonel;
 import rs.raf.user_service.domain.entity.Company;
+import rs.raf.user_service.domain.enums.UserEntityType;
 import rs.raf.user_service.domain.mapper.AuthorizedPersonelMapper;
 import rs.raf.user_service.repository.AuthorizedPersonelRepository;
 import rs.raf.user_service.repository.CompanyRepository;
@@ -21,6 +25,7 @@ public class AuthorizedPersonelService {
     private final AuthorizedPersonelRepository authorizedPersonelRepository;
     private final CompanyRepository companyRepository;
     private final AuthorizedPersonelMapper authorizedPersonelMapper;
+    private final OutboxService outboxService;
 
     /**
      * Create a new AuthorizedPersonel
@@ -76,6 +81,7 @@ public class AuthorizedPersonelService {
      * @param updateDto DTO containing the updated data
      * @return DTO of the updated AuthorizedPersonel
      */
+    @Transactional
     public AuthorizedPersonelDto updateAuthorizedPersonel(Long id, CreateAuthorizedPersonelDto updateDto) {
         AuthorizedPersonel authorizedPersonel = authorizedPersonelRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Authorized personnel not found with id: " + id));
@@ -94,6 +100,7 @@ public class AuthorizedPersonelService {
         authorizedPersonel.setCompany(company);
 
         authorizedPersonel = authorizedPersonelRepository.save(authorizedPersonel);
+        publishAuthorizedPersonelChanged(id);
         return authorizedPersonelMapper.toDto(authorizedPersonel);
     }
 
@@ -102,10 +109,17 @@ public class AuthorizedPersonelService {
      *
      * @param id ID of the AuthorizedPersonel to delete
      */
+    @Transactional
     public void deleteAuthorizedPersonel(Long id) {
         if (!authorizedPersonelRepository.existsById(id)) {
             throw new EntityNotFoundException("Authorized personnel not found with id: " + id);
         }
         authorizedPersonelRepository.deleteById(id);
+        publishAuthorizedPersonelChanged(id);
+    }
+
+    private void publishAuthorizedPersonelChanged(Long id) {
+        outboxService.enqueue(RabbitMQConfig.USER_EVENTS_EXCHANGE, "",
+                new UserChangedEventDto(UserEntityType.AUTHORIZED_PERSONNEL, id, null, null, false, null));
     }
 }
@@ -1,7 +1,6 @@
 package rs.raf.user_service.service;
 
 import lombok.AllArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -9,12 +8,16 @@ import org.springframework.data.jpa.domain.Specification;
 
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.dto.ClientDto;
 import rs.raf.user_service.domain.dto.CreateClientDto;
 import rs.raf.user_service.domain.dto.EmailRequestDto;
+import rs.raf.user_service.configuration.RabbitMQConfig;
 import rs.raf.user_service.domain.dto.UpdateClientDto;
+import rs.raf.user_service.domain.dto.UserChangedEventDto;
 import rs.raf.user_service.domain.entity.AuthToken;
 import rs.raf.user_service.domain.entity.Client;
+import rs.raf.user_service.domain.enums.UserEntityType;
 import rs.raf.user_service.exceptions.EmailAlreadyExistsException;
 import rs.raf.user_service.exceptions.JmbgAlreadyExistsException;
 import rs.raf.user_service.exceptions.UserAlreadyExistsException;
@@ -39,7 +42,7 @@ public class ClientService {
     private final ClientMapper clientMapper;
     private final UserRepository userRepository;
     private final AuthTokenRepository authTokenRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final RoleRepository roleRepository;
 
     public Page<ClientDto> listClients(Pageable pageable) {
@@ -55,6 +58,8 @@ public class ClientService {
         return clientMapper.toDto(client);
     }
 
+    // klijent, token i poruke se commit-uju zajedno - nema mejla za klijenta koji nije sacuvan
+    @Transactional
     public ClientDto addClient(CreateClientDto createClientDto) {
         Client client = clientMapper.fromCreateDto(createClientDto);
         client.setPassword("");
@@ -68,12 +73,13 @@ public class ClientService {
             throw new JmbgAlreadyExistsException();
         try {
             Client savedClient = clientRepository.save(client);
+            publishClientChanged(savedClient);
 
             UUID token = UUID.fromString(UUID.randomUUID().toString());
             EmailRequestDto emailRequestDto = new EmailRequestDto(token.toString(), client.getEmail());
 
 
-            rabbitTemplate.convertAndSend("set-password", emailRequestDto);
+            outboxService.enqueue("set-password", emailRequestDto);
 
 
             Long createdAt = Instant.now().toEpochMilli();
@@ -89,6 +95,7 @@ public class ClientService {
     }
 
     // Ažuriranje samo dozvoljenih polja (email i druge vrednosti se ne diraju)
+    @Transactional
     public ClientDto updateClient(Long id, UpdateClientDto updateClientDto) {
         Client existingClient = clientRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Client not found with ID: " + id));
@@ -98,8 +105,10 @@ public class ClientService {
         existingClient.setPhone(updateClientDto.getPhone());
         existingClient.setGender(updateClientDto.getGender());
 
-        Client updatedClient = clientRepository.save(existingClient);
+        // flush odmah podize verziju, da bi poruka o izmeni nosila novu
+        Client updatedClient = clientRepository.saveAndFlush(existingClient);
         System.out.println("[updateClient] Klijent ažuriran: " + updatedClient);
+        publishClientChanged(updatedClient);
 
         return clientMapper.toDto(updatedClient);
     }
@@ -114,12 +123,22 @@ public class ClientService {
         return clientsPage.map(clientMapper::toDto);
     }
 
+    @Transactional
     public void deleteClient(Long id) {
         if (!clientRepository.existsById(id)) {
             throw new NoSuchElementException("Client not found with ID: " + id);
         }
         clientRepository.deleteById(id);
         System.out.println("[deleteClient] Klijent sa ID " + id + " uspešno obrisan.");
+        outboxService.enqueue(RabbitMQConfig.USER_EVENTS_EXCHANGE, "",
+                new UserChangedEventDto(UserEntityType.CLIENT, id, null, null, true, null));
+    }
+
+    // bank-service kesira klijente i cuva njihova imena za pretragu racuna, pa ga obavestavamo o svakoj izmeni
+    private void publishClientChanged(Client client) {
+        outboxService.enqueue(RabbitMQConfig.USER_EVENTS_EXCHANGE, "",
+                new UserChangedEventDto(UserEntityType.CLIENT, client.getId(), client.getFirstName(), client.getLastName(), false,
+                        client.getVersion()));
     }
 
     public ClientDto findByEmail(String email) {
@@ -5,12 +5,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import lombok.AllArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.domain.dto.CreateEmployeeDto;
 import rs.raf.user_service.domain.dto.EmailRequestDto;
 import rs.raf.user_service.domain.dto.EmployeeDto;
@@ -37,7 +36,7 @@ public class EmployeeService {
     private final EmployeeRepository employeeRepository;
     private final UserRepository userRepository;
     private final AuthTokenRepository authTokenRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
     private final RoleRepository roleRepository;
     private final ActuaryLimitRepository actuaryLimitRepository;
 
@@ -110,6 +109,7 @@ public class EmployeeService {
             @ApiResponse(responseCode = "201", description = "Employee created successfully"),
             @ApiResponse(responseCode = "400", description = "Employee username or email already exists")
     })
+    @Transactional
     public EmployeeDto createEmployee(CreateEmployeeDto createEmployeeDTO) throws EmailAlreadyExistsException {
         if (userRepository.existsByEmail(createEmployeeDTO.getEmail()))
             throw new EmailAlreadyExistsException();
@@ -128,7 +128,7 @@ public class EmployeeService {
         EmailRequestDto emailRequestDto = new EmailRequestDto(token.toString(), employee.getEmail());
 
 
-        rabbitTemplate.convertAndSend("set-password", emailRequestDto);
+        outboxService.enqueue("set-password", emailRequestDto);
 
 
         Long createdAt = Instant.now().toEpochMilli();
@@ -5,11 +5,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
+import rs.raf.user_service.domain.dto.UserBatchDto;
 import rs.raf.user_service.domain.dto.UserDto;
 import rs.raf.user_service.domain.entity.ActuaryLimit;
 import rs.raf.user_service.domain.entity.BaseUser;
+import rs.raf.user_service.domain.entity.Client;
 import rs.raf.user_service.domain.entity.Employee;
 import rs.raf.user_service.domain.entity.Role;
+import rs.raf.user_service.domain.mapper.ClientMapper;
+import rs.raf.user_service.domain.mapper.EmployeeMapper;
 import rs.raf.user_service.domain.mapper.UserMapper;
 import rs.raf.user_service.exceptions.ClientCannotBeAgentException;
 import rs.raf.user_service.repository.ActuaryLimitRepository;
@@ -17,6 +21,7 @@ import rs.raf.user_service.repository.PermissionRepository;
 import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import java.math.BigDecimal;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
@@ -26,6 +31,7 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
     private ActuaryLimitRepository actuaryLimitRepository;
+    private ClientMapper clientMapper;
 
     public String getUserRole(Long userId) {
         BaseUser user = userRepository.findById(userId)
@@ -66,4 +72,19 @@ public class UserService {
         return userRepository.findAll(pageable)
                 .map(UserMapper::toDto);
     }
+
+    /// Klijenti i zaposleni su u istoj tabeli (users), pa se svi id-jevi citaju jednim upitom
+    public UserBatchDto getUsersByIds(Set<Long> ids) {
+        UserBatchDto result = new UserBatchDto();
+        if (ids == null || ids.isEmpty())
+            return result;
+
+        for (BaseUser user : userRepository.findAllById(ids)) {
+            if (user instanceof Client client)
+                result.getClients().add(clientMapper.toDto(client));
+            else if (user instanceof Employee employee)
+                result.getEmployees().add(EmployeeMapper.toDto(employee));
+        }
+        return result;
+    }
 }
@@ -2,9 +2,14 @@ package rs.raf.user_service.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.user_service.client.BankClient;
+import rs.raf.user_service.configuration.RabbitMQConfig;
 import rs.raf.user_service.domain.dto.CardRequestDto;
 import rs.raf.user_service.domain.dto.CreateVerificationRequestDto;
 import rs.raf.user_service.domain.entity.VerificationRequest;
@@ -16,9 +21,12 @@ import rs.raf.user_service.repository.VerificationRequestRepository;
 import rs.raf.user_service.utils.JwtTokenUtil;
 
 import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
+@Slf4j
 @AllArgsConstructor
 @Service
 public class VerificationRequestService {
@@ -29,7 +37,36 @@ public class VerificationRequestService {
 
 
     public void createVerificationRequest(CreateVerificationRequestDto createVerificationRequestDto) {
-        VerificationRequest request = VerificationRequest.builder()
+        verificationRequestRepository.save(toPendingRequest(createVerificationRequestDto));
+    }
+
+    /// Zahtevi koje bank-service salje preko verification-requests reda, upisuju se batch-om u jednoj transakciji.
+    /// Isporuka je at-least-once, pa se zahtev za vec postojeci (tip, targetId) preskace.
+    @RabbitListener(queues = RabbitMQConfig.VERIFICATION_REQUEST_QUEUE, containerFactory = "verificationRequestListenerFactory")
+    @Transactional
+    public void createVerificationRequests(List<Message> messages) {
+        Map<String, CreateVerificationRequestDto> requests = new LinkedHashMap<>();
+        for (Message message : messages) {
+            try {
+                CreateVerificationRequestDto dto = objectMapper.readValue(message.getBody(), CreateVerificationRequestDto.class);
+                requests.putIfAbsent(targetKey(dto.getVerificationType(), dto.getTargetId()), dto);
+            } catch (IOException e) {
+                // neispravna poruka bi se inace vracala u red zajedno sa celim batch-om
+                log.error("Dropping unreadable verification request message: {}", e.getMessage());
+            }
+        }
+        if (requests.isEmpty())
+            return;
+
+        Set<Long> targetIds = requests.values().stream().map(CreateVerificationRequestDto::getTargetId).collect(Collectors.toSet());
+        verificationRequestRepository.findTargetsByTargetIdIn(targetIds)
+                .forEach(target -> requests.remove(targetKey(target.getVerificationType(), target.getTargetId())));
+
+        verificationRequestRepository.saveAll(requests.values().stream().map(this::toPendingRequest).toList());
+    }
+
+    private VerificationRequest toPendingRequest(CreateVerificationRequestDto createVerificationRequestDto) {
+        return VerificationRequest.builder()
                 .userId(createVerificationRequestDto.getUserId())
                 .targetId(createVerificationRequestDto.getTargetId())
                 .status(VerificationStatus.PENDING)
@@ -37,8 +74,10 @@ public class VerificationRequestService {
                 .expirationTime(LocalDateTime.now().plusMinutes(5))
                 .details(createVerificationRequestDto.getDetails())
                 .build();
+    }
 
-        verificationRequestRepository.save(request);
+    private static String targetKey(VerificationType type, Long targetId) {
+        return type + ":" + targetId;
     }
 
 
@@ -72,6 +111,7 @@ public class VerificationRequestService {
             case PAYMENT -> bankClient.confirmPayment(request.getTargetId());//radi
             case TRANSFER -> bankClient.confirmTransfer(request.getTargetId());
             case CARD_REQUEST -> bankClient.approveCardRequest(request.getTargetId());//radi
+            case BULK_PAYMENT -> bankClient.confirmBulkPayment(request.getTargetId());
         }
 
         return true;
@@ -95,6 +135,7 @@ public class VerificationRequestService {
             case PAYMENT -> bankClient.rejectConfirmPayment(request.getTargetId());
             case TRANSFER -> bankClient.rejectConfirmTransfer(request.getTargetId());
             case CARD_REQUEST -> bankClient.rejectApproveCardRequest(request.getTargetId());
+            case BULK_PAYMENT -> bankClient.rejectBulkPayment(request.getTargetId());
         }
     }
 
@@ -6,7 +6,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import rs.raf.user_service.domain.dto.EmailRequestDto;
 import rs.raf.user_service.domain.entity.*;
@@ -15,6 +14,7 @@ import rs.raf.user_service.repository.ClientRepository;
 import rs.raf.user_service.repository.EmployeeRepository;
 import rs.raf.user_service.repository.UserRepository;
 import rs.raf.user_service.service.AuthService;
+import rs.raf.user_service.service.OutboxService;
 import rs.raf.user_service.utils.JwtTokenUtil;
 
 import java.time.Instant;
@@ -42,7 +42,7 @@ public class AuthServiceTest {
     private AuthTokenRepository authTokenRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
 
     @Mock
     private UserRepository userRepository;
@@ -189,7 +189,7 @@ public class AuthServiceTest {
         authService.requestPasswordReset(email);
 
         verify(authTokenRepository).save(any(AuthToken.class));
-        verify(rabbitTemplate).convertAndSend(eq("reset-password"), any(EmailRequestDto.class));
+        verify(outboxService).enqueue(eq("reset-password"), any(EmailRequestDto.class));
     }
 
     @Test
@@ -13,6 +13,7 @@ import rs.raf.user_service.domain.mapper.AuthorizedPersonelMapper;
 import rs.raf.user_service.repository.AuthorizedPersonelRepository;
 import rs.raf.user_service.repository.CompanyRepository;
 import rs.raf.user_service.service.AuthorizedPersonelService;
+import rs.raf.user_service.service.OutboxService;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDate;
@@ -34,6 +35,9 @@ class AuthorizedPersonelServiceTest {
     @Mock
     private AuthorizedPersonelMapper authorizedPersonelMapper;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private AuthorizedPersonelService authorizedPersonelService;
 
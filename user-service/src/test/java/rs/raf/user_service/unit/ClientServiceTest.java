@@ -6,7 +6,6 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +24,7 @@ import rs.raf.user_service.repository.ClientRepository;
 import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import rs.raf.user_service.service.ClientService;
+import rs.raf.user_service.service.OutboxService;
 
 import javax.persistence.EntityNotFoundException;
 import java.text.ParseException;
@@ -57,7 +57,7 @@ public class ClientServiceTest {
     private AuthTokenRepository authTokenRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
 
     @InjectMocks
     private ClientService clientService;
@@ -133,7 +133,7 @@ public class ClientServiceTest {
         when(clientRepository.save(client)).thenReturn(client);
         when(clientMapper.toDto(client)).thenReturn(expectedDTO);
         when(clientRepository.findByJmbg(any())).thenReturn(Optional.empty());
-        doNothing().when(rabbitTemplate).convertAndSend(eq("set-password"), any(EmailRequestDto.class));
+        doNothing().when(outboxService).enqueue(eq("set-password"), any(EmailRequestDto.class));
         when(authTokenRepository.save(any())).thenReturn(null);
         when(roleRepository.findByName(any())).thenReturn(Optional.of(expectedRole));
 
@@ -144,7 +144,7 @@ public class ClientServiceTest {
         assertEquals("Petrović", result.getLastName());
         assertEquals("mihailo@example.com", result.getEmail());
 
-        verify(rabbitTemplate).convertAndSend(eq("set-password"), any(EmailRequestDto.class));
+        verify(outboxService).enqueue(eq("set-password"), any(EmailRequestDto.class));
         verify(authTokenRepository).save(any());
     }
 
@@ -181,7 +181,7 @@ public class ClientServiceTest {
             clientMapper.fromUpdateDto(updateClientDTO, existingClient);
             return null;
         }).when(clientMapper).fromUpdateDto(any(UpdateClientDto.class), any(Client.class));
-        when(clientRepository.save(existingClient)).thenReturn(updatedClient);
+        when(clientRepository.saveAndFlush(existingClient)).thenReturn(updatedClient);
         when(clientMapper.toDto(updatedClient)).thenReturn(expectedDTO);
 
         ClientDto result = clientService.updateClient(1L, updateClientDTO);
@@ -6,7 +6,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +26,7 @@ import rs.raf.user_service.repository.EmployeeRepository;
 import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import rs.raf.user_service.service.EmployeeService;
+import rs.raf.user_service.service.OutboxService;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.*;
@@ -44,7 +44,7 @@ class EmployeeServiceTest {
     @Mock
     private AuthTokenRepository authTokenRepository;
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
     @Mock
     private RoleRepository roleRepository;
 
@@ -438,12 +438,12 @@ class EmployeeServiceTest {
         });
         when(authTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        doNothing().when(rabbitTemplate).convertAndSend(eq("set-password"), any(Object.class));
+        doNothing().when(outboxService).enqueue(eq("set-password"), any(Object.class));
 
         EmployeeDto result = employeeService.createEmployee(dto);
 
         assertNotNull(result);
-        verify(rabbitTemplate, times(1)).convertAndSend(eq("set-password"), any(Object.class));
+        verify(outboxService, times(1)).enqueue(eq("set-password"), any(Object.class));
         verify(authTokenRepository, times(1)).save(any());
     }
 
@@ -9,16 +9,22 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import rs.raf.user_service.domain.dto.ClientDto;
 import rs.raf.user_service.domain.dto.RoleRequestDto;
+import rs.raf.user_service.domain.dto.UserBatchDto;
+import rs.raf.user_service.domain.entity.Client;
 import rs.raf.user_service.domain.entity.Employee;
 import rs.raf.user_service.domain.entity.Role;
+import rs.raf.user_service.domain.mapper.ClientMapper;
 import rs.raf.user_service.repository.AuthTokenRepository;
 import rs.raf.user_service.repository.PermissionRepository;
 import rs.raf.user_service.repository.RoleRepository;
 import rs.raf.user_service.repository.UserRepository;
 import rs.raf.user_service.service.UserService;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,6 +47,9 @@ class UserServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private ClientMapper clientMapper;
+
     @InjectMocks
     private UserService userService;
 
@@ -232,4 +241,32 @@ class UserServiceTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void getUsersByIds_SplitsClientsAndEmployees() {
+        Client client = new Client();
+        client.setId(1L);
+        Employee employee = new Employee();
+        employee.setId(2L);
+        ClientDto clientDto = new ClientDto();
+        clientDto.setId(1L);
+
+        when(userRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(client, employee));
+        when(clientMapper.toDto(client)).thenReturn(clientDto);
+
+        UserBatchDto result = userService.getUsersByIds(Set.of(1L, 2L, 3L));
+
+        assertEquals(List.of(clientDto), result.getClients());
+        assertEquals(1, result.getEmployees().size());
+        assertEquals(2L, result.getEmployees().get(0).getId());
+    }
+
+    @Test
+    void getUsersByIds_EmptyIds_SkipsQuery() {
+        UserBatchDto result = userService.getUsersByIds(Set.of());
+
+        assertTrue(result.getClients().isEmpty());
+        assertTrue(result.getEmployees().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -1,13 +1,18 @@
 package rs.raf.user_service.unit;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import rs.raf.user_service.client.BankClient;
 import rs.raf.user_service.domain.dto.CreateVerificationRequestDto;
 import rs.raf.user_service.domain.entity.VerificationRequest;
@@ -19,10 +24,12 @@ import rs.raf.user_service.repository.VerificationRequestRepository;
 import rs.raf.user_service.service.VerificationRequestService;
 import rs.raf.user_service.utils.JwtTokenUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +44,9 @@ public class VerificationRequestServiceTest {
     @Mock
     private JwtTokenUtil jwtTokenUtil;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private VerificationRequestService verificationRequestService;
 
@@ -232,6 +242,41 @@ public class VerificationRequestServiceTest {
         verify(bankClient, times(1)).rejectChangeAccountLimit(request.getTargetId());
     }
 
+    @Test
+    void processApproval_BulkPayment_ConfirmsInBank() {
+        VerificationRequest request = pendingRequest(VerificationType.BULK_PAYMENT);
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(100L);
+        when(verificationRequestRepository.findActiveRequest(1L, 100L)).thenReturn(Optional.of(request));
+
+        assertTrue(verificationRequestService.processApproval(1L, "Bearer token"));
+
+        assertEquals(VerificationStatus.APPROVED, request.getStatus());
+        verify(bankClient).confirmBulkPayment(10L);
+        verify(bankClient, never()).confirmPayment(anyLong());
+    }
+
+    @Test
+    void testDenyVerificationRequest_BulkPayment_RejectsInBank() {
+        VerificationRequest request = pendingRequest(VerificationType.BULK_PAYMENT);
+        when(jwtTokenUtil.getUserIdFromAuthHeader("Bearer token")).thenReturn(100L);
+        when(verificationRequestRepository.findActiveRequest(1L, 100L)).thenReturn(Optional.of(request));
+
+        verificationRequestService.denyVerificationRequest(1L, "Bearer token");
+
+        assertEquals(VerificationStatus.DENIED, request.getStatus());
+        verify(bankClient).rejectBulkPayment(10L);
+    }
+
+    private VerificationRequest pendingRequest(VerificationType type) {
+        VerificationRequest request = new VerificationRequest();
+        request.setId(1L);
+        request.setUserId(100L);
+        request.setTargetId(10L);
+        request.setStatus(VerificationStatus.PENDING);
+        request.setVerificationType(type);
+        return request;
+    }
+
     @Test
     void testDenyVerificationRequest_NonPending_ThrowsException() {
         Long requestId = 2L;
@@ -274,4 +319,56 @@ public class VerificationRequestServiceTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void createVerificationRequests_savesBatchAsPending() throws Exception {
+        when(verificationRequestRepository.findTargetsByTargetIdIn(anyCollection())).thenReturn(List.of());
+
+        verificationRequestService.createVerificationRequests(List.of(
+                message(new CreateVerificationRequestDto(1L, 10L, VerificationType.PAYMENT, "{}")),
+                message(new CreateVerificationRequestDto(2L, 11L, VerificationType.TRANSFER, "{}"))));
+
+        List<VerificationRequest> saved = captureSaved();
+        assertEquals(2, saved.size());
+        assertTrue(saved.stream().allMatch(request -> request.getStatus() == VerificationStatus.PENDING
+                && request.getExpirationTime() != null));
+        assertEquals(10L, saved.get(0).getTargetId());
+        assertEquals(VerificationType.TRANSFER, saved.get(1).getVerificationType());
+    }
+
+    @Test
+    void createVerificationRequests_skipsRedeliveredAndDuplicateTargets() throws Exception {
+        VerificationRequestRepository.VerificationTarget existing = mock(VerificationRequestRepository.VerificationTarget.class);
+        when(existing.getVerificationType()).thenReturn(VerificationType.PAYMENT);
+        when(existing.getTargetId()).thenReturn(10L);
+        when(verificationRequestRepository.findTargetsByTargetIdIn(anyCollection())).thenReturn(List.of(existing));
+
+        verificationRequestService.createVerificationRequests(List.of(
+                message(new CreateVerificationRequestDto(1L, 10L, VerificationType.PAYMENT, "{}")),
+                message(new CreateVerificationRequestDto(1L, 10L, VerificationType.CARD_REQUEST, "{}")),
+                message(new CreateVerificationRequestDto(1L, 10L, VerificationType.CARD_REQUEST, "{}"))));
+
+        List<VerificationRequest> saved = captureSaved();
+        assertEquals(1, saved.size());
+        assertEquals(VerificationType.CARD_REQUEST, saved.get(0).getVerificationType());
+    }
+
+    @Test
+    void createVerificationRequests_dropsUnreadableMessage() {
+        verificationRequestService.createVerificationRequests(List.of(
+                new Message("not json".getBytes(StandardCharsets.UTF_8), new MessageProperties())));
+
+        verify(verificationRequestRepository, never()).saveAll(anyCollection());
+    }
+
+    private Message message(CreateVerificationRequestDto dto) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(dto), new MessageProperties());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<VerificationRequest> captureSaved() {
+        ArgumentCaptor<List<VerificationRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(verificationRequestRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}